@@ -0,0 +1,82 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderRange;
+import net.nikr.eve.jeveasset.data.profile.ProfileData;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserInput;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * OutbidProcesser with the public market orders for all the types of the owners orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OutbidBenchmark {
+
+	@Param({"10"})
+	public int owners;
+
+	@Param({"1000"})
+	public int orders;
+
+	/**
+	 * Public orders per owned order.
+	 */
+	@Param({"100"})
+	public int competitors;
+
+	private OutbidProcesserInput input;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		SyntheticProfile profile = new SyntheticProfile(owners, 0, orders);
+		ProfileData profileData = profile.createProfileData();
+		input = new OutbidProcesserInput(profileData, MarketOrderRange.REGION);
+		input.addOrders(profile.createPublicMarketOrders(competitors), new Date());
+	}
+
+	@Benchmark
+	public OutbidProcesserOutput process() {
+		OutbidProcesserOutput output = new OutbidProcesserOutput();
+		OutbidProcesser.process(input, output);
+		return output;
+	}
+}
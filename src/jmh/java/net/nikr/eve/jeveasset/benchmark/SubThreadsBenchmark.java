@@ -0,0 +1,142 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.CliOptions;
+import net.nikr.eve.jeveasset.io.esi.AbstractEsiGetter;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ESI sub requests (ThreadWoker.startReturn()) against a local stub server with a fixed latency.
+ * Platform threads (the Update-Sub pool) vs. virtual threads (-virtualthreads, Java 21+).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SubThreadsBenchmark {
+
+	private static final byte[] RESPONSE = "[]".getBytes(StandardCharsets.UTF_8);
+
+	@Param({"false", "true"})
+	public boolean virtualThreads;
+
+	@Param({"500"})
+	public int requests;
+
+	/**
+	 * Stub server latency in milliseconds.
+	 */
+	@Param({"50"})
+	public int latency;
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private OkHttpClient client;
+	private String url;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		SyntheticProfile.init();
+		if (virtualThreads) {
+			CliOptions.set(new String[] {"-virtualthreads"});
+		} else {
+			CliOptions.set(new String[] {});
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					Thread.sleep(latency);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, RESPONSE.length);
+				try (OutputStream outputStream = exchange.getResponseBody()) {
+					outputStream.write(RESPONSE);
+				}
+			}
+		});
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.start();
+		url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+		client = AbstractEsiGetter.getHttpClient();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public List<Future<Integer>> startReturn() throws InterruptedException {
+		List<Callable<Integer>> updaters = new ArrayList<>();
+		for (int i = 0; i < requests; i++) {
+			final Request request = new Request.Builder().url(url + i).build();
+			updaters.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					try (Response response = client.newCall(request).execute()) {
+						return response.code();
+					}
+				}
+			});
+		}
+		return ThreadWoker.startReturn(null, updaters);
+	}
+}
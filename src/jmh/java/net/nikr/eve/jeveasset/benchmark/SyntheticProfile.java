@@ -0,0 +1,332 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.benchmark;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderRange;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderState;
+import net.nikr.eve.jeveasset.data.api.raw.RawPublicMarketOrder;
+import net.nikr.eve.jeveasset.data.profile.ProfileData;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.data.sde.ItemFlag;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.sde.StaticData;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileItem;
+import net.nikr.eve.jeveasset.io.esi.EsiCallbackURL;
+import net.nikr.eve.jeveasset.io.local.ProfileWriter;
+import net.nikr.eve.jeveasset.io.shared.DataConverter;
+import net.troja.eve.esi.model.MarketOrdersResponse;
+
+/**
+ * Deterministic synthetic profile for the benchmarks.
+ * N owners, each with M assets (some nested in containers) and K market orders.
+ * The same seed and sizes always generate the same profile
+ * (only the order issued dates are relative to now, so the orders stay active).
+ */
+public class SyntheticProfile {
+
+	public static final long SEED = 20231024L;
+
+	private static final int FLAG_HANGAR = 4;
+	private static final int FLAG_CARGO = 5;
+	private static final int CONTAINER_INTERVAL = 25;
+	private static final int ORDER_TYPES = 500;
+
+	private static boolean init = false;
+
+	private final long seed;
+	private final int owners;
+	private final int assets;
+	private final int orders;
+	private final List<Item> items;
+	private final List<MyLocation> stations;
+	private final ProfileManager profileManager;
+
+	public SyntheticProfile(final int owners, final int assets, final int orders) {
+		this(SEED, owners, assets, orders);
+	}
+
+	public SyntheticProfile(final long seed, final int owners, final int assets, final int orders) {
+		init();
+		this.seed = seed;
+		this.owners = owners;
+		this.assets = assets;
+		this.orders = orders;
+		//Sorted for a stable order (independent of HashMap iteration order)
+		items = new ArrayList<>();
+		for (Item item : StaticData.get().getItems().values()) {
+			if (item.isMarketGroup()) {
+				items.add(item);
+			}
+		}
+		Collections.sort(items, new Comparator<Item>() {
+			@Override
+			public int compare(Item o1, Item o2) {
+				return Integer.compare(o1.getTypeID(), o2.getTypeID());
+			}
+		});
+		stations = new ArrayList<>();
+		for (MyLocation location : StaticData.get().getLocations()) {
+			if (location.getStationID() != 0 && !location.isCitadel() && !location.isEmpty()) {
+				stations.add(location);
+			}
+		}
+		Collections.sort(stations, new Comparator<MyLocation>() {
+			@Override
+			public int compare(MyLocation o1, MyLocation o2) {
+				return Long.compare(o1.getLocationID(), o2.getLocationID());
+			}
+		});
+		profileManager = new ProfileManager();
+		createOwners();
+	}
+
+	/**
+	 * Same setup as the unit tests (TestUtil): no settings or logs are written to the user directory.
+	 */
+	public static synchronized void init() {
+		if (init) {
+			return;
+		}
+		init = true;
+		System.setProperty("log.home", "");
+		Settings.setTestMode(true);
+	}
+
+	public int getOwners() {
+		return owners;
+	}
+
+	public int getAssets() {
+		return assets;
+	}
+
+	public int getOrders() {
+		return orders;
+	}
+
+	public ProfileManager getProfileManager() {
+		return profileManager;
+	}
+
+	/**
+	 * @return ProfileData with updated EventLists
+	 */
+	public ProfileData createProfileData() {
+		ProfileData profileData = new ProfileData(profileManager);
+		profileData.updateEventLists();
+		return profileData;
+	}
+
+	public boolean save(final File file) {
+		return ProfileWriter.save(profileManager.getActiveProfile(), file.getAbsolutePath());
+	}
+
+	/**
+	 * Public market orders for all the types of the generated market orders.
+	 * The owners own orders are included, so they will be updated by the outbid processer.
+	 * @param competitors Number of other orders per own order
+	 * @return Public market orders by typeID
+	 */
+	public Map<Integer, Set<RawPublicMarketOrder>> createPublicMarketOrders(final int competitors) {
+		Random random = new Random(seed + 1);
+		Map<Integer, Set<RawPublicMarketOrder>> publicOrders = new HashMap<>();
+		long orderID = Long.MAX_VALUE / 2;
+		for (EsiOwner owner : profileManager.getEsiOwners()) {
+			for (MyMarketOrder marketOrder : owner.getMarketOrders()) {
+				Set<RawPublicMarketOrder> set = publicOrders.get(marketOrder.getTypeID());
+				if (set == null) {
+					set = new HashSet<>();
+					publicOrders.put(marketOrder.getTypeID(), set);
+				}
+				set.add(toPublicMarketOrder(random, marketOrder.getOrderID(), marketOrder.getTypeID(), marketOrder.isBuyOrder(), marketOrder.getPrice(), marketOrder.getLocation()));
+				for (int i = 0; i < competitors; i++) {
+					MyLocation station = stations.get(random.nextInt(stations.size()));
+					set.add(toPublicMarketOrder(random, orderID++, marketOrder.getTypeID(), random.nextBoolean(), price(random), station));
+				}
+			}
+		}
+		return publicOrders;
+	}
+
+	/**
+	 * Replace the stockpiles in Settings with generated stockpiles.
+	 * Each stockpile match all owners in one station.
+	 * @param count Number of stockpiles
+	 * @param size Number of items in each stockpile
+	 * @return The generated stockpiles
+	 */
+	public List<Stockpile> createStockpiles(final int count, final int size) {
+		Random random = new Random(seed + 2);
+		List<Stockpile> stockpiles = Settings.get().getStockpiles();
+		stockpiles.clear();
+		for (int i = 0; i < count; i++) {
+			MyLocation station = stations.get(random.nextInt(stations.size()));
+			StockpileFilter filter = new StockpileFilter(station,
+					false, //Exclude
+					new ArrayList<>(), //Flags
+					new ArrayList<>(), //Containers
+					new ArrayList<>(), //Owners
+					null, //JobsDaysLess
+					null, //JobsDaysMore
+					null, //Singleton
+					true, true, true, true, true, true, true, true, true, true);
+			Stockpile stockpile = new Stockpile("Stockpile " + i, null, Collections.singletonList(filter), 1, false);
+			for (int j = 0; j < size; j++) {
+				Item item = items.get(random.nextInt(items.size()));
+				stockpile.add(new StockpileItem(stockpile, item, item.getTypeID(), 1 + random.nextInt(1000), false));
+			}
+			stockpiles.add(stockpile);
+		}
+		return stockpiles;
+	}
+
+	private void createOwners() {
+		Random random = new Random(seed);
+		ItemFlag hangar = StaticData.get().getItemFlags().get(FLAG_HANGAR);
+		ItemFlag cargo = StaticData.get().getItemFlags().get(FLAG_CARGO);
+		long itemID = 1000000000000L;
+		long orderID = 6000000000L;
+		Date now = Settings.getNow();
+		for (int ownerIndex = 0; ownerIndex < owners; ownerIndex++) {
+			EsiOwner owner = new EsiOwner();
+			owner.setOwnerID(90000000L + ownerIndex);
+			owner.setOwnerName("Owner " + ownerIndex);
+			owner.setAccountName("Account " + ownerIndex);
+			owner.setAuth(EsiCallbackURL.LOCALHOST, "refresh" + ownerIndex, null);
+			owner.setShowOwner(true);
+			//Assets
+			List<MyAsset> ownerAssets = new ArrayList<>();
+			MyAsset container = null;
+			for (int i = 0; i < assets; i++) {
+				Item item = items.get(random.nextInt(items.size()));
+				RawAsset rawAsset = RawAsset.create();
+				rawAsset.setItemID(itemID++);
+				rawAsset.setTypeID(item.getTypeID());
+				rawAsset.setQuantity(1 + random.nextInt(1000));
+				rawAsset.setSingleton(false);
+				if (container != null && random.nextInt(4) != 0) { //In container
+					rawAsset.setLocationID(container.getItemID());
+					rawAsset.setItemFlag(cargo);
+					rawAsset.setLocationFlagString(cargo.getFlagName());
+					List<MyAsset> parents = new ArrayList<>();
+					parents.add(container);
+					MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, parents);
+					if (asset != null) {
+						container.addAsset(asset);
+					}
+				} else { //In hangar
+					MyLocation station = stations.get(random.nextInt(stations.size()));
+					boolean isContainer = i % CONTAINER_INTERVAL == 0;
+					if (isContainer) {
+						rawAsset.setQuantity(1);
+						rawAsset.setSingleton(true);
+					}
+					rawAsset.setLocationID(station.getLocationID());
+					rawAsset.setItemFlag(hangar);
+					rawAsset.setLocationFlagString(hangar.getFlagName());
+					MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, new ArrayList<>());
+					if (asset != null) {
+						ownerAssets.add(asset);
+						if (isContainer) {
+							container = asset;
+						}
+					}
+				}
+			}
+			owner.setAssets(ownerAssets);
+			//Market Orders
+			Set<MyMarketOrder> marketOrders = new HashSet<>();
+			int types = Math.min(ORDER_TYPES, items.size());
+			for (int i = 0; i < orders; i++) {
+				Item item = items.get(random.nextInt(types));
+				MyLocation station = stations.get(random.nextInt(stations.size()));
+				int volumeTotal = 1 + random.nextInt(10000);
+				RawMarketOrder rawMarketOrder = RawMarketOrder.create();
+				rawMarketOrder.setWalletDivision(1);
+				rawMarketOrder.setDuration(90);
+				rawMarketOrder.setEscrow(0.0);
+				rawMarketOrder.setBuyOrder(random.nextBoolean());
+				rawMarketOrder.setCorp(false);
+				rawMarketOrder.setIssued(new Date(now.getTime() - random.nextInt(7 * 24 * 60) * 60000L));
+				rawMarketOrder.setIssuedBy((int) owner.getOwnerID());
+				rawMarketOrder.setLocationID(station.getLocationID());
+				rawMarketOrder.setMinVolume(1);
+				rawMarketOrder.setOrderID(orderID++);
+				rawMarketOrder.setPrice(price(random));
+				rawMarketOrder.setRange(MarketOrderRange.STATION);
+				rawMarketOrder.setRangeString(MarketOrderRange.STATION.getValue());
+				rawMarketOrder.setRegionID((int) station.getRegionID());
+				rawMarketOrder.setState(MarketOrderState.OPEN);
+				rawMarketOrder.setStateString(MarketOrderState.OPEN.getValue());
+				rawMarketOrder.setTypeID(item.getTypeID());
+				rawMarketOrder.setVolumeRemain(1 + random.nextInt(volumeTotal));
+				rawMarketOrder.setVolumeTotal(volumeTotal);
+				marketOrders.add(DataConverter.toMyMarketOrder(rawMarketOrder, owner));
+			}
+			owner.setMarketOrders(marketOrders);
+			profileManager.getEsiOwners().add(owner);
+		}
+	}
+
+	private static double price(Random random) {
+		return Math.round(random.nextDouble() * 1000000000) / 100.0;
+	}
+
+	private static RawPublicMarketOrder toPublicMarketOrder(Random random, long orderID, int typeID, boolean buyOrder, double price, MyLocation location) {
+		MarketOrdersResponse response = new MarketOrdersResponse();
+		response.setDuration(90);
+		response.setIsBuyOrder(buyOrder);
+		response.setIssued(OffsetDateTime.ofInstant(Instant.ofEpochMilli(Settings.getNow().getTime() - random.nextInt(7 * 24 * 60) * 60000L), ZoneOffset.UTC));
+		response.setLocationId(location.getLocationID());
+		response.setMinVolume(1);
+		response.setOrderId(orderID);
+		response.setPrice(price);
+		response.setRange(MarketOrdersResponse.RangeEnum.STATION);
+		response.setSystemId((int) location.getSystemID());
+		response.setTypeId(typeID);
+		response.setVolumeRemain(1 + random.nextInt(1000));
+		response.setVolumeTotal(1000);
+		return new RawPublicMarketOrder(response);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * AddedDataMap against the boxed Map&lt;Long, Date&gt; it replaced.
+ * Load: fill the map from ids/dates (as read from the database).
+ * Lookup: one lookup per id (as done by ProfileData.updateEventLists()).
+ * Run with the gc profiler to compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AddedDataBenchmark {
+
+	@Param({"500000"})
+	public int size;
+
+	private long[] ids;
+	private long[] dates;
+	private Map<Long, Date> boxed;
+	private AddedDataMap primitive;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+		ids = new long[size];
+		dates = new long[size];
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < size; i++) {
+			ids[i] = 1000000000000L + random.nextInt(Integer.MAX_VALUE); //ESI itemIDs
+			dates[i] = now - random.nextInt(Integer.MAX_VALUE);
+		}
+		boxed = loadBoxed();
+		primitive = loadPrimitive();
+	}
+
+	@Benchmark
+	public Map<Long, Date> loadBoxed() {
+		Map<Long, Date> map = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(ids[i], new Date(dates[i]));
+		}
+		return map;
+	}
+
+	@Benchmark
+	public AddedDataMap loadPrimitive() {
+		AddedDataMap map = new AddedDataMap();
+		for (int i = 0; i < size; i++) {
+			map.put(ids[i], dates[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public void lookupBoxed(Blackhole blackhole) {
+		for (int i = 0; i < size; i++) {
+			blackhole.consume(boxed.get(ids[i]));
+		}
+	}
+
+	@Benchmark
+	public void lookupPrimitive(Blackhole blackhole) {
+		for (int i = 0; i < size; i++) {
+			blackhole.consume(primitive.get(ids[i], Long.MIN_VALUE));
+		}
+	}
+}
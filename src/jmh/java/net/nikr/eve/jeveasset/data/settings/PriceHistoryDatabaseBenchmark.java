@@ -0,0 +1,133 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.benchmark.SyntheticProfile;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.gui.tabs.prices.PriceHistoryTab.PriceHistoryData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PriceHistoryDatabase with types * days rows (default 1.000 * 2.000 = 2 million rows).
+ * In this package, as PriceHistoryDatabase.setConnectionUrl() is protected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PriceHistoryDatabaseBenchmark {
+
+	@Param({"1000"})
+	public int types;
+
+	@Param({"2000"})
+	public int days;
+
+	/**
+	 * Types read/written per invocation.
+	 */
+	@Param({"100"})
+	public int batch;
+
+	private File file;
+	private Set<Integer> typeIDs;
+	private Map<Item, Set<PriceHistoryData>> data;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, ParseException {
+		SyntheticProfile.init();
+		file = File.createTempFile("jeveassets-benchmark", ".db");
+		PriceHistoryDatabase.setConnectionUrl("jdbc:sqlite:" + file.getAbsolutePath());
+		PriceHistoryDatabase.load();
+		//Insert all the rows (batch size at a time)
+		LocalDate start = LocalDate.now().minusDays(days);
+		Map<Item, Set<PriceHistoryData>> all = new HashMap<>();
+		for (int typeID = 1; typeID <= types; typeID++) {
+			Item item = new Item(typeID);
+			Set<PriceHistoryData> set = new HashSet<>();
+			for (int day = 0; day < days; day++) {
+				String date = start.plusDays(day).toString(); //yyyy-MM-dd
+				set.add(new PriceHistoryData(typeID, item, date, typeID * 1000.0 + day));
+			}
+			all.put(item, set);
+			if (typeID <= batch) {
+				if (data == null) {
+					data = new HashMap<>();
+				}
+				data.put(item, set);
+			}
+			if (all.size() >= batch) {
+				PriceHistoryDatabase.setZKillboard(all);
+				all.clear();
+			}
+		}
+		PriceHistoryDatabase.setZKillboard(all);
+		typeIDs = new HashSet<>();
+		for (Item item : data.keySet()) {
+			typeIDs.add(item.getTypeID());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		PriceHistoryDatabase.setConnectionUrl(PriceHistoryDatabase.DEFAULT_CONNECTION_URL);
+		file.delete();
+		new File(file.getAbsolutePath() + "-wal").delete();
+		new File(file.getAbsolutePath() + "-shm").delete();
+	}
+
+	@Benchmark
+	public Map<Item, Set<PriceHistoryData>> getZKillboard() {
+		return PriceHistoryDatabase.getZKillboard(typeIDs);
+	}
+
+	/**
+	 * Upsert of existing rows (the database content is unchanged).
+	 */
+	@Benchmark
+	public Map<Item, Set<PriceHistoryData>> setZKillboard() {
+		PriceHistoryDatabase.setZKillboard(data);
+		return data;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.benchmark.SyntheticProfile;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.profile.ProfileData;
+import net.nikr.eve.jeveasset.gui.shared.filter.Filter.CompareType;
+import net.nikr.eve.jeveasset.gui.shared.filter.Filter.LogicType;
+import net.nikr.eve.jeveasset.gui.shared.table.TableFormatFactory;
+import net.nikr.eve.jeveasset.gui.tabs.assets.AssetTableFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FilterMatcher on the assets table (text, number and formatted column compares).
+ * In this package, as the FilterMatcher constructors are package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterMatcherBenchmark {
+
+	@Param({"10"})
+	public int owners;
+
+	@Param({"10000"})
+	public int assets;
+
+	private List<MyAsset> list;
+	private FilterMatcher<MyAsset> nameContains;
+	private FilterMatcher<MyAsset> valueGreaterThan;
+	private FilterMatcher<MyAsset> locationEquals;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		SyntheticProfile profile = new SyntheticProfile(owners, assets, 0);
+		ProfileData profileData = profile.createProfileData();
+		list = new ArrayList<>(profileData.getAssetsEventList());
+		SimpleTableFormat<MyAsset> tableFormat = TableFormatFactory.assetTableFormat();
+		nameContains = new FilterMatcher<>(tableFormat, null, 1, LogicType.AND, AssetTableFormat.NAME, CompareType.CONTAINS, "ore", true);
+		valueGreaterThan = new FilterMatcher<>(tableFormat, null, 1, LogicType.AND, AssetTableFormat.VALUE, CompareType.GREATER_THAN, "1000000", true);
+		locationEquals = new FilterMatcher<>(tableFormat, null, 1, LogicType.AND, AssetTableFormat.LOCATION, CompareType.EQUALS, list.isEmpty() ? "" : list.get(0).getLocation().getLocation(), true);
+	}
+
+	@Benchmark
+	public int nameContains() {
+		return count(nameContains);
+	}
+
+	@Benchmark
+	public int valueGreaterThan() {
+		return count(valueGreaterThan);
+	}
+
+	@Benchmark
+	public int locationEquals() {
+		return count(locationEquals);
+	}
+
+	private int count(FilterMatcher<MyAsset> filterMatcher) {
+		int count = 0;
+		for (MyAsset asset : list) {
+			if (filterMatcher.matches(asset)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -23,9 +23,11 @@ package net.nikr.eve.jeveasset;
 import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.FilterList;
 import ca.odell.glazedlists.matchers.Matcher;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -75,6 +77,8 @@ import net.nikr.eve.jeveasset.gui.tabs.tree.TreeData;
 import net.nikr.eve.jeveasset.gui.tabs.tree.TreeTab;
 import net.nikr.eve.jeveasset.gui.tabs.values.IskData;
 import net.nikr.eve.jeveasset.gui.tabs.values.ValueTableTab;
+import net.nikr.eve.jeveasset.io.local.SqliteWriter;
+import net.nikr.eve.jeveasset.io.local.SqliteWriter.SqliteTable;
 import net.nikr.eve.jeveasset.io.online.PriceDataGetter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +88,11 @@ public class CliExport {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CliExport.class);
 
+	/**
+	 * SQLite tables by filename: all tables of a file are written in one transaction, after all tools are read.
+	 */
+	private final Map<String, List<SqliteTable>> sqliteTables = new LinkedHashMap<>();
+
 	public static enum ExportTool {
 		ASSETS("Assets", CliOptions.ASSETS, AssetsTab.NAME),
 		CONTRACTS("Contracts", CliOptions.CONTRACTS, ContractsTab.NAME),
@@ -230,11 +239,29 @@ public class CliExport {
 				if (!ok) {
 					LOG.error(tool.getName() + " export failed");
 					fails++;
+				} else if (exportSettings.isSqlite()) {
+					LOG.info(tool.getName() + " data read");
 				} else {
 					LOG.info(tool.getName() + " data exported");
 				}
 			}
 		}
+		for (Map.Entry<String, List<SqliteTable>> entry : sqliteTables.entrySet()) {
+			File dir = new File(entry.getKey()).getParentFile();
+			if (dir != null && !dir.exists()) { //If parent dir dosn't exsit, create it
+				dir.mkdirs();
+			}
+			if (dir != null && !dir.isDirectory()) { //If parent dir is a file, cancel
+				LOG.error("SQLite export failed");
+				fails = fails + entry.getValue().size();
+			} else if (SqliteWriter.save(entry.getKey(), entry.getValue())) {
+				LOG.info("SQLite data exported");
+			} else {
+				LOG.error("SQLite export failed");
+				fails = fails + entry.getValue().size();
+			}
+		}
+		sqliteTables.clear();
 		StringBuilder builder = new StringBuilder();
 		if (CliOptions.get().getExportSettings().size() == fails) {
 			builder.append("Failed to export data");
@@ -335,13 +362,33 @@ public class CliExport {
 		//Overview
 		EnumTableFormatAdaptor<OverviewTableFormat, Overview> tableFormat = TableFormatFactory.overviewTableFormat();
 		OverviewTab.updateShownColumns(tableFormat, view);
-		return ExportTableData.exportEmpty(new OverviewData(profileManager, profileData).getData(filterList, owner, view), tableFormat, toolName, exportSettings);
+		EventList<Overview> data = new OverviewData(profileManager, profileData).getData(filterList, owner, view);
+		if (exportSettings.isSqlite()) {
+			return addSqliteTable(ExportTableData.createSqliteTableEmpty(data, tableFormat, toolName, exportSettings), exportSettings);
+		}
+		return ExportTableData.exportEmpty(data, tableFormat, toolName, exportSettings);
 	}
 
 	private <T extends Enum<T> & EnumTableColumn<Q>, Q> boolean export(EventList<Q> data, final SimpleTableFormat<Q> tableFormat, String toolName, ExportSettings exportSettings) {
+		if (exportSettings.isSqlite()) {
+			return addSqliteTable(ExportTableData.createSqliteTableAuto(data, tableFormat, toolName, exportSettings), exportSettings);
+		}
 		return ExportTableData.exportAutoNoCache(data, tableFormat, toolName, exportSettings);
 	}
 
+	private boolean addSqliteTable(SqliteTable table, ExportSettings exportSettings) {
+		if (table == null) {
+			return false;
+		}
+		List<SqliteTable> tables = sqliteTables.get(exportSettings.getFilename());
+		if (tables == null) {
+			tables = new ArrayList<>();
+			sqliteTables.put(exportSettings.getFilename(), tables);
+		}
+		tables.add(table);
+		return true;
+	}
+
 	private static class LoadoutMatcher implements Matcher<Loadout> {
 		private final Set<String> loadoutsNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
 		private final Set<Integer> loadoutsIDs;
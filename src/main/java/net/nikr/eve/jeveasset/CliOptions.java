@@ -171,6 +171,8 @@ public class CliOptions {
 		ExportOptionsHtml html;
 		@ArgGroup(exclusive = false)
 		ExportOptionsSql sql;
+		@ArgGroup(exclusive = false)
+		ExportOptionsSqlite sqlite;
 	}
 
 	static class ExportOptionsCsv {
@@ -213,10 +215,17 @@ public class CliOptions {
 		@Option(names = "-createtable", description = "    Create Table (if not exist)")
 		boolean createTable;
 		@Option(names = "-extended", description = "    Extended Inserts"
-				+ END_GROUP +"%nTools Help:%nOmit all the tool parameters to export all tools")
+				+ END_GROUP)
 		boolean extendedInserts;
 	}
 
+	static class ExportOptionsSqlite {
+		@Option(names = "-sqlite", required = true, description = "Export to SQLite database%n"
+				+ "    All tools are exported to one file (one table per tool)"
+				+ END_GROUP +"%nTools Help:%nOmit all the tool parameters to export all tools")
+		boolean sqlite;
+	}
+
 	static class ExportOptionsTools {
 		@Option(names = {"-a" ,"-"+ASSETS}, description = TOOLS_BEFORE+"Assets"+TOOLS_AFTER)
 		boolean assets;
@@ -356,13 +365,17 @@ public class CliOptions {
 		boolean forceUpdate;
 		@Option(names = { "-jmemory" }, description = "Dev Command: Notify jEveAssets It's being run with jmemory.jar")
 		boolean jMemory;
+		@Option(names = { "-virtualthreads" }, description = "Dev Command: Run ESI sub requests on virtual threads (Java 21+)")
+		boolean virtualThreads;
 	}
 
 	private Map<ExportTool, List<ExportSettings>> settings = null;
+	private Date exportDate = null;
 
 	public Map<ExportTool, List<ExportSettings>> getExportSettings() {
 		if (settings == null) {
 			settings = new HashMap<>();
+			exportDate = new Date(); //Same date in all filenames
 			if (exportOptions == null) {
 				return settings;
 			}
@@ -429,6 +442,12 @@ public class CliOptions {
 				exportSettings.setSqlTableName(Settings.get().getExportSettings(exportTool.getToolName()).getSqlTableName());
 				set(exportSettings, exportTool, ExportFormat.SQL, filterName, viewName);
 			}
+			//SQLite
+			if (exportOptionsFormat.sqlite != null && exportOptionsFormat.sqlite.sqlite) {
+				ExportSettings exportSettings = new ExportSettings(exportTool.getToolName());
+				exportSettings.setSqlTableName(ExportSettings.getDefaultTableName(exportTool.getFilename())); //Unique per tool (overview and tree share tool name)
+				set(exportSettings, exportTool, ExportFormat.SQLITE, filterName, viewName);
+			}
 		} else { //Default CSV
 			set(new ExportSettings(exportTool.getToolName()), exportTool, ExportFormat.CSV, filterName, viewName);
 		}
@@ -439,11 +458,14 @@ public class CliOptions {
 		builder.append(getOutputDirectory());
 		builder.append(File.separator);
 		if (!exportOptions.noDate) {
-			builder.append(Formatter.fileDate(new Date()));
+			builder.append(Formatter.fileDate(exportDate));
 			builder.append("_");
 		}
-		builder.append(exportTool.getFilename());
-		builder.append("_export.");
+		if (exportFormat != ExportFormat.SQLITE) { //SQLite: one file for all tools
+			builder.append(exportTool.getFilename());
+			builder.append("_");
+		}
+		builder.append("export.");
 		builder.append(exportFormat.getExtension());
 		exportSettings.setFilename(builder.toString());
 		//Format
@@ -608,6 +630,13 @@ public class CliOptions {
 		return devOptions.jMemory;
 	}
 
+	public boolean isVirtualThreads() {
+		if (devOptions == null) {
+			return false;
+		}
+		return devOptions.virtualThreads;
+	}
+
 	public void setPortable(boolean portable) {
 		this.portable = portable;
 	}
@@ -755,6 +755,7 @@ public class Program implements ActionListener {
 			Settings.waitForEmptySaveQueue();
 		}
 		TrackerData.waitForEmptySaveQueue();
+		PriceHistoryDatabase.close();
 	}
 
 	private void showAbout() {
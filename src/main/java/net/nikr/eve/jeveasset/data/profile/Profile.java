@@ -27,6 +27,7 @@ import java.util.List;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
 import net.nikr.eve.jeveasset.data.api.accounts.EveKitOwner;
+import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.io.local.ProfileReader;
 import net.nikr.eve.jeveasset.io.local.ProfileWriter;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
@@ -60,11 +61,11 @@ public class Profile implements Comparable<Profile> {
 	public boolean load() {
 		clear(); //Clear the profile before loading
 		stockpileIDs.load(); //Load stockpileIDs
-		return ProfileReader.load(this); //Assets (Must be loaded before the price data)
+		return ProfileReader.load(this, getFilename(), Settings.get().isProfileSnapshot()); //Assets (Must be loaded before the price data)
 	}
 
 	public void save() {
-		ProfileWriter.save(this);
+		ProfileWriter.save(this, getFilename(), Settings.get().isProfileSnapshot());
 	}
 
 	public boolean isDefaultProfile() {
@@ -117,6 +118,21 @@ public class Profile implements Comparable<Profile> {
 		return new File(getFilenameNoExtension() + ".xml");
 	}
 
+	private File getSnapshotFile() {
+		return new File(getFilenameNoExtension() + ".bin");
+	}
+
+	/**
+	 * A snapshot that could not be deleted is not used:
+	 * it only matches the generation of the XML file it was saved with (see ProfileReader).
+	 */
+	private void deleteSnapshot() {
+		File file = getSnapshotFile();
+		if (file.exists() && !file.delete()) {
+			LOG.warn("Failed to delete profile snapshot: {}", file.getName());
+		}
+	}
+
 	private String getFilenameNoExtension() {
 		String filename = getName();
 		filename = filename.replace(" ", "_");
@@ -135,6 +151,7 @@ public class Profile implements Comparable<Profile> {
 		if (this.defaultProfile != defaultProfile) {
 			File from = getFile();
 			File backFrom = getBackupFile();
+			deleteSnapshot(); //Cache: recreated on next save
 			this.defaultProfile = defaultProfile;
 			File to = getFile();
 			File backTo = getBackupFile();
@@ -152,6 +169,7 @@ public class Profile implements Comparable<Profile> {
 	public void setName(final String name) {
 		File from = getFile();
 		File backFrom = getBackupFile();
+		deleteSnapshot(); //Cache: recreated on next save
 		this.name = name;
 		File to = getFile();
 		File backTo = getBackupFile();
@@ -167,6 +185,7 @@ public class Profile implements Comparable<Profile> {
 	public void delete() {
 		getFile().delete();
 		getBackupFile().delete();
+		deleteSnapshot();
 		stockpileIDs.removeTable();
 	}
 
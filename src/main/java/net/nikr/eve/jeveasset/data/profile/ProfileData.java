@@ -22,6 +22,7 @@ package net.nikr.eve.jeveasset.data.profile;
 
 import ca.odell.glazedlists.EventList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -91,6 +92,7 @@ public class ProfileData {
 	private final List<MyContract> contractList = new ArrayList<>();
 	private final Map<String, Long> skillPointsTotal = new HashMap<>();
 	private Map<Integer, List<MyAsset>> uniqueAssetsDuplicates = null; //TypeID : int
+	private volatile TypeIndex typeIndex = new TypeIndex();
 	private Map<Integer, MarketPriceData> transactionSellPriceData; //TypeID : int
 	private Map<Integer, MarketPriceData> transactionBuyPriceData; //TypeID : int
 	private Map<Integer, Double> transactionBuyTax; //TypeID : int
@@ -98,6 +100,7 @@ public class ProfileData {
 	private Map<Long, Double> marketOrdersBrokersFee; //OrderID : long
 	private final List<String> ownerNames = new ArrayList<>();
 	private final Map<Long, OwnerType> owners = new HashMap<>();
+	private final Map<EventList<?>, OwnerSources> eventListSources = new HashMap<>(); //EventList :: Owner data of the last updateEventLists
 
 	public ProfileData(ProfileManager profileManager) {
 		this.profileManager = profileManager;
@@ -173,6 +176,14 @@ public class ProfileData {
 		return contractList;
 	}
 
+	/**
+	 * TypeID look-up of the current lists (updated by updateEventLists).
+	 * @return immutable index
+	 */
+	public TypeIndex getTypeIndex() {
+		return typeIndex;
+	}
+
 	public Map<String, Long> getSkillPointsTotal() {
 		return skillPointsTotal;
 	}
@@ -273,14 +284,13 @@ public class ProfileData {
 
 	public void updateMarketOrders(OutbidProcesserOutput output) {
 		Date addedDate = new Date();
-		Map<Long, Date> marketOrdersAdded = AddedData.getMarketOrders().getAll();
 		synchronized (owners) { //synchronized as owners are modified by updateEventLists
 			for (OwnerType ownerType : owners.values()) {
 				for (MyMarketOrder order : ownerType.getMarketOrders()) { // getMarketOrders() is thread safe
 					order.setOutbid(output.getOutbids().get(order.getOrderID()));
 					boolean updated = order.addChanges(output.getUpdates().get(order.getOrderID()));
 					if (updated) { //If Market Order have been updated
-						order.setChanged(AddedData.getMarketOrders().getPut(marketOrdersAdded, order.getOrderID(), addedDate));
+						order.setChanged(AddedData.getMarketOrders().getPut(order.getOrderID(), addedDate));
 					}
 				}
 			}
@@ -291,9 +301,7 @@ public class ProfileData {
 			public void run() {
 				try {
 					marketOrdersEventList.getReadWriteLock().writeLock().lock();
-					List<MyMarketOrder> cache = new ArrayList<>(marketOrdersEventList);
-					marketOrdersEventList.clear();
-					marketOrdersEventList.addAll(cache);
+					EventListManager.updateAll(marketOrdersEventList);
 				} finally {
 					marketOrdersEventList.getReadWriteLock().writeLock().unlock();
 				}
@@ -366,6 +374,12 @@ public class ProfileData {
 		Map<Long, OwnerType> blueprintsMap = new HashMap<>();
 		Map<Long, MyBlueprint> blueprints = new HashMap<>();
 		Map<String, Long> skillPointsTotalCache = new HashMap<>();
+		//Owner data of the EventLists that only contains owner objects
+		OwnerSources marketOrdersSources = new OwnerSources();
+		OwnerSources journalSources = new OwnerSources();
+		OwnerSources transactionsSources = new OwnerSources();
+		OwnerSources industryJobsSources = new OwnerSources();
+		OwnerSources contractsSources = new OwnerSources();
 
 		calcTransactionsPriceData();
 		for (OwnerType owner : profileManager.getOwnerTypes()) {
@@ -380,6 +394,11 @@ public class ProfileData {
 			if (!owner.isShowOwner()) {
 				continue;
 			}
+			marketOrdersSources.add(owner, owner.getMarketOrders(), owner.getMarketOrders().size());
+			journalSources.add(owner, owner.getJournal(), owner.getJournal().size());
+			transactionsSources.add(owner, owner.getTransactions(), owner.getTransactions().size());
+			industryJobsSources.add(owner, owner.getIndustryJobs(), owner.getIndustryJobs().size());
+			contractsSources.add(owner, owner.getContracts(), owner.getContracts().size());
 			//Marker Orders
 			//If owner is corporation overwrite the character orders (to use the "right" owner)
 			if (owner.isCorporation()) {
@@ -495,7 +514,6 @@ public class ProfileData {
 			transactions.add(transaction);
 		}
 		//Update MarketOrders dynamic values
-		Map<Long, Date> marketOrdersAdded = AddedData.getMarketOrders().getAll();
 		for (MyMarketOrder order : marketOrders) {
 			//Last Transaction
 			if (order.isBuyOrder()) { //Buy
@@ -511,15 +529,15 @@ public class ProfileData {
 			order.setPriceData(ApiIdConverter.getPriceData(order.getTypeID(), false));
 			//Changed date
 			if (order.isUpdateChanged()) { //Update!
-				order.setChanged(AddedData.getMarketOrders().getPut(marketOrdersAdded, order.getOrderID(), addedDate));
+				order.setChanged(AddedData.getMarketOrders().getPut(order.getOrderID(), addedDate));
 			} else {
 				Date changed;
-				if (!marketOrdersAdded.containsKey(order.getOrderID())) { //New (use issued as a best guess)
+				if (!AddedData.getMarketOrders().contains(order.getOrderID())) { //New (use issued as a best guess)
 					changed = order.getIssued();
 				} else { //Updating
 					changed = addedDate;
 				}
-				order.setChanged(AddedData.getMarketOrders().getAdd(marketOrdersAdded, order.getOrderID(), changed));
+				order.setChanged(AddedData.getMarketOrders().getAdd(order.getOrderID(), changed));
 			}
 		}
 		AddedData.getMarketOrders().commitQueue();
@@ -553,7 +571,6 @@ public class ProfileData {
 		}
 
 		//Update Transaction dynamic values
-		Map<Long, Date> transactionsAdded = AddedData.getTransactions().getAll();
 		for (MyTransaction transaction : transactions) {
 			//Client Name
 			transaction.setClientName(ApiIdConverter.getOwnerName(transaction.getClientID()));
@@ -574,17 +591,16 @@ public class ProfileData {
 				setLastTransaction(transaction, transaction.getTypeID(), transaction.isBuy(), transaction.getPrice(), tax);
 			}
 			//Date added
-			transaction.setAdded(AddedData.getTransactions().getAdd(transactionsAdded, transaction.getTransactionID(), addedDate));
+			transaction.setAdded(AddedData.getTransactions().getAdd(transaction.getTransactionID(), addedDate));
 		}
 		AddedData.getTransactions().commitQueue();
 		//Update Journal dynamic values
-		Map<Long, Date> journalsAdded = AddedData.getJournals().getAll();
 		for (MyJournal journal : journals) {
 			//Names
 			journal.setFirstPartyName(ApiIdConverter.getOwnerName(journal.getFirstPartyID()));
 			journal.setSecondPartyName(ApiIdConverter.getOwnerName(journal.getSecondPartyID()));
 			//Date added
-			journal.setAdded(AddedData.getJournals().getAdd(journalsAdded, journal.getRefID(), addedDate));
+			journal.setAdded(AddedData.getJournals().getAdd(journal.getRefID(), addedDate));
 			//Context
 			journal.setContext(ApiIdConverter.getContext(journal));
 		}
@@ -595,22 +611,21 @@ public class ProfileData {
 			item.setPriceReprocessed(ApiIdConverter.getPriceReprocessed(item));
 		}
 
-		Map<Long, Date> assetAdded = AddedData.getAssets().getAll();
 		Program.ensureEDT(new Runnable() {
 			@Override
 			public void run() {
 				//Add Market Orders to Assets
-				addAssets(DataConverter.assetMarketOrder(marketOrders, Settings.get().isIncludeSellOrders(), Settings.get().isIncludeBuyOrders()), assets, blueprints, assetAdded, addedDate);
+				addAssets(DataConverter.assetMarketOrder(marketOrders, Settings.get().isIncludeSellOrders(), Settings.get().isIncludeBuyOrders()), assets, blueprints, addedDate);
 
 				//Add Industry Jobs to Assets
-				addAssets(DataConverter.assetIndustryJob(industryJobs, Settings.get().isIncludeManufacturing(), Settings.get().isIncludeCopying()), assets, blueprints, assetAdded, addedDate);
+				addAssets(DataConverter.assetIndustryJob(industryJobs, Settings.get().isIncludeManufacturing(), Settings.get().isIncludeCopying()), assets, blueprints, addedDate);
 
 				//Add Contract Items to Assets
-				addAssets(DataConverter.assetContracts(contractItems, uniqueOwners, Settings.get().isIncludeSellContracts(), Settings.get().isIncludeBuyContracts()), assets, blueprints, assetAdded, addedDate);
+				addAssets(DataConverter.assetContracts(contractItems, uniqueOwners, Settings.get().isIncludeSellContracts(), Settings.get().isIncludeBuyContracts()), assets, blueprints, addedDate);
 
 				//Add Assets to Assets
 				for (OwnerType owner : assetsMap.values()) {
-					addAssets(owner.getAssets(), assets, blueprints, assetAdded, addedDate);
+					addAssets(owner.getAssets(), assets, blueprints, addedDate);
 				}
 			}
 		});
@@ -662,103 +677,16 @@ public class ProfileData {
 		accountBalanceList.addAll(accountBalance);
 		skillPointsTotal.clear();
 		skillPointsTotal.putAll(skillPointsTotalCache);
+		typeIndex = new TypeIndex(assetsList, marketOrdersList, industryJobsList, transactionsList, contractItemList);
 		//Update EventLists
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					assetsEventList.getReadWriteLock().writeLock().lock();
-					assetsEventList.clear();
-					assetsEventList.addAll(assets);
-				} finally {
-					assetsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					marketOrdersEventList.getReadWriteLock().writeLock().lock();
-					marketOrdersEventList.clear();
-					marketOrdersEventList.addAll(marketOrders);
-				} finally {
-					marketOrdersEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					journalEventList.getReadWriteLock().writeLock().lock();
-					journalEventList.clear();
-					journalEventList.addAll(journals);
-				} finally {
-					journalEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					transactionsEventList.getReadWriteLock().writeLock().lock();
-					transactionsEventList.clear();
-					transactionsEventList.addAll(transactions);
-				} finally {
-					transactionsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					industryJobsEventList.getReadWriteLock().writeLock().lock();
-					industryJobsEventList.clear();
-					industryJobsEventList.addAll(industryJobs);
-				} finally {
-					industryJobsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					contractItemEventList.getReadWriteLock().writeLock().lock();
-					contractItemEventList.clear();
-					contractItemEventList.addAll(contractItems);
-				} finally {
-					contractItemEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					contractEventList.getReadWriteLock().writeLock().lock();
-					contractEventList.clear();
-					contractEventList.addAll(contracts);
-				} finally {
-					contractEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					accountBalanceEventList.getReadWriteLock().writeLock().lock();
-					accountBalanceEventList.clear();
-					accountBalanceEventList.addAll(accountBalance);
-				} finally {
-					accountBalanceEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
+		updateEventList(assetsEventList, assets);
+		updateEventList(marketOrdersEventList, marketOrders, marketOrdersSources);
+		updateEventList(journalEventList, journals, journalSources);
+		updateEventList(transactionsEventList, transactions, transactionsSources);
+		updateEventList(industryJobsEventList, industryJobs, industryJobsSources);
+		updateEventList(contractItemEventList, contractItems);
+		updateEventList(contractEventList, contracts, contractsSources);
+		updateEventList(accountBalanceEventList, accountBalance);
 	}
 
 	public void updateNames(EventList<MyAsset> eventList, Set<Long> itemIDs) {
@@ -913,38 +841,54 @@ public class ProfileData {
 		updateList(eventList, found);
 	}
 
-	private static <T> void updateList(EventList<T> eventList, List<T> found) {
+	private static <T> void updateList(final EventList<T> eventList, final List<T> found) {
 		if (found.isEmpty()) {
 			return;
 		}
-		if (found.size() > 2) {
-			Program.ensureEDT(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						eventList.getReadWriteLock().writeLock().lock();
-						List<T> cache = new ArrayList<>(eventList);
-						eventList.clear();
-						eventList.addAll(cache);
-					} finally {
-						eventList.getReadWriteLock().writeLock().unlock();
-					}
-				}
-			});
-		} else {
-			Program.ensureEDT(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						eventList.getReadWriteLock().writeLock().lock();
-						eventList.removeAll(found);
-						eventList.addAll(found);
-					} finally {
-						eventList.getReadWriteLock().writeLock().unlock();
-					}
+		Program.ensureEDT(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					eventList.getReadWriteLock().writeLock().lock();
+					EventListManager.update(eventList, found);
+				} finally {
+					eventList.getReadWriteLock().writeLock().unlock();
 				}
-			});
+			}
+		});
+	}
+
+	private <T> void updateEventList(final EventList<T> eventList, final Collection<T> data, final OwnerSources sources) {
+		if (!sources.equals(eventListSources.put(eventList, sources))) { //Owner data changed: update rows
+			updateEventList(eventList, data);
+			return;
 		}
+		//Same owner data: same rows - only the dynamic values changed
+		Program.ensureEDT(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					eventList.getReadWriteLock().writeLock().lock();
+					EventListManager.updateAll(eventList);
+				} finally {
+					eventList.getReadWriteLock().writeLock().unlock();
+				}
+			}
+		});
+	}
+
+	private static <T> void updateEventList(final EventList<T> eventList, final Collection<T> data) {
+		Program.ensureEDT(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					eventList.getReadWriteLock().writeLock().lock();
+					EventListManager.applyDelta(eventList, data);
+				} finally {
+					eventList.getReadWriteLock().writeLock().unlock();
+				}
+			}
+		});
 	}
 
 	private void calcTransactionsPriceData() {
@@ -1142,7 +1086,7 @@ public class ProfileData {
 		}
 	}
 
-	private void addAssets(final List<MyAsset> assets, List<MyAsset> addTo, Map<Long, MyBlueprint> blueprints, Map<Long, Date> assetAdded, Date assetAddedDate) {
+	private void addAssets(final List<MyAsset> assets, List<MyAsset> addTo, Map<Long, MyBlueprint> blueprints, Date assetAddedDate) {
 		for (MyAsset asset : assets) {
 			//XXX Ignore 9e18 locations: https://github.com/ccpgames/esi-issues/issues/684
 			if (asset.getLocationID() > 9000000000000000000L) {
@@ -1160,7 +1104,7 @@ public class ProfileData {
 			Tags tags = Settings.get().getTags(asset.getTagID());
 			asset.setTags(tags);
 			//Date added
-			asset.setAdded(AddedData.getAssets().getAdd(assetAdded, asset.getItemID(), assetAddedDate));
+			asset.setAdded(AddedData.getAssets().getAdd(asset.getItemID(), assetAddedDate));
 			//Price
 			updatePrice(asset);
 			//Reprocessed price
@@ -1200,7 +1144,7 @@ public class ProfileData {
 				asset.setLocation(ApiIdConverter.getLocation(asset.getLocationID()));
 			}
 			//Add sub-assets
-			addAssets(asset.getAssets(), addTo, blueprints, assetAdded, assetAddedDate);
+			addAssets(asset.getAssets(), addTo, blueprints, assetAddedDate);
 		}
 	}
 
@@ -1277,6 +1221,46 @@ public class ProfileData {
 		}
 	}
 
+	/**
+	 * The owner data an EventList was build from.
+	 * Owners replace their data when updated, but, data can also be added (account migration), so the size is included.
+	 */
+	private static class OwnerSources {
+		private final List<Object> sources = new ArrayList<>();
+		private final List<Integer> sizes = new ArrayList<>();
+
+		public void add(OwnerType owner, Object data, int size) {
+			sources.add(owner);
+			sources.add(data);
+			sizes.add(size);
+		}
+
+		@Override
+		public int hashCode() {
+			return sizes.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final OwnerSources other = (OwnerSources) obj;
+			if (!sizes.equals(other.sizes) || sources.size() != other.sources.size()) {
+				return false;
+			}
+			for (int i = 0; i < sources.size(); i++) {
+				if (sources.get(i) != other.sources.get(i)) { //Same instance
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	private static class Match<T> implements Comparable<Match<T>>{
 		private final T t;
 		private final double amount;
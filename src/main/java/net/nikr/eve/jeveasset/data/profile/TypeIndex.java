@@ -0,0 +1,149 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.data.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyContract;
+import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.api.my.MyIndustryJob;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+
+/**
+ * TypeID look-up of the profile data. Built once per ProfileData.updateEventLists() and never modified.
+ * BPC have negative TypeIDs (assets and contract items).
+ */
+public class TypeIndex {
+
+	private final Map<Integer, List<MyAsset>> assets = new HashMap<>();
+	private final Map<Integer, List<MyMarketOrder>> marketOrders = new HashMap<>();
+	private final Map<Integer, List<MyIndustryJob>> industryJobs = new HashMap<>();
+	private final Map<Integer, List<MyTransaction>> transactions = new HashMap<>();
+	private final Map<Integer, List<MyContractItem>> contractItems = new HashMap<>();
+	private final Map<MyContract, List<MyContractItem>> contracts = new HashMap<>();
+
+	public TypeIndex() { }
+
+	public TypeIndex(List<MyAsset> assets, List<MyMarketOrder> marketOrders, List<MyIndustryJob> industryJobs, List<MyTransaction> transactions, List<MyContractItem> contractItems) {
+		for (MyAsset asset : assets) {
+			if (asset.isGenerated()) { //Skip generated assets
+				continue;
+			}
+			add(this.assets, get(asset.getTypeID(), asset.isBPC()), asset);
+		}
+		for (MyMarketOrder marketOrder : marketOrders) {
+			add(this.marketOrders, marketOrder.getTypeID(), marketOrder);
+		}
+		for (MyIndustryJob industryJob : industryJobs) {
+			add(this.industryJobs, industryJob.getProductTypeID(), industryJob); //Manufacturing
+			add(this.industryJobs, get(industryJob.getBlueprintTypeID(), true), industryJob); //Copying
+		}
+		for (MyTransaction transaction : transactions) {
+			add(this.transactions, transaction.getTypeID(), transaction);
+		}
+		for (MyContractItem contractItem : contractItems) {
+			add(this.contractItems, get(contractItem.getTypeID(), contractItem.isBPC()), contractItem);
+			List<MyContractItem> items = contracts.get(contractItem.getContract());
+			if (items == null) {
+				items = new ArrayList<>();
+				contracts.put(contractItem.getContract(), items);
+			}
+			items.add(contractItem);
+		}
+	}
+
+	/**
+	 * @param typeID TypeID (negative for BPC)
+	 * @return assets, excluding generated assets
+	 */
+	public List<MyAsset> getAssets(int typeID) {
+		return get(assets, typeID);
+	}
+
+	public List<MyMarketOrder> getMarketOrders(int typeID) {
+		return get(marketOrders, typeID);
+	}
+
+	/**
+	 * @param typeID product TypeID (manufacturing) or negative blueprint TypeID (copying)
+	 * @return industry jobs
+	 */
+	public List<MyIndustryJob> getIndustryJobs(int typeID) {
+		return get(industryJobs, typeID);
+	}
+
+	public List<MyTransaction> getTransactions(int typeID) {
+		return get(transactions, typeID);
+	}
+
+	/**
+	 * @param typeID TypeID (negative for BPC)
+	 * @return contract items, including items from ignored contracts
+	 */
+	public List<MyContractItem> getContractItems(int typeID) {
+		return get(contractItems, typeID);
+	}
+
+	public List<MyContractItem> getContractItems(MyContract contract) {
+		List<MyContractItem> items = contracts.get(contract);
+		if (items == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(items);
+	}
+
+	private static Integer get(Integer typeID, boolean bpc) {
+		if (typeID == null) {
+			return null;
+		}
+		if (bpc) {
+			return -typeID;
+		} else {
+			return typeID;
+		}
+	}
+
+	private static <T> List<T> get(Map<Integer, List<T>> map, int typeID) {
+		List<T> list = map.get(typeID);
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	private static <T> void add(Map<Integer, List<T>> map, Integer typeID, T t) {
+		if (typeID == null) {
+			return;
+		}
+		List<T> list = map.get(typeID);
+		if (list == null) {
+			list = new ArrayList<>();
+			map.put(typeID, list);
+		}
+		list.add(t);
+	}
+}
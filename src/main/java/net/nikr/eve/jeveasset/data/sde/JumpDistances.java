@@ -0,0 +1,278 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.data.sde;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * All-pairs jump distances between the systems in jumps.xml.
+ * Distances are symmetric and stored as unsigned bytes in a lower triangle matrix,
+ * so every lookup is a single array access.
+ * Systems are indexed by binary search in the sorted system ids.
+ * The table is cached on disk, keyed by a hash of the jump data.
+ */
+public class JumpDistances {
+
+	private static final Logger LOG = LoggerFactory.getLogger(JumpDistances.class);
+
+	private static final int MAGIC = 0x4A4A4D50; //JJMP
+	private static final int VERSION = 1;
+	private static final int UNREACHABLE = 0xFF;
+
+	private final long hash;
+	private final long[] systemIDs; //Sorted
+	private final byte[] distances;
+
+	private JumpDistances(final long hash, final long[] systemIDs, final byte[] distances) {
+		this.hash = hash;
+		this.systemIDs = systemIDs;
+		this.distances = distances;
+	}
+
+	/**
+	 * Load the table from the cache file, or build it (and save it) if the cache is missing or outdated.
+	 * @param jumps jump data
+	 * @param filename cache file
+	 * @return the distance table, or null if the jump data can not be represented
+	 */
+	public static JumpDistances load(final List<Jump> jumps, final String filename) {
+		//Adjacency, sorted for a stable hash
+		Map<Long, Set<Long>> graph = new TreeMap<>();
+		for (Jump jump : jumps) {
+			long from = jump.getFrom().getSystemID();
+			long to = jump.getTo().getSystemID();
+			add(graph, from, to);
+			add(graph, to, from);
+		}
+		long[] systemIDs = new long[graph.size()];
+		int index = 0;
+		for (Long systemID : graph.keySet()) {
+			systemIDs[index++] = systemID;
+		}
+		long hash = hash(graph);
+		File file = new File(filename);
+		JumpDistances cached = read(file, hash, systemIDs);
+		if (cached != null) {
+			LOG.info("Jump distances loaded");
+			return cached;
+		}
+		JumpDistances created = create(graph, systemIDs, hash);
+		if (created != null) {
+			write(file, created);
+			LOG.info("Jump distances created");
+		}
+		return created;
+	}
+
+	/**
+	 * @param fromSystemID from system
+	 * @param toSystemID to system
+	 * @return number of jumps, or null if one of the systems is unknown or they are not connected
+	 */
+	public Integer distanceBetween(final long fromSystemID, final long toSystemID) {
+		int from = Arrays.binarySearch(systemIDs, fromSystemID);
+		int to = Arrays.binarySearch(systemIDs, toSystemID);
+		if (from < 0 || to < 0) {
+			return null;
+		}
+		if (from == to) {
+			return 0;
+		}
+		int jumps = distances[index(from, to)] & 0xFF;
+		if (jumps == UNREACHABLE) {
+			return null;
+		}
+		return jumps;
+	}
+
+	private static int index(final int a, final int b) {
+		int low = Math.min(a, b);
+		int high = Math.max(a, b);
+		return (int) ((long) high * (high - 1) / 2 + low);
+	}
+
+	private static void add(final Map<Long, Set<Long>> graph, final long from, final long to) {
+		Set<Long> set = graph.get(from);
+		if (set == null) {
+			set = new TreeSet<>();
+			graph.put(from, set);
+		}
+		set.add(to);
+	}
+
+	private static long hash(final Map<Long, Set<Long>> graph) {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8];
+		for (Map.Entry<Long, Set<Long>> entry : graph.entrySet()) {
+			update(crc, buffer, entry.getKey());
+			update(crc, buffer, entry.getValue().size());
+			for (Long to : entry.getValue()) {
+				update(crc, buffer, to);
+			}
+		}
+		return crc.getValue() ^ ((long) graph.size() << 32);
+	}
+
+	private static void update(final CRC32 crc, final byte[] buffer, final long value) {
+		for (int i = 0; i < 8; i++) {
+			buffer[i] = (byte) (value >>> (i * 8));
+		}
+		crc.update(buffer, 0, 8);
+	}
+
+	/**
+	 * Breadth first search from every system.
+	 */
+	private static JumpDistances create(final Map<Long, Set<Long>> graph, final long[] systemIDs, final long hash) {
+		int size = systemIDs.length;
+		int[][] neighbours = new int[size][];
+		for (int i = 0; i < size; i++) {
+			Set<Long> set = graph.get(systemIDs[i]);
+			neighbours[i] = new int[set.size()];
+			int j = 0;
+			for (Long to : set) {
+				neighbours[i][j++] = Arrays.binarySearch(systemIDs, to);
+			}
+		}
+		long length = (long) size * (size - 1) / 2;
+		if (length > Integer.MAX_VALUE) {
+			LOG.warn("Too many systems for the jump distance table: " + size);
+			return null;
+		}
+		byte[] distances = new byte[(int) length];
+		Arrays.fill(distances, (byte) UNREACHABLE);
+		int[] depth = new int[size];
+		int[] queue = new int[size];
+		for (int source = 1; source < size; source++) {
+			Arrays.fill(depth, -1);
+			depth[source] = 0;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = source;
+			while (head < tail) {
+				int current = queue[head++];
+				for (int next : neighbours[current]) {
+					if (depth[next] < 0) {
+						depth[next] = depth[current] + 1;
+						queue[tail++] = next;
+					}
+				}
+			}
+			int offset = (int) ((long) source * (source - 1) / 2);
+			for (int target = 0; target < source; target++) { //Only the lower triangle
+				int jumps = depth[target];
+				if (jumps >= UNREACHABLE) {
+					LOG.warn("Jump distance too long for the jump distance table: " + jumps);
+					return null;
+				}
+				if (jumps >= 0) {
+					distances[offset + target] = (byte) jumps;
+				}
+			}
+		}
+		return new JumpDistances(hash, systemIDs, distances);
+	}
+
+	private static JumpDistances read(final File file, final long hash, final long[] systemIDs) {
+		if (!file.exists()) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != hash) {
+				return null; //Outdated
+			}
+			int size = in.readInt();
+			if (size != systemIDs.length) {
+				return null;
+			}
+			for (long systemID : systemIDs) {
+				if (in.readLong() != systemID) {
+					return null;
+				}
+			}
+			byte[] distances = new byte[(int) ((long) size * (size - 1) / 2)];
+			in.readFully(distances);
+			return new JumpDistances(hash, systemIDs, distances);
+		} catch (IOException ex) {
+			LOG.warn("Failed to read jump distances: " + ex.getMessage(), ex);
+			return null;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write to a temp file and move it into place, so a failed write never leaves a truncated cache behind.
+	 */
+	private static void write(final File file, final JumpDistances jumpDistances) {
+		File tempFile = null;
+		try {
+			File directory = file.getAbsoluteFile().getParentFile();
+			if (!directory.exists() && !directory.mkdirs()) {
+				throw new IOException("Failed to create: " + directory.getAbsolutePath());
+			}
+			tempFile = File.createTempFile("jumps", ".tmp", directory);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(jumpDistances.hash);
+				out.writeInt(jumpDistances.systemIDs.length);
+				for (long systemID : jumpDistances.systemIDs) {
+					out.writeLong(systemID);
+				}
+				out.write(jumpDistances.distances);
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			LOG.warn("Failed to save jump distances: " + ex.getMessage(), ex);
+			if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+				LOG.warn("Failed to delete: " + tempFile.getAbsolutePath());
+			}
+		}
+	}
+}
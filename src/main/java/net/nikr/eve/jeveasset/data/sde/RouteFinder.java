@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Objects;
 import net.nikr.eve.jeveasset.SplashUpdater;
 import net.nikr.eve.jeveasset.gui.tabs.routing.SolarSystem;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import uk.me.candle.eve.graph.DisconnectedGraphException;
 import uk.me.candle.eve.graph.Edge;
 import uk.me.candle.eve.graph.Graph;
@@ -38,6 +39,7 @@ public class RouteFinder {
 	private final Graph<SolarSystem> graph;
 	private final Map<Long, SolarSystem> systemCache;
 	private final Map<Route, Integer> distance = new HashMap<>();
+	private volatile JumpDistances jumpDistances;
 
 	private RouteFinder() {
 		// build the graph.
@@ -59,6 +61,21 @@ public class RouteFinder {
 			}
 			graph.addEdge(new Edge<>(from, to));
 		}
+		//Build (or load) the distance table in the background, use the graph until it's done
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				JumpDistances table = JumpDistances.load(StaticData.get().getJumps(), FileUtil.getPathJumpDistances());
+				if (table != null) {
+					jumpDistances = table;
+					synchronized (distance) {
+						distance.clear(); //Not needed anymore
+					}
+				}
+			}
+		}, "JumpDistances");
+		thread.setDaemon(true);
+		thread.start();
 	}
 
 	public Integer distanceBetween(Long fromSystemID, Long toSystemID) {
@@ -68,6 +85,16 @@ public class RouteFinder {
 		if (Objects.equals(fromSystemID, toSystemID)) {
 			return 0;
 		}
+		JumpDistances table = jumpDistances;
+		if (table != null) {
+			return table.distanceBetween(fromSystemID, toSystemID);
+		}
+		synchronized (distance) {
+			return graphDistanceBetween(fromSystemID, toSystemID);
+		}
+	}
+
+	private Integer graphDistanceBetween(Long fromSystemID, Long toSystemID) {
 		Route route = new Route(fromSystemID, toSystemID);
 		Integer jumps = distance.get(route);
 		if (jumps != null) {
@@ -27,7 +27,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import net.nikr.eve.jeveasset.io.local.AssetAddedReader;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
@@ -70,9 +69,12 @@ public class AddedData {
 		public void load() { }
 	}
 
-	private static final String CONNECTION_URL = "jdbc:sqlite:" + FileUtil.getPathAssetAddedDatabase();
-	private Map<Long, Date> insert = null;
-	private Map<Long, Date> update = null;
+	public static final String DEFAULT_CONNECTION_URL = "jdbc:sqlite:" + FileUtil.getPathAssetAddedDatabase();
+	private static final long MISSING = Long.MIN_VALUE;
+	private static String connectionUrl = DEFAULT_CONNECTION_URL;
+	private AddedDataMap data = null;
+	private AddedDataMap queue = null;
+	private boolean loadFailed = false;
 	private final DataSettings dataSettings;
 
 	private AddedData(DataSettings dataSettings) {
@@ -95,13 +97,20 @@ public class AddedData {
 		return DataSettings.MARKET_ORDERS.getInstance();
 	}
 
+	protected static void setConnectionUrl(String connectionUrl) {
+		AddedData.connectionUrl = connectionUrl;
+	}
+
 	public static void load() {
 		for (DataSettings dataSettings : DataSettings.values()) {
 			dataSettings.getInstance().init();
 		}
 	}
 
-	private void init() {
+	private synchronized void init() {
+		data = null; //Reload on next use
+		queue = null;
+		loadFailed = false;
 		if (!tableExist()) { //New database: Import from added.json
 			dataSettings.load();
 		}
@@ -112,68 +121,96 @@ public class AddedData {
 
 	/**
 	 * Update if date is before the current value.
-	 * @param data current data
 	 * @param id unique id
 	 * @param added
 	 * @return
 	 */
-	public Date getAdd(Map<Long, Date> data, Long id, Date added) {
-		Date date = data.get(id);
-		if (date == null) { //Insert
-			date = added;
-			insertQueue(id, date);
+	public synchronized Date getAdd(long id, Date added) {
+		AddedDataMap map = getData();
+		if (map == null) { //Failed to load: do not overwrite the stored dates
+			return added;
 		}
-		if (date.after(added)) { //Update
-			date = added;
-			updateQueue(id, date);
+		long date = map.get(id, MISSING);
+		long time = added.getTime();
+		if (date == MISSING || date > time) { //Insert or Update
+			queue(id, time);
+			return added;
 		}
-		return date;
+		return toDate(date, added);
 	}
 
 	/**
 	 * Update if date is after the current value.
-	 * @param data current data
 	 * @param id unique id
 	 * @param added
 	 * @return
 	 */
-	public Date getPut(Map<Long, Date> data, Long id, Date added) {
-		Date date = data.get(id);
-		if (date == null) { //Insert
-			date = added;
-			insertQueue(id, date);
+	public synchronized Date getPut(long id, Date added) {
+		AddedDataMap map = getData();
+		if (map == null) { //Failed to load: do not overwrite the stored dates
+			return added;
 		}
-		if (date.before(added)) { //Update
-			date = added;
-			updateQueue(id, date);
+		long date = map.get(id, MISSING);
+		long time = added.getTime();
+		if (date == MISSING || date < time) { //Insert or Update
+			queue(id, time);
+			return added;
 		}
-		return date;
+		return toDate(date, added);
 	}
 
-	private void insertQueue(Long id, Date date) {
-		if (insert == null) {
-			insert = new HashMap<>();
+	public synchronized boolean contains(long id) {
+		AddedDataMap map = getData();
+		return map != null && map.containsKey(id);
+	}
+
+	private Date toDate(long date, Date added) {
+		if (date == added.getTime()) {
+			return added; //Reuse the date object
 		}
-		insert.put(id, date);
+		return new Date(date);
 	}
 
-	private void updateQueue(Long id, Date date) {
-		if (update == null) {
-			update = new HashMap<>();
+	private void queue(long id, long time) {
+		if (data != null) {
+			data.put(id, time);
+		}
+		if (queue == null) {
+			queue = new AddedDataMap();
 		}
-		update.put(id, date);
+		queue.put(id, time);
 	}
 
 	public void commitQueue() {
-		insert(insert);
-		update(update);
-		update = null;
-		insert = null;
+		AddedDataMap commit;
+		synchronized (this) {
+			commit = queue;
+			queue = null;
+			loadFailed = false; //Retry loading on next use
+		}
+		if (upsert(commit)) {
+			return;
+		}
+		synchronized (this) { //Failed to save: keep the values for the next commit
+			if (queue == null) {
+				queue = commit;
+			} else {
+				final AddedDataMap newer = queue;
+				commit.forEach(new AddedDataMap.EntryVisitor() {
+					@Override
+					public void visit(long key, long value) {
+						if (!newer.containsKey(key)) {
+							newer.put(key, value);
+						}
+					}
+				});
+			}
+		}
 	}
 
 	public boolean isEmpty() {
 		String sql = "SELECT * FROM " + dataSettings.getTableName();
-		try (Connection connection = DriverManager.getConnection(CONNECTION_URL);
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
 				PreparedStatement statement = connection.prepareStatement(sql);
 				ResultSet rs = statement.executeQuery()) {
 			while (rs.next()) {
@@ -185,79 +222,96 @@ public class AddedData {
 		return true;
 	}
 
-	public void set(Map<Long, Date> data) {
-		if (data == null || data.isEmpty() || tableExist()) {
+	public void set(Map<Long, Date> map) {
+		if (map == null || map.isEmpty() || tableExist()) {
 			return;
 		}
 		createTable();
-		insert(data);
+		AddedDataMap values = new AddedDataMap(map.size());
+		for (Map.Entry<Long, Date> entry : map.entrySet()) {
+			values.put(entry.getKey(), entry.getValue().getTime());
+		}
+		upsert(values);
+		synchronized (this) {
+			data = null; //Reload on next use
+		}
 	}
 
-	private void insert(Map<Long, Date> data) {
-		if (data == null || data.isEmpty()) {
-			return;
+	private boolean upsert(AddedDataMap values) {
+		if (values == null || values.isEmpty()) {
+			return true;
 		}
-		String sql = "INSERT INTO " + dataSettings.getTableName() + "(itemid,date) VALUES(?,?)";
-		try (Connection connection = DriverManager.getConnection(CONNECTION_URL);
+		String sql = "INSERT INTO " + dataSettings.getTableName() + "(itemid,date) VALUES(?,?) ON CONFLICT(itemid) DO UPDATE SET date = excluded.date";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
 				PreparedStatement statement = connection.prepareStatement(sql)) {
-			int i = 0;
 			connection.setAutoCommit(false);
-			for (Map.Entry<Long, Date> entry : data.entrySet()) {
-				statement.setLong(1, entry.getKey());
-				statement.setLong(2, entry.getValue().getTime());
-
-				statement.addBatch();
-				i++;
-				if (i % 1000 == 0 || i == data.size()) {
-					statement.executeBatch(); // Execute every 1000 items.
+			final int size = values.size();
+			final int[] count = {0};
+			final SQLException[] exception = {null};
+			values.forEach(new AddedDataMap.EntryVisitor() {
+				@Override
+				public void visit(long key, long value) {
+					if (exception[0] != null) {
+						return;
+					}
+					try {
+						statement.setLong(1, key);
+						statement.setLong(2, value);
+						statement.addBatch();
+						count[0]++;
+						if (count[0] % 1000 == 0 || count[0] == size) {
+							statement.executeBatch(); // Execute every 1000 items.
+						}
+					} catch (SQLException ex) {
+						exception[0] = ex;
+					}
 				}
+			});
+			if (exception[0] != null) {
+				throw exception[0];
 			}
 			connection.commit();
 			connection.setAutoCommit(true);
+			return true;
 		} catch (SQLException ex) {
 			LOG.error(ex.getMessage(), ex);
+			return false;
 		}
 	}
 
-	public void update(Map<Long, Date> data) {
-		if (data == null || data.isEmpty()) {
-			return;
-		}
-		String sql = "UPDATE " + dataSettings.getTableName() + " SET date = ? WHERE itemid = ?";
-		try (Connection connection = DriverManager.getConnection(CONNECTION_URL);
-				PreparedStatement statement = connection.prepareStatement(sql)) {
-			int i = 0;
-			connection.setAutoCommit(false);
-			for (Map.Entry<Long, Date> entry : data.entrySet()) {
-				statement.setLong(1, entry.getValue().getTime());
-				statement.setLong(2, entry.getKey());
-
-				statement.addBatch();
-				i++;
-				if (i % 1000 == 0 || i == data.size()) {
-					statement.executeBatch(); // Execute every 1000 items.
-				}
-			}
-			connection.commit();
-			connection.setAutoCommit(true);
-		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+	/**
+	 * The stored values, or null if the table could not be read.
+	 * A failed load is retried after the next commit.
+	 * @return
+	 */
+	private AddedDataMap getData() {
+		if (data == null && !loadFailed) {
+			data = load(dataSettings.getTableName());
+			loadFailed = data == null;
 		}
+		return data;
 	}
 
-	public Map<Long, Date> getAll() {
-		Map<Long, Date> map = new HashMap<>();
-		String sql = "SELECT * FROM " + dataSettings.getTableName();
-		try (Connection connection = DriverManager.getConnection(CONNECTION_URL);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				ResultSet rs = statement.executeQuery();) {
-			while (rs.next()) {
-				map.put(rs.getLong("itemid"), new Date(rs.getLong("date")));
+	private static AddedDataMap load(String tableName) {
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				Statement statement = connection.createStatement()) {
+			int count = 0;
+			try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+				if (rs.next()) {
+					count = rs.getInt(1);
+				}
+			}
+			AddedDataMap map = new AddedDataMap(count);
+			try (ResultSet rs = statement.executeQuery("SELECT itemid, date FROM " + tableName)) {
+				while (rs.next()) {
+					map.put(rs.getLong(1), rs.getLong(2));
+				}
 			}
+			return map;
 		} catch (SQLException ex) {
 			LOG.error(ex.getMessage(), ex);
 		}
-		return map; //can not return null
+		return null;
 	}
 
 	private void createTable() {
@@ -265,7 +319,7 @@ public class AddedData {
 				+ "	itemid integer PRIMARY KEY,\n"
 				+ "	date integer NOT NULL\n"
 				+ ");";
-		try (Connection connection = DriverManager.getConnection(CONNECTION_URL);
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
 				Statement statement = connection.createStatement()) {
 			statement.execute(sql);
 		} catch (SQLException ex) {
@@ -275,7 +329,7 @@ public class AddedData {
 
 	private boolean tableExist() {
 		String sql = "SELECT name FROM sqlite_master WHERE type='table' AND name='" + dataSettings.getTableName() + "'";
-		try (Connection connection = DriverManager.getConnection(CONNECTION_URL);
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
 				Statement statement = connection.createStatement();
 				ResultSet rs = statement.executeQuery(sql)) {
 			while (rs.next()) {
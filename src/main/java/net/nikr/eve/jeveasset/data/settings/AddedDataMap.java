@@ -0,0 +1,155 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+/**
+ * Open addressing long to long map (id to epoch millis).
+ * Keeps the added dates as two primitive arrays instead of boxed Long/Date entries.
+ * Not thread safe.
+ */
+class AddedDataMap {
+
+	private static final int MIN_CAPACITY = 16;
+	private static final long FREE = 0;
+
+	private long[] keys;
+	private long[] values;
+	private int mask;
+	private int size;
+	private int resizeAt;
+	private boolean hasFreeKey;
+	private long freeKeyValue;
+
+	public AddedDataMap() {
+		this(0);
+	}
+
+	/**
+	 * @param expected expected number of entries
+	 */
+	public AddedDataMap(int expected) {
+		int capacity = MIN_CAPACITY;
+		while (capacity / 2 < expected) { //Max 50% full
+			capacity = capacity << 1;
+		}
+		allocate(capacity);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		if (key == FREE) {
+			return hasFreeKey;
+		}
+		return keys[find(key)] != FREE;
+	}
+
+	/**
+	 * @param key id
+	 * @param missing returned if the key is not in the map
+	 * @return the value or missing
+	 */
+	public long get(long key, long missing) {
+		if (key == FREE) {
+			return hasFreeKey ? freeKeyValue : missing;
+		}
+		int index = find(key);
+		if (keys[index] == FREE) {
+			return missing;
+		}
+		return values[index];
+	}
+
+	public void put(long key, long value) {
+		if (key == FREE) {
+			if (!hasFreeKey) {
+				hasFreeKey = true;
+				size++;
+			}
+			freeKeyValue = value;
+			return;
+		}
+		int index = find(key);
+		if (keys[index] == FREE) {
+			keys[index] = key;
+			size++;
+		}
+		values[index] = value;
+		if (size >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+	}
+
+	public void forEach(EntryVisitor visitor) {
+		if (hasFreeKey) {
+			visitor.visit(FREE, freeKeyValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				visitor.visit(keys[i], values[i]);
+			}
+		}
+	}
+
+	private int find(long key) {
+		int index = hash(key) & mask;
+		while (keys[index] != FREE && keys[index] != key) {
+			index = (index + 1) & mask; //Linear probing
+		}
+		return index;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			long key = oldKeys[i];
+			if (key != FREE) {
+				int index = find(key);
+				keys[index] = key;
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+		resizeAt = capacity / 2;
+	}
+
+	private static int hash(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	public static interface EntryVisitor {
+		public void visit(long key, long value);
+	}
+}
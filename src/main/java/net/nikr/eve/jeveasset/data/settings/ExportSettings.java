@@ -126,7 +126,8 @@ public class ExportSettings {
 	public enum ExportFormat {
 		CSV("csv"),
 		SQL("sql"),
-		HTML("html");
+		HTML("html"),
+		SQLITE("db");
 
 		private final String extension;
 
@@ -300,6 +301,10 @@ public class ExportSettings {
 		return exportFormat == ExportFormat.HTML;
 	}
 
+	public boolean isSqlite() {
+		return exportFormat == ExportFormat.SQLITE;
+	}
+
 	public boolean isHtmlStyled() {
 		return htmlStyled;
 	}
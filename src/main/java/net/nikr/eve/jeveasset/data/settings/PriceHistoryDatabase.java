@@ -31,6 +31,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -55,9 +56,19 @@ public class PriceHistoryDatabase {
 
 	public static final DateFormatThreadSafe DATE = new DateFormatThreadSafe("yyyy-MM-dd", true);
 
+	/**
+	 * Number of typeIDs per select.
+	 * Larger sets are selected in chunks using the same cached statement.
+	 */
+	private static final int SELECT_CHUNK_SIZE = 500;
+	private static final int BATCH_SIZE = 1000;
+
 	private static String connectionUrl = DEFAULT_CONNECTION_URL;
 	private static PriceHistoryDatabase instance;
 
+	private final Map<String, PreparedStatement> statements = new HashMap<>();
+	private Connection connection;
+
 	public PriceHistoryDatabase() {
 		this(false);
 	}
@@ -68,7 +79,7 @@ public class PriceHistoryDatabase {
 		}
 	}
 
-	private void init() {
+	private synchronized void init() {
 		if (!tableZKillboardExist()) { //New database: Empty
 			createZKillboardTable();
 		}
@@ -78,13 +89,15 @@ public class PriceHistoryDatabase {
 		if (!tablePriceDataExist()) { //New database: Empty
 			createPriceDataTable();
 		}
+		createIndexes();
 	}
 
-	protected static void setConnectionUrl(String connectionUrl) {
+	protected static synchronized void setConnectionUrl(String connectionUrl) {
+		close();
 		PriceHistoryDatabase.connectionUrl = connectionUrl;
 	}
 
-	private static PriceHistoryDatabase getInstance() {
+	private static synchronized PriceHistoryDatabase getInstance() {
 		if (instance == null) {
 			instance = new PriceHistoryDatabase();
 		}
@@ -95,6 +108,16 @@ public class PriceHistoryDatabase {
 		getInstance().init();
 	}
 
+	/**
+	 * Close the database connection.
+	 * The connection is reopened on next use.
+	 */
+	public static synchronized void close() {
+		if (instance != null) {
+			instance.closeConnection();
+		}
+	}
+
 	/**
 	 * Get typeIDs that have data for today.
 	 * @return
@@ -164,6 +187,81 @@ public class PriceHistoryDatabase {
 		return getInstance().selectPriceData(typeIDs, priceMode);
 	}
 
+	/**
+	 * Get the shared connection.
+	 * Opened on first use in WAL mode: readers do not block the writer and
+	 * commits only sync the log.
+	 * @return
+	 * @throws SQLException
+	 */
+	private Connection getConnection() throws SQLException {
+		if (connection == null || connection.isClosed()) {
+			statements.clear();
+			connection = DriverManager.getConnection(connectionUrl);
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("PRAGMA journal_mode=WAL");
+				statement.execute("PRAGMA synchronous=NORMAL");
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * Get cached prepared statement.
+	 * @param sql
+	 * @return
+	 * @throws SQLException
+	 */
+	private PreparedStatement prepare(String sql) throws SQLException {
+		Connection con = getConnection();
+		PreparedStatement statement = statements.get(sql);
+		if (statement == null || statement.isClosed()) {
+			statement = con.prepareStatement(sql);
+			statements.put(sql, statement);
+		}
+		return statement;
+	}
+
+	/**
+	 * Close the connection after an error.
+	 * The next call will open a new connection.
+	 * @param ex
+	 */
+	private void error(SQLException ex) {
+		LOG.error(ex.getMessage(), ex);
+		closeConnection();
+	}
+
+	private synchronized void closeConnection() {
+		for (PreparedStatement statement : statements.values()) {
+			try {
+				statement.close();
+			} catch (SQLException ex) {
+				LOG.warn(ex.getMessage(), ex);
+			}
+		}
+		statements.clear();
+		if (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException ex) {
+				LOG.warn(ex.getMessage(), ex);
+			}
+			connection = null;
+		}
+	}
+
+	private void rollback() {
+		try {
+			if (connection != null && !connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException ex) {
+			LOG.warn(ex.getMessage(), ex);
+		}
+	}
+
 	private void updateZKillboard(Map<Item, Set<PriceHistoryData>> map) {
 		Set<PriceHistoryData> insert = new HashSet<>();
 		//Add new data
@@ -174,13 +272,13 @@ public class PriceHistoryDatabase {
 		insertZKillboard(insert);
 	}
 
-	private void insertZKillboard(Set<PriceHistoryData> insert) {
+	private synchronized void insertZKillboard(Set<PriceHistoryData> insert) {
 		if (insert == null || insert.isEmpty()) {
 			return;
 		}
 		String sql = "INSERT OR IGNORE INTO " + ZKILLBOARD_TABLE + "  (typeid,date,price) VALUES(?,?,?)";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql)) {
+		try {
+			PreparedStatement statement = prepare(sql);
 			int i = 0;
 			connection.setAutoCommit(false);
 			for (PriceHistoryData killboardData : insert) {
@@ -189,52 +287,53 @@ public class PriceHistoryDatabase {
 				statement.setDouble(3, killboardData.getPrice());
 				statement.addBatch();
 				i++;
-				if (i % 1000 == 0 || i == insert.size()) {
+				if (i % BATCH_SIZE == 0 || i == insert.size()) {
 					statement.executeBatch(); // Execute every 1000 items.
 				}
 			}
 			connection.commit();
 			connection.setAutoCommit(true);
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			rollback();
+			error(ex);
 		}
 	}
 
-	private void insertZBlaclist(Set<Integer> insert) {
+	private synchronized void insertZBlaclist(Set<Integer> insert) {
 		if (insert == null || insert.isEmpty()) {
 			return;
 		}
 		String sql = "INSERT OR IGNORE INTO " + ZBLACKLIST_TABLE + "  (typeid) VALUES(?)";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql)) {
+		try {
+			PreparedStatement statement = prepare(sql);
 			int i = 0;
 			connection.setAutoCommit(false);
 			for (Integer typeID : insert) {
 				statement.setInt(1, typeID);
 				statement.addBatch();
 				i++;
-				if (i % 1000 == 0 || i == insert.size()) {
+				if (i % BATCH_SIZE == 0 || i == insert.size()) {
 					statement.executeBatch(); // Execute every 1000 items.
 				}
 			}
 			connection.commit();
 			connection.setAutoCommit(true);
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			rollback();
+			error(ex);
 		}
 	}
 
-	private void deleteZBlaclist() {
+	private synchronized void deleteZBlaclist() {
 		String sql = "DELETE FROM " + ZBLACKLIST_TABLE;
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				Statement statement = connection.createStatement()) {
-			statement.execute(sql);
+		try {
+			prepare(sql).executeUpdate();
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 	}
 
-	private void insertPriceData(Map<Integer, PriceData> insert) {
+	private synchronized void insertPriceData(Map<Integer, PriceData> insert) {
 		if (insert == null || insert.isEmpty()) {
 			return;
 		}
@@ -251,8 +350,8 @@ public class PriceHistoryDatabase {
 				+ "buymedian,"
 				+ "buymin)"
 				+ "VALUES(?,?,?,?,?,?,?,?,?,?,?,?)";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql)) {
+		try {
+			PreparedStatement statement = prepare(sql);
 			int i = 0;
 			connection.setAutoCommit(false);
 			for (Map.Entry<Integer, PriceData> entry : insert.entrySet()) {
@@ -270,96 +369,138 @@ public class PriceHistoryDatabase {
 				statement.setDouble(12, entry.getValue().getBuyMin());
 				statement.addBatch();
 				i++;
-				if (i % 1000 == 0 || i == insert.size()) {
+				if (i % BATCH_SIZE == 0 || i == insert.size()) {
 					statement.executeBatch(); // Execute every 1000 items.
 				}
 			}
 			connection.commit();
 			connection.setAutoCommit(true);
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			rollback();
+			error(ex);
 		}
 	}
 
-	private Map<Item, Set<PriceHistoryData>> selectZKillboard(Set<Integer> typeIDs) {
-		Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
-		StringBuilder builder = new StringBuilder();
-		boolean first = true;
-		for (int typeID : typeIDs) {
-			if (first) {
-				first = false;
-			} else {
-				builder.append(", ");
+	/**
+	 * Create "SELECT ... WHERE typeid IN (?, ?, ...)" with SELECT_CHUNK_SIZE parameters.
+	 * @param select
+	 * @return
+	 */
+	private static String selectTypeIDs(String select) {
+		StringBuilder builder = new StringBuilder(select);
+		builder.append(" WHERE typeid IN (");
+		for (int i = 0; i < SELECT_CHUNK_SIZE; i++) {
+			if (i > 0) {
+				builder.append(",");
+			}
+			builder.append("?");
+		}
+		builder.append(")");
+		return builder.toString();
+	}
+
+	/**
+	 * Set the typeID parameters of the next chunk.
+	 * Unused parameters repeat the last typeID (does not change the result).
+	 * @param statement
+	 * @param iterator
+	 * @throws SQLException
+	 */
+	private static void setTypeIDs(PreparedStatement statement, Iterator<Integer> iterator) throws SQLException {
+		int last = 0;
+		for (int i = 1; i <= SELECT_CHUNK_SIZE; i++) {
+			if (iterator.hasNext()) {
+				last = iterator.next();
 			}
-			builder.append(typeID);
+			statement.setInt(i, last);
 		}
+	}
 
+	private synchronized Map<Item, Set<PriceHistoryData>> selectZKillboard(Set<Integer> typeIDs) {
+		Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
 		for (int typeID : typeIDs) {
 			data.put(ApiIdConverter.getItem(typeID), new TreeSet<>());
 		}
-		String sql = "SELECT * FROM " + ZKILLBOARD_TABLE + " WHERE typeid IN (" + builder.toString()  + ")";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				ResultSet rs = statement.executeQuery();) {
-			while (rs.next()) {
-				int typeID = rs.getInt("typeid");
-				String date = rs.getString("date");
-				double price = rs.getDouble("price");
-				try {
-					Item item = ApiIdConverter.getItem(typeID);
-					data.get(item).add(new PriceHistoryData(typeID, item, date, price));
-				} catch (ParseException ex) {
-					//Ignore
+		if (typeIDs.isEmpty()) {
+			return data;
+		}
+		String sql = selectTypeIDs("SELECT typeid, date, price FROM " + ZKILLBOARD_TABLE);
+		try {
+			PreparedStatement statement = prepare(sql);
+			Iterator<Integer> iterator = typeIDs.iterator();
+			while (iterator.hasNext()) {
+				setTypeIDs(statement, iterator);
+				try (ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						int typeID = rs.getInt(1);
+						String date = rs.getString(2);
+						double price = rs.getDouble(3);
+						try {
+							Item item = ApiIdConverter.getItem(typeID);
+							data.get(item).add(new PriceHistoryData(typeID, item, date, price));
+						} catch (ParseException ex) {
+							//Ignore
+						}
+					}
 				}
 			}
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 		return data;
 	}
 
-	private Map<Item, Set<PriceHistoryData>> selectPriceData(Set<Integer> typeIDs, PriceMode priceMode) {
+	private synchronized Map<Item, Set<PriceHistoryData>> selectPriceData(Set<Integer> typeIDs, PriceMode priceMode) {
 		Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
-		StringBuilder builder = new StringBuilder();
-		boolean first = true;
-		for (int typeID : typeIDs) {
-			if (first) {
-				first = false;
-			} else {
-				builder.append(", ");
-			}
-			builder.append(typeID);
-		}
 		for (int typeID : typeIDs) {
 			data.put(ApiIdConverter.getItem(typeID), new TreeSet<>());
 		}
-		String sql = "SELECT * FROM " + PRICEDATA_TABLE + " WHERE typeid IN (" + builder.toString()  + ")";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				ResultSet rs = statement.executeQuery();) {
-			while (rs.next()) {
-				int typeID = rs.getInt("typeid");
-				String date = rs.getString("date");
-				PriceData priceData = new PriceData();
-				priceData.setSellMax(rs.getDouble("sellmax"));
-				priceData.setSellAvg(rs.getDouble("sellavg"));
-				priceData.setSellMedian(rs.getDouble("sellmedian"));
-				priceData.setSellPercentile(rs.getDouble("sellpercentile"));
-				priceData.setSellMin(rs.getDouble("sellmin"));
-				priceData.setBuyMax(rs.getDouble("buymax"));
-				priceData.setBuyPercentile(rs.getDouble("buypercentile"));
-				priceData.setBuyAvg(rs.getDouble("buyavg"));
-				priceData.setBuyMedian(rs.getDouble("buymedian"));
-				priceData.setBuyMin(rs.getDouble("buymin"));
-				try {
-					Item item = ApiIdConverter.getItem(typeID);
-					data.get(item).add(new PriceHistoryData(typeID, item, date, PriceMode.getDefaultPrice(priceData, priceMode)));
-				} catch (ParseException ex) {
-					//Ignore
+		if (typeIDs.isEmpty()) {
+			return data;
+		}
+		String sql = selectTypeIDs("SELECT typeid, date, "
+				+ "sellmax, "
+				+ "sellavg, "
+				+ "sellmedian, "
+				+ "sellpercentile, "
+				+ "sellmin, "
+				+ "buymax, "
+				+ "buypercentile, "
+				+ "buyavg, "
+				+ "buymedian, "
+				+ "buymin "
+				+ "FROM " + PRICEDATA_TABLE);
+		try {
+			PreparedStatement statement = prepare(sql);
+			Iterator<Integer> iterator = typeIDs.iterator();
+			while (iterator.hasNext()) {
+				setTypeIDs(statement, iterator);
+				try (ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						int typeID = rs.getInt(1);
+						String date = rs.getString(2);
+						PriceData priceData = new PriceData();
+						priceData.setSellMax(rs.getDouble(3));
+						priceData.setSellAvg(rs.getDouble(4));
+						priceData.setSellMedian(rs.getDouble(5));
+						priceData.setSellPercentile(rs.getDouble(6));
+						priceData.setSellMin(rs.getDouble(7));
+						priceData.setBuyMax(rs.getDouble(8));
+						priceData.setBuyPercentile(rs.getDouble(9));
+						priceData.setBuyAvg(rs.getDouble(10));
+						priceData.setBuyMedian(rs.getDouble(11));
+						priceData.setBuyMin(rs.getDouble(12));
+						try {
+							Item item = ApiIdConverter.getItem(typeID);
+							data.get(item).add(new PriceHistoryData(typeID, item, date, PriceMode.getDefaultPrice(priceData, priceMode)));
+						} catch (ParseException ex) {
+							//Ignore
+						}
+					}
 				}
 			}
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 		return data;
 	}
@@ -373,35 +514,32 @@ public class PriceHistoryDatabase {
 		return DATE.format(cal.getTime());
 	}
 
-	private Set<Integer> selectZKillboardUpdated() {
+	private synchronized Set<Integer> selectZKillboardUpdated() {
 		Set<Integer> typeIDs = new HashSet<>();
 		String sql = "SELECT typeid FROM " + ZKILLBOARD_TABLE + " WHERE date = ?";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				) {
-				statement.setString(1, getZKillboardDate());
-				ResultSet rs = statement.executeQuery();
-			while (rs.next()) {
-				typeIDs.add(rs.getInt("typeid"));
+		try {
+			PreparedStatement statement = prepare(sql);
+			statement.setString(1, getZKillboardDate());
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					typeIDs.add(rs.getInt(1));
+				}
 			}
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 		return typeIDs;
 	}
 
-	private Set<Integer> selectZBlacklist() {
+	private synchronized Set<Integer> selectZBlacklist() {
 		Set<Integer> typeIDs = new HashSet<>();
 		String sql = "SELECT typeid FROM " + ZBLACKLIST_TABLE;
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				ResultSet rs = statement.executeQuery();
-				) {
+		try (ResultSet rs = prepare(sql).executeQuery()) {
 			while (rs.next()) {
-				typeIDs.add(rs.getInt("typeid"));
+				typeIDs.add(rs.getInt(1));
 			}
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 		return typeIDs;
 	}
@@ -413,24 +551,14 @@ public class PriceHistoryDatabase {
 				+ "	price REAL,\n"
 				+ "	UNIQUE(typeid, date)\n"
 				+ ");";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				Statement statement = connection.createStatement()) {
-			statement.execute(sql);
-		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
-		}
+		execute(sql);
 	}
 
 	private void createZBlacklistTable() {
 		String sql = "CREATE TABLE IF NOT EXISTS " + ZBLACKLIST_TABLE + " (\n"
 				+ "	typeid INTEGER\n"
 				+ ");";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				Statement statement = connection.createStatement()) {
-			statement.execute(sql);
-		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
-		}
+		execute(sql);
 	}
 
 	private void createPriceDataTable() {
@@ -449,36 +577,62 @@ public class PriceHistoryDatabase {
 				+ "	buymin REAL,\n"
 				+ "	UNIQUE(typeid, date)\n"
 				+ ");";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				Statement statement = connection.createStatement()) {
+		execute(sql);
+	}
+
+	/**
+	 * Create missing indexes.
+	 * (typeid, date) is already indexed by the UNIQUE constraint of the zkillboard and pricedata tables.
+	 */
+	private void createIndexes() {
+		//Updated today lookup
+		execute("CREATE INDEX IF NOT EXISTS " + ZKILLBOARD_TABLE + "_date ON " + ZKILLBOARD_TABLE + " (date)");
+		//Make INSERT OR IGNORE work for the blacklist (remove old duplicates first)
+		if (!indexExist(ZBLACKLIST_TABLE + "_typeid")) {
+			execute("DELETE FROM " + ZBLACKLIST_TABLE + " WHERE rowid NOT IN (SELECT MIN(rowid) FROM " + ZBLACKLIST_TABLE + " GROUP BY typeid)");
+			execute("CREATE UNIQUE INDEX IF NOT EXISTS " + ZBLACKLIST_TABLE + "_typeid ON " + ZBLACKLIST_TABLE + " (typeid)");
+		}
+	}
+
+	private synchronized void execute(String sql) {
+		try (Statement statement = getConnection().createStatement()) {
 			statement.execute(sql);
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 	}
 
 	private boolean tableZKillboardExist() {
-		return tableExist(ZKILLBOARD_TABLE);
+		return exist("table", ZKILLBOARD_TABLE);
 	}
 
 	private boolean tableZBlacklistExist() {
-		return tableExist(ZBLACKLIST_TABLE);
+		return exist("table", ZBLACKLIST_TABLE);
 	}
 
 	private boolean tablePriceDataExist() {
-		return tableExist(PRICEDATA_TABLE);
+		return exist("table", PRICEDATA_TABLE);
+	}
+
+	private boolean indexExist(String indexName) {
+		return exist("index", indexName);
 	}
 
 	public static boolean tableExist(String tableName) {
-		String sql = "SELECT name FROM sqlite_master WHERE type='table' AND name='" + tableName + "'";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				Statement statement = connection.createStatement();
-				ResultSet rs = statement.executeQuery(sql)) {
-			while (rs.next()) {
-				return true;
+		return getInstance().exist("table", tableName);
+	}
+
+	private synchronized boolean exist(String type, String name) {
+		String sql = "SELECT name FROM sqlite_master WHERE type = ? AND name = ?";
+		try {
+			PreparedStatement statement = prepare(sql);
+			statement.setString(1, type);
+			statement.setString(2, name);
+			try (ResultSet rs = statement.executeQuery()) {
+				return rs.next();
 			}
 		} catch (SQLException ex) {
-			LOG.error(ex.getMessage(), ex);
+			error(ex);
 		}
 		return false;
 	}
@@ -91,7 +91,9 @@ public class Settings {
 		FLAG_TRACKER_USE_ASSET_PRICE_FOR_SELL_ORDERS,
 		FLAG_FOCUS_EVE_ONLINE_ON_ESI_UI_CALLS,
 		FLAG_SAVE_TOOLS_ON_EXIT,
-		FLAG_SAVE_CONTRACT_HISTORY
+		FLAG_SAVE_CONTRACT_HISTORY,
+		FLAG_FILTER_INDEX,
+		FLAG_PROFILE_SNAPSHOT
 	}
 
 	public static enum TransactionProfitPrice {
@@ -212,6 +214,7 @@ public class Settings {
 	private final MarketOrdersSettings marketOrdersSettings = new MarketOrdersSettings();
 	//Cache
 	private Boolean filterOnEnter = null; //Filter tools
+	private Boolean filterIndex = null; //Filter tools
 	private Boolean highlightSelectedRows = null; //Assets
 	private Boolean reprocessColors = null; //Assets
 	private Boolean stockpileHalfColors = null; //Stockpile
@@ -278,6 +281,8 @@ public class Settings {
 		flags.put(SettingFlag.FLAG_FOCUS_EVE_ONLINE_ON_ESI_UI_CALLS, true);
 		flags.put(SettingFlag.FLAG_SAVE_TOOLS_ON_EXIT, false);
 		flags.put(SettingFlag.FLAG_SAVE_CONTRACT_HISTORY, true);
+		flags.put(SettingFlag.FLAG_FILTER_INDEX, false); //Cached
+		flags.put(SettingFlag.FLAG_PROFILE_SNAPSHOT, false);
 		cacheFlags();
 		//Default Filters
 		List<Filter> filter;
@@ -445,6 +450,7 @@ public class Settings {
 	public final void cacheFlags() {
 		highlightSelectedRows = flags.get(SettingFlag.FLAG_HIGHLIGHT_SELECTED_ROWS);
 		filterOnEnter = flags.get(SettingFlag.FLAG_FILTER_ON_ENTER);
+		filterIndex = flags.get(SettingFlag.FLAG_FILTER_INDEX);
 		reprocessColors = flags.get(SettingFlag.FLAG_REPROCESS_COLORS);
 		stockpileHalfColors = flags.get(SettingFlag.FLAG_STOCKPILE_HALF_COLORS);
 	}
@@ -694,6 +700,18 @@ public class Settings {
 		this.filterOnEnter = filterOnEnter;
 	}
 
+	public boolean isFilterIndex() { //High volume call - Map.get is too slow, use cache
+		if (filterIndex == null) {
+			filterIndex = flags.get(SettingFlag.FLAG_FILTER_INDEX);
+		}
+		return filterIndex;
+	}
+
+	public void setFilterIndex(final boolean filterIndex) {
+		flags.put(SettingFlag.FLAG_FILTER_INDEX, filterIndex); //Save & Load
+		this.filterIndex = filterIndex;
+	}
+
 	public boolean isHighlightSelectedRows() { //High volume call - Map.get is too slow, use cache
 		return highlightSelectedRows;
 	}
@@ -860,6 +878,14 @@ public class Settings {
 		flags.put(SettingFlag.FLAG_FOCUS_EVE_ONLINE_ON_ESI_UI_CALLS, focusEveOnlineOnEsiUiCalls);
 	}
 
+	public boolean isProfileSnapshot() {
+		return flags.get(SettingFlag.FLAG_PROFILE_SNAPSHOT);
+	}
+
+	public void setProfileSnapshot(final boolean profileSnapshot) {
+		flags.put(SettingFlag.FLAG_PROFILE_SNAPSHOT, profileSnapshot);
+	}
+
 	public boolean isSaveToolsOnExit() {
 		return flags.get(SettingFlag.FLAG_SAVE_TOOLS_ON_EXIT);
 	}
@@ -53,13 +53,22 @@ public class TrackerSettings {
 		LOGARITHMIC;
 	}
 
+	public enum Resolution {
+		ALL,
+		DAY,
+		WEEK,
+		MONTH;
+	}
+
 	private boolean allProfiles = false;
 	private boolean characterCorporations = false;
 	private DisplayType displayType = DisplayType.LINEAR;
+	private boolean downsample = true;
 	private final Map<String, Boolean> filters = new HashMap<>();
 	private Date fromDate = null;
 	private boolean includeZero = true;
 	private final Map<TrackerDate, TrackerNote> notes = new HashMap<>();
+	private Resolution resolution = Resolution.ALL;
 	private boolean selectNew = true;
 	private List<String> selectedOwners = null;
 	private final Set<ShowOption> showOptions = EnumSet.noneOf(ShowOption.class);
@@ -94,6 +103,14 @@ public class TrackerSettings {
 		this.displayType = displayType;
 	}
 
+	public boolean isDownsample() {
+		return downsample;
+	}
+
+	public void setDownsample(boolean downsample) {
+		this.downsample = downsample;
+	}
+
 	public Map<String, Boolean> getFilters() {
 		return filters;
 	}
@@ -118,6 +135,14 @@ public class TrackerSettings {
 		return notes;
 	}
 
+	public Resolution getResolution() {
+		return resolution;
+	}
+
+	public void setResolution(Resolution resolution) {
+		this.resolution = resolution;
+	}
+
 	public boolean isSelectNew() {
 		return selectNew;
 	}
@@ -42,6 +42,8 @@ import net.nikr.eve.jeveasset.i18n.DialoguesSettings;
 public class GeneralSettingsPanel extends JSettingsPanel {
 
 	private final JCheckBox jEnterFilters;
+	private final JCheckBox jFilterIndex;
+	private final JCheckBox jProfileSnapshot;
 	private final JCheckBox jHighlightSelectedRow;
 	private final JCheckBox jFocusEveOnline;
 	private final JTextField jMaxOrderAge;
@@ -55,6 +57,12 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 
 		jEnterFilters = new JCheckBox(DialoguesSettings.get().enterFilter());
 
+		jFilterIndex = new JCheckBox(DialoguesSettings.get().filterIndex());
+		jFilterIndex.setToolTipText(DialoguesSettings.get().filterIndexToolTip());
+
+		jProfileSnapshot = new JCheckBox(DialoguesSettings.get().profileSnapshot());
+		jProfileSnapshot.setToolTipText(DialoguesSettings.get().profileSnapshotToolTip());
+
 		jHighlightSelectedRow = new JCheckBox(DialoguesSettings.get().highlightSelectedRow());
 
 		jFocusEveOnline = new JCheckBox(DialoguesSettings.get().focusEveOnline());
@@ -92,6 +100,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 		layout.setHorizontalGroup(
 			layout.createParallelGroup(GroupLayout.Alignment.LEADING)
 				.addComponent(jEnterFilters)
+				.addComponent(jFilterIndex)
+				.addComponent(jProfileSnapshot)
 				.addComponent(jHighlightSelectedRow)
 				.addComponent(jFocusEveOnline)
 				.addGroup(layout.createSequentialGroup()
@@ -127,6 +137,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 		layout.setVerticalGroup(
 			layout.createSequentialGroup()
 				.addComponent(jEnterFilters, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addComponent(jFilterIndex, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addComponent(jProfileSnapshot, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jHighlightSelectedRow, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jFocusEveOnline, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jFocusEveOnlineLinuxHelp, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
@@ -175,6 +187,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 						|| transactionProfitMargin != Settings.get().getTransactionProfitMargin();
 		boolean repaint = jHighlightSelectedRow.isSelected() != Settings.get().isHighlightSelectedRows();
 		Settings.get().setFilterOnEnter(jEnterFilters.isSelected());
+		Settings.get().setFilterIndex(jFilterIndex.isSelected());
+		Settings.get().setProfileSnapshot(jProfileSnapshot.isSelected());
 		Settings.get().setHighlightSelectedRows(jHighlightSelectedRow.isSelected());
 		Settings.get().setFocusEveOnlineOnEsiUiCalls(jFocusEveOnline.isSelected());
 		Settings.get().setMaximumPurchaseAge(maximumPurchaseAge);
@@ -193,6 +207,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 	@Override
 	public void load() {
 		jEnterFilters.setSelected(Settings.get().isFilterOnEnter());
+		jFilterIndex.setSelected(Settings.get().isFilterIndex());
+		jProfileSnapshot.setSelected(Settings.get().isProfileSnapshot());
 		jHighlightSelectedRow.setSelected(Settings.get().isHighlightSelectedRows());
 		jFocusEveOnline.setSelected(Settings.get().isFocusEveOnlineOnEsiUiCalls());
 		jMaxOrderAge.setText(String.valueOf(Settings.get().getMaximumPurchaseAge()));
@@ -24,9 +24,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import javax.swing.ButtonGroup;
 import javax.swing.GroupLayout.Alignment;
 import javax.swing.JButton;
@@ -72,7 +70,9 @@ import net.nikr.eve.jeveasset.io.esi.EsiShipGetter;
 import net.nikr.eve.jeveasset.io.esi.EsiSkillGetter;
 import net.nikr.eve.jeveasset.io.esi.EsiTransactionsGetter;
 import net.nikr.eve.jeveasset.io.online.PriceDataGetter;
-import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
+import net.nikr.eve.jeveasset.io.shared.UpdatePipeline;
+import net.nikr.eve.jeveasset.io.shared.UpdatePipeline.Node;
+import net.nikr.eve.jeveasset.io.shared.UpdatePipeline.RunnableFactory;
 
 
 public class UpdateDialog extends JDialogCentered {
@@ -595,8 +595,7 @@ public class UpdateDialog extends JDialogCentered {
 						|| jTransactions.isSelected()
 						|| jSkills.isSelected()
 						) {
-					updateTasks.add(new Step1Task(program.getProfileManager()));
-					updateTasks.add(new Step2Task(program.getProfileManager(),
+					updateTasks.addAll(createEsiTasks(program.getProfileManager(),
 							jAssets.isSelected(),
 							jAccountBalance.isSelected(),
 							jBlueprints.isSelected(),
@@ -607,11 +606,6 @@ public class UpdateDialog extends JDialogCentered {
 							jMarketOrders.isSelected(),
 							jTransactions.isSelected(),
 							jSkills.isSelected()));
-					updateTasks.add(new Step3Task(program.getProfileManager(),
-							jAssets.isSelected()));
-				}
-				if (jContracts.isSelected()) {
-					updateTasks.add(new Step4Task(program.getProfileManager()));
 				}
 				if (jPriceDataAll.isSelected() || jPriceDataNew.isSelected()) {
 					updateTasks.add(new PriceDataTask(program.getPriceDataGetter(), program.getProfileData(), jPriceDataAll.isSelected()));
@@ -663,60 +657,15 @@ public class UpdateDialog extends JDialogCentered {
 		}
 	}
 
-	public static class Step1Task extends UpdateTask {
-
-		private final ProfileManager profileManager;
-
-		public Step1Task(final ProfileManager profileManager) {
-			super(DialoguesUpdate.get().step1());
-			this.profileManager = profileManager;
-		}
-
-		@Override
-		public void update() {
-			setIcon(null);
-			for (EveApiAccount account : profileManager.getAccounts()) {
-				for (EveApiOwner eveApiOwner : account.getOwners()) {
-					if (eveApiOwner.canMigrate()) {
-						addError("EveApi accounts must be migrated to ESI", "Add ESI accounts in the account manager:\r\nOptions > Accounts... > Add > ESI");
-						break;
-					} else {
-						addError("Migrated EveApi accounts can safely be deleted", "Delete EveApi accounts in the account manager:\r\nOptions > Accounts... > Edit");
-					}
-				}
-			}
-			for (EveKitOwner eveKitOwner : profileManager.getEveKitOwners()) {
-				if (eveKitOwner.canMigrate()) {
-					addError("EveKit accounts must be migrated to ESI", "Add ESI accounts in the account manager:\r\nOptions > Accounts... > Add > ESI");
-					break;
-				} else {
-					addError("Migrated EveKit accounts can safely be deleted", "Delete EveApi accounts in the account manager:\r\nOptions > Accounts... > Edit");
-				}
-			}
-			//Esi
-			List<Runnable> updates = new ArrayList<>();
-			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				updates.add(new EsiOwnerGetter(this, esiOwner));
-			}
-			ThreadWoker.start(this, updates);
-		}
-	}
-
-	public static class Step2Task extends UpdateTask {
-
-		private final ProfileManager profileManager;
-		private final boolean assets;
-		private final boolean accountBalance;
-		private final boolean blueprints;
-		private final boolean bookmarks;
-		private final boolean contracts;
-		private final boolean industryJobs;
-		private final boolean journal;
-		private final boolean marketOrders;
-		private final boolean transactions;
-		private final boolean skills;
-
-		public Step2Task(final ProfileManager profileManager,
+	/**
+	 * Create the ESI update steps (Step 4 is only included if contracts are updated).
+	 * The getters are run as a task graph (UpdatePipeline):
+	 * Each getter is started as soon as the getters it depends on are done for that owner
+	 * (owner -> assets -> locations/ship/planetary), instead of waiting for the slowest owner in each step.
+	 * The steps only wait for (and show the progress of) their own getters.
+	 * @return Step 1 to 4
+	 */
+	public static List<UpdateTask> createEsiTasks(final ProfileManager profileManager,
 								final boolean assets,
 								final boolean accountBalance,
 								final boolean blueprints,
@@ -727,119 +676,224 @@ public class UpdateDialog extends JDialogCentered {
 								final boolean marketOrders,
 								final boolean transactions,
 								final boolean skills) {
-			super(DialoguesUpdate.get().step2());
-			this.profileManager = profileManager;
-			this.assets = assets;
-			this.accountBalance = accountBalance;
-			this.blueprints = blueprints;
-			this.bookmarks = bookmarks;
-			this.contracts = contracts;
-			this.industryJobs = industryJobs;
-			this.journal = journal;
-			this.marketOrders = marketOrders;
-			this.transactions = transactions;
-			this.skills = skills;
-		}
-
-		@Override
-		public void update() {
-			setIcon(null);
-			//Esi
-			List<Runnable> updates = new ArrayList<>();
-			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				if (accountBalance) {
-					updates.add(new EsiAccountBalanceGetter(this, esiOwner));
+		final UpdatePipeline pipeline = new UpdatePipeline();
+		final Step1Task step1 = new Step1Task(profileManager, pipeline);
+		final StepTask step2 = new StepTask(DialoguesUpdate.get().step2(), pipeline, true);
+		final StepTask step3 = new StepTask(DialoguesUpdate.get().step3(), pipeline, true);
+		final StepTask step4 = new StepTask(DialoguesUpdate.get().step4(), pipeline, false);
+		List<Node> ownerNodes = new ArrayList<>();
+		List<Node> step2Nodes = new ArrayList<>();
+		List<Node> contractsNodes = new ArrayList<>();
+		for (final EsiOwner esiOwner : profileManager.getEsiOwners()) {
+			//Step 1: Owner
+			Node ownerNode = pipeline.add(step1, new RunnableFactory() {
+				@Override
+				public Runnable create() {
+					return new EsiOwnerGetter(step1, esiOwner);
 				}
-				if (assets) {
-					updates.add(new EsiAssetsGetter(this, esiOwner));
-					if (esiOwner.isCorporation()) {
-						updates.add(new EsiDivisionsGetter(this, esiOwner));
+			});
+			ownerNodes.add(ownerNode);
+			//Step 2: Owner data
+			if (accountBalance) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiAccountBalanceGetter(step2, esiOwner);
 					}
-				}
-				if (industryJobs) {
-					updates.add(new EsiIndustryJobsGetter(this, esiOwner));
-				}
-				if (marketOrders) {
-					updates.add(new EsiMarketOrdersGetter(this, esiOwner, Settings.get().isMarketOrderHistory()));
-				}
-				if (journal) {
-					updates.add(new EsiJournalGetter(this, esiOwner, Settings.get().isJournalHistory()));
-				}
-				if (transactions) {
-					updates.add(new EsiTransactionsGetter(this, esiOwner, Settings.get().isTransactionHistory()));
-				}
-				if (contracts) {
-					updates.add(new EsiContractsGetter(this, esiOwner, Settings.get().isContractHistory()));
-				}
-				if (blueprints) {
-					updates.add(new EsiBlueprintsGetter(this, esiOwner));
-				}
-				if (bookmarks) {
-					updates.add(new EsiBookmarksGetter(this, esiOwner));
-				}
-				if (skills) {
-					updates.add(new EsiSkillGetter(this, esiOwner));
-				}
+				}, ownerNode));
+			}
+			if (assets) {
+				final Date assetNextUpdate = esiOwner.getAssetNextUpdate(); //Before the assets are updated
+				Node assetsNode = pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiAssetsGetter(step2, esiOwner);
+					}
+				}, ownerNode);
+				step2Nodes.add(assetsNode);
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiDivisionsGetter(step2, esiOwner); //Ignores characters
+					}
+				}, ownerNode));
+				//Step 3: Depends on the assets of this owner only
+				pipeline.add(step3, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiLocationsGetter(step3, esiOwner);
+					}
+				}, assetsNode);
+				pipeline.add(step3, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiShipGetter(step3, esiOwner, assetNextUpdate);
+					}
+				}, assetsNode);
+				pipeline.add(step3, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiPlanetaryInteractionGetter(step3, esiOwner, assetNextUpdate);
+					}
+				}, assetsNode);
+			}
+			if (industryJobs) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiIndustryJobsGetter(step2, esiOwner);
+					}
+				}, ownerNode));
+			}
+			if (marketOrders) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiMarketOrdersGetter(step2, esiOwner, Settings.get().isMarketOrderHistory());
+					}
+				}, ownerNode));
+			}
+			if (journal) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiJournalGetter(step2, esiOwner, Settings.get().isJournalHistory());
+					}
+				}, ownerNode));
+			}
+			if (transactions) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiTransactionsGetter(step2, esiOwner, Settings.get().isTransactionHistory());
+					}
+				}, ownerNode));
+			}
+			if (contracts) {
+				Node contractsNode = pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiContractsGetter(step2, esiOwner, Settings.get().isContractHistory());
+					}
+				}, ownerNode);
+				step2Nodes.add(contractsNode);
+				contractsNodes.add(contractsNode);
+			}
+			if (blueprints) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiBlueprintsGetter(step2, esiOwner);
+					}
+				}, ownerNode));
+			}
+			if (bookmarks) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiBookmarksGetter(step2, esiOwner);
+					}
+				}, ownerNode));
+			}
+			if (skills) {
+				step2Nodes.add(pipeline.add(step2, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiSkillGetter(step2, esiOwner);
+					}
+				}, ownerNode));
 			}
-			ThreadWoker.start(this, updates);
 		}
+		//Step 3: No dependencies
+		pipeline.add(step3, new RunnableFactory() {
+			@Override
+			public Runnable create() {
+				return new EsiFactionWarfareGetter(step3);
+			}
+		});
+		//Step 3: char/corp/alliance IDs to names (ESI) - Depends on the data of all owners
+		List<Node> namesDependencies = new ArrayList<>(ownerNodes);
+		namesDependencies.addAll(step2Nodes);
+		pipeline.add(step3, new RunnableFactory() {
+			@Override
+			public Runnable create() {
+				return new EsiNameGetter(step3, profileManager.getOwnerTypes());
+			}
+		}, namesDependencies);
+		List<UpdateTask> updateTasks = new ArrayList<>();
+		updateTasks.add(step1);
+		updateTasks.add(step2);
+		updateTasks.add(step3);
+		if (contracts) {
+			//Step 4: Contract Items - Depends on the contracts of all owners (shared contracts are only updated once)
+			EsiContractItemsGetter.reset();
+			List<Node> contractItemsDependencies = new ArrayList<>(ownerNodes);
+			contractItemsDependencies.addAll(contractsNodes);
+			for (final EsiOwner esiOwner : profileManager.getEsiOwners()) {
+				pipeline.add(step4, new RunnableFactory() {
+					@Override
+					public Runnable create() {
+						return new EsiContractItemsGetter(step4, esiOwner, profileManager.getEsiOwners());
+					}
+				}, contractItemsDependencies);
+			}
+			updateTasks.add(step4);
+		}
+		return updateTasks;
 	}
 
-	public static class Step3Task extends UpdateTask {
+	/**
+	 * Wait for the getters of this step in the UpdatePipeline.
+	 */
+	public static class StepTask extends UpdateTask {
 
-		private final ProfileManager profileManager;
-		private final boolean assets;
-		private final Map<EsiOwner, Date> assetNextUpdate = new HashMap<>();
+		private final UpdatePipeline pipeline;
+		private final boolean updateProgress;
 
-		public Step3Task(final ProfileManager profileManager, final boolean assets) {
-			super(DialoguesUpdate.get().step3());
-			this.profileManager = profileManager;
-			this.assets = assets;
-			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				assetNextUpdate.put(esiOwner, esiOwner.getAssetNextUpdate());
-			}
+		public StepTask(final String name, final UpdatePipeline pipeline, final boolean updateProgress) {
+			super(name);
+			this.pipeline = pipeline;
+			this.updateProgress = updateProgress;
 		}
 
 		@Override
 		public void update() {
 			setIcon(null);
-			List<Runnable> updates = new ArrayList<>();
-			//Locations
-			if (assets) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiLocationsGetter(this, esiOwner));
-					updates.add(new EsiShipGetter(this, esiOwner, assetNextUpdate.getOrDefault(esiOwner, Settings.getNow())));
-					updates.add(new EsiPlanetaryInteractionGetter(this, esiOwner, assetNextUpdate.getOrDefault(esiOwner, Settings.getNow())));
-				}
-			}
-			updates.add(new EsiFactionWarfareGetter(this));
-			//char/corp/alliance IDs to names (ESI)
-			updates.add(new EsiNameGetter(this, profileManager.getOwnerTypes()));
-			ThreadWoker.start(this, updates);
+			pipeline.waitFor(this, updateProgress);
 		}
 	}
 
-	public static class Step4Task extends UpdateTask {
+	public static class Step1Task extends StepTask {
 
 		private final ProfileManager profileManager;
 
-		public Step4Task(final ProfileManager profileManager) {
-			super(DialoguesUpdate.get().step4());
+		public Step1Task(final ProfileManager profileManager, final UpdatePipeline pipeline) {
+			super(DialoguesUpdate.get().step1(), pipeline, true);
 			this.profileManager = profileManager;
 		}
 
 		@Override
 		public void update() {
-			setIcon(null);
-			//Contract Items
-			//Esi
-			List<Runnable> updates = new ArrayList<>();
-			EsiContractItemsGetter.reset();
-			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				updates.add(new EsiContractItemsGetter(this, esiOwner, profileManager.getEsiOwners()));
+			for (EveApiAccount account : profileManager.getAccounts()) {
+				for (EveApiOwner eveApiOwner : account.getOwners()) {
+					if (eveApiOwner.canMigrate()) {
+						addError("EveApi accounts must be migrated to ESI", "Add ESI accounts in the account manager:\r\nOptions > Accounts... > Add > ESI");
+						break;
+					} else {
+						addError("Migrated EveApi accounts can safely be deleted", "Delete EveApi accounts in the account manager:\r\nOptions > Accounts... > Edit");
+					}
+				}
+			}
+			for (EveKitOwner eveKitOwner : profileManager.getEveKitOwners()) {
+				if (eveKitOwner.canMigrate()) {
+					addError("EveKit accounts must be migrated to ESI", "Add ESI accounts in the account manager:\r\nOptions > Accounts... > Add > ESI");
+					break;
+				} else {
+					addError("Migrated EveKit accounts can safely be deleted", "Delete EveApi accounts in the account manager:\r\nOptions > Accounts... > Edit");
+				}
 			}
-			ThreadWoker.start(this, updates, false);
+			//Esi (starts the pipeline)
+			super.update();
 		}
 	}
 
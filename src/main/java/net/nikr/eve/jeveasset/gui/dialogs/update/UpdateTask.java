@@ -221,6 +221,14 @@ public abstract class UpdateTask extends SwingWorker<Void, Void> {
 		setProgress(100);
 	}
 
+	/**
+	 * Background tasks are queued after interactive tasks in the shared update thread pool
+	 * @return true if this task is not started by the user
+	 */
+	public boolean isBackground() {
+		return false;
+	}
+
 	public boolean isTaskDone() {
 		return taskDone;
 	}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared;
+
+import java.util.Date;
+
+/**
+ * Bounded, lossy string cache for formatted values.
+ * Keyed by the primitive value (long, double bits or date millis) so repaints,
+ * filtering and export reuse the formatted string instead of formatting it again.
+ * Direct mapped: a collision simply replaces the old entry.
+ * Thread safe: entries are immutable and replaced atomically.
+ */
+public abstract class FormatCache {
+
+	private static final int DEFAULT_SIZE = 4096;
+	private static final byte TYPE_LONG = 1;
+	private static final byte TYPE_DOUBLE = 2;
+	private static final byte TYPE_DATE = 3;
+
+	private final Entry[] entries;
+	private final int mask;
+
+	public FormatCache() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * @param size number of entries (rounded up to a power of two)
+	 */
+	public FormatCache(final int size) {
+		int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+		entries = new Entry[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Format the value (uncached).
+	 * @param value value to format (never null)
+	 * @return formatted value
+	 */
+	protected abstract String createString(Object value);
+
+	public String format(final Object value) {
+		final long key;
+		final byte type;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			key = ((Number) value).longValue();
+			type = TYPE_LONG;
+		} else if (value instanceof Double || value instanceof Float) {
+			key = Double.doubleToLongBits(((Number) value).doubleValue());
+			type = TYPE_DOUBLE;
+		} else if (value instanceof Date) {
+			key = ((Date) value).getTime();
+			type = TYPE_DATE;
+		} else {
+			return createString(value);
+		}
+		int index = index(key, type);
+		Entry entry = entries[index];
+		if (entry != null && entry.key == key && entry.type == type) {
+			return entry.value;
+		}
+		String formatted = createString(value);
+		entries[index] = new Entry(key, type, formatted);
+		return formatted;
+	}
+
+	public void clear() {
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = null;
+		}
+	}
+
+	private int index(final long key, final byte type) {
+		long hash = (key + type) * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private static class Entry {
+		private final long key;
+		private final byte type;
+		private final String value;
+
+		public Entry(long key, byte type, String value) {
+			this.key = key;
+			this.type = type;
+			this.value = value;
+		}
+	}
+}
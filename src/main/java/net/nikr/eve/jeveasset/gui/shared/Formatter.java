@@ -21,6 +21,7 @@
 
 package net.nikr.eve.jeveasset.gui.shared;
 
+import java.math.RoundingMode;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -29,6 +30,10 @@ import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -71,6 +76,20 @@ public final class Formatter {
 	private static final DateFormatThreadSafe SIMPLE_DATE = new DateFormatThreadSafe("yyyyMMddHHmm");
 	private static final DateFormatThreadSafe DATE_ONLY = new DateFormatThreadSafe("yyyy-MM-dd");
 
+	//Immutable java.time formatters for the hot column formats (rendering, filtering and export)
+	private static final DateTimeFormatter COLUMN_DATETIME_FORMATTER = DateTimeFormatter.ofPattern(COLUMN_DATETIME, Locale.ENGLISH).withZone(ZoneOffset.UTC);
+	private static final DateTimeFormatter DATE_ONLY_FORMATTER = DateTimeFormatter.ofPattern(COLUMN_DATE, Locale.ENGLISH).withZone(ZoneOffset.UTC);
+	//SimpleDateFormat use the julian calendar before the gregorian cutover and print years above 9999 differently
+	private static final long JAVA_TIME_MIN = LocalDate.of(1583, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+	private static final long JAVA_TIME_MAX = LocalDate.of(10000, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+	private static final FastFormat ISK_FAST = new FastFormat(ISK_FORMAT);
+	private static final FastFormat INTEGER_FAST = new FastFormat(INTEGER_FORMAT);
+	private static final FastFormat DECIMAL_FAST = new FastFormat(DECIMAL_FORMAT);
+	private static final FastFormat FLOAT_FAST = new FastFormat(FLOAT_FORMAT);
+	private static final FastFormat COMPARE_FAST = new FastFormat(COMPARE_FORMAT);
+	private static final FastFormat LONG_FAST = new FastFormat(LONG_FORMAT);
+
 	private Formatter() { }
 
 	public static Date parseExpireDate(String date) {
@@ -96,6 +115,10 @@ public final class Formatter {
 		return COPY_FORMAT.format(number);
 	}
 	public static String iskFormat(final Number number) {
+		String fast = ISK_FAST.format(number);
+		if (fast != null) {
+			return fast;
+		}
 		return ISK_FORMAT.format(number);
 	}
 	public static String percentFormat(final Number number) {
@@ -112,9 +135,17 @@ public final class Formatter {
 		}
 	}
 	public static String doubleFormat(final Object obj) {
+		String fast = DECIMAL_FAST.format(obj);
+		if (fast != null) {
+			return fast;
+		}
 		return DECIMAL_FORMAT.format(obj);
 	}
 	public static String compareFormat(final Object obj) {
+		String fast = COMPARE_FAST.format(obj);
+		if (fast != null) {
+			return fast;
+		}
 		return COMPARE_FORMAT.format(obj);
 	}
 	public static String securityFormat(final Object obj) {
@@ -128,12 +159,24 @@ public final class Formatter {
 	 * @return formatted value
 	 */
 	public static String floatFormat(final Object obj) {
+		String fast = FLOAT_FAST.format(obj);
+		if (fast != null) {
+			return fast;
+		}
 		return FLOAT_FORMAT.format(obj);
 	}
 	public static String integerFormat(final Object obj) {
+		String fast = INTEGER_FAST.format(obj);
+		if (fast != null) {
+			return fast;
+		}
 		return INTEGER_FORMAT.format(obj);
 	}
 	public static String longFormat(final Object obj) {
+		String fast = LONG_FAST.format(obj);
+		if (fast != null) {
+			return fast;
+		}
 		return LONG_FORMAT.format(obj);
 	}
 
@@ -157,6 +200,9 @@ public final class Formatter {
 	}
 
 	public static String columnDate(final Object date) {
+		if (javaTime(date)) {
+			return COLUMN_DATETIME_FORMATTER.format(Instant.ofEpochMilli(((Date) date).getTime()));
+		}
 		return COLUMN_DATETIME_FORMAT.format(date);
 	}
 
@@ -190,9 +236,20 @@ public final class Formatter {
 	}
 
 	public static String dateOnly(final Object date) {
+		if (javaTime(date)) {
+			return DATE_ONLY_FORMATTER.format(Instant.ofEpochMilli(((Date) date).getTime()));
+		}
 		return DATE_ONLY.format(date);
 	}
 
+	private static boolean javaTime(final Object date) {
+		if (!(date instanceof Date)) {
+			return false;
+		}
+		long time = ((Date) date).getTime();
+		return time >= JAVA_TIME_MIN && time < JAVA_TIME_MAX;
+	}
+
 	private static boolean today(final Date date) {
 		String sDate = TODAYS_DATE.format(date);
 		String sNow = TODAYS_DATE.format(Settings.getNow());
@@ -372,6 +429,118 @@ public final class Formatter {
 
 	}
 
+	/**
+	 * Allocation light formatting of Long/Integer/Double/Float values for the simple DecimalFormat patterns.
+	 * Produce the exact same output as the DecimalFormat it was created from.
+	 * format(Object) return null when the value can not be formatted on the fast path
+	 * (unsupported pattern, type, non-finite, too large or too close to a rounding tie)
+	 * and the caller must fall back to the DecimalFormat.
+	 */
+	static class FastFormat {
+
+		private static final long[] POWERS = {1, 10, 100, 1000, 10000};
+		private static final double MAX = 1L << 52;
+
+		private final boolean enabled;
+		private final char groupingSeparator;
+		private final char decimalSeparator;
+		private final char minusSign;
+		private final boolean grouping;
+		private final int minDecimals;
+		private final int maxDecimals;
+		private final char[] suffix;
+
+		FastFormat(final DecimalFormat format) {
+			DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+			groupingSeparator = symbols.getGroupingSeparator();
+			decimalSeparator = symbols.getDecimalSeparator();
+			minusSign = symbols.getMinusSign();
+			grouping = format.isGroupingUsed();
+			minDecimals = format.getMinimumFractionDigits();
+			maxDecimals = format.getMaximumFractionDigits();
+			suffix = format.getPositiveSuffix().toCharArray();
+			enabled = symbols.getZeroDigit() == '0'
+					&& format.getPositivePrefix().isEmpty()
+					&& format.getNegativePrefix().equals(String.valueOf(minusSign))
+					&& format.getPositiveSuffix().equals(format.getNegativeSuffix())
+					&& format.getMultiplier() == 1
+					&& format.getRoundingMode() == RoundingMode.HALF_EVEN
+					&& format.getMinimumIntegerDigits() == 1
+					&& (!grouping || format.getGroupingSize() == 3)
+					&& !format.isDecimalSeparatorAlwaysShown()
+					&& maxDecimals < POWERS.length;
+		}
+
+		public String format(final Object obj) {
+			if (!enabled) {
+				return null;
+			}
+			if (obj instanceof Long || obj instanceof Integer || obj instanceof Short || obj instanceof Byte) {
+				long value = ((Number) obj).longValue();
+				if (value == Long.MIN_VALUE) {
+					return null;
+				}
+				return format(Math.abs(value), 0, value < 0);
+			} else if (obj instanceof Double || obj instanceof Float) {
+				double value = ((Number) obj).doubleValue();
+				if (Double.isNaN(value) || Double.isInfinite(value)) {
+					return null;
+				}
+				long scale = POWERS[maxDecimals];
+				double scaled = Math.abs(value) * scale;
+				if (scaled >= MAX) {
+					return null;
+				}
+				//The multiplication is off by at most half an ulp: leave anything close to a tie to DecimalFormat
+				double tie = Math.abs(scaled - Math.floor(scaled) - 0.5);
+				if (tie <= Math.ulp(scaled) * 2) {
+					return null;
+				}
+				long units = (long) Math.rint(scaled);
+				//DecimalFormat keep the sign of negative values that round to zero (and of -0.0)
+				boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+				return format(units / scale, units % scale, negative);
+			} else {
+				return null;
+			}
+		}
+
+		private String format(final long integer, final long fraction, final boolean negative) {
+			char[] buf = new char[40 + suffix.length];
+			int pos = buf.length - suffix.length;
+			System.arraycopy(suffix, 0, buf, pos, suffix.length);
+			//Fraction: drop trailing zeros down to the minimum fraction digits
+			int decimals = maxDecimals;
+			long f = fraction;
+			while (decimals > minDecimals && f % 10 == 0) {
+				f = f / 10;
+				decimals--;
+			}
+			if (decimals > 0) {
+				for (int i = 0; i < decimals; i++) {
+					buf[--pos] = (char) ('0' + (f % 10));
+					f = f / 10;
+				}
+				buf[--pos] = decimalSeparator;
+			}
+			//Integer
+			long value = integer;
+			int digits = 0;
+			do {
+				if (grouping && digits > 0 && digits % 3 == 0) {
+					buf[--pos] = groupingSeparator;
+				}
+				buf[--pos] = (char) ('0' + (value % 10));
+				value = value / 10;
+				digits++;
+			} while (value > 0);
+			if (negative) {
+				buf[--pos] = minusSign;
+			}
+			return new String(buf, pos, buf.length - pos);
+		}
+	}
+
 	public static class DateFormatThreadSafe {
 
 		private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("GMT");
@@ -26,4 +26,8 @@ import java.util.Map;
 public interface ColumnCache<E> {
 	public Map<E, String> getCache();
 	public void addCache(E e, String haystack);
+	/**
+	 * @return The trigram index of the cache or null if not enabled
+	 */
+	public FilterIndex<E> getIndex();
 }
@@ -96,6 +96,7 @@ public class ExportDialog<E> extends JDialogCentered {
 	private final JRadioButton jCsv;
 	private final JRadioButton jHtml;
 	private final JRadioButton jSql;
+	private final JRadioButton jSqlite;
 	//Options
 	private final CardLayout cardLayout;
 	private final JPanel jOptionPanel;
@@ -111,6 +112,8 @@ public class ExportDialog<E> extends JDialogCentered {
 	private final JCheckBox jDropTable;
 	private final JCheckBox jCreateTable;
 	private final JCheckBox jExtendedInserts;
+	//SQLite
+	private final JTextField jSqliteTableName;
 
 	private final JButton jOK;
 
@@ -157,22 +160,37 @@ public class ExportDialog<E> extends JDialogCentered {
 		jSql.setActionCommand(ExportAction.FORMAT_CHANGED.name());
 		jSql.addActionListener(listener);
 
+		jSqlite = new JRadioButton(DialoguesExport.get().sqlite());
+		jSqlite.setActionCommand(ExportAction.FORMAT_CHANGED.name());
+		jSqlite.addActionListener(listener);
+
 		ButtonGroup jFormatButtonGroup = new ButtonGroup();
 		jFormatButtonGroup.add(jCsv);
 		jFormatButtonGroup.add(jHtml);
 		jFormatButtonGroup.add(jSql);
+		jFormatButtonGroup.add(jSqlite);
 
 		formatLayout.setHorizontalGroup(
 			formatLayout.createSequentialGroup()
-					.addComponent(jCsv)
-					.addComponent(jHtml)
-					.addComponent(jSql)
+					.addGroup(formatLayout.createParallelGroup()
+						.addComponent(jCsv)
+						.addComponent(jSql)
+					)
+					.addGroup(formatLayout.createParallelGroup()
+						.addComponent(jHtml)
+						.addComponent(jSqlite)
+					)
 		);
 		formatLayout.setVerticalGroup(
-			formatLayout.createParallelGroup()
-					.addComponent(jCsv, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
-					.addComponent(jHtml, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
-					.addComponent(jSql, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+			formatLayout.createSequentialGroup()
+					.addGroup(formatLayout.createParallelGroup()
+						.addComponent(jCsv, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+						.addComponent(jHtml, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+					)
+					.addGroup(formatLayout.createParallelGroup()
+						.addComponent(jSql, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+						.addComponent(jSqlite, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+					)
 		);
 	//Options
 		cardLayout = new CardLayout();
@@ -203,6 +221,15 @@ public class ExportDialog<E> extends JDialogCentered {
 
 		jExtendedInserts = new JCheckBox(DialoguesExport.get().extendedInserts());
 		jSqlPanel.add(jExtendedInserts);
+	//Sqlite
+		JOptionPanel jSqlitePanel = new JOptionPanel();
+		jOptionPanel.add(jSqlitePanel, ExportFormat.SQLITE.name());
+
+		JLabel jSqliteTableNameLabel = new JLabel(DialoguesExport.get().tableName());
+		jSqliteTableName = new JDefaultField(ExportSettings.getDefaultTableName(toolName));
+		jSqliteTableName.setDocument(DocumentFactory.getWordPlainDocument());
+		jSqlitePanel.add(jSqliteTableNameLabel);
+		jSqlitePanel.add(jSqliteTableName);
 	//Html
 		JOptionPanel jHtmlPanel = new JOptionPanel();
 		jOptionPanel.add(jHtmlPanel, ExportFormat.HTML.name());
@@ -478,8 +505,12 @@ public class ExportDialog<E> extends JDialogCentered {
 		Settings.get().getExportSettings(toolName).setDecimalSeparator((DecimalSeparator) jDecimalSeparator.getSelectedItem());
 		//CSV
 		Settings.get().getExportSettings(toolName).setCsvLineDelimiter((LineDelimiter) jLineDelimiter.getSelectedItem());
-		//SQL
-		Settings.get().getExportSettings(toolName).setSqlTableName(jTableName.getText());
+		//SQL + SQLite (shared table name)
+		if (jSqlite.isSelected()) {
+			Settings.get().getExportSettings(toolName).setSqlTableName(jSqliteTableName.getText());
+		} else {
+			Settings.get().getExportSettings(toolName).setSqlTableName(jTableName.getText());
+		}
 		Settings.get().getExportSettings(toolName).setSqlDropTable(jDropTable.isSelected());
 		Settings.get().getExportSettings(toolName).setSqlCreateTable(jCreateTable.isSelected());
 		Settings.get().getExportSettings(toolName).setSqlExtendedInserts(jExtendedInserts.isSelected());
@@ -495,6 +526,8 @@ public class ExportDialog<E> extends JDialogCentered {
 			exportFormat = ExportFormat.HTML;
 		} else if (jSql.isSelected()) {
 			exportFormat = ExportFormat.SQL;
+		} else if (jSqlite.isSelected()) {
+			exportFormat = ExportFormat.SQLITE;
 		}
 		Settings.get().getExportSettings(toolName).setExportFormat(exportFormat);
 		//Filter
@@ -551,6 +584,8 @@ public class ExportDialog<E> extends JDialogCentered {
 		jDropTable.setSelected(Settings.get().getExportSettings(toolName).isSqlDropTable());
 		jCreateTable.setSelected(Settings.get().getExportSettings(toolName).isSqlCreateTable());
 		jExtendedInserts.setSelected(Settings.get().getExportSettings(toolName).isSqlExtendedInserts());
+		//SQLite
+		jSqliteTableName.setText(Settings.get().getExportSettings(toolName).getSqlTableName());
 		//HTML
 		jHtmlStyle.setSelected(Settings.get().getExportSettings(toolName).isHtmlStyled());
 		jHtmlIGB.setSelected(Settings.get().getExportSettings(toolName).isHtmlIGB());
@@ -632,6 +667,9 @@ public class ExportDialog<E> extends JDialogCentered {
 		} else if (exportFormat == ExportFormat.SQL) {
 			jSql.setSelected(true);
 			jOptionPanel.setBorder(BorderFactory.createTitledBorder(DialoguesExport.get().sql()));
+		} else if (exportFormat == ExportFormat.SQLITE) {
+			jSqlite.setSelected(true);
+			jOptionPanel.setBorder(BorderFactory.createTitledBorder(DialoguesExport.get().sqlite()));
 		} else { //CSV and Default
 			jCsv.setSelected(true);
 			jOptionPanel.setBorder(BorderFactory.createTitledBorder(DialoguesExport.get().csv()));
@@ -798,6 +836,9 @@ public class ExportDialog<E> extends JDialogCentered {
 				} else if (jSql.isSelected()) {
 					exportFormat = ExportFormat.SQL;
 					jOptionPanel.setBorder(BorderFactory.createTitledBorder(DialoguesExport.get().sql()));
+				} else if (jSqlite.isSelected()) {
+					exportFormat = ExportFormat.SQLITE;
+					jOptionPanel.setBorder(BorderFactory.createTitledBorder(DialoguesExport.get().sqlite()));
 				}
 				Settings.get().getExportSettings(toolName).setExportFormat(exportFormat);
 				cardLayout.show(jOptionPanel, exportFormat.name());
@@ -27,9 +27,11 @@ import java.io.File;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -53,8 +55,11 @@ import net.nikr.eve.jeveasset.gui.shared.table.containers.Percent;
 import net.nikr.eve.jeveasset.gui.tabs.tree.TreeAsset;
 import net.nikr.eve.jeveasset.gui.tabs.tree.TreeTab;
 import net.nikr.eve.jeveasset.io.local.CsvWriter;
+import net.nikr.eve.jeveasset.io.local.ExportCursor;
 import net.nikr.eve.jeveasset.io.local.HtmlWriter;
 import net.nikr.eve.jeveasset.io.local.SqlWriter;
+import net.nikr.eve.jeveasset.io.local.SqliteWriter;
+import net.nikr.eve.jeveasset.io.local.SqliteWriter.SqliteTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.supercsv.prefs.CsvPreference;
@@ -110,6 +115,41 @@ public class ExportTableData {
 		return export(eventList, null, tableFormat, toolName, new HashMap<>(), new HashMap<>(), new HashMap<>(), new ArrayList<>(), exportSettings);
 	}
 
+	/**
+	 * Get Filters and Views from Settings (No Column Cache), for a SQLite export of several tools to one file.
+	 * @param <Q>
+	 * @param eventList
+	 * @param tableFormat
+	 * @param toolName
+	 * @param exportSettings
+	 * @return the table to write or null if the export settings are invalid
+	 */
+	public static <Q> SqliteTable createSqliteTableAuto(EventList<Q> eventList, final SimpleTableFormat<Q> tableFormat, String toolName, ExportSettings exportSettings) {
+		return createSqliteTable(getExportData(eventList, null, tableFormat, toolName, Settings.get().getTableViews(toolName), Settings.get().getTableFilters(toolName), Settings.get().getDefaultTableFilters(toolName), Settings.get().getCurrentTableFilters(toolName), exportSettings), exportSettings);
+	}
+
+	/**
+	 * No Filters and Views from Settings, for a SQLite export of several tools to one file.
+	 * @param <Q>
+	 * @param eventList
+	 * @param tableFormat
+	 * @param toolName
+	 * @param exportSettings
+	 * @return the table to write or null if the export settings are invalid
+	 */
+	public static <Q> SqliteTable createSqliteTableEmpty(EventList<Q> eventList, final SimpleTableFormat<Q> tableFormat, String toolName, ExportSettings exportSettings) {
+		return createSqliteTable(getExportData(eventList, null, tableFormat, toolName, new HashMap<>(), new HashMap<>(), new HashMap<>(), new ArrayList<>(), exportSettings), exportSettings);
+	}
+
+	private static <Q> SqliteTable createSqliteTable(ExportData<Q> exportData, ExportSettings exportSettings) {
+		if (exportData == null) {
+			return null;
+		}
+		return new SqliteTable(new TableCursor<>(exportData.getItems(), exportData.getHeader(), exportData.getTableFormat(), exportSettings.getDecimalSeparator(), false),
+				new ArrayList<>(exportData.getHeader()),
+				exportSettings.getSqlTableName());
+	}
+
 	/**
 	 *
 	 * @param <Q>
@@ -124,6 +164,66 @@ public class ExportTableData {
 	 * @return
 	 */
 	private static <Q> boolean export(EventList<Q> eventList, ColumnCache<Q> columnCache, final SimpleTableFormat<Q> tableFormat, String toolName, Map<String, View> views, Map<String, List<Filter>> filters, Map<String, List<Filter>> defaultFilters, List<Filter> currentFilters, ExportSettings exportSettings) {
+		ExportData<Q> exportData = getExportData(eventList, columnCache, tableFormat, toolName, views, filters, defaultFilters, currentFilters, exportSettings);
+		if (exportData == null) {
+			return false;
+		}
+		final List<Q> items = exportData.getItems();
+		final List<EnumTableColumn<Q>> header = exportData.getHeader();
+		//File
+		String filename = exportSettings.getFilename();
+		File dir = new File(filename).getParentFile();
+		if (dir.isFile()) { //If parent dir is a file, cancel
+			return false;
+		} else if (!dir.exists()) { //If parent dir dosn't exsit, create it
+			dir.mkdirs();
+		}
+		//Write (without the lock, so updates of the list are not blocked by the file write)
+		if (exportSettings.isCsv()) {
+			//CSV
+			String[] headerStrings = new String[header.size()];
+			for (int i = 0; i < header.size(); i++) {
+				headerStrings[i] = header.get(i).getColumnName();
+			}
+			return CsvWriter.save(exportSettings.getFilename(),
+					new TableCursor<>(items, header, tableFormat, exportSettings.getDecimalSeparator(), false),
+					headerStrings,
+					new CsvPreference.Builder('\"', exportSettings.getCsvFieldDelimiter().getValue(), exportSettings.getCsvLineDelimiter().getValue()).build());
+		} else if (exportSettings.isHtml()) {
+			//HTML
+			return HtmlWriter.save(exportSettings.getFilename(),
+					new TableCursor<>(items, header, tableFormat, exportSettings.getDecimalSeparator(), true),
+					new ArrayList<>(header),
+					exportSettings.isHtmlIGB(),
+					exportSettings.isHtmlStyled(),
+					exportSettings.getHtmlRepeatHeader(),
+					toolName.equals(TreeTab.NAME));
+		} else if (exportSettings.isSql()) {
+			//SQL
+			return SqlWriter.save(exportSettings.getFilename(),
+					new TableCursor<>(items, header, tableFormat, exportSettings.getDecimalSeparator(), false),
+					new ArrayList<>(header),
+					exportSettings.getSqlTableName(),
+					exportSettings.isSqlDropTable(),
+					exportSettings.isSqlCreateTable(),
+					exportSettings.isSqlExtendedInserts());
+		} else if (exportSettings.isSqlite()) {
+			//SQLite
+			return SqliteWriter.save(exportSettings.getFilename(),
+					new TableCursor<>(items, header, tableFormat, exportSettings.getDecimalSeparator(), false),
+					new ArrayList<>(header),
+					exportSettings.getSqlTableName());
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Apply the filters and get the columns.
+	 * Only the row references are copied, the rows are formatted while writing.
+	 * @return the rows and columns to export or null if the export settings are invalid
+	 */
+	private static <Q> ExportData<Q> getExportData(EventList<Q> eventList, ColumnCache<Q> columnCache, final SimpleTableFormat<Q> tableFormat, String toolName, Map<String, View> views, Map<String, List<Filter>> filters, Map<String, List<Filter>> defaultFilters, List<Filter> currentFilters, ExportSettings exportSettings) {
 		//Filter
 		final List<Filter> filter;
 		switch (exportSettings.getFilterSelection()) {
@@ -137,7 +237,7 @@ public class ExportTableData {
 				String filterName = exportSettings.getFilterName();
 				if (filterName == null) {
 					LOG.error(toolName + " -> Filter name is null");
-					return false;
+					return null;
 				}
 				List<Filter> f = filters.get(filterName);
 				if (f != null) {
@@ -146,13 +246,13 @@ public class ExportTableData {
 					filter = defaultFilters.get(filterName);
 					if (filter == null) {
 						LOG.error(toolName + " -> No such filter: " + filterName);
-						return false;
+						return null;
 					}
 				}
 				break;
 			default:
 				LOG.error(toolName + " -> Unknown FilterSelection: " + exportSettings.getFilterSelection());
-				return false;
+				return null;
 		}
 		//Columns + Header
 		Map<String, EnumTableColumn<Q>> columns = new HashMap<>(); //Column lookup
@@ -190,12 +290,12 @@ public class ExportTableData {
 				String viewName = exportSettings.getViewName();
 				if (viewName == null) {
 					LOG.error(toolName + " -> View name is null");
-					return false;
+					return null;
 				}
 				View view = views.get(viewName);
 				if (view == null) {
 					LOG.error(toolName + " -> No such view: " + viewName);
-					return false;
+					return null;
 				}
 				header = new ArrayList<>();
 				for (SimpleColumn simpleColumn : view.getColumns()) {
@@ -209,11 +309,11 @@ public class ExportTableData {
 				break;
 			default:
 				LOG.error(toolName + " -> Unknown ColumnSelection: " + exportSettings.getColumnSelection());
-				return false;
+				return null;
 		}
 		if (header.isEmpty()) {
 			LOG.error(toolName + " -> No columns selected for ColumnSelection: " + exportSettings.getColumnSelection());
-			return false;
+			return null;
 		}
 		//Formula
 		for (Formula formula : Settings.get().getTableFormulas(toolName)) {
@@ -232,90 +332,119 @@ public class ExportTableData {
 			}
 		}
 		//Apply Filters
-		List<Q> items = new ArrayList<>();
+		final List<Q> items;
+		FilterList<Q> filterList = null;
+		FilterList<Q> treeFilterList = null;
 		try {
 			eventList.getReadWriteLock().readLock().lock();
-			FilterList<Q> filterList = new FilterList<>(eventList, new FilterLogicalMatcher<>(tableFormat, columnCache, filter));
+			filterList = new FilterList<>(eventList, new FilterLogicalMatcher<>(tableFormat, columnCache, filter));
 			if (!eventList.isEmpty() && eventList.get(0) instanceof TreeAsset) {
-				FilterList<Q> treeFilterList = new FilterList<>(eventList, new TreeMatcher<>(filterList));
-				items.addAll(treeFilterList);
+				treeFilterList = new FilterList<>(eventList, new TreeMatcher<>(filterList));
+				items = new ArrayList<>(treeFilterList);
 			} else {
-				items.addAll(filterList);
+				items = new ArrayList<>(filterList);
 			}
 		} finally {
+			if (treeFilterList != null) {
+				treeFilterList.dispose();
+			}
+			if (filterList != null) {
+				filterList.dispose();
+			}
 			eventList.getReadWriteLock().readLock().unlock();
 		}
-		//File
-		String filename = exportSettings.getFilename();
-		File dir = new File(filename).getParentFile();
-		if (dir.isFile()) { //If parent dir is a file, cancel
-			return false;
-		} else if (!dir.exists()) { //If parent dir dosn't exsit, create it
-			dir.mkdirs();
-		}
-		if (exportSettings.isCsv()) {
-			//CSV
-			//Create data
-			List<String> headerStrings = new ArrayList<>(header.size());
-			List<String> headerKeys = new ArrayList<>(header.size());
-			for (EnumTableColumn<Q> column : header) {
-				headerStrings.add(column.getColumnName());
-				headerKeys.add(column.name());
+		return new ExportData<>(items, header, tableFormat);
+	}
+
+	/**
+	 * Pulls one row at a time from the list.
+	 * The values of the current row are kept in arrays that are reused for every row.
+	 * @param <Q>
+	 */
+	private static class TableCursor<Q> implements ExportCursor {
+
+		private final Iterator<Q> iterator;
+		private final SimpleTableFormat<Q> tableFormat;
+		private final DecimalSeparator decimalSeparator;
+		private final boolean html;
+		private final String[] columns;
+		private final Object[] values;
+		private final boolean[] loaded;
+		private final String[] strings;
+		private Q item;
+
+		public TableCursor(List<Q> items, List<EnumTableColumn<Q>> header, SimpleTableFormat<Q> tableFormat, DecimalSeparator decimalSeparator, boolean html) {
+			this.iterator = items.iterator();
+			this.tableFormat = tableFormat;
+			this.decimalSeparator = decimalSeparator;
+			this.html = html;
+			columns = new String[header.size()];
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = header.get(i).name();
 			}
-			List<Map<String, String>> rows = new ArrayList<>();
-			for (Q e : items) {
-				Map<String, String> row = new HashMap<>();
-				for (EnumTableColumn<Q> column : header) {
-					row.put(column.name(), format(tableFormat.getColumnValue(e, column.name()), exportSettings.getDecimalSeparator(), false));
-				}
-				rows.add(row);
+			values = new Object[columns.length];
+			loaded = new boolean[columns.length];
+			strings = new String[columns.length];
+		}
+
+		@Override
+		public boolean next() {
+			Arrays.fill(values, null);
+			Arrays.fill(loaded, false);
+			Arrays.fill(strings, null);
+			if (!iterator.hasNext()) {
+				item = null;
+				return false;
 			}
-			//Save data
-			return CsvWriter.save(exportSettings.getFilename(),
-					rows,
-					headerStrings.toArray(new String[headerStrings.size()]),
-					headerKeys.toArray(new String[headerKeys.size()]),
-					new CsvPreference.Builder('\"', exportSettings.getCsvFieldDelimiter().getValue(), exportSettings.getCsvLineDelimiter().getValue()).build());
-		} else if (exportSettings.isHtml()) {
-			//HTML
-			//Create data
-			List<Map<EnumTableColumn<?>, String>> rows = new ArrayList<>();
-			for (Q e : items) {
-				Map<EnumTableColumn<?>, String> row = new HashMap<>();
-				for (EnumTableColumn<Q> column : header) {
-					row.put(column, format(tableFormat.getColumnValue(e, column.name()), exportSettings.getDecimalSeparator(), true));
-				}
-				rows.add(row);
+			item = iterator.next();
+			return true;
+		}
+
+		@Override
+		public Object getItem() {
+			return item;
+		}
+
+		@Override
+		public Object getValue(int column) {
+			if (!loaded[column]) {
+				values[column] = tableFormat.getColumnValue(item, columns[column]);
+				loaded[column] = true;
 			}
-			//Save data
-			return HtmlWriter.save(exportSettings.getFilename(),
-					rows,
-					new ArrayList<>(header),
-					exportSettings.isHtmlIGB() ? new ArrayList<>(items) : null,
-					exportSettings.isHtmlStyled(),
-					exportSettings.getHtmlRepeatHeader(),
-					toolName.equals(TreeTab.NAME));
-		} else if (exportSettings.isSql()) {
-			//SQL
-			//Create data
-			List<Map<EnumTableColumn<?>, Object>> rows = new ArrayList<>();
-			for (Q e : items) {
-				Map<EnumTableColumn<?>, Object> row = new HashMap<>();
-				for (EnumTableColumn<Q> column : header) {
-					row.put(column, tableFormat.getColumnValue(e, column.name()));
-				}
-				rows.add(row);
+			return values[column];
+		}
+
+		@Override
+		public String getString(int column) {
+			if (strings[column] == null) {
+				strings[column] = format(getValue(column), decimalSeparator, html);
 			}
-			//Save data
-			return SqlWriter.save(exportSettings.getFilename(),
-					rows,
-					new ArrayList<>(header),
-					exportSettings.getSqlTableName(),
-					exportSettings.isSqlDropTable(),
-					exportSettings.isSqlCreateTable(),
-					exportSettings.isSqlExtendedInserts());
-		} else {
-			return false;
+			return strings[column];
+		}
+	}
+
+	private static class ExportData<Q> {
+
+		private final List<Q> items;
+		private final List<EnumTableColumn<Q>> header;
+		private final SimpleTableFormat<Q> tableFormat;
+
+		public ExportData(List<Q> items, List<EnumTableColumn<Q>> header, SimpleTableFormat<Q> tableFormat) {
+			this.items = items;
+			this.header = header;
+			this.tableFormat = tableFormat;
+		}
+
+		public List<Q> getItems() {
+			return items;
+		}
+
+		public List<EnumTableColumn<Q>> getHeader() {
+			return header;
+		}
+
+		public SimpleTableFormat<Q> getTableFormat() {
+			return tableFormat;
 		}
 	}
 
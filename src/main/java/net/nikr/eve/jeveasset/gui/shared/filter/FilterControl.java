@@ -58,6 +58,8 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 	private final Map<String, List<Filter>> defaultFilters;
 	private final FilterGui<E> gui;
 	private final Map<E, String> cache;
+	private FilterIndex<E> index = null;
+	private long indexGeneration = 0;
 
 	/** Do not use this constructor - it's here only for test purposes. */
 	protected FilterControl() {
@@ -85,19 +87,28 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 			public void listChanged(ListEvent<E> listChanges) {
 				try {
 					eventList.getReadWriteLock().readLock().lock();
+					if (listChanges.isReordering()) {
+						indexRebuild();
+						return;
+					}
 					List<E> delete = new ArrayList<>();
+					List<E> insert = new ArrayList<>();
 					List<E> update = new ArrayList<>();
 					while(listChanges.next()) {
 						switch (listChanges.getType()) {
 							case ListEvent.DELETE:
 								addSafe(delete, listChanges.getOldValue());
 								break;
+							case ListEvent.INSERT:
+								addSafe(eventList, insert, listChanges.getIndex());
+								break;
 							case ListEvent.UPDATE:
 								addSafe(eventList, update, listChanges.getIndex());
 								break;
 						}
 					}
 					cacheDelete(delete);
+					cacheInsert(insert);
 					cacheUpdate(update);
 				} finally {
 					eventList.getReadWriteLock().readLock().unlock();
@@ -112,6 +123,7 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 
 	public void clearCache() {
 		cache.clear();
+		indexClear();
 	}
 
 	public void createCache() {
@@ -130,6 +142,24 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 	@Override
 	public void addCache(E e, String haystack) {
 		cache.put(e, haystack);
+		indexUpdate(e, haystack);
+	}
+
+	/**
+	 * The index is built on first use and then updated with the list changes.
+	 * Called once per filter pass (see FilterMatcher).
+	 * @return The index of the current cache or null if not enabled
+	 */
+	@Override
+	public synchronized FilterIndex<E> getIndex() {
+		if (!Settings.get().isFilterIndex()) {
+			indexClear(); //Disabled: Free memory
+			return null;
+		}
+		if (index == null) {
+			index = new FilterIndex<>(cache, ++indexGeneration);
+		}
+		return index;
 	}
 
 	private void cacheDelete(List<E> update) {
@@ -138,6 +168,15 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 		}
 		for (E e : update) {
 			cache.remove(e); //Remove deleted cache
+			indexRemove(e);
+		}
+	}
+
+	private void cacheInsert(List<E> insert) {
+		for (E e : insert) {
+			if (!cache.containsKey(e)) { //May already be added by the filter
+				addCache(e, FilterMatcher.buildItemCache(tableFormat, e));
+			}
 		}
 	}
 
@@ -146,12 +185,15 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 			return;
 		}
 		for (E e : update) {
-			cache.put(e, FilterMatcher.buildItemCache(tableFormat, e)); //Update outdated cache
+			String haystack = FilterMatcher.buildItemCache(tableFormat, e);
+			cache.put(e, haystack); //Update outdated cache
+			indexUpdate(e, haystack);
 		}
 	}
 
 	private void cacheRebuild() {
 		cache.clear();
+		indexClear();
 		try {
 			getEventList().getReadWriteLock().readLock().lock();
 			for (E e : getEventList()) {
@@ -163,6 +205,35 @@ public abstract class FilterControl<E> implements ColumnCache<E>, SimpleFilterCo
 		}
 	}
 
+	private synchronized void indexUpdate(E e, String haystack) {
+		if (index != null) {
+			index.add(e, haystack);
+		}
+	}
+
+	private synchronized void indexRemove(E e) {
+		if (index != null) {
+			index.remove(e);
+		}
+	}
+
+	/**
+	 * Reordering may replace the rows: start over with a new generation.
+	 */
+	private synchronized void indexRebuild() {
+		if (index != null) {
+			index.close();
+			index = new FilterIndex<>(cache, ++indexGeneration);
+		}
+	}
+
+	private synchronized void indexClear() {
+		if (index != null) {
+			index.close();
+			index = null;
+		}
+	}
+
 	private void addSafe(final EventList<E> eventList, List<E> list, int index) {
 		if (index >= 0 && index < eventList.size()) {
 			list.add(eventList.get(index));
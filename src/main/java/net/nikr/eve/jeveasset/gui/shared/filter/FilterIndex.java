@@ -0,0 +1,285 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.filter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trigram inverted index over the "All columns" haystacks of a table.
+ * Used to find the candidate rows for CONTAINS/EQUALS filters without scanning every haystack.
+ * Candidates still needs to be verified against the haystack, as all trigrams being present
+ * does not mean the text is.
+ * Changed rows are indexed incrementally with a new id, ids are never reused.
+ * Candidates only knows the ids that existed when they were resolved,
+ * so rows added or changed later are unknown to them and are never excluded.
+ * A new index (a new generation) is only built to start over, the replaced index must then be closed.
+ * Not thread safe: changed and used under the lock of the event list.
+ * @param <E> Row type
+ */
+public class FilterIndex<E> {
+
+	private static final int GRAM = 3;
+
+	private final long generation;
+	private final GramTable postings = new GramTable();
+	private final Map<E, Integer> ids = new HashMap<>();
+	private int nextID = 0;
+	private boolean closed = false;
+
+	/**
+	 * Build the index.
+	 * @param cache The row haystacks (see FilterMatcher.buildItemCache)
+	 * @param generation The generation of the index
+	 */
+	public FilterIndex(Map<E, String> cache, long generation) {
+		this.generation = generation;
+		for (Map.Entry<E, String> entry : cache.entrySet()) {
+			add(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Add a new row or re-index a changed row.
+	 * The postings of the old id are left behind: they can only add candidates, never exclude any.
+	 * @param e Row
+	 * @param haystack The row haystack (see FilterMatcher.buildItemCache)
+	 */
+	public void add(E e, String haystack) {
+		int id = nextID++;
+		ids.put(e, id);
+		for (long gram : grams(haystack)) {
+			postings.add(gram, id);
+		}
+	}
+
+	/**
+	 * @param e Row to remove
+	 */
+	public void remove(E e) {
+		ids.remove(e);
+	}
+
+	/**
+	 * Called when the index has been replaced by a new generation.
+	 * Candidates of a closed index no longer excludes any rows, as changes are not added to it anymore.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	public long getGeneration() {
+		return generation;
+	}
+
+	public int size() {
+		return ids.size();
+	}
+
+	/**
+	 * @param e Row
+	 * @return true, if the row was indexed
+	 */
+	public boolean contains(E e) {
+		return ids.containsKey(e);
+	}
+
+	/**
+	 * Find the rows that may contain the text.
+	 * @param text The text to search for (already formatted)
+	 * @return The candidates or null if the text is too short to be resolved by the index
+	 */
+	public Candidates getCandidates(String text) {
+		if (text == null || text.length() < GRAM || closed) {
+			return null;
+		}
+		long[] grams = grams(text);
+		int[] slots = new int[grams.length];
+		int shortest = -1;
+		for (int i = 0; i < grams.length; i++) {
+			int slot = postings.find(grams[i]);
+			if (slot < 0) { //No row contains this trigram
+				return new Candidates(new BitSet(), nextID);
+			}
+			slots[i] = slot;
+			if (shortest < 0 || postings.size(slot) < postings.size(shortest)) {
+				shortest = slot;
+			}
+		}
+		//Start with the shortest list, to keep the bitset small
+		BitSet bits = postings.toBitSet(shortest);
+		for (int slot : slots) {
+			if (slot != shortest && !bits.isEmpty()) {
+				bits.and(postings.toBitSet(slot));
+			}
+		}
+		return new Candidates(bits, nextID);
+	}
+
+	private static long[] grams(String text) {
+		int count = text.length() - GRAM + 1;
+		if (count <= 0) {
+			return new long[0];
+		}
+		long[] grams = new long[count];
+		for (int i = 0; i < count; i++) {
+			grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+		}
+		Arrays.sort(grams);
+		//Remove duplicates
+		int size = 1;
+		for (int i = 1; i < count; i++) {
+			if (grams[i] != grams[size - 1]) {
+				grams[size++] = grams[i];
+			}
+		}
+		return Arrays.copyOf(grams, size);
+	}
+
+	/**
+	 * Rows that may match the searched text.
+	 * Stays valid while the index is changed incrementally, until the index is closed.
+	 */
+	public class Candidates {
+
+		private final BitSet bits;
+		private final int limit;
+
+		private Candidates(BitSet bits, int limit) {
+			this.bits = bits;
+			this.limit = limit;
+		}
+
+		public long getGeneration() {
+			return generation;
+		}
+
+		/**
+		 * @param e Row
+		 * @return true, if the row is known not to contain the text
+		 */
+		public boolean isExcluded(E e) {
+			if (closed) {
+				return false;
+			}
+			Integer id = ids.get(e);
+			return id != null && id < limit && !bits.get(id);
+		}
+	}
+
+	/**
+	 * Open addressing hash table from trigram to the ids of the rows containing it.
+	 * Trigrams are never negative, so -1 marks an empty slot.
+	 */
+	private static class GramTable {
+		private static final long EMPTY = -1L;
+
+		private long[] keys = newKeys(1024);
+		private int[][] data = new int[1024][];
+		private int[] sizes = new int[1024];
+		private int count = 0;
+
+		private static long[] newKeys(int capacity) {
+			long[] keys = new long[capacity];
+			Arrays.fill(keys, EMPTY);
+			return keys;
+		}
+
+		private static int slot(long gram, int capacity) {
+			long hash = gram * 0x9E3779B97F4A7C15L;
+			return (int) (hash >>> 32) & (capacity - 1);
+		}
+
+		private void add(long gram, int id) {
+			int slot = find(gram);
+			if (slot < 0) {
+				if ((count + 1) * 2 > keys.length) { //Max 50% full
+					grow();
+				}
+				slot = slot(gram, keys.length);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & (keys.length - 1);
+				}
+				keys[slot] = gram;
+				data[slot] = new int[4];
+				count++;
+			}
+			int[] ids = data[slot];
+			if (sizes[slot] == ids.length) {
+				ids = Arrays.copyOf(ids, ids.length * 2);
+				data[slot] = ids;
+			}
+			ids[sizes[slot]++] = id;
+		}
+
+		/**
+		 * @return slot of the trigram or -1 if not found
+		 */
+		private int find(long gram) {
+			int slot = slot(gram, keys.length);
+			while (keys[slot] != EMPTY) {
+				if (keys[slot] == gram) {
+					return slot;
+				}
+				slot = (slot + 1) & (keys.length - 1);
+			}
+			return -1;
+		}
+
+		private int size(int slot) {
+			return sizes[slot];
+		}
+
+		private BitSet toBitSet(int slot) {
+			BitSet bits = new BitSet();
+			int[] ids = data[slot];
+			for (int i = 0; i < sizes[slot]; i++) {
+				bits.set(ids[i]);
+			}
+			return bits;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			int[][] oldData = data;
+			int[] oldSizes = sizes;
+			int capacity = oldKeys.length * 2;
+			keys = newKeys(capacity);
+			data = new int[capacity][];
+			sizes = new int[capacity];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] == EMPTY) {
+					continue;
+				}
+				int slot = slot(oldKeys[i], capacity);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & (capacity - 1);
+				}
+				keys[slot] = oldKeys[i];
+				data[slot] = oldData[i];
+				sizes[slot] = oldSizes[i];
+			}
+		}
+	}
+}
@@ -24,12 +24,11 @@ package net.nikr.eve.jeveasset.gui.shared.filter;
 import ca.odell.glazedlists.matchers.Matcher;
 import java.text.NumberFormat;
 import java.text.ParsePosition;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
-import java.util.TimeZone;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import net.nikr.eve.jeveasset.gui.shared.FormatCache;
 import net.nikr.eve.jeveasset.gui.shared.Formatter;
 import net.nikr.eve.jeveasset.gui.shared.filter.Filter.CompareType;
 import net.nikr.eve.jeveasset.gui.shared.filter.Filter.LogicType;
@@ -42,7 +41,27 @@ public class FilterMatcher<E> implements Matcher<E> {
 	public static final Locale LOCALE = Locale.ENGLISH; //Use english AKA US_EN
 	private static final NumberFormat NUMBER_FORMAT = NumberFormat.getInstance(LOCALE);
 	private static final NumberFormat PERCENT_FORMAT = NumberFormat.getPercentInstance(LOCALE);
-	private static final Calendar CALENDAR = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+	private static final FormatCache COMPARE_CACHE = new FormatCache(16384) {
+		@Override
+		protected String createString(Object value) {
+			return Formatter.compareFormat(value).toLowerCase();
+		}
+	};
+	private static final FormatCache DATE_CACHE = new FormatCache(16384) {
+		@Override
+		protected String createString(Object value) {
+			return Formatter.columnDate(value).toLowerCase();
+		}
+	};
+	private static final long HOUR = 60L * 60L * 1000L;
+	private static final long DAY = 24L * HOUR;
+
+	/**
+	 * Column value types with a typed number compare.
+	 */
+	static enum ValueType {
+		LONG, DOUBLE, NUMBER_VALUE, TEXT, OTHER
+	}
 
 	private final SimpleTableFormat<E> tableFormat;
 	private final ColumnCache<E> columnCache;
@@ -50,9 +69,16 @@ public class FilterMatcher<E> implements Matcher<E> {
 	private final boolean and;
 	private final EnumTableColumn<?> enumColumn;
 	private final CompareType compare;
+	private final ValueType valueType;
 	private final String text;
 	private final Pattern pattern;
 	private final boolean empty;
+	//Pre-parsed filter text (GREATER_THAN, LESS_THAN, BEFORE, AFTER, EQUALS_DATE, LAST_DAYS, LAST_HOURS)
+	private final boolean textValid;
+	private final double textNumber;
+	private final long textTime;
+	private FilterIndex<E>.Candidates candidates;
+	private boolean candidatesResolved = false;
 
 	FilterMatcher(final SimpleTableFormat<E> filterControl, ColumnCache<E> columnCache, final Filter filter) {
 		this(filterControl, columnCache, filter.getGroup(), filter.getLogic(), filter.getColumn(), filter.getCompareType(), filter.getText(), filter.isEnabled());
@@ -64,6 +90,7 @@ public class FilterMatcher<E> implements Matcher<E> {
 		this.group = group;
 		this.enumColumn = enumColumn;
 		this.compare = compare;
+		this.valueType = getValueType(enumColumn);
 		Pattern compiled;
 		if (text == null) {
 			this.pattern = null;
@@ -82,6 +109,62 @@ public class FilterMatcher<E> implements Matcher<E> {
 		}
 		empty = !enabled || text == null || text.isEmpty();
 		and = logic == Filter.LogicType.AND;
+		//Parse the filter text once, instead of for every row
+		Double number = null;
+		Long time = null;
+		if (compare != null && this.text != null) {
+			switch (compare) {
+				case GREATER_THAN:
+				case LESS_THAN:
+					number = createDouble(this.text);
+					break;
+				case LAST_DAYS:
+				case LAST_HOURS:
+					Number n = createNumber(this.text);
+					if (n != null) {
+						number = (double) n.intValue();
+					}
+					break;
+				case BEFORE:
+				case AFTER:
+				case EQUALS_DATE:
+				case EQUALS_NOT_DATE:
+					Date date = getDate(this.text, true);
+					if (date != null) {
+						time = date.getTime();
+					}
+					break;
+			}
+		}
+		textValid = number != null || time != null;
+		textNumber = number != null ? number : 0;
+		textTime = time != null ? time : 0;
+	}
+
+	/**
+	 * @param column Column
+	 * @return The value type from the declared type of the column
+	 */
+	static ValueType getValueType(final EnumTableColumn<?> column) {
+		if (column == null || column.getType() == null) {
+			return ValueType.OTHER;
+		}
+		Class<?> type = column.getType();
+		if (type == Long.class || type == Integer.class) {
+			return ValueType.LONG;
+		} else if (type == Double.class || type == Float.class) {
+			return ValueType.DOUBLE;
+		} else if (NumberValue.class.isAssignableFrom(type)) {
+			return ValueType.NUMBER_VALUE;
+		} else if (type == String.class) {
+			return ValueType.TEXT;
+		} else {
+			return ValueType.OTHER;
+		}
+	}
+
+	ValueType getValueType() {
+		return valueType;
 	}
 
 	public int getGroup() {
@@ -115,21 +198,21 @@ public class FilterMatcher<E> implements Matcher<E> {
 			case EQUALS:
 				return equals(column, text);
 			case EQUALS_DATE:
-				return equalsDate(column, text);
+				return textValid && equalsDate(column, textTime);
 			case EQUALS_NOT:
 				return !equals(column, text);
 			case REGEX:
 				return regex(column, pattern);
 			case EQUALS_NOT_DATE:
-				return !equalsDate(column, text);
+				return !textValid || !equalsDate(column, textTime);
 			case GREATER_THAN:
-				return great(column, text);
+				return !textValid || greaterThan(column, textNumber);
 			case LESS_THAN:
-				return less(column, text);
+				return textValid && lessThan(column, textNumber);
 			case BEFORE:
-				return before(column, text);
+				return textValid && before(column, textTime);
 			case AFTER:
-				return after(column, text);
+				return textValid && after(column, textTime);
 			case GREATER_THAN_COLUMN:
 				return great(column, tableFormat.getColumnValue(item, text));
 			case LESS_THAN_COLUMN:
@@ -147,9 +230,9 @@ public class FilterMatcher<E> implements Matcher<E> {
 			case AFTER_COLUMN:
 				return after(column, tableFormat.getColumnValue(item, text));
 			case LAST_DAYS:
-				return lastDays(column, text);
+				return textValid && lastDays(column, (int) textNumber);
 			case LAST_HOURS:
-				return lastHours(column, text);
+				return textValid && lastHours(column, (int) textNumber);
 			default:
 				//Fallback: show all...
 				return true;
@@ -182,7 +265,19 @@ public class FilterMatcher<E> implements Matcher<E> {
 		}
 		if (compare == null || text == null) {
 			return true;
-		} else switch (compare) {
+		}
+		FilterIndex<E>.Candidates indexCandidates = getCandidates();
+		if (indexCandidates != null && indexCandidates.isExcluded(item)) {
+			switch (compare) {
+				case CONTAINS:
+				case EQUALS:
+					return false;
+				case CONTAINS_NOT:
+				case EQUALS_NOT:
+					return true;
+			}
+		}
+		switch (compare) {
 			case CONTAINS:
 				return haystack.contains(text);
 			case CONTAINS_NOT:
@@ -198,6 +293,39 @@ public class FilterMatcher<E> implements Matcher<E> {
 		}
 	}
 
+	/**
+	 * Resolve the candidate rows from the index (once per matcher, a new matcher is made for each filter pass).
+	 * The candidates stays valid while the index is updated, and excludes nothing once the index is replaced.
+	 * REGEX can not be resolved by the index and will always do a full scan.
+	 * @return The candidates or null, if all rows must be checked
+	 */
+	private FilterIndex<E>.Candidates getCandidates() {
+		if (columnCache == null) {
+			return null;
+		}
+		if (!candidatesResolved) {
+			candidatesResolved = true;
+			FilterIndex<E> index = columnCache.getIndex();
+			if (index == null) {
+				return null;
+			}
+			switch (compare) {
+				case CONTAINS:
+				case CONTAINS_NOT:
+					candidates = index.getCandidates(text);
+					break;
+				case EQUALS:
+				case EQUALS_NOT:
+					candidates = index.getCandidates("\n" + text + "\r");
+					break;
+				default:
+					candidates = null;
+					break;
+			}
+		}
+		return candidates;
+	}
+
 	private boolean equals(final Object object1, final String formattedText) {
 		//Null
 		if (object1 == null || formattedText == null) {
@@ -267,80 +395,192 @@ public class FilterMatcher<E> implements Matcher<E> {
 		return fallback; //Fallback
 	}
 
+	/**
+	 * Column value greater than a pre-parsed number (without boxing or parsing the number).
+	 * The value is compared as the declared type of the column.
+	 * Values of another type (or columns without a declared type) are compared by their runtime type.
+	 * @param object Column value
+	 * @param number Pre-parsed number
+	 * @return true, if greater or if the column value is not a number
+	 */
+	private boolean greaterThan(final Object object, final double number) {
+		switch (valueType) {
+			case LONG:
+				if (object instanceof Long || object instanceof Integer) {
+					return ((Number) object).longValue() > number;
+				}
+				break;
+			case DOUBLE:
+				if (object instanceof Double || object instanceof Float) {
+					return ((Number) object).doubleValue() > number;
+				}
+				break;
+			case NUMBER_VALUE:
+				if (object instanceof NumberValue) {
+					return greaterThan((NumberValue) object, number);
+				}
+				break;
+			case TEXT:
+				if (object instanceof String) {
+					return textGreaterThan(object, number);
+				}
+				break;
+		}
+		if (object instanceof Long || object instanceof Integer) {
+			return ((Number) object).longValue() > number;
+		} else if (object instanceof Double || object instanceof Float) {
+			return ((Number) object).doubleValue() > number;
+		} else if (object instanceof NumberValue) {
+			return greaterThan((NumberValue) object, number);
+		} else {
+			return textGreaterThan(object, number);
+		}
+	}
+
+	private static boolean greaterThan(final NumberValue numberValue, final double number) {
+		Long l = numberValue.getLong();
+		if (l != null) {
+			return l > number;
+		}
+		Double d = numberValue.getDouble();
+		if (d != null) {
+			return d > number;
+		}
+		return true; //Fallback
+	}
+
+	private static boolean textGreaterThan(final Object object, final double number) {
+		Double d = createDouble(object); //Only String values can be parsed
+		if (d != null) {
+			return d > number;
+		}
+		return true; //Fallback
+	}
+
+	/**
+	 * Column value less than a pre-parsed number (without boxing or parsing the number).
+	 * The value is compared as the declared type of the column (see greaterThan(Object, double)).
+	 * @param object Column value
+	 * @param number Pre-parsed number
+	 * @return true, if less
+	 */
+	private boolean lessThan(final Object object, final double number) {
+		switch (valueType) {
+			case LONG:
+				if (object instanceof Long || object instanceof Integer) {
+					return number > ((Number) object).longValue();
+				}
+				break;
+			case DOUBLE:
+				if (object instanceof Double || object instanceof Float) {
+					return number > ((Number) object).doubleValue();
+				}
+				break;
+			case NUMBER_VALUE:
+				if (object instanceof NumberValue) {
+					return lessThan((NumberValue) object, number);
+				}
+				break;
+			case TEXT:
+				if (object instanceof String) {
+					return textLessThan(object, number);
+				}
+				break;
+		}
+		if (object instanceof Long || object instanceof Integer) {
+			return number > ((Number) object).longValue();
+		} else if (object instanceof Double || object instanceof Float) {
+			return number > ((Number) object).doubleValue();
+		} else if (object instanceof NumberValue) {
+			return lessThan((NumberValue) object, number);
+		} else {
+			return textLessThan(object, number);
+		}
+	}
+
+	private static boolean lessThan(final NumberValue numberValue, final double number) {
+		Double d = numberValue.getDouble();
+		if (d != null) {
+			return number > d;
+		}
+		Long l = numberValue.getLong();
+		if (l != null) {
+			return number > l;
+		}
+		return false; //Fallback
+	}
+
+	private static boolean textLessThan(final Object object, final double number) {
+		Double d = createDouble(object); //Only String values can be parsed
+		if (d != null) {
+			return number > d;
+		}
+		return false; //Fallback
+	}
+
 	private boolean before(final Object object1, final Object object2) {
-		//Date
-		Date date1 = getDate(object1, false);
 		Date date2 = getDate(object2, true);
-		if (date1 != null && date2 != null) {
-			CALENDAR.setTime(date2);
-			CALENDAR.set(Calendar.HOUR_OF_DAY, 0);
-			CALENDAR.set(Calendar.MINUTE, 0);
-			CALENDAR.set(Calendar.SECOND, 0);
-			CALENDAR.set(Calendar.MILLISECOND, 0);
-			return date1.before(CALENDAR.getTime());
+		if (date2 != null) {
+			return before(object1, date2.getTime());
 		}
 		return false; //Fallback
 	}
 
-	private boolean after(final Object object1, final Object object2) {
+	private boolean before(final Object object1, final long time) {
 		Date date1 = getDate(object1, false);
+		if (date1 != null) {
+			return date1.getTime() < startOfDay(time);
+		}
+		return false; //Fallback
+	}
+
+	private boolean after(final Object object1, final Object object2) {
 		Date date2 = getDate(object2, true);
-		if (date1 != null && date2 != null) {
-			CALENDAR.setTime(date2);
-			CALENDAR.set(Calendar.HOUR_OF_DAY, 23);
-			CALENDAR.set(Calendar.MINUTE, 59);
-			CALENDAR.set(Calendar.SECOND, 59);
-			CALENDAR.set(Calendar.MILLISECOND, 999);
-			return date1.after(CALENDAR.getTime());
+		if (date2 != null) {
+			return after(object1, date2.getTime());
 		}
-		return false;
+		return false; //Fallback
 	}
 
-	private boolean equalsDate(final Object object1, final Object object2) {
+	private boolean after(final Object object1, final long time) {
 		Date date1 = getDate(object1, false);
-		Date date2 = getDate(object2, true);
-		if (date1 != null && date2 != null) {
-			CALENDAR.setTime(date2);
-			CALENDAR.set(Calendar.HOUR_OF_DAY, 12);
-			CALENDAR.set(Calendar.MINUTE, 0);
-			CALENDAR.set(Calendar.SECOND, 0);
-			CALENDAR.set(Calendar.MILLISECOND, 0);
-			date2 = CALENDAR.getTime();
-			CALENDAR.setTime(date1);
-			CALENDAR.set(Calendar.HOUR_OF_DAY, 12);
-			CALENDAR.set(Calendar.MINUTE, 0);
-			CALENDAR.set(Calendar.SECOND, 0);
-			CALENDAR.set(Calendar.MILLISECOND, 0);
-			date1 = CALENDAR.getTime();
-			return date1.equals(date2);
-		}
-		return false;
-	}
-
-	private boolean lastDays(final Object object1, final Object object2) {
+		if (date1 != null) {
+			return date1.getTime() > startOfDay(time) + DAY - 1; //End of day
+		}
+		return false; //Fallback
+	}
+
+	private boolean equalsDate(final Object object1, final long time) {
+		Date date1 = getDate(object1, false);
+		if (date1 != null) {
+			return startOfDay(date1.getTime()) == startOfDay(time);
+		}
+		return false; //Fallback
+	}
+
+	private boolean lastDays(final Object object1, final int days) {
 		Date date = getDate(object1, false);
-		Number days = createNumber(object2);
-		if (date != null && days != null) {
-			CALENDAR.setTime(new Date());
-			CALENDAR.set(Calendar.HOUR_OF_DAY, 0);
-			CALENDAR.set(Calendar.MINUTE, 0);
-			CALENDAR.set(Calendar.SECOND, 0);
-			CALENDAR.set(Calendar.MILLISECOND, 0);
-			CALENDAR.add(Calendar.DAY_OF_MONTH, -days.intValue());
-			return date.after(CALENDAR.getTime());
+		if (date != null) {
+			return date.getTime() > startOfDay(System.currentTimeMillis()) - (days * DAY);
 		}
-		return false;
+		return false; //Fallback
 	}
 
-	private boolean lastHours(final Object object1, final Object object2) {
+	private boolean lastHours(final Object object1, final int hours) {
 		Date date = getDate(object1, false);
-		Number hours = createNumber(object2);
-		if (date != null && hours != null) {
-			CALENDAR.setTime(new Date());
-			CALENDAR.add(Calendar.HOUR_OF_DAY, -hours.intValue());
-			return date.after(CALENDAR.getTime());
+		if (date != null) {
+			return date.getTime() > System.currentTimeMillis() - (hours * HOUR);
 		}
-		return false;
+		return false; //Fallback
+	}
+
+	/**
+	 * Start of the day in GMT (GMT have no daylight saving time, so all days are 24 hours).
+	 * @param time Epoch millis
+	 * @return Epoch millis at 00:00:00.000 GMT of the same day
+	 */
+	private static long startOfDay(final long time) {
+		return Math.floorDiv(time, DAY) * DAY;
 	}
 
 	private static Number getNumber(final Object obj, final boolean userInput) {
@@ -438,13 +678,13 @@ public class FilterMatcher<E> implements Matcher<E> {
 		//Number
 		Number number = getNumber(object, userInput);
 		if (number != null) {
-			return Formatter.compareFormat(number).toLowerCase();
+			return COMPARE_CACHE.format(number);
 		}
 
 		//Date
 		Date date = getDate(object, userInput);
 		if (date != null) {
-			return Formatter.columnDate(date).toLowerCase();
+			return DATE_CACHE.format(date);
 		}
 
 		//String
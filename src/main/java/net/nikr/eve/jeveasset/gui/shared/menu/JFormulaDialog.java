@@ -29,10 +29,8 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import javax.swing.GroupLayout;
@@ -53,7 +51,9 @@ import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.components.JDialogCentered;
 import net.nikr.eve.jeveasset.gui.shared.components.JDropDownButton;
 import net.nikr.eve.jeveasset.gui.shared.table.ColumnManager;
+import net.nikr.eve.jeveasset.gui.shared.table.CompiledFormula;
 import net.nikr.eve.jeveasset.gui.shared.table.EnumTableColumn;
+import net.nikr.eve.jeveasset.gui.shared.table.FormulaValues;
 import net.nikr.eve.jeveasset.gui.shared.table.containers.NumberValue;
 import net.nikr.eve.jeveasset.i18n.GuiShared;
 
@@ -390,9 +390,15 @@ public class JFormulaDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extends J
 	}
 
 	public static class Formula {
+		/**
+		 * Maximum number of cached values per formula.
+		 */
+		private static final int MAX_VALUES = 500_000;
+
 		private final String columnName;
 		private final Expression expression;
-		private final Map<Object, Object> values = new HashMap<>();
+		private final CompiledFormula compiled;
+		private final FormulaValues values = new FormulaValues(MAX_VALUES);
 		private final Collection<String> usedVariables;
 		private final Collection<String> variableColumns = new ArrayList<>();
 		private final boolean isBoolean;
@@ -404,6 +410,7 @@ public class JFormulaDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extends J
 			this.index = index;
 			this.usedVariables = expression.getUsedVariables();
 			this.isBoolean = expression.isBoolean();
+			this.compiled = CompiledFormula.compile(expressionString);
 		}
 
 		public String getColumnName() {
@@ -418,6 +425,14 @@ public class JFormulaDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extends J
 			return expression;
 		}
 
+		/**
+		 * Formula compiled to doubles.
+		 * @return compiled formula or null if only EvalEx can evaluate it
+		 */
+		public CompiledFormula getCompiled() {
+			return compiled;
+		}
+
 		public boolean isBoolean() {
 			return isBoolean;
 		}
@@ -426,7 +441,7 @@ public class JFormulaDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extends J
 			return index;
 		}
 
-		public Map<Object, Object> getValues() {
+		public FormulaValues getValues() {
 			return values;
 		}
 
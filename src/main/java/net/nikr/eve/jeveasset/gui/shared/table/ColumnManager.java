@@ -107,7 +107,7 @@ public class ColumnManager<T extends Enum<T> & EnumTableColumn<Q>, Q> implements
 					//Remove changed values
 					if (!reset.isEmpty()) {
 						for (Formula formula : formulaColumns.keySet()) {
-							formula.getValues().keySet().removeAll(reset);
+							formula.getValues().removeAll(reset);
 						}
 					}
 				} finally {
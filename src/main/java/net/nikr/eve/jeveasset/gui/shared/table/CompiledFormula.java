@@ -0,0 +1,567 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.nikr.eve.jeveasset.gui.shared.menu.JFormulaDialog;
+import net.nikr.eve.jeveasset.gui.shared.table.containers.NumberValue;
+
+/**
+ * Formula compiled to a double expression tree.
+ * Covers the operators and the common functions of EvalEx. Anything else
+ * (unknown functions, hex numbers, strings) is not compiled and the formula
+ * is evaluated by EvalEx instead.
+ * Operator precedence matches EvalEx: unary minus binds tighter than ^ and ^ is right associative.
+ * EvalEx calculates with decimals, so comparisons, %, ROUND, FLOOR and CEILING
+ * use the decimal value of the double (Ex: 0.1 + 0.2 = 0.3 is true, as in EvalEx).
+ */
+public class CompiledFormula {
+
+	/**
+	 * The significant digits a double always holds.
+	 */
+	private static final MathContext DOUBLE_PRECISION = new MathContext(15, RoundingMode.HALF_EVEN);
+
+	private final Node root;
+	private final List<String> variables;
+	private final Map<Class<?>, EnumTableColumn<?>[]> bindings = new HashMap<>();
+
+	private CompiledFormula(Node root, List<String> variables) {
+		this.root = root;
+		this.variables = variables;
+	}
+
+	/**
+	 * Compile formula.
+	 * @param expression EvalEx expression string (variables are column hard names)
+	 * @return compiled formula or null if the expression is not supported
+	 */
+	public static CompiledFormula compile(String expression) {
+		try {
+			Parser parser = new Parser(expression);
+			Node root = parser.parse();
+			return new CompiledFormula(root, parser.variables);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Variable names (upper case) in the order expected by eval(double[]).
+	 * @return
+	 */
+	public List<String> getVariables() {
+		return variables;
+	}
+
+	/**
+	 * Get the columns of the variables.
+	 * @param enumColumns table columns
+	 * @return columns in variable order or null if a variable is not a numeric column
+	 */
+	public synchronized EnumTableColumn<?>[] getBinding(EnumTableColumn<?>[] enumColumns) {
+		if (enumColumns.length == 0) {
+			return null;
+		}
+		Class<?> key;
+		if (enumColumns[0] instanceof Enum) {
+			key = ((Enum<?>) enumColumns[0]).getDeclaringClass(); //Constants with a body are sub classes
+		} else {
+			key = enumColumns[0].getClass();
+		}
+		if (bindings.containsKey(key)) {
+			return bindings.get(key);
+		}
+		EnumTableColumn<?>[] binding = new EnumTableColumn<?>[variables.size()];
+		for (EnumTableColumn<?> column : enumColumns) {
+			Class<?> type = column.getType();
+			if (!Number.class.isAssignableFrom(type) && !NumberValue.class.isAssignableFrom(type)) {
+				continue;
+			}
+			int index = variables.indexOf(JFormulaDialog.getHardName(column).toUpperCase(Locale.ENGLISH));
+			if (index >= 0) {
+				binding[index] = column;
+			}
+		}
+		for (EnumTableColumn<?> column : binding) {
+			if (column == null) {
+				binding = null;
+				break;
+			}
+		}
+		bindings.put(key, binding);
+		return binding;
+	}
+
+	/**
+	 * Evaluate formula.
+	 * @param values variable values in getVariables() order
+	 * @return result or null if the result is not a finite number (Ex: division by zero)
+	 */
+	public Double eval(double[] values) {
+		double value = root.eval(values);
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return null;
+		}
+		return value;
+	}
+
+	/**
+	 * Decimal value of a double, without the binary rounding errors (Ex: 0.30000000000000004 is 0.3).
+	 * @param value finite double
+	 * @return decimal value
+	 */
+	private static BigDecimal toDecimal(double value) {
+		return new BigDecimal(value, DOUBLE_PRECISION);
+	}
+
+	private static boolean isFinite(double value) {
+		return !Double.isNaN(value) && !Double.isInfinite(value);
+	}
+
+	/**
+	 * Compare the decimal values of two doubles.
+	 * @return true if the values are equal
+	 */
+	private static boolean equal(double a, double b) {
+		if (a == b) {
+			return true;
+		}
+		if (!isFinite(a) || !isFinite(b)) {
+			return false;
+		}
+		if (Math.abs(a - b) > Math.max(Math.abs(a), Math.abs(b)) * 1e-13) {
+			return false; //Not even close
+		}
+		return toDecimal(a).compareTo(toDecimal(b)) == 0;
+	}
+
+	private static abstract class Node {
+		abstract double eval(double[] values);
+	}
+
+	private static class Constant extends Node {
+		private final double value;
+
+		public Constant(double value) {
+			this.value = value;
+		}
+
+		@Override
+		double eval(double[] values) {
+			return value;
+		}
+	}
+
+	private static class Variable extends Node {
+		private final int index;
+
+		public Variable(int index) {
+			this.index = index;
+		}
+
+		@Override
+		double eval(double[] values) {
+			return values[index];
+		}
+	}
+
+	private static class Negate extends Node {
+		private final Node node;
+
+		public Negate(Node node) {
+			this.node = node;
+		}
+
+		@Override
+		double eval(double[] values) {
+			return -node.eval(values);
+		}
+	}
+
+	private static class Binary extends Node {
+		private final String operator;
+		private final Node left;
+		private final Node right;
+
+		public Binary(String operator, Node left, Node right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		double eval(double[] values) {
+			switch (operator) {
+				case "&&":
+					return left.eval(values) != 0 && right.eval(values) != 0 ? 1 : 0;
+				case "||":
+					return left.eval(values) != 0 || right.eval(values) != 0 ? 1 : 0;
+				default:
+					break;
+			}
+			double a = left.eval(values);
+			double b = right.eval(values);
+			switch (operator) {
+				case "+":
+					return a + b;
+				case "-":
+					return a - b;
+				case "*":
+					return a * b;
+				case "/":
+					return a / b;
+				case "%":
+					if (b == 0 || !isFinite(a) || !isFinite(b)) {
+						return a % b;
+					}
+					return toDecimal(a).remainder(toDecimal(b)).doubleValue();
+				case "^":
+					return Math.pow(a, b);
+				case "=":
+				case "==":
+					return equal(a, b) ? 1 : 0;
+				case "!=":
+				case "<>":
+					return !equal(a, b) ? 1 : 0;
+				case "<":
+					return a < b && !equal(a, b) ? 1 : 0;
+				case "<=":
+					return a < b || equal(a, b) ? 1 : 0;
+				case ">":
+					return a > b && !equal(a, b) ? 1 : 0;
+				case ">=":
+					return a > b || equal(a, b) ? 1 : 0;
+				default:
+					throw new IllegalStateException("Unknown operator: " + operator);
+			}
+		}
+	}
+
+	private static class Function extends Node {
+		private final String name;
+		private final Node[] params;
+
+		public Function(String name, Node[] params) {
+			this.name = name;
+			this.params = params;
+		}
+
+		@Override
+		double eval(double[] values) {
+			switch (name) {
+				case "IF":
+					return params[0].eval(values) != 0 ? params[1].eval(values) : params[2].eval(values);
+				case "MIN": {
+					double min = params[0].eval(values);
+					for (int i = 1; i < params.length; i++) {
+						min = Math.min(min, params[i].eval(values));
+					}
+					return min;
+				}
+				case "MAX": {
+					double max = params[0].eval(values);
+					for (int i = 1; i < params.length; i++) {
+						max = Math.max(max, params[i].eval(values));
+					}
+					return max;
+				}
+				case "ABS":
+					return Math.abs(params[0].eval(values));
+				case "ROUND": {
+					double value = params[0].eval(values);
+					if (!isFinite(value)) {
+						return value;
+					}
+					int precision = (int) params[1].eval(values);
+					return toDecimal(value).setScale(precision, RoundingMode.HALF_EVEN).doubleValue(); //Same as MathContext.DECIMAL64
+				}
+				case "FLOOR":
+					return round(params[0].eval(values), RoundingMode.FLOOR);
+				case "CEILING":
+					return round(params[0].eval(values), RoundingMode.CEILING);
+				case "SQRT":
+					return Math.sqrt(params[0].eval(values));
+				case "LOG":
+					return Math.log(params[0].eval(values));
+				case "LOG10":
+					return Math.log10(params[0].eval(values));
+				case "NOT":
+					return params[0].eval(values) == 0 ? 1 : 0;
+				default:
+					throw new IllegalStateException("Unknown function: " + name);
+			}
+		}
+
+		private static double round(double value, RoundingMode roundingMode) {
+			if (!isFinite(value) || value == Math.rint(value)) {
+				return value;
+			}
+			return toDecimal(value).setScale(0, roundingMode).doubleValue();
+		}
+	}
+
+	private static class Parser {
+		private static final String[] OPERATORS = {"&&", "||", "==", "!=", "<>", "<=", ">=", "=", "<", ">", "+", "-", "*", "/", "%", "^"};
+		private final String expression;
+		private final List<String> variables = new ArrayList<>();
+		private int pos = 0;
+
+		public Parser(String expression) {
+			this.expression = expression;
+		}
+
+		public Node parse() {
+			Node node = parseBinary(0);
+			skipWhitespace();
+			if (pos < expression.length()) {
+				throw new IllegalArgumentException("Unexpected: " + expression.substring(pos));
+			}
+			return node;
+		}
+
+		private static int getPrecedence(String operator) {
+			switch (operator) {
+				case "||":
+					return 2;
+				case "&&":
+					return 4;
+				case "=":
+				case "==":
+				case "!=":
+				case "<>":
+					return 7;
+				case "<":
+				case "<=":
+				case ">":
+				case ">=":
+					return 10;
+				case "+":
+				case "-":
+					return 20;
+				case "*":
+				case "/":
+				case "%":
+					return 30;
+				case "^":
+					return 40;
+				default:
+					return -1;
+			}
+		}
+
+		private Node parseBinary(int minPrecedence) {
+			Node left = parseUnary();
+			while (true) {
+				String operator = peekOperator();
+				if (operator == null) {
+					return left;
+				}
+				int precedence = getPrecedence(operator);
+				if (precedence < minPrecedence) {
+					return left;
+				}
+				pos += operator.length();
+				//^ is right associative
+				Node right = parseBinary(operator.equals("^") ? precedence : precedence + 1);
+				left = new Binary(operator, left, right);
+			}
+		}
+
+		private Node parseUnary() {
+			skipWhitespace();
+			if (peek('-')) {
+				pos++;
+				return new Negate(parseUnary());
+			}
+			if (peek('+')) {
+				pos++;
+				return parseUnary();
+			}
+			return parsePrimary();
+		}
+
+		private Node parsePrimary() {
+			skipWhitespace();
+			if (pos >= expression.length()) {
+				throw new IllegalArgumentException("Unexpected end");
+			}
+			char c = expression.charAt(pos);
+			if (c == '(') {
+				pos++;
+				Node node = parseBinary(0);
+				expect(')');
+				return node;
+			}
+			if (Character.isDigit(c) || c == '.') {
+				return parseNumber();
+			}
+			if (Character.isLetter(c) || c == '_') {
+				int start = pos;
+				while (pos < expression.length() && (Character.isLetterOrDigit(expression.charAt(pos)) || expression.charAt(pos) == '_')) {
+					pos++;
+				}
+				String name = expression.substring(start, pos).toUpperCase(Locale.ENGLISH);
+				skipWhitespace();
+				if (peek('(')) {
+					pos++;
+					return parseFunction(name);
+				}
+				switch (name) {
+					case "PI":
+						return new Constant(Math.PI);
+					case "E":
+						return new Constant(Math.E);
+					case "TRUE":
+						return new Constant(1);
+					case "FALSE":
+						return new Constant(0);
+					case "NULL":
+						throw new IllegalArgumentException("NULL is not supported");
+					default:
+						break;
+				}
+				int index = variables.indexOf(name);
+				if (index < 0) {
+					index = variables.size();
+					variables.add(name);
+				}
+				return new Variable(index);
+			}
+			throw new IllegalArgumentException("Unexpected: " + c);
+		}
+
+		private Node parseFunction(String name) {
+			List<Node> params = new ArrayList<>();
+			skipWhitespace();
+			if (!peek(')')) {
+				do {
+					params.add(parseBinary(0));
+					skipWhitespace();
+				} while (consume(','));
+			}
+			expect(')');
+			int count = params.size();
+			switch (name) {
+				case "IF":
+					if (count != 3) {
+						throw new IllegalArgumentException("IF takes 3 parameters");
+					}
+					break;
+				case "MIN":
+				case "MAX":
+					if (count == 0) {
+						throw new IllegalArgumentException(name + " takes at least 1 parameter");
+					}
+					break;
+				case "ROUND":
+					if (count != 2) {
+						throw new IllegalArgumentException("ROUND takes 2 parameters");
+					}
+					break;
+				case "ABS":
+				case "FLOOR":
+				case "CEILING":
+				case "SQRT":
+				case "LOG":
+				case "LOG10":
+				case "NOT":
+					if (count != 1) {
+						throw new IllegalArgumentException(name + " takes 1 parameter");
+					}
+					break;
+				default:
+					throw new IllegalArgumentException("Function not supported: " + name);
+			}
+			return new Function(name, params.toArray(new Node[count]));
+		}
+
+		private Node parseNumber() {
+			int start = pos;
+			while (pos < expression.length() && (Character.isDigit(expression.charAt(pos)) || expression.charAt(pos) == '.')) {
+				pos++;
+			}
+			if (pos < expression.length() && (expression.charAt(pos) == 'e' || expression.charAt(pos) == 'E')) {
+				int exponent = pos + 1;
+				if (exponent < expression.length() && (expression.charAt(exponent) == '+' || expression.charAt(exponent) == '-')) {
+					exponent++;
+				}
+				if (exponent < expression.length() && Character.isDigit(expression.charAt(exponent))) {
+					pos = exponent;
+					while (pos < expression.length() && Character.isDigit(expression.charAt(pos))) {
+						pos++;
+					}
+				}
+			}
+			if (pos < expression.length() && (Character.isLetter(expression.charAt(pos)) || expression.charAt(pos) == '_')) {
+				throw new IllegalArgumentException("Number not supported: " + expression.substring(start)); //Ex: 0x1F
+			}
+			try {
+				return new Constant(Double.parseDouble(expression.substring(start, pos)));
+			} catch (NumberFormatException ex) {
+				throw new IllegalArgumentException(ex.getMessage(), ex);
+			}
+		}
+
+		private String peekOperator() {
+			skipWhitespace();
+			for (String operator : OPERATORS) {
+				if (expression.startsWith(operator, pos)) {
+					return operator;
+				}
+			}
+			return null;
+		}
+
+		private boolean peek(char c) {
+			return pos < expression.length() && expression.charAt(pos) == c;
+		}
+
+		private boolean consume(char c) {
+			skipWhitespace();
+			if (peek(c)) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) {
+			if (!consume(c)) {
+				throw new IllegalArgumentException("Expected: " + c);
+			}
+		}
+
+		private void skipWhitespace() {
+			while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+				pos++;
+			}
+		}
+	}
+}
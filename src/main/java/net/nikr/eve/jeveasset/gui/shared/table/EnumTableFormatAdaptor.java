@@ -403,6 +403,7 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 
 	private Object eval(Formula formula, Q e) {
 		final Expression expression = formula.getExpression();
+		final CompiledFormula compiled = formula.getCompiled();
 		//Populate variableColumns
 		if (formula.getVariableColumns().isEmpty()) {
 			for (T t : enumClass.getEnumConstants()) {
@@ -433,10 +434,18 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 				map.put(item.getItemTypeID(), item);
 			}
 			double total = 0.0;
+			EnumTableColumn<?>[] binding = getBinding(compiled, StockpileTableFormat.values());
 			for (StockpileItem item : map.values()) {
 				if (item.isTotal()) {
 					continue; //Ignore Total
 				}
+				if (binding != null) {
+					Double value = eval(compiled, binding, item);
+					if (value != null) {
+						total = total + value;
+					}
+					continue;
+				}
 				setVariables(formula, StockpileTableFormat.values(), item);
 				BigDecimal value = safeEval(expression);
 				if (value != null) {
@@ -445,6 +454,17 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 			}
 			return total;
 		} else { //Default
+			EnumTableColumn<?>[] binding = getBinding(compiled, enumClass.getEnumConstants());
+			if (binding != null) {
+				Double value = eval(compiled, binding, e);
+				if (value == null) {
+					return null;
+				} else if (formula.isBoolean()) {
+					return value > 0 ? "True" : "False";
+				} else {
+					return value;
+				}
+			}
 			setVariables(formula, enumClass.getEnumConstants(), e);
 			//Eval
 			BigDecimal value = safeEval(expression);
@@ -458,6 +478,25 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 		}
 	}
 
+	private static EnumTableColumn<?>[] getBinding(CompiledFormula compiled, EnumTableColumn<?>[] enumColumns) {
+		if (compiled == null) {
+			return null;
+		}
+		return compiled.getBinding(enumColumns);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <Q> Double eval(CompiledFormula compiled, EnumTableColumn<?>[] binding, Q e) {
+		double[] values = new double[binding.length];
+		for (int i = 0; i < binding.length; i++) {
+			Number number = getValue((EnumTableColumn<Q>) binding[i], e);
+			if (number != null) {
+				values[i] = number.doubleValue();
+			}
+		}
+		return compiled.eval(values);
+	}
+
 	public static BigDecimal safeEval(Expression expression) {
 		try {
 			return expression.eval();
@@ -479,7 +518,7 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 		}
 	}
 
-	private static <T extends Enum<T> & EnumTableColumn<Q>, Q> Number getValue(T t, Q e) {
+	private static <Q> Number getValue(EnumTableColumn<Q> t, Q e) {
 		if (Number.class.isAssignableFrom(t.getType())) {
 			Number number = (Number) t.getColumnValue(e);
 			if (number == null) { //Handle null
@@ -25,21 +25,32 @@ import ca.odell.glazedlists.DebugList;
 import ca.odell.glazedlists.EventList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 import net.nikr.eve.jeveasset.CliOptions;
 
 
 public class EventListManager {
 
+	/**
+	 * Removing from the middle of a BasicEventList is O(n).
+	 * Above this many removed rows, rebuilding the list is cheaper than applying the delta.
+	 */
+	private static final int DELTA_REMOVE_LIMIT = 1000;
+
 	private EventListManager() { }
 
 	public static <E> EventList<E> create() {
 		if (CliOptions.get().isDebug()) {
-			DebugList<E> debugList = new DebugList<>();
+			DebugList<E> debugList = new BatchDebugList<>();
 			debugList.setLockCheckingEnabled(true);
 			return debugList;
 		} else {
-			return new BasicEventList<>();
+			return new BatchBasicEventList<>();
 		}
 	}
 	public static <E> EventList<E> create(Collection<E> data) {
@@ -100,4 +111,163 @@ public class EventListManager {
 			eventList.getReadWriteLock().readLock().unlock();
 		}
 	}
+
+	/**
+	 * Update the EventList content to match data, using the minimal amount of list events.
+	 * Rows found in both are updated in place (keeping position, selection and caches),
+	 * rows no longer in data are removed and new rows are added at the end.
+	 * All changes are fired as one ListEvent, if the EventList was created by {@link #create()}.
+	 * Must be called with the write lock held.
+	 * @param <E>
+	 * @param eventList EventList to update
+	 * @param data The new content
+	 */
+	public static <E> void applyDelta(EventList<E> eventList, Collection<E> data) {
+		beginBatch(eventList);
+		try {
+			delta(eventList, data);
+		} finally {
+			commitBatch(eventList);
+		}
+	}
+
+	private static <E> void delta(EventList<E> eventList, Collection<E> data) {
+		if (eventList.isEmpty() || data.isEmpty()) {
+			replace(eventList, data);
+			return;
+		}
+		Map<E, E> pending = new HashMap<>(data.size() * 4 / 3 + 1);
+		for (E e : data) {
+			if (pending.put(e, e) != null) { //Duplicates can not be matched one to one
+				replace(eventList, data);
+				return;
+			}
+		}
+		int removed = 0;
+		for (E e : eventList) {
+			if (!pending.containsKey(e)) {
+				removed++;
+			}
+		}
+		if (removed > DELTA_REMOVE_LIMIT) {
+			replace(eventList, data);
+			return;
+		}
+		ListIterator<E> iterator = eventList.listIterator();
+		while (iterator.hasNext()) {
+			E replacement = pending.remove(iterator.next());
+			if (replacement == null) { //Removed
+				iterator.remove();
+			} else { //Updated
+				iterator.set(replacement);
+			}
+		}
+		if (!pending.isEmpty()) { //Added (in data order)
+			List<E> added = new ArrayList<>(pending.size());
+			for (E e : data) {
+				if (pending.containsKey(e)) {
+					added.add(e);
+				}
+			}
+			eventList.addAll(added);
+		}
+	}
+
+	/**
+	 * Fire update events for the given rows, without removing them from the EventList.
+	 * All changes are fired as one ListEvent, if the EventList was created by {@link #create()}.
+	 * Must be called with the write lock held.
+	 * @param <E>
+	 * @param eventList EventList to update
+	 * @param updated Rows to update
+	 */
+	public static <E> void update(EventList<E> eventList, Collection<E> updated) {
+		if (updated.isEmpty()) {
+			return;
+		}
+		Set<E> set = new HashSet<>(updated);
+		beginBatch(eventList);
+		try {
+			ListIterator<E> iterator = eventList.listIterator();
+			while (iterator.hasNext()) {
+				E e = iterator.next();
+				if (set.contains(e)) {
+					iterator.set(e);
+				}
+			}
+		} finally {
+			commitBatch(eventList);
+		}
+	}
+
+	/**
+	 * Fire update events for all rows, without removing them from the EventList.
+	 * All changes are fired as one ListEvent, if the EventList was created by {@link #create()}.
+	 * Must be called with the write lock held.
+	 * @param <E>
+	 * @param eventList EventList to update
+	 */
+	public static <E> void updateAll(EventList<E> eventList) {
+		beginBatch(eventList);
+		try {
+			ListIterator<E> iterator = eventList.listIterator();
+			while (iterator.hasNext()) {
+				iterator.set(iterator.next());
+			}
+		} finally {
+			commitBatch(eventList);
+		}
+	}
+
+	private static <E> void replace(EventList<E> eventList, Collection<E> data) {
+		eventList.clear();
+		eventList.addAll(data);
+	}
+
+	private static void beginBatch(EventList<?> eventList) {
+		if (eventList instanceof BatchEventList) {
+			((BatchEventList) eventList).beginBatch();
+		}
+	}
+
+	private static void commitBatch(EventList<?> eventList) {
+		if (eventList instanceof BatchEventList) {
+			((BatchEventList) eventList).commitBatch();
+		}
+	}
+
+	/**
+	 * EventList that can group changes into one ListEvent.
+	 * Every change is a nested event of the batch, and the listeners are notified once, on commit.
+	 */
+	private interface BatchEventList {
+		public void beginBatch();
+		public void commitBatch();
+	}
+
+	private static class BatchBasicEventList<E> extends BasicEventList<E> implements BatchEventList {
+
+		@Override
+		public void beginBatch() {
+			updates.beginEvent(true);
+		}
+
+		@Override
+		public void commitBatch() {
+			updates.commitEvent();
+		}
+	}
+
+	private static class BatchDebugList<E> extends DebugList<E> implements BatchEventList {
+
+		@Override
+		public void beginBatch() {
+			updates.beginEvent(true);
+		}
+
+		@Override
+		public void commitBatch() {
+			updates.commitEvent();
+		}
+	}
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cached formula values by row identity (not row equals/hashCode).
+ * Least recently used values are removed when the cache is full,
+ * so it can't grow forever while the list is locked.
+ */
+public class FormulaValues {
+
+	private final Map<Key, Object> values;
+	private final Key probe = new Key(null); //Reused for lookups
+
+	public FormulaValues(final int maxSize) {
+		this.values = new LinkedHashMap<Key, Object>(16, 0.75f, true) { //Access order
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	public synchronized Object get(Object row) {
+		probe.row = row;
+		try {
+			return values.get(probe);
+		} finally {
+			probe.row = null;
+		}
+	}
+
+	public synchronized void put(Object row, Object value) {
+		values.put(new Key(row), value);
+	}
+
+	public synchronized void removeAll(Collection<?> rows) {
+		for (Object row : rows) {
+			probe.row = row;
+			values.remove(probe);
+		}
+		probe.row = null;
+	}
+
+	public synchronized void clear() {
+		values.clear();
+	}
+
+	public synchronized int size() {
+		return values.size();
+	}
+
+	private static class Key {
+		private Object row;
+
+		public Key(Object row) {
+			this.row = row;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(row);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			return row == ((Key) obj).row;
+		}
+	}
+}
@@ -28,12 +28,17 @@ import java.awt.Container;
 import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
@@ -83,12 +88,38 @@ import net.nikr.eve.jeveasset.gui.shared.table.containers.YesNo;
 
 public class JAutoColumnTable extends JTable {
 
+	/**
+	 * Tables with more rows are resized by measuring a sample of the rows.
+	 */
+	static final int SAMPLE_ROWS_LIMIT = 1000;
+	/**
+	 * Rows checked for the longest text (one random row per stride).
+	 */
+	static final int SAMPLE_CANDIDATE_ROWS = 1000;
+	/**
+	 * Candidate rows with the longest text are always in the sample.
+	 */
+	static final int SAMPLE_LONGEST_ROWS = 100;
+	static final int SAMPLE_RANDOM_ROWS = 200;
+	/**
+	 * Updates changing more rows are resized from scratch.
+	 */
+	static final int CHANGED_ROWS_LIMIT = 1000;
+	private static final int ROWS_WIDTH_CACHE_SIZE = 20000;
+
 	private JViewport jViewport = null;
 	private int size = 0;
 	private ResizeMode resizeMode = null;
 	private boolean loadingWidth = false;
 	private final Map<String, Integer> columnsWidth = new HashMap<>();
-	private final Map<Object, Integer> rowsWidth = new HashMap<>();
+	private final Map<Object, Integer> rowsWidth = new LinkedHashMap<Object, Integer>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Integer> eldest) {
+			return size() > ROWS_WIDTH_CACHE_SIZE; //LRU
+		}
+	};
+	private Set<Integer> changedRows = null;
+	private int resizedColumnCount = -1;
 	protected Program program;
 	private boolean autoResizeLock = false;
 	private final Set<Class<?>> disableColumnResizeCache = new HashSet<>();
@@ -216,19 +247,32 @@ public class JAutoColumnTable extends JTable {
 	}
 
 	public final void autoResizeColumns() {
+		autoResizeColumns(null);
+	}
+
+	/**
+	 * Resize columns.
+	 * @param rows rows changed since the last resize or null to resize all rows
+	 */
+	private void autoResizeColumns(Set<Integer> rows) {
 		if (isLocked()) {
 			return;
 		}
 		EnumTableFormatAdaptor<?, ?> tableFormat = getEnumTableFormatAdaptor();
 		loadingWidth = true;
 		if (tableFormat == null || tableFormat.getResizeMode() == ResizeMode.TEXT) {
-			resizeColumnsText();
+			if (rows != null && resizeMode == ResizeMode.TEXT && resizedColumnCount == getColumnCount()) {
+				resizeColumnsText(rows);
+			} else {
+				resizeColumnsText();
+			}
 		} else if (tableFormat.getResizeMode() == ResizeMode.WINDOW) {
 			resizeColumnsWindow();
 		} else if (tableFormat.getResizeMode() == ResizeMode.NONE) {
 			resizeColumnsNone();
 		}
 		loadingWidth = false;
+		changedRows = new TreeSet<>();
 	}
 
 	public void setColumnsWidth(final Map<String, Integer> columnsWidth) {
@@ -344,6 +388,30 @@ public class JAutoColumnTable extends JTable {
 		for (int i = 0; i < getColumnCount(); i++) {
 			size = size + resizeColumn(this, getColumnModel().getColumn(i), i);
 		}
+		resizedColumnCount = getColumnCount();
+		updateScroll();
+	}
+
+	/**
+	 * Only measure the changed rows.
+	 * Columns can only grow: rows removed are not measured again until the next full resize.
+	 * @param rows changed rows
+	 */
+	private void resizeColumnsText(Set<Integer> rows) {
+		size = 0;
+		final int rowCount = getRowCount();
+		for (int i = 0; i < getColumnCount(); i++) {
+			TableColumn column = getColumnModel().getColumn(i);
+			int maxWidth = column.getPreferredWidth();
+			TableCellRenderer renderer = getColumnRenderer(column, i);
+			for (int rowIndex : rows) {
+				if (rowIndex < rowCount) {
+					maxWidth = Math.max(maxWidth, getRowWidth(this, renderer, rowIndex, i) + 4);
+				}
+			}
+			column.setPreferredWidth(maxWidth);
+			size = size + maxWidth;
+		}
 		updateScroll();
 	}
 
@@ -401,42 +469,16 @@ public class JAutoColumnTable extends JTable {
 		Component component = renderer.getTableCellRendererComponent(jTable, column.getHeaderValue(), false, false, 0, columnIndex);
 		int maxWidth = component.getPreferredSize().width;
 
-		if (!overwrite) {
-			renderer = column.getCellRenderer();
-			if (renderer == null) {
-				renderer = getDefaultRenderer(getColumnClass(columnIndex));
-			}
-		}
+		renderer = getColumnRenderer(column, columnIndex);
 		//Rows width
 		final int rowCount = jTable.getRowCount();
-		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
-			final Object cellValue = jTable.getValueAt(rowIndex, columnIndex); //Get cell value
-			if (cellValue == null) { //Ignore null
-				continue;
+		if (rowCount <= SAMPLE_ROWS_LIMIT) {
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+				maxWidth = Math.max(maxWidth, getRowWidth(jTable, renderer, rowIndex, columnIndex));
 			}
-			boolean useCache = !disableColumnResizeCache.contains(cellValue.getClass());
-			Integer savedWidth;
-			if (useCache) {
-				savedWidth = rowsWidth.get(cellValue);
-			} else {
-				savedWidth = null;
-			}
-			if (savedWidth != null) { //Load row width
-				maxWidth = Math.max(maxWidth, savedWidth);
-			} else { //Calculate the row width
-				if (overwrite) {
-					renderer = jTable.getCellRenderer(rowIndex, columnIndex);
-				}
-				//Ignore SeparatorTableCell
-				if (renderer instanceof SeparatorTableCell) {
-					continue;
-				}
-				component = renderer.getTableCellRendererComponent(jTable, jTable.getValueAt(rowIndex, columnIndex), false, false, rowIndex, columnIndex);
-				int width = component.getPreferredSize().width;
-				if (useCache) {
-					rowsWidth.put(cellValue, width);
-				}
-				maxWidth = Math.max(maxWidth, width);
+		} else {
+			for (int rowIndex : getSampleRows(jTable, columnIndex, rowCount)) {
+				maxWidth = Math.max(maxWidth, getRowWidth(jTable, renderer, rowIndex, columnIndex));
 			}
 		}
 		//Add margin
@@ -446,6 +488,137 @@ public class JAutoColumnTable extends JTable {
 		return maxWidth; //Return width
 	}
 
+	private TableCellRenderer getColumnRenderer(final TableColumn column, final int columnIndex) {
+		if (overwrite) {
+			return null; //Renderer is set per row
+		}
+		TableCellRenderer renderer = column.getCellRenderer();
+		if (renderer == null) {
+			renderer = getDefaultRenderer(getColumnClass(columnIndex));
+		}
+		return renderer;
+	}
+
+	/**
+	 * Rows to measure in large tables.
+	 * Only a fixed number of candidate rows (one random row per stride) are checked for the longest text.
+	 * The candidates with the longest text (usually the widest) and a random sample of the rows are measured.
+	 * @param jTable
+	 * @param columnIndex
+	 * @param rowCount
+	 * @return rows to measure
+	 */
+	static Set<Integer> getSampleRows(final JTable jTable, final int columnIndex, final int rowCount) {
+		Random random = new Random(rowCount); //Same sample for the same table size
+		final int[] candidates = new int[SAMPLE_CANDIDATE_ROWS];
+		final int[] lengths = new int[SAMPLE_CANDIDATE_ROWS];
+		final double stride = rowCount / (double) SAMPLE_CANDIDATE_ROWS;
+		PriorityQueue<Integer> longest = new PriorityQueue<>(SAMPLE_LONGEST_ROWS + 1, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Integer.compare(lengths[o1], lengths[o2]);
+			}
+		});
+		for (int i = 0; i < SAMPLE_CANDIDATE_ROWS; i++) {
+			int start = (int) (i * stride);
+			int end = Math.min((int) ((i + 1) * stride), rowCount);
+			candidates[i] = start + random.nextInt(Math.max(end - start, 1));
+			final Object cellValue = jTable.getValueAt(candidates[i], columnIndex);
+			if (cellValue == null) { //Ignore null
+				continue;
+			}
+			lengths[i] = String.valueOf(cellValue).length();
+			longest.add(i);
+			if (longest.size() > SAMPLE_LONGEST_ROWS) {
+				longest.poll(); //Remove shortest
+			}
+		}
+		Set<Integer> rows = new TreeSet<>();
+		for (int i : longest) {
+			rows.add(candidates[i]);
+		}
+		for (int i = 0; i < SAMPLE_RANDOM_ROWS; i++) {
+			rows.add(random.nextInt(rowCount));
+		}
+		return rows;
+	}
+
+	/**
+	 * Get cell preferred width.
+	 * @param jTable
+	 * @param renderer column renderer or null to use the row renderer
+	 * @param rowIndex
+	 * @param columnIndex
+	 * @return width or zero for empty and separator cells
+	 */
+	private int getRowWidth(final JTable jTable, TableCellRenderer renderer, final int rowIndex, final int columnIndex) {
+		final Object cellValue = jTable.getValueAt(rowIndex, columnIndex); //Get cell value
+		if (cellValue == null) { //Ignore null
+			return 0;
+		}
+		boolean useCache = !disableColumnResizeCache.contains(cellValue.getClass());
+		if (useCache) {
+			Integer savedWidth = rowsWidth.get(cellValue);
+			if (savedWidth != null) { //Load row width
+				return savedWidth;
+			}
+		}
+		//Calculate the row width
+		if (renderer == null) {
+			renderer = jTable.getCellRenderer(rowIndex, columnIndex);
+		}
+		//Ignore SeparatorTableCell
+		if (renderer instanceof SeparatorTableCell) {
+			return 0;
+		}
+		Component component = renderer.getTableCellRendererComponent(jTable, cellValue, false, false, rowIndex, columnIndex);
+		int width = component.getPreferredSize().width;
+		if (useCache) {
+			rowsWidth.put(cellValue, width);
+		}
+		return width;
+	}
+
+	/**
+	 * Track the rows changed since the last resize (in current row indexes).
+	 * @param changedRows rows changed since the last resize or null if all rows changed
+	 * @param e
+	 * @return rows changed including this event or null if all rows changed
+	 */
+	static Set<Integer> updateChangedRows(Set<Integer> changedRows, final TableModelEvent e) {
+		if (changedRows == null) {
+			return null; //Everything changed
+		}
+		int first = Math.min(e.getFirstRow(), e.getLastRow());
+		int last = Math.max(e.getFirstRow(), e.getLastRow());
+		if (first < 0 || last == Integer.MAX_VALUE || last - first >= CHANGED_ROWS_LIMIT) { //Structure or all rows changed
+			return null;
+		}
+		int count = last - first + 1;
+		if (e.getType() == TableModelEvent.INSERT || e.getType() == TableModelEvent.DELETE) {
+			Set<Integer> shifted = new TreeSet<>();
+			for (int rowIndex : changedRows) {
+				if (rowIndex < first) {
+					shifted.add(rowIndex);
+				} else if (e.getType() == TableModelEvent.INSERT) {
+					shifted.add(rowIndex + count);
+				} else if (rowIndex > last) {
+					shifted.add(rowIndex - count);
+				} //Else: deleted
+			}
+			changedRows = shifted;
+		}
+		if (e.getType() == TableModelEvent.INSERT || e.getType() == TableModelEvent.UPDATE) {
+			for (int rowIndex = first; rowIndex <= last; rowIndex++) {
+				changedRows.add(rowIndex);
+			}
+		}
+		if (changedRows.size() > CHANGED_ROWS_LIMIT) {
+			return null;
+		}
+		return changedRows;
+	}
+
 	public void saveColumnsWidth() {
 		EnumTableFormatAdaptor<?, ?> tableFormat = getEnumTableFormatAdaptor();
 		if (!loadingWidth && tableFormat != null && tableFormat.getResizeMode() == ResizeMode.NONE) {
@@ -484,12 +657,13 @@ public class JAutoColumnTable extends JTable {
 			if (e.getType() == TableModelEvent.INSERT) {
 				rowsCount = rowsCount + (Math.abs(e.getFirstRow() - e.getLastRow()) + 1);
 			}
+			changedRows = updateChangedRows(changedRows, e);
 			if (Math.abs(rowsLastTime + rowsCount) == getRowCount() //Last Table Update
 					&& (e.getType() != TableModelEvent.UPDATE
 					|| (e.getType() == TableModelEvent.UPDATE && e.getFirstRow() >= 0))) {
 				rowsLastTime = getRowCount();
 				rowsCount = 0;
-				autoResizeColumns();
+				autoResizeColumns(changedRows);
 			}
 		}
 
@@ -36,6 +36,7 @@ import javax.swing.border.LineBorder;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellEditor;
 import net.nikr.eve.jeveasset.data.settings.tag.Tags;
+import net.nikr.eve.jeveasset.gui.shared.FormatCache;
 import net.nikr.eve.jeveasset.gui.shared.Formatter;
 import net.nikr.eve.jeveasset.gui.shared.components.JButtonComparable;
 
@@ -43,6 +44,13 @@ import net.nikr.eve.jeveasset.gui.shared.components.JButtonComparable;
 public class TableCellRenderers {
 
 	public static class LongCellRenderer extends DefaultTableCellRenderer {
+		private final FormatCache cache = new FormatCache() {
+			@Override
+			protected String createString(Object value) {
+				return Formatter.longFormat(value);
+			}
+		};
+
 		public LongCellRenderer() {
 			this.setHorizontalTextPosition(DefaultTableCellRenderer.RIGHT);
 			this.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
@@ -52,7 +60,7 @@ public class TableCellRenderers {
 			if (value == null) {
 				setText("");
 			} else if (value instanceof Number) {
-				setText(Formatter.longFormat(value));
+				setText(cache.format(value));
 			} else {
 				setText(value.toString());
 			}
@@ -60,6 +68,13 @@ public class TableCellRenderers {
 	}
 
 	public static class DoubleCellRenderer extends DefaultTableCellRenderer {
+		private final FormatCache cache = new FormatCache() {
+			@Override
+			protected String createString(Object value) {
+				return Formatter.doubleFormat(value);
+			}
+		};
+
 		public DoubleCellRenderer() {
 			this.setHorizontalTextPosition(DefaultTableCellRenderer.RIGHT);
 			this.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
@@ -69,7 +84,7 @@ public class TableCellRenderers {
 			if (value == null) {
 				setText("");
 			} else if (value instanceof Number) {
-				setText(Formatter.doubleFormat(value));
+				setText(cache.format(value));
 			} else {
 				setText(value.toString());
 			}
@@ -77,6 +92,13 @@ public class TableCellRenderers {
 	}
 
 	public static class IntegerCellRenderer extends DefaultTableCellRenderer {
+		private final FormatCache cache = new FormatCache() {
+			@Override
+			protected String createString(Object value) {
+				return Formatter.integerFormat(value);
+			}
+		};
+
 		public IntegerCellRenderer() {
 			this.setHorizontalTextPosition(DefaultTableCellRenderer.RIGHT);
 			this.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
@@ -87,7 +109,7 @@ public class TableCellRenderers {
 			if (value == null) {
 				setText("");
 			} else if (value instanceof Number) {
-				setText(Formatter.integerFormat(value));
+				setText(cache.format(value));
 			} else {
 				setText(value.toString());
 			}
@@ -95,6 +117,13 @@ public class TableCellRenderers {
 	}
 
 	public static class FloatCellRenderer extends DefaultTableCellRenderer {
+		private final FormatCache cache = new FormatCache() {
+			@Override
+			protected String createString(Object value) {
+				return Formatter.floatFormat(value);
+			}
+		};
+
 		public FloatCellRenderer() {
 			this.setHorizontalTextPosition(DefaultTableCellRenderer.RIGHT);
 			this.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
@@ -104,7 +133,7 @@ public class TableCellRenderers {
 			if (value == null) {
 				setText("");
 			} else if (value instanceof Number) {
-				setText(Formatter.floatFormat(value));
+				setText(cache.format(value));
 			} else {
 				setText(value.toString());
 			}
@@ -112,6 +141,13 @@ public class TableCellRenderers {
 	}
 
 	public static class DateCellRenderer extends DefaultTableCellRenderer {
+		private final FormatCache cache = new FormatCache() {
+			@Override
+			protected String createString(Object value) {
+				return Formatter.columnDate(value);
+			}
+		};
+
 		public DateCellRenderer() {
 			this.setHorizontalTextPosition(DefaultTableCellRenderer.RIGHT);
 			this.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
@@ -121,7 +157,7 @@ public class TableCellRenderers {
 			if (value == null) {
 				setText("");
 			} else if (value instanceof Date) {
-				setText(Formatter.columnDate(value));
+				setText(cache.format(value));
 			} else {
 				setText(value.toString());
 			}
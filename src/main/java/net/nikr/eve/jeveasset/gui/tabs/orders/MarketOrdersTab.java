@@ -810,6 +810,11 @@ public class MarketOrdersTab extends JMainTabPrimary {
 			this.output = output;
 		}
 
+		@Override
+		public boolean isBackground() {
+			return true;
+		}
+
 		@Override
 		public void update() {
 			EsiPublicMarketOrdersGetter publicMarketOrdersGetter = new EsiPublicMarketOrdersGetter(this, input, output);
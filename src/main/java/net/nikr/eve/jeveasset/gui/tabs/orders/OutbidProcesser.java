@@ -22,6 +22,7 @@ package net.nikr.eve.jeveasset.gui.tabs.orders;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -65,92 +66,164 @@ public class OutbidProcesser {
 	}
 
 	private void process() {
-		//Process order updates
-		for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
-			Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
-			if (orders != null) {
-				for (MyMarketOrder marketOrder : orders) {
-					if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
-						output.getUpdates().put(ordersResponse.getOrderID(), ordersResponse);
-					}
-				}
+		Map<Long, MyMarketOrder> myOrders = new HashMap<>();
+		for (Set<MyMarketOrder> orders : input.getTypeIDs().values()) {
+			for (MyMarketOrder marketOrder : orders) {
+				myOrders.put(marketOrder.getOrderID(), marketOrder);
 			}
 		}
-		//Process outbid
+		//Index public orders by type, buy/sell and region (system locations are only resolved once)
+		Map<Integer, MyLocation> systemLocations = new HashMap<>();
+		Map<Integer, TypeOrders> buyOrders = new HashMap<>();
+		Map<Integer, TypeOrders> sellOrders = new HashMap<>();
 		for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
 			//Regions with data
-			MyLocation orderLocation = ApiIdConverter.getLocation(ordersResponse.getSystemID());
+			MyLocation orderLocation = getSystemLocation(systemLocations, ordersResponse.getSystemID());
 			if (!orderLocation.isEmpty()) {
 				output.getRegionIDs().add(orderLocation.getRegionID());
 			}
-			Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
-			if (orders != null) {
-				//Orders to match
-				for (MyMarketOrder marketOrder : orders) {
-					if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
-						continue;
-					}
-					if (!isSameType(marketOrder, ordersResponse)) { //Both buy or both sell
-						continue;
-					}
-					if (!isInRange(marketOrder, ordersResponse)) { //Order range overlap
-						continue;
-					}
-					Outbid outbid = output.getOutbids().get(marketOrder.getOrderID());
-					if (outbid == null) {
-						outbid = new Outbid(ordersResponse);
-						output.getOutbids().put(marketOrder.getOrderID(), outbid);
-					}
-					RawPublicMarketOrder rawPublicMarketOrder = output.getUpdates().get(marketOrder.getOrderID());
-					final double price;
-					final Date issued;
-					if (rawPublicMarketOrder != null) { //Updated price/issued
-						price = rawPublicMarketOrder.getPrice();
-						issued = rawPublicMarketOrder.getIssued();
-					} else { //Old price/issued (better than nothing)
-						price = marketOrder.getPrice();
-						issued = marketOrder.getIssued();
-					}
-					if (marketOrder.isBuyOrder()) { //Buy (outbid is higher)
-						outbid.setPrice(Math.max(outbid.getPrice(), ordersResponse.getPrice()));
-						if (ordersResponse.getPrice() > price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
-							outbid.addCount(ordersResponse.getVolumeRemain());
-						}
-					} else { //Sell (outbid is lower)
-						outbid.setPrice(Math.min(outbid.getPrice(), ordersResponse.getPrice()));
-						if (ordersResponse.getPrice() < price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
-							outbid.addCount(ordersResponse.getVolumeRemain());
-						} else if (ordersResponse.getPrice() == price) {
-							//TODO matching price, compare date?
-						}
+			if (!input.getTypeIDs().containsKey(ordersResponse.getTypeID())) {
+				continue; //Not one of our types
+			}
+			//Orders to be updated
+			MyMarketOrder marketOrder = myOrders.get(ordersResponse.getOrderID());
+			if (marketOrder != null && Objects.equals(marketOrder.getTypeID(), ordersResponse.getTypeID())) {
+				output.getUpdates().put(ordersResponse.getOrderID(), ordersResponse);
+			}
+			final Map<Integer, TypeOrders> typeOrdersMap;
+			if (Boolean.TRUE.equals(ordersResponse.isBuyOrder())) {
+				typeOrdersMap = buyOrders;
+			} else if (Boolean.FALSE.equals(ordersResponse.isBuyOrder())) {
+				typeOrdersMap = sellOrders;
+			} else {
+				continue;
+			}
+			TypeOrders typeOrders = typeOrdersMap.get(ordersResponse.getTypeID());
+			if (typeOrders == null) {
+				typeOrders = new TypeOrders();
+				typeOrdersMap.put(ordersResponse.getTypeID(), typeOrders);
+			}
+			typeOrders.add(orderLocation, ordersResponse);
+		}
+		for (TypeOrders typeOrders : buyOrders.values()) {
+			typeOrders.sort(true);
+		}
+		for (TypeOrders typeOrders : sellOrders.values()) {
+			typeOrders.sort(false);
+		}
+		//Process outbid
+		for (Set<MyMarketOrder> orders : input.getTypeIDs().values()) {
+			for (MyMarketOrder marketOrder : orders) {
+				final TypeOrders typeOrders;
+				if (marketOrder.isBuyOrder()) {
+					typeOrders = buyOrders.get(marketOrder.getTypeID());
+				} else {
+					typeOrders = sellOrders.get(marketOrder.getTypeID());
+				}
+				if (typeOrders == null) {
+					continue; //No orders to match
+				}
+				Long fromSystemID = getSystemID(marketOrder.getLocationID());
+				MyLocation fromSystemLocation = ApiIdConverter.getLocation(fromSystemID);
+				if (fromSystemLocation.isEmpty()) {
+					if (typeOrders.hasOtherOrders(marketOrder)) {
+						setUnknownLocations(); //We can't work with unknown locations
 					}
-
+					continue;
+				}
+				if (typeOrders.hasOtherUnknown(marketOrder)) {
+					setUnknownLocations(); //Those orders are ignored
+				}
+				Ladder ladder = typeOrders.getLadder(fromSystemLocation.getRegionID());
+				if (ladder == null) {
+					continue; //Must be in same region
 				}
+				processOutbid(marketOrder, fromSystemID, ladder);
 			}
 		}
 		CitadelGetter.set(input.getCitadels().values());
 	}
 
-	private boolean isInRange(MyMarketOrder fromMarketOrder, RawPublicMarketOrder toMarketOrder) {
-		Long fromSystemID = getSystemID(fromMarketOrder.getLocationID());
-		Long toSystemID = RawConverter.toLong(toMarketOrder.getSystemID());
-		MyLocation fromSystemLocation = ApiIdConverter.getLocation(fromSystemID);
-		MyLocation toSystemLocation = ApiIdConverter.getLocation(toSystemID);
-		if (fromSystemLocation.isEmpty() || toSystemLocation.isEmpty()) {
+	private void processOutbid(MyMarketOrder marketOrder, Long fromSystemID, Ladder ladder) {
+		RawPublicMarketOrder rawPublicMarketOrder = output.getUpdates().get(marketOrder.getOrderID());
+		final double price;
+		final Date issued;
+		if (rawPublicMarketOrder != null) { //Updated price/issued
+			price = rawPublicMarketOrder.getPrice();
+			issued = rawPublicMarketOrder.getIssued();
+		} else { //Old price/issued (better than nothing)
+			price = marketOrder.getPrice();
+			issued = marketOrder.getIssued();
+		}
+		//Orders before this index are better than ours (higher buy price, lower sell price or same price and issued before)
+		int better = ladder.indexOf(price, issued);
+		MarketOrderRange fromRange;
+		if (marketOrder.isBuyOrder()) {
+			fromRange = marketOrder.getRange();
+		} else {
+			fromRange = input.getSellOrderRange();
+		}
+		Outbid outbid = null;
+		if (fromRange == MarketOrderRange.REGION) { //Match everything: best price and prefix sum
+			for (RawPublicMarketOrder ordersResponse : ladder.getOrders()) {
+				if (!isSameOrder(marketOrder, ordersResponse)) {
+					outbid = new Outbid(ordersResponse); //Best price
+					break;
+				}
+			}
+			if (outbid != null) {
+				outbid.addCount(ladder.getVolume(better)); //Our own order is never better than itself
+			}
+		} else { //Walk the ladder from the best price, until we're past our own price
+			List<RawPublicMarketOrder> ladderOrders = ladder.getOrders();
+			for (int i = 0; i < ladderOrders.size(); i++) {
+				if (outbid != null && i >= better) {
+					break; //Best price found and no more better orders
+				}
+				RawPublicMarketOrder ordersResponse = ladderOrders.get(i);
+				if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
+					continue;
+				}
+				if (!isInRange(marketOrder, fromSystemID, fromRange, ordersResponse)) { //Order range overlap
+					continue;
+				}
+				if (outbid == null) {
+					outbid = new Outbid(ordersResponse); //Best price
+				}
+				if (i < better) {
+					outbid.addCount(ordersResponse.getVolumeRemain());
+				}
+			}
+		}
+		if (outbid != null) {
+			output.getOutbids().put(marketOrder.getOrderID(), outbid);
+		}
+	}
+
+	private void setUnknownLocations() {
+		if (!output.hasUnknownLocations()) {
 			LOG.warn("Unknown market location ignored");
-			output.setUnknownLocations();
-			return false; //We can't work with unknown locations
 		}
-		if (!Objects.equals(fromSystemLocation.getRegionID(), toSystemLocation.getRegionID())) {
-			return false; //Must be in same region
+		output.setUnknownLocations();
+	}
+
+	private MyLocation getSystemLocation(Map<Integer, MyLocation> systemLocations, Integer systemID) {
+		MyLocation location = systemLocations.get(systemID);
+		if (location == null) {
+			location = ApiIdConverter.getLocation(systemID);
+			systemLocations.put(systemID, location);
 		}
-		MarketOrderRange fromRange;
+		return location;
+	}
+
+	/**
+	 * Both orders are in the same region and have the same type (buy/sell).
+	 */
+	private boolean isInRange(MyMarketOrder fromMarketOrder, Long fromSystemID, MarketOrderRange fromRange, RawPublicMarketOrder toMarketOrder) {
 		MarketOrderRange toRange;
 		if (fromMarketOrder.isBuyOrder()) {
-			fromRange = fromMarketOrder.getRange();
 			toRange = toMarketOrder.getRange();
 		} else {
-			fromRange = input.getSellOrderRange();
 			toRange = input.getSellOrderRange();
 		}
 		if (fromRange == MarketOrderRange.REGION || toRange == MarketOrderRange.REGION) {
@@ -160,7 +233,7 @@ public class OutbidProcesser {
 		} else {
 			int range = getRange(fromRange) + getRange(toRange); //Find overlapping area
 			//int range = Math.max(getRange(response), getRange(marketOrder)); //Use the order with the max range
-			Integer distance = RouteFinder.get().distanceBetween(fromSystemID, toSystemID);
+			Integer distance = RouteFinder.get().distanceBetween(fromSystemID, RawConverter.toLong(toMarketOrder.getSystemID()));
 			if (distance == null) {
 				return false;
 			}
@@ -168,8 +241,6 @@ public class OutbidProcesser {
 		}
 	}
 
-
-
 	public static int getRange(MarketOrderRange range) {
 		switch (range) {
 			case REGION: return 32767;
@@ -188,10 +259,6 @@ public class OutbidProcesser {
 		return Integer.MAX_VALUE;
 	}
 
-	private boolean isSameType(MyMarketOrder marketOrder, RawPublicMarketOrder response) {
-		return Objects.equals(marketOrder.isBuyOrder(), response.isBuyOrder());
-	}
-
 	private boolean isSameOrder(MyMarketOrder marketOrder, RawPublicMarketOrder response) {
 		return Objects.equals(marketOrder.getOrderID(), response.getOrderID());
 	}
@@ -354,6 +421,138 @@ public class OutbidProcesser {
 		}
 	}
 
+	/**
+	 * Public orders of one type and order type (buy or sell).
+	 */
+	private static class TypeOrders {
+
+		private final Map<Long, Ladder> regions = new HashMap<>();
+		private final List<RawPublicMarketOrder> unknown = new ArrayList<>();
+		private int size = 0;
+
+		public void add(MyLocation location, RawPublicMarketOrder ordersResponse) {
+			size++;
+			if (location.isEmpty()) {
+				unknown.add(ordersResponse);
+				return;
+			}
+			Ladder ladder = regions.get(location.getRegionID());
+			if (ladder == null) {
+				ladder = new Ladder();
+				regions.put(location.getRegionID(), ladder);
+			}
+			ladder.getOrders().add(ordersResponse);
+		}
+
+		public void sort(boolean buy) {
+			for (Ladder ladder : regions.values()) {
+				ladder.sort(buy);
+			}
+		}
+
+		public Ladder getLadder(long regionID) {
+			return regions.get(regionID);
+		}
+
+		public boolean hasOtherOrders(MyMarketOrder marketOrder) {
+			return size > 1 || (size == 1 && !containsOrder(marketOrder));
+		}
+
+		public boolean hasOtherUnknown(MyMarketOrder marketOrder) {
+			for (RawPublicMarketOrder ordersResponse : unknown) {
+				if (!Objects.equals(marketOrder.getOrderID(), ordersResponse.getOrderID())) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean containsOrder(MyMarketOrder marketOrder) {
+			for (RawPublicMarketOrder ordersResponse : unknown) {
+				if (Objects.equals(marketOrder.getOrderID(), ordersResponse.getOrderID())) {
+					return true;
+				}
+			}
+			for (Ladder ladder : regions.values()) {
+				for (RawPublicMarketOrder ordersResponse : ladder.getOrders()) {
+					if (Objects.equals(marketOrder.getOrderID(), ordersResponse.getOrderID())) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Public orders in one region sorted from the best price (highest buy, lowest sell), then oldest first.
+	 * With the prefix sum of the volume remaining.
+	 */
+	private static class Ladder {
+
+		private final List<RawPublicMarketOrder> orders = new ArrayList<>();
+		private boolean buy;
+		private long[] volumes;
+
+		public void sort(final boolean buy) {
+			this.buy = buy;
+			Collections.sort(orders, new Comparator<RawPublicMarketOrder>() {
+				@Override
+				public int compare(RawPublicMarketOrder o1, RawPublicMarketOrder o2) {
+					return Ladder.this.compare(o1.getPrice(), o1.getIssued(), o2.getPrice(), o2.getIssued());
+				}
+			});
+			volumes = new long[orders.size() + 1];
+			for (int i = 0; i < orders.size(); i++) {
+				volumes[i + 1] = volumes[i] + orders.get(i).getVolumeRemain();
+			}
+		}
+
+		public List<RawPublicMarketOrder> getOrders() {
+			return orders;
+		}
+
+		/**
+		 * @param index end index (exclusive)
+		 * @return volume remaining of the orders before index
+		 */
+		public long getVolume(int index) {
+			return volumes[index];
+		}
+
+		/**
+		 * Binary search.
+		 * @return index of the first order that is not better than price/issued
+		 */
+		public int indexOf(double price, Date issued) {
+			int low = 0;
+			int high = orders.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				RawPublicMarketOrder order = orders.get(mid);
+				if (compare(order.getPrice(), order.getIssued(), price, issued) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		private int compare(double price1, Date issued1, double price2, Date issued2) {
+			int compare;
+			if (buy) {
+				compare = Double.compare(price2, price1); //Highest first
+			} else {
+				compare = Double.compare(price1, price2); //Lowest first
+			}
+			if (compare != 0) {
+				return compare;
+			}
+			return issued1.compareTo(issued2); //Oldest first
+		}
+	}
+
 	private static class DatedMarketOrders {
 
 		private final Date date;
@@ -307,6 +307,12 @@ public class Stockpile implements Comparable<Stockpile>, LocationsType, OwnersTy
 		}
 	}
 
+	void resetSubpileItems() {
+		for (StockpileItem item : subpileItems) {
+			item.reset();
+		}
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -38,6 +38,7 @@ import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
 import net.nikr.eve.jeveasset.data.profile.ProfileData;
 import net.nikr.eve.jeveasset.data.profile.ProfileManager;
 import net.nikr.eve.jeveasset.data.profile.TableData;
+import net.nikr.eve.jeveasset.data.profile.TypeIndex;
 import net.nikr.eve.jeveasset.data.sde.ItemFlag;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.PriceData;
@@ -55,10 +56,6 @@ public class StockpileData extends TableData {
 
 	private Map<Long, String> ownersName;
 	private final Map<Stockpile, Map<Integer, Set<MyContractItem>>> contractItems = new HashMap<>();
-	private final Map<Integer, Set<MyAsset>> assets = new HashMap<>();
-	private final Map<Integer, Set<MyMarketOrder>> marketOrders = new HashMap<>();
-	private final Map<Integer, Set<MyIndustryJob>> industryJobs = new HashMap<>();
-	private final Map<Integer, Set<MyTransaction>> transactions = new HashMap<>();
 
 	public StockpileData(Program program) {
 		super(program);
@@ -81,10 +78,6 @@ public class StockpileData extends TableData {
 		updateOwners();
 
 		contractItems.clear();
-		assets.clear();
-		marketOrders.clear();
-		industryJobs.clear();
-		transactions.clear();
 
 		//Update Stockpiles (StockpileItem)
 		for (Stockpile stockpile : StockpileTab.getShownStockpiles(profileManager)) {
@@ -104,6 +97,128 @@ public class StockpileData extends TableData {
 		}
 	}
 
+	/**
+	 * Update the values of the StockpileItems with changed prices.
+	 * Counts do not depend on prices: only the values and the totals are updated.
+	 * The EventList is updated in place (no remove/add).
+	 * @param eventList
+	 * @param typeIDs Changed TypeIDs (negative for BPC)
+	 */
+	public void updatePrices(EventList<StockpileItem> eventList, Set<Integer> typeIDs) {
+		if (typeIDs == null || typeIDs.isEmpty()) {
+			return;
+		}
+		List<StockpileItem> updated = new ArrayList<>();
+		for (Stockpile stockpile : StockpileTab.getShownStockpiles(profileManager)) {
+			boolean changed = false;
+			for (StockpileItem item : stockpile.getClaims()) {
+				if (item.isTotal() || item instanceof SubpileStock) {
+					continue; //Ignore Total and SubpileStock
+				}
+				if (!typeIDs.contains(item.getItemTypeID())) {
+					continue;
+				}
+				updateValues(item);
+				updated.add(item);
+				changed = true;
+			}
+			if (changed) {
+				stockpile.updateTotal();
+				updated.add(stockpile.getTotal());
+			}
+		}
+		update(eventList, updated);
+	}
+
+	/**
+	 * Recalculate the stockpiles that filter by location.
+	 * Stockpiles without location filters match any location and are not affected.
+	 * The EventList is updated in place (no remove/add).
+	 * @param eventList
+	 * @param locationIDs Changed LocationIDs
+	 */
+	public void updateLocations(EventList<StockpileItem> eventList, Set<Long> locationIDs) {
+		if (locationIDs == null || locationIDs.isEmpty()) {
+			return;
+		}
+		List<StockpileItem> updated = new ArrayList<>();
+		for (Stockpile stockpile : StockpileTab.getShownStockpiles(profileManager)) {
+			boolean location = false;
+			for (StockpileFilter filter : stockpile.getFilters()) {
+				if (!filter.getLocation().isEmpty()) {
+					location = true;
+					break;
+				}
+			}
+			if (location) {
+				stockpile.updateDynamicValues(); //Location name
+				updated.addAll(recalculate(stockpile));
+			}
+		}
+		update(eventList, updated);
+	}
+
+	/**
+	 * Recalculate the stockpiles that filter by container.
+	 * Asset names are only used for matching containers.
+	 * The EventList is updated in place (no remove/add).
+	 * @param eventList
+	 * @param itemIDs Changed ItemIDs
+	 */
+	public void updateNames(EventList<StockpileItem> eventList, Set<Long> itemIDs) {
+		if (itemIDs == null || itemIDs.isEmpty()) {
+			return;
+		}
+		List<StockpileItem> updated = new ArrayList<>();
+		for (Stockpile stockpile : StockpileTab.getShownStockpiles(profileManager)) {
+			boolean container = false;
+			for (StockpileFilter filter : stockpile.getFilters()) {
+				if (!filter.getContainers().isEmpty()) {
+					container = true;
+					break;
+				}
+			}
+			if (container) {
+				updated.addAll(recalculate(stockpile));
+			}
+		}
+		update(eventList, updated);
+	}
+
+	/**
+	 * Recalculate the items and existing subpile items of a stockpile.
+	 * The subpile tree do not depend on the profile data and is not rebuilt.
+	 * @param stockpile
+	 * @return All items of the stockpile (including SubpileItems and Total)
+	 */
+	private List<StockpileItem> recalculate(Stockpile stockpile) {
+		if (ownersName == null) {
+			updateOwners();
+		}
+		updateStockpile(stockpile);
+		stockpile.resetSubpileItems();
+		for (SubpileItem subpileItem : stockpile.getSubpileItems()) {
+			if (subpileItem instanceof SubpileStock) {
+				continue;
+			}
+			updateItem(subpileItem, subpileItem.getStockpile());
+		}
+		stockpile.updateTotal();
+		return stockpile.getClaims();
+	}
+
+	private void update(EventList<StockpileItem> eventList, List<StockpileItem> updated) {
+		if (updated.isEmpty()) {
+			return;
+		}
+		try {
+			eventList.getReadWriteLock().writeLock().lock();
+			EventListManager.update(eventList, updated);
+		} finally {
+			eventList.getReadWriteLock().writeLock().unlock();
+		}
+	}
+
 	public void updateOwners() {
 		//Owners Look-Up
 		ownersName = new HashMap<>();
@@ -137,52 +252,39 @@ public class StockpileData extends TableData {
 	//Create lookup set of TypeIDs
 		Set<Integer> typeIDs = new HashSet<>();
 		addTypeIDs(typeIDs, stockpile);
-	//Create lookup maps of Items
-		if (!typeIDs.isEmpty()) {
-			//Contract Items
-			if (stockpile.isContracts()) {
-				get(contractItems, stockpile).clear();
-				if (stockpile.isContractsMatchAll()) {
-					Map<MyContract, Set<Integer>> foundIDs =  new HashMap<>();
-					Map<MyContract, List<MyContractItem>> foundItems =  new HashMap<>();
-					for (MyContract contract : profileData.getContractList()) {
-						foundIDs.put(contract, new HashSet<>());
-						foundItems.put(contract, new ArrayList<>());
+	//Create lookup maps of Contract Items (Assets, Market Orders, Industry Jobs and Transactions use the TypeIndex)
+		if (!typeIDs.isEmpty() && stockpile.isContracts()) {
+			TypeIndex typeIndex = profileData.getTypeIndex();
+			get(contractItems, stockpile).clear();
+			if (stockpile.isContractsMatchAll()) {
+				//StockpileItem map lookup
+				Map<Integer, StockpileItem> stockpileItems =  new HashMap<>();
+				for (StockpileItem stockpileItem : stockpile.getItems()) {
+					if (stockpileItem.isTotal()) {
+						continue; //Ignore Total
 					}
-					//StockpileItem map lookup
-					Map<Integer, StockpileItem> stockpileItems =  new HashMap<>();
-					for (StockpileItem stockpileItem : stockpile.getItems()) {
-						if (stockpileItem.isTotal()) {
-							continue; //Ignore Total
+					stockpileItems.put(stockpileItem.getItemTypeID(), stockpileItem);
+				}
+				//Contracts with at least one item in the stockpile (other contracts can not match all)
+				Set<MyContract> contracts = new HashSet<>();
+				for (Integer typeID : typeIDs) {
+					for (MyContractItem contractItem : typeIndex.getContractItems(typeID)) {
+						if (!contractItem.getContract().isIgnoreContract()) {
+							contracts.add(contractItem.getContract());
 						}
-						stockpileItems.put(stockpileItem.getItemTypeID(), stockpileItem);
-					}
-					//Init found maps
-					for (MyContract contract : profileData.getContractList()) {
-						foundIDs.put(contract, new HashSet<>());
-						foundItems.put(contract, new ArrayList<>());
 					}
+				}
+				for (MyContract contract : contracts) {
+					Set<Integer> ids = new HashSet<>();
+					List<MyContractItem> items = new ArrayList<>();
+					boolean match = true;
 					//Contract Items matching
-					for (MyContractItem contractItem : profileData.getContractItemList()) {
-						//Validate contract
-						if (contractItem.getContract().isIgnoreContract()) {
-							continue;
-						}
+					for (MyContractItem contractItem : typeIndex.getContractItems(contract)) {
 						Integer typeID = get(contractItem.getTypeID(), contractItem.isBPC());
 						//Validate typeID
 						if (ignore(typeIDs, typeID)) {
-							foundItems.remove(contractItem.getContract()); //Contract have items not in the stockpile
-							continue; //Nothing left to do here
-						}
-						//Get items
-						List<MyContractItem> items = foundItems.get(contractItem.getContract());
-						if (items == null) {
-							continue; //Happens when one or more typeIDs from the contract isn't in the stockpile
-						}
-						//Get contract typeIDs
-						Set<Integer> ids = foundIDs.get(contractItem.getContract());
-						if (ids == null) {
-							continue; //Should never happen, but, better safe than sorry
+							match = false; //Contract have items not in the stockpile
+							break;
 						}
 						//Get StockpileItem
 						StockpileItem stockpileItem = stockpileItems.get(typeID);
@@ -195,88 +297,27 @@ public class StockpileData extends TableData {
 						}
 					}
 					//Stockpile Items matching
-					for (Map.Entry<MyContract, Set<Integer>> entry : foundIDs.entrySet()) {
-						//Only compare the size of the sets, as both sets only contains valid and unique ids.
-						//Therefore there should be no reason to compare the actualy IDs (which is really really slow)
-						if (entry.getValue().size() != typeIDs.size()) { //Stockpile have items not in the contract
-							foundItems.remove(entry.getKey());
-						}
+					//Only compare the size of the sets, as both sets only contains valid and unique ids.
+					//Therefore there should be no reason to compare the actualy IDs (which is really really slow)
+					if (!match || ids.size() != typeIDs.size()) { //Stockpile have items not in the contract
+						continue;
 					}
 					//Add
-					for (List<MyContractItem> list : foundItems.values()) {
-						for (MyContractItem contractItem : list) {
-							add(get(contractItems, stockpile), get(contractItem.getTypeID(), contractItem.isBPC()), contractItem);
-						}
+					for (MyContractItem contractItem : items) {
+						add(get(contractItems, stockpile), get(contractItem.getTypeID(), contractItem.isBPC()), contractItem);
 					}
-				} else {
-					for (MyContractItem contractItem : profileData.getContractItemList()) {
+				}
+			} else {
+				for (Integer typeID : typeIDs) {
+					for (MyContractItem contractItem : typeIndex.getContractItems(typeID)) {
 						if (contractItem.getContract().isIgnoreContract()) {
 							continue;
 						}
-						Integer typeID = get(contractItem.getTypeID(), contractItem.isBPC());
-						//Ignore null and wrong typeID
-						if (ignore(typeIDs, typeID)) {
-							continue;
-						}
 						//Add Contract Item
 						add(get(contractItems, stockpile), typeID, contractItem);
 					}
 				}
 			}
-			//Assets
-			if (stockpile.isAssets()) {
-				for (MyAsset asset : profileData.getAssetsList()) {
-					if (asset.isGenerated()) { //Skip generated assets
-						continue;
-					}
-					Integer typeID = get(asset.getTypeID(), asset.isBPC());
-					//Ignore null and wrong typeID
-					if (ignore(typeIDs, typeID)) {
-						continue;
-					}
-					//Add Asset
-					add(assets, typeID, asset);
-				}
-			}
-			//Market Orders
-			if (stockpile.isBuyOrders() || stockpile.isSellOrders()) {
-				for (MyMarketOrder marketOrder : profileData.getMarketOrdersList()) {
-					Integer typeID = marketOrder.getTypeID();
-					//Ignore null and wrong typeID
-					if (ignore(typeIDs, typeID)) {
-						continue;
-					}
-					//Add Market Order
-					add(marketOrders, typeID, marketOrder);
-				}
-			}
-			//Industry Jobs
-			if (stockpile.isJobs()) {
-				for (MyIndustryJob industryJob : profileData.getIndustryJobsList()) {
-					//Manufacturing
-					Integer productTypeID = industryJob.getProductTypeID();
-					if (!ignore(typeIDs, productTypeID)) { //Ignore null and wrong typeID
-						add(industryJobs, productTypeID, industryJob);
-					}
-					//Copying
-					Integer blueprintTypeID = get(industryJob.getBlueprintTypeID(), true);  //Negative - match blueprints copies
-					if (!ignore(typeIDs, blueprintTypeID)) { //Ignore null and wrong typeID
-						add(industryJobs, blueprintTypeID, industryJob);
-					}
-				}
-			}
-			//Transactions
-			if (stockpile.isTransactions()) {
-				for (MyTransaction transaction : profileData.getTransactionsList()) {
-					Integer typeID = transaction.getTypeID();
-					//Ignore null and wrong typeID
-					if (typeID == null || !typeIDs.contains(typeID)) {
-						continue;
-					}
-					//Add Transaction
-					add(transactions, typeID, transaction);
-				}
-			}
 		}
 		stockpile.setFlagName(flags);
 		stockpile.reset();
@@ -338,13 +379,18 @@ public class StockpileData extends TableData {
 		}
 	}
 
-	private void updateItem(StockpileItem item, Stockpile stockpile) {
+	private void updateValues(StockpileItem item) {
 		final int TYPE_ID = item.getItemTypeID();
 		double price = ApiIdConverter.getPrice(TYPE_ID, item.isBPC());
 		float volume = ApiIdConverter.getVolume(item.getItem(), true);
 		Double transactionAveragePrice = profileData.getTransactionAveragePrice(TYPE_ID);
 		PriceData priceData = ApiIdConverter.getPriceData(TYPE_ID, item.isBPC());
 		item.updateValues(price, volume, transactionAveragePrice, priceData);
+	}
+
+	private void updateItem(StockpileItem item, Stockpile stockpile) {
+		final int TYPE_ID = item.getItemTypeID();
+		updateValues(item);
 		//Contract Items
 		if (stockpile.isContracts()) {
 			Set<MyContractItem> items = get(contractItems, stockpile).get(TYPE_ID);
@@ -354,40 +400,29 @@ public class StockpileData extends TableData {
 				}
 			}
 		}
+		TypeIndex typeIndex = profileData.getTypeIndex();
 		//Assets
 		if (stockpile.isAssets()) {
-			Set<MyAsset> items = assets.get(TYPE_ID);
-			if (items != null) {
-				for (MyAsset asset : items) {
-					item.updateAsset(asset);
-				}
+			for (MyAsset asset : typeIndex.getAssets(TYPE_ID)) {
+				item.updateAsset(asset);
 			}
 		}
 		//Market Orders
 		if (stockpile.isBuyOrders() || stockpile.isSellOrders()) {
-			Set<MyMarketOrder> items = marketOrders.get(TYPE_ID);
-			if (items != null) {
-				for (MyMarketOrder marketOrder : items) {
-					item.updateMarketOrder(marketOrder);
-				}
+			for (MyMarketOrder marketOrder : typeIndex.getMarketOrders(TYPE_ID)) {
+				item.updateMarketOrder(marketOrder);
 			}
 		}
 		//Industry Job
 		if (stockpile.isJobs()) {
-			Set<MyIndustryJob> items = industryJobs.get(TYPE_ID);
-			if (items != null) {
-				for (MyIndustryJob industryJob : items) {
-					item.updateIndustryJob(industryJob);
-				}
+			for (MyIndustryJob industryJob : typeIndex.getIndustryJobs(TYPE_ID)) { //Product TypeID or negative Blueprint TypeID (copies)
+				item.updateIndustryJob(industryJob);
 			}
 		}
 		//Transactions
 		if (stockpile.isTransactions()) {
-			Set<MyTransaction> items = transactions.get(TYPE_ID);
-			if (items != null) {
-				for (MyTransaction transaction : items) {
-					item.updateTransaction(transaction);
-				}
+			for (MyTransaction transaction : typeIndex.getTransactions(TYPE_ID)) {
+				item.updateTransaction(transaction);
 			}
 		}
 	}
@@ -51,6 +51,7 @@ import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
 import net.nikr.eve.jeveasset.data.api.my.MyIndustryJob;
 import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.profile.TypeIndex;
 import net.nikr.eve.jeveasset.data.sde.Item;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.CopyHandler;
@@ -255,38 +256,41 @@ class StockpileShoppingListDialog extends JDialogCentered {
 
 	//All items
 		Map<TypeIdentifier, List<StockItem>> items = new HashMap<>();
-		//Assets
-		for (MyAsset asset : program.getAssetsList()) {
-			if (asset.isGenerated()) { //Skip generated assets
-				continue;
-			}
-			int typeID = asset.isBPC() ? -asset.getTypeID() : asset.getTypeID();
-			add(new TypeIdentifier(typeID, false), asset, claims, items);
-			add(new TypeIdentifier(typeID, true), asset, claims, items);
-		}
-		//Market Orders
-		for (MyMarketOrder marketOrder : program.getMarketOrdersList()) {
-			add(new TypeIdentifier(marketOrder.getTypeID(), false), marketOrder, claims, items);
-		}
-		//Industry Jobs
-		for (MyIndustryJob industryJob : program.getIndustryJobsList()) {
-			Integer productTypeID = industryJob.getProductTypeID();
-			if (productTypeID != null) {
-				add(new TypeIdentifier(productTypeID, false), industryJob, claims, items);
-			}
-			add(new TypeIdentifier(-industryJob.getBlueprintTypeID(), true), industryJob, claims, items);
-		}
-		//Transactions
-		for (MyTransaction transaction : program.getTransactionsList()) {
-			add(new TypeIdentifier(transaction.getTypeID(), false), transaction, claims, items);
-		}
-		//ContractItems
-		for (MyContractItem contractItem : program.getContractItemList()) {
-			if (contractItem.getContract().isIgnoreContract()) {
-				continue;
-			}
-			int typeID = contractItem.isBPC() ? -contractItem.getTypeID() : contractItem.getTypeID();
-			add(new TypeIdentifier(typeID, false), contractItem, claims, items);
+		TypeIndex typeIndex = program.getProfileData().getTypeIndex();
+		for (TypeIdentifier key : claims.keySet()) {
+			int typeID = key.getTypeID();
+			boolean runs = key.isRuns();
+			//Assets
+			for (MyAsset asset : typeIndex.getAssets(typeID)) {
+				add(key, asset, claims, items);
+			}
+			//Market Orders
+			if (!runs) {
+				for (MyMarketOrder marketOrder : typeIndex.getMarketOrders(typeID)) {
+					add(key, marketOrder, claims, items);
+				}
+			}
+			//Industry Jobs (Product TypeID or negative Blueprint TypeID with runs)
+			if ((!runs && typeID > 0) || (runs && typeID < 0)) {
+				for (MyIndustryJob industryJob : typeIndex.getIndustryJobs(typeID)) {
+					add(key, industryJob, claims, items);
+				}
+			}
+			//Transactions
+			if (!runs) {
+				for (MyTransaction transaction : typeIndex.getTransactions(typeID)) {
+					add(key, transaction, claims, items);
+				}
+			}
+			//ContractItems
+			if (!runs) {
+				for (MyContractItem contractItem : typeIndex.getContractItems(typeID)) {
+					if (contractItem.getContract().isIgnoreContract()) {
+						continue;
+					}
+					add(key, contractItem, claims, items);
+				}
+			}
 		}
 
 	//Owned before claming
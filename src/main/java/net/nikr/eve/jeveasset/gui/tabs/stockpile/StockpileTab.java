@@ -472,6 +472,21 @@ public class StockpileTab extends JMainTabSecondary implements TagUpdate {
 		jOwners.setEnabled(ownerModel.getSize() > 0);
 	}
 
+	@Override
+	public void updatePrices(Set<Integer> typeIDs) {
+		stockpileData.updatePrices(eventList, typeIDs);
+	}
+
+	@Override
+	public void updateLocations(Set<Long> locationIDs) {
+		stockpileData.updateLocations(eventList, locationIDs);
+	}
+
+	@Override
+	public void updateNames(Set<Long> itemIDs) {
+		stockpileData.updateNames(eventList, itemIDs);
+	}
+
 	private void updateOwners() {
 		//Update Owners
 		stockpileData.updateOwners();
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.tabs.tracker;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ * Keeps the visual shape of a line chart (peaks and dips) with far fewer points
+ * than there are pixels to draw them on.
+ */
+final class TrackerDownsampler {
+
+	private TrackerDownsampler() { }
+
+	/**
+	 * Select the points to draw.
+	 * @param x x values (ascending)
+	 * @param y y values
+	 * @param threshold maximum number of points to keep
+	 * @return ascending indexes of the points to keep (first and last are always kept)
+	 */
+	public static int[] downsample(double[] x, double[] y, int threshold) {
+		final int size = x.length;
+		if (threshold >= size || threshold < 3) {
+			int[] all = new int[size];
+			for (int i = 0; i < size; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		int[] sampled = new int[threshold];
+		int count = 0;
+		//Bucket size, first and last point are buckets of their own
+		final double every = (double) (size - 2) / (threshold - 2);
+		int a = 0; //Selected point of the previous bucket
+		sampled[count++] = a;
+		for (int i = 0; i < threshold - 2; i++) {
+			//Average of the next bucket
+			int avgStart = (int) Math.floor((i + 1) * every) + 1;
+			int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+			double avgX = 0;
+			double avgY = 0;
+			for (int j = avgStart; j < avgEnd; j++) {
+				avgX += x[j];
+				avgY += y[j];
+			}
+			int avgLength = avgEnd - avgStart;
+			avgX /= avgLength;
+			avgY /= avgLength;
+			//Point in this bucket with the largest triangle
+			int rangeStart = (int) Math.floor(i * every) + 1;
+			int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+			double maxArea = -1;
+			int maxIndex = rangeStart;
+			for (int j = rangeStart; j < rangeEnd; j++) {
+				double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+				if (area > maxArea) {
+					maxArea = area;
+					maxIndex = j;
+				}
+			}
+			sampled[count++] = maxIndex;
+			a = maxIndex;
+		}
+		sampled[count] = size - 1;
+		return sampled;
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.tabs.tracker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.data.settings.TrackerSettings.Resolution;
+import net.nikr.eve.jeveasset.gui.shared.components.CheckBoxNode;
+import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
+import net.nikr.eve.jeveasset.gui.tabs.values.Value;
+
+/**
+ * Tracker values summed over the selected owners, one point per tracker date.
+ * Built once per owner/date selection. Asset and wallet filter values are kept
+ * per filter node, so toggling filters only re-sums the selected columns
+ * instead of walking every owner snapshot again.
+ */
+class TrackerRollup {
+
+	private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+	private final Date[] dates;
+	private final Value[] values;
+	private final double[] assetsTotal;
+	private final double[] balanceTotal;
+	private final boolean[] assetsFilter;
+	private final boolean[] balanceFilter;
+	private final Map<String, double[]> assetColumns = new HashMap<>();
+	private final Map<String, double[]> balanceColumns = new HashMap<>();
+	private final Map<Resolution, int[]> rollups = new EnumMap<>(Resolution.class);
+
+	/**
+	 * @param trackerDataByDate owner values by date (null values are carried forward from the last known value)
+	 * @param from first date (exclusive) or null
+	 * @param to last date (exclusive) or null
+	 * @param skillPointFilters skill point filters by owner
+	 */
+	public TrackerRollup(Map<Date, Map<String, Value>> trackerDataByDate, Date from, Date to, Map<String, TrackerSkillPointFilter> skillPointFilters) {
+		List<Date> dateList = new ArrayList<>();
+		for (Date date : trackerDataByDate.keySet()) {
+			if ((from == null || date.after(from)) && (to == null || date.before(to))) {
+				dateList.add(date);
+			}
+		}
+		int size = dateList.size();
+		dates = dateList.toArray(new Date[size]);
+		values = new Value[size];
+		assetsTotal = new double[size];
+		balanceTotal = new double[size];
+		assetsFilter = new boolean[size];
+		balanceFilter = new boolean[size];
+		Map<String, Value> lastMap = new HashMap<>();
+		int index = 0;
+		for (Map.Entry<Date, Map<String, Value>> dateEntry : trackerDataByDate.entrySet()) {
+			final Date date = dateEntry.getKey();
+			if (index >= size || !date.equals(dates[index])) {
+				continue; //Outside the date range
+			}
+			final Value value = new Value(date);
+			values[index] = value;
+			for (Map.Entry<String, Value> ownerEntry : dateEntry.getValue().entrySet()) {
+				Value data = ownerEntry.getValue();
+				if (data == null) {
+					data = lastMap.get(ownerEntry.getKey());
+				}
+				if (data == null) {
+					continue;
+				} else {
+					lastMap.put(ownerEntry.getKey(), data);
+				}
+				if (data.getAssetsFilter().isEmpty()) {
+					assetsTotal[index] += data.getAssetsTotal();
+				} else {
+					assetsFilter[index] = true;
+					for (Map.Entry<AssetValue, Double> entry : data.getAssetsFilter().entrySet()) {
+						add(assetColumns, entry.getKey().getID(), index, entry.getValue());
+					}
+				}
+				value.addEscrows(data.getEscrows());
+				value.addEscrowsToCover(data.getEscrowsToCover());
+				value.addManufacturing(data.getManufacturing());
+				value.addContractCollateral(data.getContractCollateral());
+				value.addContractValue(data.getContractValue());
+				TrackerSkillPointFilter skillPointFilter = skillPointFilters.get(ownerEntry.getKey());
+				if (skillPointFilter != null) {
+					if (skillPointFilter.isEnabled()) {
+						value.addSkillPointValue(data.getSkillPoints(), skillPointFilter.getMinimum());
+					}
+				} else {
+					value.addSkillPointValue(data.getSkillPoints(), 0);
+				}
+				value.addSellOrders(data.getSellOrders());
+				if (data.getBalanceFilter().isEmpty()) {
+					balanceTotal[index] += data.getBalanceTotal();
+				} else {
+					balanceFilter[index] = true;
+					for (Map.Entry<String, Double> entry : data.getBalanceFilter().entrySet()) {
+						add(balanceColumns, entry.getKey(), index, entry.getValue());
+					}
+				}
+			}
+			index++;
+		}
+	}
+
+	private void add(Map<String, double[]> columns, String id, int index, Double value) {
+		double[] column = columns.get(id);
+		if (column == null) {
+			column = new double[dates.length];
+			columns.put(id, column);
+		}
+		column[index] += value;
+	}
+
+	/**
+	 * Update the asset and wallet totals from the selected filter nodes.
+	 * @param assetNodes asset filter nodes by node id
+	 * @param accountNodes wallet filter nodes by node id
+	 */
+	public void update(Map<String, CheckBoxNode> assetNodes, Map<String, CheckBoxNode> accountNodes) {
+		double[] assets = sum(assetsTotal, assetColumns, assetNodes);
+		double[] balance = sum(balanceTotal, balanceColumns, accountNodes);
+		for (int i = 0; i < values.length; i++) {
+			values[i].setAssetsTotal(assets[i]);
+			values[i].setBalanceTotal(balance[i]);
+		}
+	}
+
+	private double[] sum(double[] total, Map<String, double[]> columns, Map<String, CheckBoxNode> nodes) {
+		double[] sum = total.clone();
+		for (Map.Entry<String, double[]> entry : columns.entrySet()) {
+			CheckBoxNode node = nodes.get(entry.getKey());
+			if (node == null || !node.isSelected()) {
+				continue;
+			}
+			double[] column = entry.getValue();
+			for (int i = 0; i < sum.length; i++) {
+				sum[i] += column[i];
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Indexes of the points to show for the resolution.
+	 * Tracker values are snapshots, so each bucket is represented by its last point.
+	 * @param resolution GMT day, ISO week or month buckets (or all points)
+	 * @return ascending point indexes
+	 */
+	public int[] getRollup(Resolution resolution) {
+		int[] rollup = rollups.get(resolution);
+		if (rollup == null) {
+			rollup = createRollup(resolution);
+			rollups.put(resolution, rollup);
+		}
+		return rollup;
+	}
+
+	private int[] createRollup(Resolution resolution) {
+		int[] indexes = new int[dates.length];
+		int count = 0;
+		for (int i = 0; i < dates.length; i++) {
+			if (i + 1 == dates.length || resolution == Resolution.ALL || getBucket(dates[i], resolution) != getBucket(dates[i + 1], resolution)) {
+				indexes[count] = i;
+				count++;
+			}
+		}
+		if (count == indexes.length) {
+			return indexes;
+		}
+		int[] rollup = new int[count];
+		System.arraycopy(indexes, 0, rollup, 0, count);
+		return rollup;
+	}
+
+	static long getBucket(Date date, Resolution resolution) {
+		long epochDay = Math.floorDiv(date.getTime(), MILLIS_PER_DAY); //GMT
+		switch (resolution) {
+			case DAY:
+				return epochDay;
+			case WEEK:
+				return Math.floorDiv(epochDay + 3, 7); //1970-01-01 was a Thursday: weeks start on Monday
+			case MONTH:
+				LocalDate localDate = LocalDate.ofEpochDay(epochDay);
+				return localDate.getYear() * 12L + localDate.getMonthValue();
+			default:
+				return date.getTime();
+		}
+	}
+
+	/**
+	 * First position in the rollup with asset filter data.
+	 * @param rollup point indexes
+	 * @return position or rollup length if no point has asset filter data
+	 */
+	public int getAssetColumn(int[] rollup) {
+		return getColumn(rollup, assetsFilter);
+	}
+
+	/**
+	 * First position in the rollup with wallet filter data.
+	 * @param rollup point indexes
+	 * @return position or rollup length if no point has wallet filter data
+	 */
+	public int getWalletColumn(int[] rollup) {
+		return getColumn(rollup, balanceFilter);
+	}
+
+	private int getColumn(int[] rollup, boolean[] filter) {
+		for (int i = 0; i < rollup.length; i++) {
+			if (filter[rollup[i]]) {
+				return i;
+			}
+		}
+		return rollup.length;
+	}
+
+	public int size() {
+		return dates.length;
+	}
+
+	public Date getDate(int index) {
+		return dates[index];
+	}
+
+	public Value getValue(int index) {
+		return values[index];
+	}
+}
@@ -34,6 +34,8 @@ import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.io.File;
@@ -89,6 +91,7 @@ import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.data.settings.TrackerData;
 import net.nikr.eve.jeveasset.data.settings.TrackerSettings;
 import net.nikr.eve.jeveasset.data.settings.TrackerSettings.DisplayType;
+import net.nikr.eve.jeveasset.data.settings.TrackerSettings.Resolution;
 import net.nikr.eve.jeveasset.data.settings.TrackerSettings.ShowOption;
 import net.nikr.eve.jeveasset.gui.frame.StatusPanel;
 import net.nikr.eve.jeveasset.gui.frame.StatusPanel.JStatusLabel;
@@ -140,6 +143,7 @@ public class TrackerTab extends JMainTabSecondary {
 
 	private enum TrackerAction {
 		QUICK_DATE,
+		DOWNSAMPLE,
 		UPDATE_DATA,
 		UPDATE_SHOWN,
 		IMPORT_FILE,
@@ -157,6 +161,7 @@ public class TrackerTab extends JMainTabSecondary {
 	}
 
 	private final int PANEL_WIDTH_MINIMUM = 160;
+	private final int DOWNSAMPLE_MINIMUM = 100;
 
 	private final NumberFormat iskFormat = new DecimalFormat("#,##0.00 isk");
 	private final DateFormat dateFormat = new SimpleDateFormat(Formatter.COLUMN_DATE);
@@ -186,6 +191,7 @@ public class TrackerTab extends JMainTabSecondary {
 	private final JMenuItem jImportFile;
 	private final JCheckBoxMenuItem jIncludeZero;
 	private final JRadioButtonMenuItem jLogarithmic;
+	private final JCheckBoxMenuItem jDownsample;
 	private final JPopupMenu jPopupMenu;
 	private final JTrackerEditDialog jEditDialog;
 	private final JSelectionDialog<String> jSelectionDialog;
@@ -228,6 +234,8 @@ public class TrackerTab extends JMainTabSecondary {
 	private TimePeriodValues contractValue;
 	private TimePeriodValues skillPointsValue;
 	private Map<SimpleTimePeriod, Value> cache;
+	private TrackerRollup rollup;
+	private int downsampleWidth = 0;
 	private final Map<String, CheckBoxNode> accountNodes = new TreeMap<>();
 	private final Map<String, CheckBoxNode> assetNodes = new TreeMap<>();
 	private Integer assetColumn = null;
@@ -493,6 +501,31 @@ public class TrackerTab extends JMainTabSecondary {
 		jSettings.add(jLogarithmic);
 		buttonGroup.add(jLogarithmic);
 
+		jSettings.addSeparator();
+
+		ButtonGroup resolutionGroup = new ButtonGroup();
+
+		for (final Resolution resolution : Resolution.values()) {
+			JRadioButtonMenuItem jResolution = new JRadioButtonMenuItem(getResolutionName(resolution));
+			jResolution.setSelected(trackerSettings.getResolution() == resolution);
+			jResolution.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					Settings.get().getTrackerSettings().setResolution(resolution);
+					createSeries();
+					updateSettings();
+				}
+			});
+			jSettings.add(jResolution);
+			resolutionGroup.add(jResolution);
+		}
+
+		jDownsample = new JCheckBoxMenuItem(TabsTracker.get().downsample());
+		jDownsample.setSelected(trackerSettings.isDownsample());
+		jDownsample.setActionCommand(TrackerAction.DOWNSAMPLE.name());
+		jDownsample.addActionListener(listener);
+		jSettings.add(jDownsample);
+
 		DateAxis domainAxis = new DateAxis();
 		domainAxis.setDateFormatOverride(dateFormat);
 		domainAxis.setVerticalTickLabels(true);
@@ -579,6 +612,16 @@ public class TrackerTab extends JMainTabSecondary {
 		jChartPanel.setMaximumDrawWidth(Integer.MAX_VALUE);
 		jChartPanel.setMinimumDrawWidth(10);
 		jChartPanel.setMinimumDrawHeight(10);
+		jChartPanel.addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(ComponentEvent e) {
+				int width = jChartPanel.getWidth();
+				if (Settings.get().getTrackerSettings().isDownsample() && cache != null
+						&& width != downsampleWidth && cache.size() > Math.min(width, downsampleWidth)) {
+					updateShown(); //Downsample to the new width
+				}
+			}
+		});
 
 		int gapWidth = 5;
 		int labelWidth = Math.max(jFromLabel.getPreferredSize().width, jToLabel.getPreferredSize().width);
@@ -711,7 +754,7 @@ public class TrackerTab extends JMainTabSecondary {
 						node.setSelected(true);
 					}
 					updateSettings();
-					createData();
+					createSeries();
 					updateButtonIcons();
 				} else {
 					showLocationFilter();
@@ -917,6 +960,23 @@ public class TrackerTab extends JMainTabSecondary {
 			return;
 		}
 		List<String> owners = jOwners.getSelectedValuesList();
+		if (owners != null) { //No data set...
+			try {
+				TrackerData.readLock();
+				rollup = new TrackerRollup(getTrackerDataByDate(owners), getFromDate(), getToDate(), Settings.get().getTrackerSettings().getSkillPointFilters());
+			} finally {
+				TrackerData.readUnlock();
+			}
+		} else {
+			rollup = null;
+		}
+		createSeries();
+	}
+
+	private void createSeries() {
+		if (updateLock) {
+			return;
+		}
 		walletBalance = new TimePeriodValues(TabsTracker.get().walletBalance());
 		assets = new TimePeriodValues(TabsTracker.get().assets());
 		sellOrders = new TimePeriodValues(TabsTracker.get().sellOrders());
@@ -926,88 +986,13 @@ public class TrackerTab extends JMainTabSecondary {
 		contractCollateral = new TimePeriodValues(TabsTracker.get().contractCollateral());
 		contractValue = new TimePeriodValues(TabsTracker.get().contractValue());
 		skillPointsValue = new TimePeriodValues(TabsTracker.get().skillPointValue());
-		Date from = getFromDate();
-		Date to = getToDate();
 		cache = new TreeMap<>();
-		Map<String, CheckBoxNode> accountNodesMap = new HashMap<>(accountNodes);
-		Map<String, CheckBoxNode> assetNodesMap = new HashMap<>(assetNodes);
-		Map<Date, Boolean> assetColumns = new TreeMap<>();
-		Map<Date, Boolean> walletColumns = new TreeMap<>();
-		if (owners != null) { //No data set...
-			try {
-				TrackerData.readLock();
-				Map<Date, Map<String, Value>> trackerDataByDate = getTrackerDataByDate(owners);
-				Map<String, Value> lastMap = new HashMap<>();
-				for (Map.Entry<Date, Map<String, Value>> dateEntry : trackerDataByDate.entrySet()) {
-					final Date date = dateEntry.getKey();
-					final Value value;
-					if ((from == null || date.after(from)) && (to == null || date.before(to))) {
-						value = new Value(date);
-						cache.put(new SimpleTimePeriod(date, date), value);
-					} else {
-						continue;
-					}
-					for (Map.Entry<String, Value> ownerEntry : dateEntry.getValue().entrySet()) {
-						Value data = ownerEntry.getValue();
-						if (data == null) {
-							Value last = lastMap.get(ownerEntry.getKey());
-							if (last != null) {
-								data = last;
-							}
-						}
-						if (data == null) {
-							continue;
-						} else {
-							lastMap.put(ownerEntry.getKey(), data);
-						}
-						if (data.getAssetsFilter().isEmpty()) {
-							value.addAssets(data.getAssetsTotal());
-							//Default
-							Boolean assetBoolean = assetColumns.get(date);
-							if (assetBoolean == null) {
-								assetColumns.put(date, false);
-							}
-						} else {
-							assetColumns.put(date, true);
-							for (Map.Entry<AssetValue, Double> entry : data.getAssetsFilter().entrySet()) {
-								if (assetNodesMap.get(entry.getKey().getID()).isSelected()) {
-									value.addAssets(entry.getValue());
-								}
-							}
-						}
-						value.addEscrows(data.getEscrows());
-						value.addEscrowsToCover(data.getEscrowsToCover());
-						value.addManufacturing(data.getManufacturing());
-						value.addContractCollateral(data.getContractCollateral());
-						value.addContractValue(data.getContractValue());
-						TrackerSkillPointFilter skillPointFilter = Settings.get().getTrackerSettings().getSkillPointFilters().get(ownerEntry.getKey());
-						if (skillPointFilter != null) {
-							if (skillPointFilter.isEnabled()) {
-								value.addSkillPointValue(data.getSkillPoints(), skillPointFilter.getMinimum());
-							}
-						} else {
-							value.addSkillPointValue(data.getSkillPoints(), 0);
-						}
-						value.addSellOrders(data.getSellOrders());
-						if (data.getBalanceFilter().isEmpty()) {
-							value.addBalance(data.getBalanceTotal());
-							//Default
-							Boolean walletBoolean = walletColumns.get(date);
-							if (walletBoolean == null) {
-								walletColumns.put(date, false);
-							}
-						} else {
-							walletColumns.put(date, true);
-							for (Map.Entry<String, Double> entry : data.getBalanceFilter().entrySet()) {
-								if (accountNodesMap.get(entry.getKey()).isSelected()) {
-									value.addBalance(entry.getValue());
-								}
-							}
-						}
-					}
-				}
-			} finally {
-				TrackerData.readUnlock();
+		if (rollup != null) {
+			rollup.update(assetNodes, accountNodes);
+			int[] indexes = rollup.getRollup(Settings.get().getTrackerSettings().getResolution());
+			for (int index : indexes) {
+				Date date = rollup.getDate(index);
+				cache.put(new SimpleTimePeriod(date, date), rollup.getValue(index));
 			}
 			for (Map.Entry<SimpleTimePeriod, Value> entry : cache.entrySet()) {
 				walletBalance.add(entry.getKey(), entry.getValue().getBalanceTotal());
@@ -1020,25 +1005,11 @@ public class TrackerTab extends JMainTabSecondary {
 				contractValue.add(entry.getKey(), entry.getValue().getContractValue());
 				skillPointsValue.add(entry.getKey(), entry.getValue().getSkillPointValue());
 			}
-		}
-		int count;
-		count = 0;
-		assetColumn = assetColumns.size(); //Default
-		for (Map.Entry<Date, Boolean> entry : assetColumns.entrySet()) {
-			if (entry.getValue()) {
-				assetColumn = count;
-				break;
-			}
-			count++;
-		}
-		count = 0;
-		walletColumn = walletColumns.size(); //Default
-		for (Map.Entry<Date, Boolean> entry : walletColumns.entrySet()) {
-			if (entry.getValue()) {
-				walletColumn = count;
-				break;
-			}
-			count++;
+			assetColumn = rollup.getAssetColumn(indexes);
+			walletColumn = rollup.getWalletColumn(indexes);
+		} else {
+			assetColumn = 0;
+			walletColumn = 0;
 		}
 		updateShown();
 	}
@@ -1229,7 +1200,6 @@ public class TrackerTab extends JMainTabSecondary {
 			jSkillPointsStatus.setNumber(0.0);
 		}
 		if (jTotal.isSelected()) { //Update total
-			dataset.addSeries(total);
 			Integer minColumn = null;
 			if (jWalletBalance.isSelected() && walletColumn != null) {
 				minColumn = walletColumn;
@@ -1241,47 +1211,34 @@ public class TrackerTab extends JMainTabSecondary {
 					minColumn = assetColumn;
 				}
 			}
-			render.add(dataset.getSeriesCount() - 1, minColumn);
-			updateRender(dataset.getSeriesCount() - 1, Color.RED.darker());
+			addSeries(total, minColumn, Color.RED.darker());
 		}
 		if (jWalletBalance.isSelected() && walletBalance != null) {
-			dataset.addSeries(walletBalance);
-			render.add(dataset.getSeriesCount() - 1, walletColumn);
-			updateRender(dataset.getSeriesCount() - 1, Color.BLUE.darker());
-
+			addSeries(walletBalance, walletColumn, Color.BLUE.darker());
 		}
 		if (jAssets.isSelected() && assets != null) {
-			dataset.addSeries(assets);
-			render.add(dataset.getSeriesCount() - 1, assetColumn);
-			updateRender(dataset.getSeriesCount() - 1, Color.GREEN.darker().darker());
+			addSeries(assets, assetColumn, Color.GREEN.darker().darker());
 		}
 		if (jSellOrders.isSelected() && sellOrders != null) {
-			dataset.addSeries(sellOrders);
-			updateRender(dataset.getSeriesCount() - 1, Color.CYAN.darker());
+			addSeries(sellOrders, null, Color.CYAN.darker());
 		}
 		if (jEscrows.isSelected() && escrows != null) {
-			dataset.addSeries(escrows);
-			updateRender(dataset.getSeriesCount() - 1, Color.BLACK);
+			addSeries(escrows, null, Color.BLACK);
 		}
 		if (jEscrowsToCover.isSelected() && escrowsToCover != null) {
-			dataset.addSeries(escrowsToCover);
-			updateRender(dataset.getSeriesCount() - 1, Color.GRAY);
+			addSeries(escrowsToCover, null, Color.GRAY);
 		}
 		if (jManufacturing.isSelected() && manufacturing != null) {
-			dataset.addSeries(manufacturing);
-			updateRender(dataset.getSeriesCount() - 1, Color.MAGENTA);
+			addSeries(manufacturing, null, Color.MAGENTA);
 		}
 		if (jContractCollateral.isSelected() && contractCollateral != null) {
-			dataset.addSeries(contractCollateral);
-			updateRender(dataset.getSeriesCount() - 1, Color.PINK);
+			addSeries(contractCollateral, null, Color.PINK);
 		}
 		if (jContractValue.isSelected() && contractValue != null) {
-			dataset.addSeries(contractValue);
-			updateRender(dataset.getSeriesCount() - 1, Color.ORANGE);
+			addSeries(contractValue, null, Color.ORANGE);
 		}
 		if (jSkillPointsValue.isSelected() && skillPointsValue != null) {
-			dataset.addSeries(skillPointsValue);
-			updateRender(dataset.getSeriesCount() - 1, Color.YELLOW);
+			addSeries(skillPointsValue, null, Color.YELLOW);
 		}
 		//Add empty dataset
 		if (dataset.getSeriesCount() == 0) {
@@ -1307,6 +1264,44 @@ public class TrackerTab extends JMainTabSecondary {
 		}
 	}
 
+	/**
+	 * Add series to the chart.
+	 * Series with more points than the chart is wide are downsampled (if enabled).
+	 * @param series series to add
+	 * @param column first item with filter data or null
+	 * @param color series color
+	 */
+	private void addSeries(TimePeriodValues series, Integer column, Color color) {
+		downsampleWidth = jChartPanel.getWidth();
+		int threshold = Math.max(downsampleWidth, DOWNSAMPLE_MINIMUM);
+		if (Settings.get().getTrackerSettings().isDownsample() && downsampleWidth > 0 && series.getItemCount() > threshold) {
+			double[] x = new double[series.getItemCount()];
+			double[] y = new double[series.getItemCount()];
+			for (int i = 0; i < x.length; i++) {
+				x[i] = series.getTimePeriod(i).getStart().getTime();
+				y[i] = series.getValue(i).doubleValue();
+			}
+			int[] indexes = TrackerDownsampler.downsample(x, y, threshold);
+			TimePeriodValues downsampled = new TimePeriodValues(series.getKey().toString());
+			Integer downsampledColumn = null;
+			for (int i = 0; i < indexes.length; i++) {
+				int index = indexes[i];
+				if (column != null && downsampledColumn == null && index >= column) {
+					downsampledColumn = i;
+				}
+				downsampled.add(series.getTimePeriod(index), series.getValue(index));
+			}
+			if (column != null && downsampledColumn == null) {
+				downsampledColumn = indexes.length;
+			}
+			series = downsampled;
+			column = downsampledColumn;
+		}
+		dataset.addSeries(series);
+		render.add(dataset.getSeriesCount() - 1, column);
+		updateRender(dataset.getSeriesCount() - 1, color);
+	}
+
 	private void updateRender(int index, Color color) {
 		XYItemRenderer renderer = jNextChart.getXYPlot().getRenderer();
 		renderer.setSeriesPaint(index, color);
@@ -1486,6 +1481,19 @@ public class TrackerTab extends JMainTabSecondary {
 		return Date.from(instant);
 	}
 
+	private String getResolutionName(Resolution resolution) {
+		switch (resolution) {
+			case DAY:
+				return TabsTracker.get().resolutionDay();
+			case WEEK:
+				return TabsTracker.get().resolutionWeek();
+			case MONTH:
+				return TabsTracker.get().resolutionMonth();
+			default:
+				return TabsTracker.get().resolutionAll();
+		}
+	}
+
 	private LocalDate dateToLocalDate(Date date) {
 		Instant instant = date.toInstant();
 		return LocalDateTime.ofInstant(instant, ZoneId.of("GMT")).toLocalDate();
@@ -1495,7 +1503,7 @@ public class TrackerTab extends JMainTabSecondary {
 		boolean save = assetFilterDialog.showLocations(assetNodes);
 		if (save) { //Need refilter
 			updateSettings();
-			createData();
+			createSeries();
 			updateButtonIcons();
 		}
 	}
@@ -1539,6 +1547,10 @@ public class TrackerTab extends JMainTabSecondary {
 					trackerSettings.setDisplayType(DisplayType.LINEAR);
 				}
 				updateSettings();
+			} else if (TrackerAction.DOWNSAMPLE.name().equals(e.getActionCommand())) {
+				trackerSettings.setDownsample(jDownsample.isSelected());
+				updateShown();
+				updateSettings();
 			} else if (TrackerAction.UPDATE_DATA.name().equals(e.getActionCommand())) {
 				createData();
 			} else if (TrackerAction.UPDATE_SHOWN.name().equals(e.getActionCommand())) {
@@ -1681,7 +1693,7 @@ public class TrackerTab extends JMainTabSecondary {
 				boolean save = filterDialog.showWallet(accountNodes);
 				if (save) { //Need refilter
 					updateSettings();
-					createData();
+					createSeries();
 					updateButtonIcons();
 				}
 			} else if (TrackerAction.FILTER_ASSETS.name().equals(e.getActionCommand())) {
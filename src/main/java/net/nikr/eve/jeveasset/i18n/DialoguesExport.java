@@ -68,6 +68,7 @@ public abstract class DialoguesExport extends Bundle {
 	public abstract String savedFilter();
 	public abstract String semicolon();
 	public abstract String sql();
+	public abstract String sqlite();
 	public abstract String tableName();
 	public abstract String viewCurrent();
 	public abstract String viewNoSaved();
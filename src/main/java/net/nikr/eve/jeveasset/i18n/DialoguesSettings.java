@@ -41,6 +41,10 @@ public abstract class DialoguesSettings extends Bundle {
 	// used in GeneralSettingsPanel
 	public abstract String general();
 	public abstract String enterFilter();
+	public abstract String filterIndex();
+	public abstract String filterIndexToolTip();
+	public abstract String profileSnapshot();
+	public abstract String profileSnapshotToolTip();
 	public abstract String highlightSelectedRow();
 	public abstract String focusEveOnline();
 	public abstract String focusEveOnlineLinuxCmd();
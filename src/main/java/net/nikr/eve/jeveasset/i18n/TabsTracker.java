@@ -53,6 +53,7 @@ public abstract class TabsTracker extends Bundle {
 	public abstract String delete();
 	public abstract String deleteSelected();
 	public abstract String division(String id);
+	public abstract String downsample();
 	public abstract String edit();
 	public abstract String empty();
 	public abstract String enterNewValue();
@@ -92,6 +93,10 @@ public abstract class TabsTracker extends Bundle {
 	public abstract String other();
 	public abstract String quickDate();
 	public abstract String reset();
+	public abstract String resolutionAll();
+	public abstract String resolutionDay();
+	public abstract String resolutionMonth();
+	public abstract String resolutionWeek();
 	public abstract String search();
 	public abstract String scaleLinear();
 	public abstract String scaleLogarithmic();
@@ -23,6 +23,7 @@ package net.nikr.eve.jeveasset.io.esi;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
@@ -78,6 +80,16 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	protected static final int UNIVERSE_BATCH_SIZE = 100;
 	protected static final int LOCATIONS_BATCH_SIZE = 100;
 	protected static final int DEFAULT_RETRIES = 3;
+	/**
+	 * Max concurrent requests per endpoint (TaskType)
+	 */
+	private static final int ENDPOINT_PERMITS = 20;
+	/**
+	 * Requests are paced when the errors left drops below this value
+	 */
+	private static final int PACE_ERROR_LIMIT = 50;
+	private static final Map<TaskType, Semaphore> ENDPOINT_LIMITS = new EnumMap<>(TaskType.class);
+	private static final Semaphore UNKNOWN_LIMIT = new Semaphore(ENDPOINT_PERMITS, true);
 	/**
 	 * Errors left in in this error limit time frame (can be null)
 	 */
@@ -86,6 +98,10 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	 * Date when the error limit will be reset (never null)
 	 */
 	private static Date errorReset = new Date();
+	/**
+	 * Time when the next request is allowed, when pacing requests
+	 */
+	private static long nextRequest = 0;
 
 
 	public AbstractEsiGetter(UpdateTask updateTask, EsiOwner owner, boolean forceUpdate, Date nextUpdate, TaskType taskType) {
@@ -162,9 +178,22 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 	private <R> R updateApi(Updater<ApiResponse<R>, ApiException> updater, int retries) throws ApiException {
 		checkErrors(); //Update timeframe as needed
+		pace(); //Spread the remaining errors over the timeframe
 		checkCancelled();
 		try {
-			ApiResponse<R> apiResponse = updater.update();
+			ApiResponse<R> apiResponse;
+			Semaphore semaphore = getEndpointLimit(getTaskType());
+			try {
+				semaphore.acquire();
+			} catch (InterruptedException ex) { //Cancelled while waiting for a permit: give up
+				Thread.currentThread().interrupt();
+				throw new TaskCancelledException();
+			}
+			try {
+				apiResponse = updater.update();
+			} finally {
+				semaphore.release();
+			}
 			if (apiResponse == null) {
 				return null;
 			}
@@ -253,6 +282,44 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		}
 	}
 
+	private synchronized static Semaphore getEndpointLimit(TaskType taskType) {
+		if (taskType == null) {
+			return UNKNOWN_LIMIT;
+		}
+		Semaphore semaphore = ENDPOINT_LIMITS.get(taskType);
+		if (semaphore == null) {
+			semaphore = new Semaphore(ENDPOINT_PERMITS, true);
+			ENDPOINT_LIMITS.put(taskType, semaphore);
+		}
+		return semaphore;
+	}
+
+	/**
+	 * Token bucket: When the error limit is getting low,
+	 * the remaining errors are spread evenly over the rest of the error timeframe,
+	 * instead of running into the hard wait in checkErrors()
+	 */
+	private static void pace() {
+		long wait;
+		synchronized (AbstractEsiGetter.class) {
+			if (errorLimit == null || errorLimit >= PACE_ERROR_LIMIT) {
+				return; //No need to pace
+			}
+			long now = System.currentTimeMillis();
+			long interval = Math.max(0, errorReset.getTime() - now) / Math.max(1, errorLimit);
+			long slot = Math.max(now, nextRequest);
+			nextRequest = slot + interval;
+			wait = slot - now;
+		}
+		if (wait > 0) {
+			try {
+				Thread.sleep(wait); //Sleep outside the lock
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt(); //Keep the interrupt for the caller
+			}
+		}
+	}
+
 	public MarketApi getMarketApiAuth() {
 		return owner.getMarketApiAuth();
  	}
@@ -557,51 +624,161 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	}
 
 	protected <K> List<K> updatePages(int maxRetries, EsiPagesHandler<K> handler) throws ApiException {
-		List<K> values = new ArrayList<>();
+		return updatePages(maxRetries, handler, new EsiPageConverter<K, K>() {
+			@Override
+			public List<K> convert(List<K> page) {
+				return page;
+			}
+		});
+	}
+
+	/**
+	 * Update pages and convert each page as soon as it arrives.
+	 * The raw responses of a page can be released once it has been converted,
+	 * and the conversion of one page overlap with the download of the others.
+	 * @param <K> raw response type
+	 * @param <V> converted type
+	 * @param maxRetries max retries
+	 * @param handler the request
+	 * @param converter page converter (called from the sub threads)
+	 * @return the converted values, in page order
+	 * @throws ApiException
+	 */
+	protected <K, V> List<V> updatePages(int maxRetries, EsiPagesHandler<K> handler, EsiPageConverter<K, V> converter) throws ApiException {
+		List<V> values = new ArrayList<>();
 		EsiPageUpdater<K> pageUpdater = new EsiPageUpdater<>(handler, 1, "1 of ?", maxRetries);
 		List<K> returnValue = updateApi(pageUpdater);
-		if (returnValue != null) {
-			values.addAll(returnValue);
+		Integer pages = getHeaderInteger(pageUpdater.getHeaders(), "x-pages"); //Get pages header
+		if (pages == null || pages <= 1) { //Only one page
+			if (returnValue != null) {
+				values.addAll(converter.convert(returnValue));
+			}
+			return values;
 		}
-		Integer pages = getHeaderInteger(pageUpdater.getResponse().getHeaders(), "x-pages"); //Get pages header
+		List<EsiPageConverterUpdater<K, V>> updaters = new ArrayList<>();
+		updaters.add(new EsiPageConverterUpdater<>(returnValue, converter)); //Convert page 1 while the remaining pages are downloaded
+		returnValue = null; //Page 1 is only referenced by the converter (released when converted)
 		int count = 2;
-		if (pages != null && pages > 1) { //More than one page
-			List<EsiPageUpdater<K>> updaters = new ArrayList<>();
-			for (int i = 2; i <= pages; i++) { //Get the remaining pages (we already got page 1 so we start at page 2
-				updaters.add(new EsiPageUpdater<>(handler, i, count + " of " + pages, maxRetries));
-				count++;
-			}
-			LOG.info("Starting " + updaters.size() + " pages threads");
-			try {
-				List<Future<List<K>>> futures = startSubThreads(updaters);
-				for (Future<List<K>> future : futures) {
-					if (future.isDone()) {
-						returnValue = future.get(); //Get data from ESI
-						if (returnValue != null) {
-							values.addAll(returnValue);
-						}
+		for (int i = 2; i <= pages; i++) { //Get the remaining pages (we already got page 1 so we start at page 2
+			updaters.add(new EsiPageConverterUpdater<>(handler, i, count + " of " + pages, maxRetries, converter));
+			count++;
+		}
+		LOG.info("Starting " + (updaters.size() - 1) + " pages threads");
+		try {
+			List<Future<List<V>>> futures = startSubThreads(updaters);
+			for (Future<List<V>> future : futures) {
+				if (future.isDone()) {
+					List<V> converted = future.get(); //Get converted data
+					if (converted != null) {
+						values.addAll(converted);
 					}
 				}
-			} catch (InterruptedException ex) {
-				throw new RuntimeException(ex);
-			} catch (ExecutionException ex) {
-				ThreadWoker.throwExecutionException(ApiException.class, ex);
 			}
+		} catch (InterruptedException ex) {
+			throw new RuntimeException(ex);
+		} catch (ExecutionException ex) {
+			ThreadWoker.throwExecutionException(ApiException.class, ex);
 		}
 		return values;
 	}
 
+	public interface EsiPageConverter<K, V> {
+		public List<V> convert(List<K> page);
+	}
+
+	private class EsiPageConverterUpdater<K, V> implements Callable<List<V>> {
+
+		private final EsiPagesHandler<K> handler;
+		private final int page;
+		private final String status;
+		private final int maxRetries;
+		private final EsiPageConverter<K, V> converter;
+		private List<K> response;
+
+		public EsiPageConverterUpdater(List<K> response, EsiPageConverter<K, V> converter) {
+			this(null, 1, null, 0, converter);
+			this.response = response;
+		}
+
+		public EsiPageConverterUpdater(EsiPagesHandler<K> handler, int page, String status, int maxRetries, EsiPageConverter<K, V> converter) {
+			this.handler = handler;
+			this.page = page;
+			this.status = status;
+			this.maxRetries = maxRetries;
+			this.converter = converter;
+		}
+
+		@Override
+		public List<V> call() throws Exception {
+			List<K> values = response;
+			response = null; //Release the raw page
+			if (handler != null) {
+				values = updateApi(new EsiPageUpdater<>(handler, page, status, maxRetries));
+			}
+			if (values == null) {
+				return null;
+			}
+			return converter.convert(values);
+		}
+	}
+
 	public interface EsiPagesHandler<K> {
 		public ApiResponse<List<K>> get(Integer page) throws ApiException;
 	}
 
+	/**
+	 * Update pages with conditional requests (see EsiCache)
+	 * @param <K> raw response type
+	 * @param cacheKey endpoint+params+owner
+	 * @param maxRetries max retries
+	 * @param handler the request (must send ifNoneMatch as If-None-Match)
+	 * @return the updated and/or cached raw responses
+	 * @throws ApiException
+	 */
+	protected <K> List<K> updatePages(final String cacheKey, int maxRetries, final EsiCachedPagesHandler<K> handler) throws ApiException {
+		return updatePages(maxRetries, toPagesHandler(cacheKey, handler));
+	}
+
+	/**
+	 * Update pages with conditional requests (see EsiCache) and convert each page as soon as it arrives
+	 * @param <K> raw response type
+	 * @param <V> converted type
+	 * @param cacheKey endpoint+params+owner
+	 * @param maxRetries max retries
+	 * @param handler the request (must send ifNoneMatch as If-None-Match)
+	 * @param converter page converter (called from the sub threads)
+	 * @return the converted values, in page order
+	 * @throws ApiException
+	 */
+	protected <K, V> List<V> updatePages(final String cacheKey, int maxRetries, final EsiCachedPagesHandler<K> handler, EsiPageConverter<K, V> converter) throws ApiException {
+		return updatePages(maxRetries, toPagesHandler(cacheKey, handler), converter);
+	}
+
+	private <K> EsiPagesHandler<K> toPagesHandler(final String cacheKey, final EsiCachedPagesHandler<K> handler) {
+		return new EsiPagesHandler<K>() {
+			@Override
+			public ApiResponse<List<K>> get(final Integer page) throws ApiException {
+				return EsiCache.get().get(cacheKey + "-" + page, new EsiCache.CachedPage<K>() {
+					@Override
+					public ApiResponse<List<K>> get(String ifNoneMatch) throws ApiException {
+						return handler.get(page, ifNoneMatch);
+					}
+				});
+			}
+		};
+	}
+
+	public interface EsiCachedPagesHandler<K> {
+		public ApiResponse<List<K>> get(Integer page, String ifNoneMatch) throws ApiException;
+	}
+
 	public class EsiPageUpdater<T> implements Callable<List<T>>, Updater<ApiResponse<List<T>>, ApiException> {
 
 		private final EsiPagesHandler<T> handler;
 		private final int page;
 		private final String status;
 		private final int maxRetries;
-		private ApiResponse<List<T>> response;
+		private Map<String, List<String>> headers;
 
 		public EsiPageUpdater(EsiPagesHandler<T> handler, int page, String status, int maxRetries) {
 			this.handler = handler;
@@ -612,7 +789,8 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 		@Override
 		public ApiResponse<List<T>> update() throws ApiException {
-			response = handler.get(page);
+			ApiResponse<List<T>> response = handler.get(page);
+			headers = response != null ? response.getHeaders() : null; //Only keep the headers: the data is returned
 			return response;
 		}
 
@@ -621,8 +799,8 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 			return updateApi(this);
 		}
 
-		public ApiResponse<List<T>> getResponse() {
-			return response;
+		public Map<String, List<String>> getHeaders() {
+			return headers;
 		}
 
 		@Override
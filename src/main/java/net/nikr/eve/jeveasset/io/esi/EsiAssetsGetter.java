@@ -22,6 +22,7 @@ package net.nikr.eve.jeveasset.io.esi;
 
 import java.util.Date;
 import java.util.List;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import net.troja.eve.esi.ApiException;
@@ -39,31 +40,41 @@ public class EsiAssetsGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		if (owner.isCorporation()) {
-			List<CorporationAssetsResponse> responses = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CorporationAssetsResponse>() {
+			List<RawAsset> rawAssets = updatePages("corporation-assets-" + owner.getOwnerID(), DEFAULT_RETRIES, new EsiCachedPagesHandler<CorporationAssetsResponse>() {
 				@Override
-				public ApiResponse<List<CorporationAssetsResponse>> get(Integer page) throws ApiException {
-					ApiResponse<List<CorporationAssetsResponse>> apiResponse = getAssetsApiAuth().getCorporationsCorporationIdAssetsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
+				public ApiResponse<List<CorporationAssetsResponse>> get(Integer page, String ifNoneMatch) throws ApiException {
+					ApiResponse<List<CorporationAssetsResponse>> apiResponse = getAssetsApiAuth().getCorporationsCorporationIdAssetsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, ifNoneMatch, page, null);
 					Date modified = getHeaderDate(apiResponse.getHeaders(), "last-modified");
 					if (modified != null && (owner.getAssetLastUpdate() == null || modified.after(owner.getAssetLastUpdate()))) {
 						owner.setAssetLastUpdate(modified);
 					}
 					return apiResponse;
 				}
+			}, new EsiPageConverter<CorporationAssetsResponse, RawAsset>() {
+				@Override
+				public List<RawAsset> convert(List<CorporationAssetsResponse> page) {
+					return EsiConverter.toRawAssetsCorporation(page);
+				}
 			});
-			owner.setAssets(EsiConverter.toAssetsCorporation(responses, owner));
+			owner.setAssets(EsiConverter.convertRawAssets(rawAssets, owner));
 		} else {
-			List<CharacterAssetsResponse> responses = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CharacterAssetsResponse>() {
+			List<RawAsset> rawAssets = updatePages("character-assets-" + owner.getOwnerID(), DEFAULT_RETRIES, new EsiCachedPagesHandler<CharacterAssetsResponse>() {
 				@Override
-				public ApiResponse<List<CharacterAssetsResponse>> get(Integer page) throws ApiException {
-					ApiResponse<List<CharacterAssetsResponse>> apiResponse = getAssetsApiAuth().getCharactersCharacterIdAssetsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
+				public ApiResponse<List<CharacterAssetsResponse>> get(Integer page, String ifNoneMatch) throws ApiException {
+					ApiResponse<List<CharacterAssetsResponse>> apiResponse = getAssetsApiAuth().getCharactersCharacterIdAssetsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, ifNoneMatch, page, null);
 					Date modified = getHeaderDate(apiResponse.getHeaders(), "last-modified");
 					if (modified != null && (owner.getAssetLastUpdate() == null || modified.after(owner.getAssetLastUpdate()))) {
 						owner.setAssetLastUpdate(modified);
 					}
 					return apiResponse;
 				}
+			}, new EsiPageConverter<CharacterAssetsResponse, RawAsset>() {
+				@Override
+				public List<RawAsset> convert(List<CharacterAssetsResponse> page) {
+					return EsiConverter.toRawAssets(page);
+				}
 			});
-			owner.setAssets(EsiConverter.toAssets(responses, owner));
+			owner.setAssets(EsiConverter.convertRawAssets(rawAssets, owner));
 		}
 	}
 
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import net.troja.eve.esi.ApiException;
+import net.troja.eve.esi.ApiResponse;
+import net.troja.eve.esi.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Conditional request cache for paged ESI endpoints.
+ * The etag and the raw response objects of every page are saved to disk (keyed by endpoint+params+owner+page).
+ * The etag is sent as If-None-Match and the cached raw objects are returned when ESI respond 304 Not Modified.
+ * Only the etag and page count are kept in memory: the raw objects are read from disk when needed,
+ * so a page can be released as soon as it has been converted.
+ */
+public class EsiCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiCache.class);
+
+	public static final int NOT_MODIFIED = 304;
+	private static final long MAX_AGE = 30L * 24L * 60L * 60L * 1000L; //30 days
+	private static final String FILE_SUFFIX = ".json.gz";
+	private static final String PAGES_HEADER = "x-pages";
+
+	private static EsiCache esiCache;
+
+	private final File directory;
+	private final JSON json;
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	EsiCache(File directory, JSON json) {
+		this.directory = directory;
+		this.json = json;
+	}
+
+	public static synchronized EsiCache get() {
+		if (esiCache == null) {
+			esiCache = new EsiCache(new File(FileUtil.getPathEsiCacheDirectory()), new JSON());
+			esiCache.prune();
+		}
+		return esiCache;
+	}
+
+	public interface CachedPage<K> {
+		public ApiResponse<List<K>> get(String ifNoneMatch) throws ApiException;
+	}
+
+	/**
+	 * Do a conditional request.
+	 * @param <K> raw response type
+	 * @param key endpoint+params+owner+page
+	 * @param request the request
+	 * @return the response or a response with the cached data and status code 304
+	 * @throws ApiException
+	 */
+	public <K> ApiResponse<List<K>> get(String key, CachedPage<K> request) throws ApiException {
+		Entry entry = getEntry(key);
+		if (entry.getEtag() == null) {
+			return update(key, request.get(null));
+		}
+		ApiResponse<List<K>> response;
+		try {
+			response = request.get(entry.getEtag());
+		} catch (ApiException ex) {
+			if (ex.getCode() != NOT_MODIFIED) {
+				throw ex;
+			}
+			return notModified(key, entry, ex.getResponseHeaders(), request);
+		}
+		if (response.getStatusCode() == NOT_MODIFIED) {
+			return notModified(key, entry, response.getHeaders(), request);
+		}
+		return update(key, response);
+	}
+
+	private <K> ApiResponse<List<K>> notModified(String key, Entry entry, Map<String, List<String>> headers, CachedPage<K> request) throws ApiException {
+		List<K> data = load(key, entry);
+		if (data == null) { //Cache broken: do an unconditional request
+			remove(key);
+			return update(key, request.get(null));
+		}
+		Map<String, List<String>> responseHeaders = new HashMap<>();
+		if (headers != null) {
+			responseHeaders.putAll(headers);
+		}
+		//Page count is needed by updatePages, even if ESI does not include it in the 304 response
+		if (getHeader(responseHeaders, PAGES_HEADER) == null && entry.getPages() != null) {
+			responseHeaders.put(PAGES_HEADER, Collections.singletonList(entry.getPages()));
+		}
+		return new ApiResponse<>(NOT_MODIFIED, responseHeaders, data);
+	}
+
+	private <K> ApiResponse<List<K>> update(String key, ApiResponse<List<K>> response) {
+		if (response == null) {
+			return null;
+		}
+		String etag = getHeader(response.getHeaders(), "etag");
+		if (etag == null || response.getData() == null) {
+			remove(key);
+		} else {
+			save(key, etag, getHeader(response.getHeaders(), PAGES_HEADER), response.getData());
+		}
+		return response;
+	}
+
+	private synchronized Entry getEntry(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = readEntry(getFile(key));
+			entries.put(key, entry);
+		}
+		return entry;
+	}
+
+	private synchronized void remove(String key) {
+		entries.put(key, new Entry(null, null));
+		File file = getFile(key);
+		if (file.exists() && !file.delete()) {
+			LOG.warn("Failed to delete: " + file.getAbsolutePath());
+		}
+	}
+
+	private <K> void save(String key, String etag, String pages, List<K> data) {
+		File tempFile = null;
+		try {
+			if (!directory.exists() && !directory.mkdirs()) {
+				throw new IOException("Failed to create: " + directory.getAbsolutePath());
+			}
+			tempFile = File.createTempFile("esi", ".tmp", directory);
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)), StandardCharsets.UTF_8))) {
+				writer.write(etag);
+				writer.write('\n');
+				writer.write(pages != null ? pages : "");
+				writer.write('\n');
+				writer.write(data.isEmpty() ? "" : data.get(0).getClass().getName());
+				writer.write('\n');
+				writer.write(json.serialize(data));
+			}
+			synchronized (this) {
+				Files.move(tempFile.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+				entries.put(key, new Entry(etag, pages));
+			}
+		} catch (IOException ex) {
+			LOG.warn("Failed to save ESI cache: " + ex.getMessage(), ex);
+			if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+				LOG.warn("Failed to delete: " + tempFile.getAbsolutePath());
+			}
+			remove(key);
+		}
+	}
+
+	private <K> List<K> load(String key, Entry entry) {
+		File file = getFile(key);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			String etag = reader.readLine();
+			reader.readLine(); //Pages
+			String className = reader.readLine();
+			String body = reader.readLine();
+			if (etag == null || !etag.equals(entry.getEtag()) || className == null) {
+				return null;
+			}
+			if (className.isEmpty()) {
+				return new ArrayList<>();
+			} else {
+				Type type = TypeToken.getParameterized(List.class, Class.forName(className)).getType();
+				return json.deserialize(body, type);
+			}
+		} catch (IOException | ClassNotFoundException | RuntimeException ex) {
+			LOG.warn("Failed to load ESI cache: " + ex.getMessage(), ex);
+			return null;
+		}
+	}
+
+	private Entry readEntry(File file) {
+		if (!file.exists()) {
+			return new Entry(null, null);
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			String etag = reader.readLine();
+			String pages = reader.readLine();
+			if (etag == null || etag.isEmpty() || pages == null) {
+				return new Entry(null, null);
+			}
+			return new Entry(etag, pages.isEmpty() ? null : pages);
+		} catch (IOException ex) {
+			LOG.warn("Failed to read ESI cache: " + ex.getMessage(), ex);
+			return new Entry(null, null);
+		}
+	}
+
+	/**
+	 * Delete pages that have not been updated for a while (removed owners, regions, etc.)
+	 */
+	private void prune() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long oldest = System.currentTimeMillis() - MAX_AGE;
+		for (File file : files) {
+			if (file.isFile() && file.lastModified() < oldest && !file.delete()) {
+				LOG.warn("Failed to delete: " + file.getAbsolutePath());
+			}
+		}
+	}
+
+	private File getFile(String key) {
+		return new File(directory, key.replaceAll("[^A-Za-z0-9_-]", "_") + FILE_SUFFIX);
+	}
+
+	private static String getHeader(Map<String, List<String>> headers, String headerName) {
+		if (headers == null) {
+			return null;
+		}
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			if (headerName.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+				return entry.getValue().get(0);
+			}
+		}
+		return null;
+	}
+
+	private static class Entry {
+		private final String etag;
+		private final String pages;
+
+		public Entry(String etag, String pages) {
+			this.etag = etag;
+			this.pages = pages;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		public String getPages() {
+			return pages;
+		}
+	}
+}
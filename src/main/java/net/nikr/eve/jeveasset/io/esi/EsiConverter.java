@@ -101,19 +101,27 @@ public class EsiConverter extends DataConverter {
 	}
 
 	public static List<MyAsset> toAssets(List<CharacterAssetsResponse> responses, OwnerType owner) {
-		List<RawAsset> rawAssets = new ArrayList<>();
+		return convertRawAssets(toRawAssets(responses), owner);
+	}
+
+	public static List<MyAsset> toAssetsCorporation(List<CorporationAssetsResponse> responses, OwnerType owner) {
+		return convertRawAssets(toRawAssetsCorporation(responses), owner);
+	}
+
+	public static List<RawAsset> toRawAssets(List<CharacterAssetsResponse> responses) {
+		List<RawAsset> rawAssets = new ArrayList<>(responses.size());
 		for (CharacterAssetsResponse response : responses) {
 			rawAssets.add(new RawAsset(response));
 		}
-		return convertRawAssets(rawAssets, owner);
+		return rawAssets;
 	}
 
-	public static List<MyAsset> toAssetsCorporation(List<CorporationAssetsResponse> responses, OwnerType owner) {
-		List<RawAsset> rawAssets = new ArrayList<>();
+	public static List<RawAsset> toRawAssetsCorporation(List<CorporationAssetsResponse> responses) {
+		List<RawAsset> rawAssets = new ArrayList<>(responses.size());
 		for (CorporationAssetsResponse response : responses) {
 			rawAssets.add(new RawAsset(response));
 		}
-		return convertRawAssets(rawAssets, owner);
+		return rawAssets;
 	}
 
 	public static MyAsset toAssetsShip(CharacterShipResponse shipType, CharacterLocationResponse shipLocation, OwnerType owner) {
@@ -162,19 +170,27 @@ public class EsiConverter extends DataConverter {
 	}
 
 	public static Set<MyJournal> toJournals(List<CharacterWalletJournalResponse> responses, OwnerType owner, Integer accountKey, boolean saveHistory) {
-		List<RawJournal> rawJournals = new ArrayList<>();
+		return convertRawJournals(toRawJournals(responses, accountKey), owner, saveHistory);
+	}
+
+	public static Set<MyJournal> toJournalsCorporation(List<CorporationWalletJournalResponse> responses, OwnerType owner, Integer accountKey, boolean saveHistory) {
+		return convertRawJournals(toRawJournalsCorporation(responses, accountKey), owner, saveHistory);
+	}
+
+	public static List<RawJournal> toRawJournals(List<CharacterWalletJournalResponse> responses, Integer accountKey) {
+		List<RawJournal> rawJournals = new ArrayList<>(responses.size());
 		for (CharacterWalletJournalResponse response : responses) {
 			rawJournals.add(new RawJournal(response, accountKey));
 		}
-		return convertRawJournals(rawJournals, owner, saveHistory);
+		return rawJournals;
 	}
 
-	public static Set<MyJournal> toJournalsCorporation(List<CorporationWalletJournalResponse> responses, OwnerType owner, Integer accountKey, boolean saveHistory) {
-		List<RawJournal> rawJournals = new ArrayList<>();
+	public static List<RawJournal> toRawJournalsCorporation(List<CorporationWalletJournalResponse> responses, Integer accountKey) {
+		List<RawJournal> rawJournals = new ArrayList<>(responses.size());
 		for (CorporationWalletJournalResponse response : responses) {
 			rawJournals.add(new RawJournal(response, accountKey));
 		}
-		return convertRawJournals(rawJournals, owner, saveHistory);
+		return rawJournals;
 	}
 
 	public static Map<MyContract, List<MyContractItem>> toContracts(List<CharacterContractsResponse> responses, OwnerType owner, boolean saveHistory) {
@@ -272,9 +288,20 @@ public class EsiConverter extends DataConverter {
 	}
 
 	public static Map<Integer, Set<RawPublicMarketOrder>> toPublicMarketOrders(List<MarketOrdersResponse> responses) {
-		Map<Integer, Set<RawPublicMarketOrder>> marketOrders = new HashMap<>();
+		return groupPublicMarketOrders(toRawPublicMarketOrders(responses));
+	}
+
+	public static List<RawPublicMarketOrder> toRawPublicMarketOrders(List<MarketOrdersResponse> responses) {
+		List<RawPublicMarketOrder> marketOrders = new ArrayList<>(responses.size());
 		for (MarketOrdersResponse response : responses) {
-			RawPublicMarketOrder marketOrder = new RawPublicMarketOrder(response);
+			marketOrders.add(new RawPublicMarketOrder(response));
+		}
+		return marketOrders;
+	}
+
+	public static Map<Integer, Set<RawPublicMarketOrder>> groupPublicMarketOrders(List<RawPublicMarketOrder> rawMarketOrders) {
+		Map<Integer, Set<RawPublicMarketOrder>> marketOrders = new HashMap<>();
+		for (RawPublicMarketOrder marketOrder : rawMarketOrders) {
 			Set<RawPublicMarketOrder> set = marketOrders.get(marketOrder.getTypeID());
 			if (set == null) {
 				set = new HashSet<>();
@@ -22,6 +22,7 @@ package net.nikr.eve.jeveasset.io.esi;
 
 import java.util.Date;
 import java.util.List;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import net.troja.eve.esi.ApiException;
@@ -45,23 +46,33 @@ public class EsiJournalGetter extends AbstractEsiGetter {
 		if (owner.isCorporation()) {
 			for (int i = 1; i < 8; i++) { //Division 1-7
 				final int division = i;
-				List<CorporationWalletJournalResponse> journals = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CorporationWalletJournalResponse>() {
+				final int fixedDivision = division + 999;
+				List<RawJournal> journals = updatePages("corporation-journal-" + owner.getOwnerID() + "-" + division, DEFAULT_RETRIES, new EsiCachedPagesHandler<CorporationWalletJournalResponse>() {
 					@Override
-					public ApiResponse<List<CorporationWalletJournalResponse>> get(Integer page) throws ApiException {
-						return getWalletApiAuth().getCorporationsCorporationIdWalletsDivisionJournalWithHttpInfo((int) owner.getOwnerID(), division, DATASOURCE, null, page, null);
+					public ApiResponse<List<CorporationWalletJournalResponse>> get(Integer page, String ifNoneMatch) throws ApiException {
+						return getWalletApiAuth().getCorporationsCorporationIdWalletsDivisionJournalWithHttpInfo((int) owner.getOwnerID(), division, DATASOURCE, ifNoneMatch, page, null);
+					}
+				}, new EsiPageConverter<CorporationWalletJournalResponse, RawJournal>() {
+					@Override
+					public List<RawJournal> convert(List<CorporationWalletJournalResponse> page) {
+						return EsiConverter.toRawJournalsCorporation(page, fixedDivision);
 					}
 				});
-				int fixedDivision = division + 999;
-				owner.setJournal(EsiConverter.toJournalsCorporation(journals, owner, fixedDivision, saveHistory));
+				owner.setJournal(EsiConverter.convertRawJournals(journals, owner, saveHistory));
 			}
 		} else {
-			List<CharacterWalletJournalResponse> journals = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CharacterWalletJournalResponse>() {
+			List<RawJournal> journals = updatePages("character-journal-" + owner.getOwnerID(), DEFAULT_RETRIES, new EsiCachedPagesHandler<CharacterWalletJournalResponse>() {
+				@Override
+				public ApiResponse<List<CharacterWalletJournalResponse>> get(Integer page, String ifNoneMatch) throws ApiException {
+					return getWalletApiAuth().getCharactersCharacterIdWalletJournalWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, ifNoneMatch, page, null);
+				}
+			}, new EsiPageConverter<CharacterWalletJournalResponse, RawJournal>() {
 				@Override
-				public ApiResponse<List<CharacterWalletJournalResponse>> get(Integer page) throws ApiException {
-					return getWalletApiAuth().getCharactersCharacterIdWalletJournalWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
+				public List<RawJournal> convert(List<CharacterWalletJournalResponse> page) {
+					return EsiConverter.toRawJournals(page, 1000);
 				}
 			});
-			owner.setJournal(EsiConverter.toJournals(journals, owner, 1000, saveHistory));
+			owner.setJournal(EsiConverter.convertRawJournals(journals, owner, saveHistory));
 		}
 	}
 
@@ -77,14 +77,14 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 		AtomicInteger count = new AtomicInteger(0);
 		//Update public market orders
 		publicMarketOrders = true;
-		List<MarketOrdersResponse> responses = updatePagedList(input.getRegionIDs(), new PagedListHandler<Integer, MarketOrdersResponse>() {
+		List<RawPublicMarketOrder> rawOrders = updatePagedList(input.getRegionIDs(), new PagedListHandler<Integer, RawPublicMarketOrder>() {
 			@Override
-			protected List<MarketOrdersResponse> get(Integer k) throws ApiException {
+			protected List<RawPublicMarketOrder> get(Integer k) throws ApiException {
 				try {
-					return updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketOrdersResponse>() {
+					return updatePages("region-orders-" + k, DEFAULT_RETRIES, new EsiCachedPagesHandler<MarketOrdersResponse>() {
 						@Override
-						public ApiResponse<List<MarketOrdersResponse>> get(Integer page) throws ApiException {
-							ApiResponse<List<MarketOrdersResponse>> response = getMarketApiOpen().getMarketsRegionIdOrdersWithHttpInfo("all", k, DATASOURCE, null, page, null);
+						public ApiResponse<List<MarketOrdersResponse>> get(Integer page, String ifNoneMatch) throws ApiException {
+							ApiResponse<List<MarketOrdersResponse>> response = getMarketApiOpen().getMarketsRegionIdOrdersWithHttpInfo("all", k, DATASOURCE, ifNoneMatch, page, null);
 							String header = getHeader(response.getHeaders(), "last-modified");
 							if (header != null) {
 								Date date = Formatter.parseExpireDate(header);
@@ -96,6 +96,11 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 							}
 							return response;
 						}
+					}, new EsiPageConverter<MarketOrdersResponse, RawPublicMarketOrder>() {
+						@Override
+						public List<RawPublicMarketOrder> convert(List<MarketOrdersResponse> page) {
+							return EsiConverter.toRawPublicMarketOrders(page);
+						}
 					});
 				} finally {
 					setProgressAll(input.getRegionIDs().size(), count.incrementAndGet(), 0, 40);
@@ -106,15 +111,15 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 			addError("last-modified changed while updating", "Cache expired while updating");
 		}
 		publicMarketOrders = false;
-		Map<Integer, Set<RawPublicMarketOrder>> orders = EsiConverter.toPublicMarketOrders(responses);
-		for (MarketOrdersResponse ordersResponse : responses) {
+		for (RawPublicMarketOrder rawOrder : rawOrders) {
 			//Find leaking market structures
-			if (ordersResponse.getLocationId() > 100000000) {
-				input.getStructureIDs().add(ordersResponse.getLocationId());
+			if (rawOrder.getLocationID() > 100000000) {
+				input.getStructureIDs().add(rawOrder.getLocationID());
 			}
 			//Map known locationID <=> systemID
-			input.getLocationToSystem().put(ordersResponse.getLocationId(), RawConverter.toLong(ordersResponse.getSystemId()));
+			input.getLocationToSystem().put(rawOrder.getLocationID(), RawConverter.toLong(rawOrder.getSystemID()));
 		}
+		Map<Integer, Set<RawPublicMarketOrder>> orders = EsiConverter.groupPublicMarketOrders(rawOrders);
 		//Get public structures
 		input.getStructureIDs().addAll(update(DEFAULT_RETRIES, new EsiHandler<List<Long>>() {
 			@Override
@@ -71,6 +71,15 @@ public abstract class AbstractBackup extends AttributeGetters {
 		return new File(filename.substring(0, filename.lastIndexOf(".")) + ".new");
 	}
 
+	/**
+	 * Binary cache of the XML file (only used by the profile).
+	 * @param filename XML file
+	 * @return snapshot file
+	 */
+	protected File getSnapshotFile(final String filename) {
+		return new File(filename.substring(0, filename.lastIndexOf(".")) + ".bin");
+	}
+
 	private File getProgramBackup(final String filename) {
 		return new File(filename.substring(0, filename.lastIndexOf(".")) + "_" + Program.PROGRAM_VERSION.replace(" ", "_") + "_backup.zip");
 	}
@@ -138,7 +147,7 @@ public abstract class AbstractBackup extends AttributeGetters {
 		return file;
 	}
 
-	private boolean renameFile(File from, File to) {
+	protected boolean renameFile(File from, File to) {
 		if (!from.exists()) {
 			LOG.warn("Move failed: " + from.getName() + " does not exist");
 			return false;
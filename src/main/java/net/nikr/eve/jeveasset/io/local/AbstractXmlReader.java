@@ -21,9 +21,11 @@
 
 package net.nikr.eve.jeveasset.io.local;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -48,8 +50,7 @@ public abstract class AbstractXmlReader<T> extends AbstractBackup {
 			return doNotExistValue();
 		}
 		try {
-			Element element = getDocumentElement(filename, xmlType);
-			T t = parse(element);
+			T t = parseFile(filename, xmlType);
 			LOG.info(name+ " loaded");
 			return t;
 		} catch (IOException ex) {
@@ -75,6 +76,28 @@ public abstract class AbstractXmlReader<T> extends AbstractBackup {
 		}
 	}
 
+	/**
+	 * Parse the XML stream.
+	 * Default: build a DOM and call parse(Element).
+	 * Override to parse large files without building the whole DOM in memory.
+	 * @param is XML input stream
+	 * @return the parsed value
+	 * @throws XmlException if the XML is not valid
+	 * @throws IOException if the stream can not be read
+	 */
+	protected T parse(final InputStream is) throws XmlException, IOException {
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			Document doc = builder.parse(is);
+			return parse(doc.getDocumentElement());
+		} catch (SAXException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		} catch (ParserConfigurationException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		}
+	}
+
 	protected abstract T parse(Element element) throws XmlException;
 	protected abstract T failValue();
 	protected abstract T doNotExistValue();
@@ -84,26 +107,19 @@ public abstract class AbstractXmlReader<T> extends AbstractBackup {
 		updater.fixData();
 	}
 
-	private Element getDocumentElement(final String filename, final XmlType xmlType) throws XmlException, IOException {
-		FileInputStream is = null;
+	private T parseFile(final String filename, final XmlType xmlType) throws XmlException, IOException {
+		InputStream is = null;
 		try {
 			if (xmlType == XmlType.DYNAMIC || xmlType == XmlType.DYNAMIC_BACKUP) {
 				lock(filename);
 			}
 			File file = new File(filename);
-			is = new FileInputStream(file);
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			Document doc = builder.parse(is);
-			Element element = doc.getDocumentElement();
+			is = new BufferedInputStream(new FileInputStream(file));
+			T t = parse(is);
 			if (xmlType == XmlType.DYNAMIC_BACKUP) {
 				backup(filename);
 			}
-			return element;
-		} catch (SAXException ex) {
-			throw new XmlException(ex.getMessage(), ex);
-		} catch (ParserConfigurationException ex) {
-			throw new XmlException(ex.getMessage(), ex);
+			return t;
 		} finally {
 			if (is != null) {
 				is.close();
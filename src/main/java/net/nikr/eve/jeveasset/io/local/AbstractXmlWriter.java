@@ -22,12 +22,14 @@
 package net.nikr.eve.jeveasset.io.local;
 
 import java.awt.Color;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -43,6 +45,8 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -50,6 +54,8 @@ import org.w3c.dom.Element;
 
 public abstract class AbstractXmlWriter extends AbstractBackup {
 
+	private static final Logger LOG = LoggerFactory.getLogger(AbstractXmlWriter.class);
+
 	private static DocumentBuilderFactory factory = null;
 
 	protected Document getXmlDocument(final String rootname) throws XmlException {
@@ -77,6 +83,56 @@ public abstract class AbstractXmlWriter extends AbstractBackup {
 		writeXmlFile(doc, filename, "UTF-16", createBackup, false);
 	}
 
+	/**
+	 * Stream the XML directly to a buffered UTF-8 file.
+	 * Nothing is kept in memory, unlike the DOM based writeXmlFile(Document, ...)
+	 * @param filename file to write
+	 * @param rootname name of the document element
+	 * @param createBackup true to save to a .new file first and keep a .bac backup
+	 * @param content writes the content of the document element
+	 * @throws XmlException
+	 */
+	protected void writeXmlFile(final String filename, final String rootname, final boolean createBackup, final XmlContent content) throws XmlException {
+		File file;
+		if (createBackup) {
+			file = getNewFile(filename); //Save to .new file
+		} else {
+			file = new File(filename);
+		}
+		BufferedWriter writer = null;
+		boolean saved = false;
+		try {
+			lock(filename);
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+			IndentingXmlWriter xml = new IndentingXmlWriter(writer);
+			xml.startDocument("UTF-8", rootname);
+			content.write(xml);
+			xml.endDocument();
+			writer.close();
+			saved = true;
+		} catch (IOException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		} finally {
+			if (writer != null && !saved) {
+				try {
+					writer.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+			if (createBackup) {
+				if (saved) {
+					//Saving done - create backup and rename new file to target
+					backupFile(filename); //Rename .xml => .bac (.new is safe) and .new => .xml (.bac is safe). That way we always have at least one safe file
+				} else if (file.exists() && !file.delete()) {
+					//Only part of the file was written - keep the old file
+					LOG.warn("Failed to delete: " + file.getName());
+				}
+			}
+			unlock(filename); //Last thing to do
+		}
+	}
+
 	private void writeXmlFile(final Document doc, final String filename, final String encoding, boolean createBackup, boolean fitting) throws XmlException {
 		DOMSource source = new DOMSource(doc);
 		FileOutputStream outputStream = null;
@@ -149,6 +205,20 @@ public abstract class AbstractXmlWriter extends AbstractBackup {
 		node.setAttribute(qualifiedName, value);
 	}
 
+	protected void setAttribute(final XmlOutput node, final String qualifiedName, final Object value) {
+		node.setAttribute(qualifiedName, valueOf(value));
+	}
+
+	protected void setAttributeOptional(final XmlOutput node, final String qualifiedName, final Object value) {
+		if (value != null) {
+			node.setAttribute(qualifiedName, valueOf(value));
+		}
+	}
+
+	protected void setAttribute(final XmlOutput node, final String qualifiedName, final String value) {
+		node.setAttribute(qualifiedName, value);
+	}
+
 	private String valueOf(final Object object) {
 		if (object == null) {
 			throw new RuntimeException("Can't save null");
@@ -171,4 +241,8 @@ public abstract class AbstractXmlWriter extends AbstractBackup {
 			return String.valueOf(object);
 		}
 	}
+
+	protected interface XmlContent {
+		public void write(XmlOutput xml) throws IOException;
+	}
 }
@@ -36,7 +36,12 @@ import org.w3c.dom.NodeList;
 
 public class AttributeGetters {
 
-	private static final SimpleDateFormat FORMAT = new SimpleDateFormat("yyy-MM-dd HH:mm:ss");
+	private static final ThreadLocal<SimpleDateFormat> FORMAT = new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return new SimpleDateFormat("yyy-MM-dd HH:mm:ss");
+		}
+	}; //Readers may parse owners in parallel
 
 	protected AttributeGetters() { }
 
@@ -151,7 +156,7 @@ public class AttributeGetters {
 
 	private Date toDate(final String value, final Node node, final String attributeName) throws XmlException {
 		try {
-			return FORMAT.parse(value);
+			return FORMAT.get().parse(value);
 		} catch (ParseException ex) {
 			//Lets try one more thing
 		}
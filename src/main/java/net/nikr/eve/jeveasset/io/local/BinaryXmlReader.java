@@ -0,0 +1,311 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Reads the binary element tree written by BinaryXmlWriter.
+ * Elements above the record depth are read as events (next()),
+ * records are returned as bytes and decoded with decode(byte[]).
+ * Sections inside a record are not decoded: the section element is added empty
+ * with the section bytes available from getSection(Element), to be decoded with decodeSection(byte[]) when needed.
+ * All format errors are reported as IOException.
+ */
+class BinaryXmlReader {
+
+	private static final String SECTION = "section";
+
+	private final DataInputStream in;
+	private Element element;
+	private byte[] record;
+
+	public BinaryXmlReader(final InputStream in) {
+		this.in = new DataInputStream(in);
+	}
+
+	/**
+	 * Read and validate the header.
+	 * @param generation generation of the XML file
+	 * @return true if the snapshot is made with the current XML file
+	 * @throws IOException
+	 */
+	public boolean readHeader(final long generation) throws IOException {
+		if (in.readInt() != BinaryXmlWriter.MAGIC) {
+			throw new IOException("Not a snapshot file");
+		}
+		if (in.readInt() != BinaryXmlWriter.VERSION) {
+			return false;
+		}
+		return in.readLong() == generation;
+	}
+
+	/**
+	 * Read the next marker.
+	 * ELEMENT: the start element is available from getElement() (without children),
+	 * RECORD: the record bytes are available from getRecord(),
+	 * END: the current element ended.
+	 * @return BinaryXmlWriter.ELEMENT, BinaryXmlWriter.RECORD or BinaryXmlWriter.END
+	 * @throws IOException
+	 */
+	public byte next() throws IOException {
+		byte marker = in.readByte();
+		switch (marker) {
+			case BinaryXmlWriter.ELEMENT:
+				element = readStartElement(in, newDocument(), null); //No dictionary outside records
+				return marker;
+			case BinaryXmlWriter.RECORD:
+				int length = in.readInt();
+				if (length < 0) {
+					throw new IOException("Invalid record length: " + length);
+				}
+				record = new byte[length];
+				in.readFully(record);
+				return marker;
+			case BinaryXmlWriter.END:
+				return marker;
+			default:
+				throw new IOException("Invalid marker: " + marker);
+		}
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	public byte[] getRecord() {
+		return record;
+	}
+
+	/**
+	 * Read the children of the last element returned by next() (records are decoded).
+	 * @return the complete element
+	 * @throws IOException
+	 */
+	public Element readElement() throws IOException {
+		Element parent = element;
+		byte marker;
+		while ((marker = next()) != BinaryXmlWriter.END) {
+			Element child;
+			if (marker == BinaryXmlWriter.RECORD) {
+				child = decode(record);
+			} else {
+				child = readElement();
+			}
+			parent.appendChild(parent.getOwnerDocument().importNode(child, true));
+		}
+		element = parent;
+		return parent;
+	}
+
+	/**
+	 * Decode a record into a standalone element.
+	 * Records are independent, so they can be decoded by any thread.
+	 * @param record record bytes
+	 * @return the record element with all children (sections are not decoded)
+	 * @throws IOException
+	 */
+	public static Element decode(final byte[] record) throws IOException {
+		return decodeBlock(record);
+	}
+
+	/**
+	 * Decode a section into a standalone element.
+	 * @param section section bytes (see getSection(Element))
+	 * @return the section element with all children
+	 * @throws IOException
+	 */
+	public static Element decodeSection(final byte[] section) throws IOException {
+		return decodeBlock(section);
+	}
+
+	/**
+	 * @param element element
+	 * @return the bytes of the section, if the element is a section that has not been decoded, otherwise null
+	 */
+	public static byte[] getSection(final Element element) {
+		return (byte[]) element.getUserData(SECTION);
+	}
+
+	private static Element decodeBlock(final byte[] bytes) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+		Document doc = newDocument();
+		if (input.readByte() != BinaryXmlWriter.ELEMENT) {
+			throw new IOException("Invalid record");
+		}
+		Element root = readElement(input, doc, new ArrayList<String>());
+		doc.appendChild(root);
+		return root;
+	}
+
+	private static Element readElement(final DataInputStream input, final Document doc, final List<String> dictionary) throws IOException {
+		Element parent = readStartElement(input, doc, dictionary);
+		byte marker;
+		while ((marker = input.readByte()) != BinaryXmlWriter.END) {
+			switch (marker) {
+				case BinaryXmlWriter.ELEMENT:
+					parent.appendChild(readElement(input, doc, dictionary));
+					break;
+				case BinaryXmlWriter.TABLE:
+					readTable(input, doc, dictionary, parent);
+					break;
+				case BinaryXmlWriter.SECTION:
+					parent.appendChild(readSection(input, doc, dictionary));
+					break;
+				default:
+					throw new IOException("Invalid marker in record: " + marker);
+			}
+		}
+		return parent;
+	}
+
+	private static void readTable(final DataInputStream input, final Document doc, final List<String> dictionary, final Element parent) throws IOException {
+		String name = readString(input, input.readByte(), dictionary);
+		int rows = readVarInt(input);
+		int columns = readVarInt(input);
+		if (rows < 0 || rows > BinaryXmlWriter.TABLE_ROWS || columns < 0) {
+			throw new IOException("Invalid table size: " + rows + "x" + columns);
+		}
+		Element[] elements = new Element[rows];
+		for (int row = 0; row < rows; row++) {
+			elements[row] = doc.createElement(name);
+		}
+		for (int column = 0; column < columns; column++) {
+			String attribute = readString(input, input.readByte(), dictionary);
+			for (int row = 0; row < rows; row++) {
+				byte type = input.readByte();
+				if (type != BinaryXmlWriter.VALUE_NONE) {
+					elements[row].setAttribute(attribute, readValue(input, type, dictionary));
+				}
+			}
+		}
+		for (Element element : elements) {
+			parent.appendChild(element);
+		}
+	}
+
+	private static Element readSection(final DataInputStream input, final Document doc, final List<String> dictionary) throws IOException {
+		String name = readString(input, input.readByte(), dictionary);
+		int length = input.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid section length: " + length);
+		}
+		byte[] section = new byte[length];
+		input.readFully(section);
+		CRC32 crc = new CRC32();
+		crc.update(section);
+		if (input.readInt() != (int) crc.getValue()) {
+			throw new IOException("Invalid section checksum: " + name);
+		}
+		Element element = doc.createElement(name);
+		element.setUserData(SECTION, section, null);
+		return element;
+	}
+
+	private static Element readStartElement(final DataInputStream input, final Document doc, final List<String> dictionary) throws IOException {
+		Element node = doc.createElement(readString(input, input.readByte(), dictionary));
+		int attributes = readVarInt(input);
+		for (int i = 0; i < attributes; i++) {
+			String name = readString(input, input.readByte(), dictionary);
+			node.setAttribute(name, readValue(input, input.readByte(), dictionary));
+		}
+		return node;
+	}
+
+	private static String readValue(final DataInputStream input, final byte type, final List<String> dictionary) throws IOException {
+		switch (type) {
+			case BinaryXmlWriter.VALUE_LONG:
+				return String.valueOf(readVarLong(input));
+			case BinaryXmlWriter.VALUE_DOUBLE:
+				return String.valueOf(input.readDouble());
+			default:
+				return readString(input, type, dictionary);
+		}
+	}
+
+	private static String readString(final DataInputStream input, final byte type, final List<String> dictionary) throws IOException {
+		if (type == BinaryXmlWriter.VALUE_REFERENCE) {
+			int index = readVarInt(input);
+			if (dictionary == null || index < 0 || index >= dictionary.size()) {
+				throw new IOException("Invalid string reference: " + index);
+			}
+			return dictionary.get(index);
+		} else if (type == BinaryXmlWriter.VALUE_STRING) {
+			int length = readVarInt(input);
+			if (length < 0) {
+				throw new IOException("Invalid string length: " + length);
+			}
+			byte[] bytes = new byte[length];
+			input.readFully(bytes);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			if (dictionary != null) {
+				dictionary.add(value);
+			}
+			return value;
+		} else {
+			throw new IOException("Invalid value type: " + type);
+		}
+	}
+
+	private static int readVarInt(final DataInputStream input) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Invalid varint");
+	}
+
+	private static long readVarLong(final DataInputStream input) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (value >>> 1) ^ -(value & 1); //ZigZag
+			}
+		}
+		throw new IOException("Invalid varlong");
+	}
+
+	private static Document newDocument() throws IOException {
+		try {
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		} catch (ParserConfigurationException ex) {
+			throw new IOException(ex.getMessage(), ex);
+		}
+	}
+}
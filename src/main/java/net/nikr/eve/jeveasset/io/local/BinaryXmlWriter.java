@@ -0,0 +1,346 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary form of an element tree (see BinaryXmlReader).
+ * Elements at RECORD_DEPTH (the owners of a profile) are written as length-prefixed records,
+ * each with its own string dictionary, so they can be skipped or decoded independently.
+ * Inside records, runs of leaf elements with the same name (journal, transactions, orders, etc.)
+ * are written as tables: one column of values per attribute.
+ * Section elements (see constructor) are written as length-prefixed blocks with their own dictionary,
+ * so the reader can keep them as bytes and decode them when they are needed.
+ * Numeric values are stored as numbers, all other names and values go through the dictionary.
+ */
+class BinaryXmlWriter implements XmlOutput {
+
+	static final int MAGIC = 0x4A454142; //JEAB
+	static final int VERSION = 2;
+	/**
+	 * Depth of record elements: root = 1, sections = 2, owners = 3.
+	 */
+	static final int RECORD_DEPTH = 3;
+	/**
+	 * Max rows per table (limits the rows held in memory while writing).
+	 */
+	static final int TABLE_ROWS = 1024;
+	//Markers
+	static final byte END = 0;
+	static final byte ELEMENT = 1;
+	static final byte RECORD = 2;
+	static final byte TABLE = 3;
+	static final byte SECTION = 4;
+	//Value types
+	static final byte VALUE_STRING = 0;
+	static final byte VALUE_REFERENCE = 1;
+	static final byte VALUE_LONG = 2;
+	static final byte VALUE_DOUBLE = 3;
+	static final byte VALUE_NONE = 4;
+
+	private final Block document;
+	private final Set<String> sections;
+	private final Deque<Block> blocks = new ArrayDeque<>();
+	private final Map<String, String> attributes = new LinkedHashMap<>();
+	private String pending = null;
+	private int depth = 0;
+
+	/**
+	 * @param out output stream
+	 * @param sections names of the elements (inside records) to write as sections
+	 */
+	public BinaryXmlWriter(final OutputStream out, final String... sections) {
+		this.document = new Block(new DataOutputStream(out));
+		this.sections = new HashSet<>(Arrays.asList(sections));
+	}
+
+	/**
+	 * Write the header and start the root element.
+	 * @param generation generation of the XML file this snapshot is made with (see ProfileWriter)
+	 * @param rootname name of the document element
+	 * @throws IOException
+	 */
+	public void startDocument(final long generation, final String rootname) throws IOException {
+		document.output.writeInt(MAGIC);
+		document.output.writeInt(VERSION);
+		document.output.writeLong(generation);
+		startElement(rootname);
+	}
+
+	public void endDocument() throws IOException {
+		while (depth > 0) {
+			endElement();
+		}
+		document.output.flush();
+	}
+
+	@Override
+	public void startElement(final String name) throws IOException {
+		writePending();
+		depth++;
+		pending = name;
+	}
+
+	@Override
+	public void setAttribute(final String name, final String value) {
+		if (pending == null) {
+			throw new IllegalStateException("Can't set attribute " + name + " after child elements");
+		}
+		attributes.put(name, value == null ? "" : value);
+	}
+
+	@Override
+	public void endElement() throws IOException {
+		if (pending != null && depth > RECORD_DEPTH && !sections.contains(pending)) {
+			addRow(); //Leaf element
+			depth--;
+			return;
+		}
+		writePending();
+		Block block = getBlock();
+		writeTable(block);
+		block.output.writeByte(END);
+		if (block.depth == depth) { //End of record or section
+			blocks.pop();
+			Block parent = getBlock();
+			if (block.name == null) {
+				parent.output.writeByte(RECORD);
+				parent.output.writeInt(block.buffer.size());
+				block.buffer.writeTo(parent.output);
+			} else {
+				CRC32 crc = new CRC32();
+				crc.update(block.buffer.toByteArray());
+				parent.output.writeByte(SECTION);
+				writeString(parent, block.name);
+				parent.output.writeInt(block.buffer.size());
+				block.buffer.writeTo(parent.output);
+				parent.output.writeInt((int) crc.getValue());
+			}
+		}
+		depth--;
+	}
+
+	private Block getBlock() {
+		Block block = blocks.peek();
+		if (block == null) {
+			return document;
+		} else {
+			return block;
+		}
+	}
+
+	private void writePending() throws IOException {
+		if (pending == null) {
+			return;
+		}
+		writeTable(getBlock());
+		if (depth == RECORD_DEPTH) {
+			blocks.push(new Block(depth, null));
+		} else if (depth > RECORD_DEPTH && sections.contains(pending)) {
+			blocks.push(new Block(depth, pending));
+		}
+		Block block = getBlock();
+		block.output.writeByte(ELEMENT);
+		writeString(block, pending);
+		writeVarInt(block.output, attributes.size());
+		for (Map.Entry<String, String> entry : attributes.entrySet()) {
+			writeString(block, entry.getKey());
+			writeValue(block, entry.getValue());
+		}
+		attributes.clear();
+		pending = null;
+	}
+
+	private void addRow() throws IOException {
+		Block block = getBlock();
+		if (!block.rows.isEmpty() && (!block.table.equals(pending) || block.rows.size() >= TABLE_ROWS)) {
+			writeTable(block);
+		}
+		block.table = pending;
+		block.rows.add(new LinkedHashMap<>(attributes));
+		attributes.clear();
+		pending = null;
+	}
+
+	private void writeTable(final Block block) throws IOException {
+		if (block.rows.isEmpty()) {
+			return;
+		}
+		Set<String> columns = new LinkedHashSet<>();
+		for (Map<String, String> row : block.rows) {
+			columns.addAll(row.keySet());
+		}
+		block.output.writeByte(TABLE);
+		writeString(block, block.table);
+		writeVarInt(block.output, block.rows.size());
+		writeVarInt(block.output, columns.size());
+		for (String column : columns) {
+			writeString(block, column);
+			for (Map<String, String> row : block.rows) {
+				String value = row.get(column);
+				if (value == null) {
+					block.output.writeByte(VALUE_NONE);
+				} else {
+					writeValue(block, value);
+				}
+			}
+		}
+		block.rows.clear();
+		block.table = null;
+	}
+
+	private void writeValue(final Block block, final String value) throws IOException {
+		if (isLong(value)) {
+			block.output.writeByte(VALUE_LONG);
+			writeVarLong(block.output, Long.parseLong(value));
+		} else if (isDouble(value)) {
+			block.output.writeByte(VALUE_DOUBLE);
+			block.output.writeDouble(Double.parseDouble(value));
+		} else {
+			writeString(block, value);
+		}
+	}
+
+	private void writeString(final Block block, final String value) throws IOException {
+		Integer index = block.dictionary != null ? block.dictionary.get(value) : null; //Only records and sections have a dictionary
+		if (index != null) {
+			block.output.writeByte(VALUE_REFERENCE);
+			writeVarInt(block.output, index);
+		} else {
+			if (block.dictionary != null) {
+				block.dictionary.put(value, block.dictionary.size());
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			block.output.writeByte(VALUE_STRING);
+			writeVarInt(block.output, bytes.length);
+			block.output.write(bytes);
+		}
+	}
+
+	/**
+	 * Only values that are read back as the exact same string.
+	 */
+	private static boolean isLong(final String value) {
+		int length = value.length();
+		if (length == 0 || length > 20) {
+			return false;
+		}
+		int start = value.charAt(0) == '-' ? 1 : 0;
+		if (start == length) {
+			return false;
+		}
+		if (value.charAt(start) == '0' && (length > start + 1 || start == 1)) {
+			return false; //Leading zero or -0
+		}
+		for (int i = start; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		try {
+			Long.parseLong(value);
+			return true;
+		} catch (NumberFormatException ex) {
+			return false; //Out of range
+		}
+	}
+
+	private static boolean isDouble(final String value) {
+		if (value.isEmpty() || value.indexOf('.') < 0) {
+			return false;
+		}
+		char c = value.charAt(0);
+		if (c != '-' && (c < '0' || c > '9')) {
+			return false;
+		}
+		try {
+			return String.valueOf(Double.parseDouble(value)).equals(value);
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+
+	static void writeVarInt(final DataOutputStream output, final int value) throws IOException {
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			output.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		output.writeByte(v);
+	}
+
+	static void writeVarLong(final DataOutputStream output, final long value) throws IOException {
+		long v = (value << 1) ^ (value >> 63); //ZigZag
+		while ((v & ~0x7FL) != 0) {
+			output.writeByte((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		output.writeByte((int) v);
+	}
+
+	/**
+	 * Output of the document, a record or a section.
+	 */
+	private static class Block {
+		private final ByteArrayOutputStream buffer;
+		private final DataOutputStream output;
+		private final Map<String, Integer> dictionary;
+		private final int depth;
+		private final String name;
+		private final List<Map<String, String>> rows = new ArrayList<>();
+		private String table;
+
+		public Block(final int depth, final String name) {
+			this.buffer = new ByteArrayOutputStream();
+			this.output = new DataOutputStream(buffer);
+			this.dictionary = new HashMap<>();
+			this.depth = depth;
+			this.name = name;
+		}
+
+		public Block(final DataOutputStream output) {
+			this.buffer = null;
+			this.output = output;
+			this.dictionary = null; //No dictionary outside records
+			this.depth = 0;
+			this.name = null;
+		}
+	}
+}
@@ -21,37 +21,40 @@
 
 package net.nikr.eve.jeveasset.io.local;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.supercsv.io.CsvMapWriter;
-import org.supercsv.io.ICsvMapWriter;
+import org.supercsv.io.CsvListWriter;
+import org.supercsv.io.ICsvListWriter;
 import org.supercsv.prefs.CsvPreference;
 
 
 public final class CsvWriter {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CsvWriter.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
 
 	private CsvWriter() { }
 
-	public static boolean save(final String filename, final List<Map<String, String>> data, final String[] header, final String[] headerKeys, final CsvPreference csvPreference) {
+	public static boolean save(final String filename, final ExportCursor cursor, final String[] header, final CsvPreference csvPreference) {
 		CsvWriter writer = new CsvWriter();
-		return writer.write(filename, data, header, headerKeys, csvPreference);
+		return writer.write(filename, cursor, header, csvPreference);
 	}
 
-	private boolean write(final String filename, final List<Map<String, String>> data, final String[] header, final String[] headerKeys, final CsvPreference csvPreference) {
-		ICsvMapWriter writer;
-		try {
-			writer = new CsvMapWriter(new FileWriter(filename), csvPreference);
+	private boolean write(final String filename, final ExportCursor cursor, final String[] header, final CsvPreference csvPreference) {
+		try (ICsvListWriter writer = new CsvListWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8), BUFFER_SIZE), csvPreference)) {
 			writer.writeHeader(header);
-			for (Map<String, String> map : data) {
-				writer.write(map, headerKeys);
+			String[] row = new String[header.length]; //Reused for every row
+			while (cursor.next()) {
+				for (int i = 0; i < row.length; i++) {
+					row[i] = cursor.getString(i);
+				}
+				writer.write(row);
 			}
-			writer.close();
 		} catch (IOException ex) {
 			LOG.warn("CSV file not saved");
 			return false;
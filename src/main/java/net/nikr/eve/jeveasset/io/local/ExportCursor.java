@@ -0,0 +1,53 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.io.local;
+
+/**
+ * Forward only cursor over the rows of a table export.
+ * Writers pull one row at a time, so the export never holds more than the current row.
+ * Column indexes are the indexes of the header given to the writer.
+ */
+public interface ExportCursor {
+
+	/**
+	 * Move to the next row.
+	 * @return false if there are no more rows
+	 */
+	public boolean next();
+
+	/**
+	 * @return the row object of the current row
+	 */
+	public Object getItem();
+
+	/**
+	 * @param column column index
+	 * @return the raw value of the column in the current row (may be null)
+	 */
+	public Object getValue(int column);
+
+	/**
+	 * @param column column index
+	 * @return the formatted value of the column in the current row (never null)
+	 */
+	public String getString(int column);
+}
@@ -22,10 +22,11 @@
 package net.nikr.eve.jeveasset.io.local;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.api.my.MyAsset;
@@ -45,30 +46,29 @@ import org.slf4j.LoggerFactory;
 public final class HtmlWriter {
 
 	private static final Logger LOG = LoggerFactory.getLogger(HtmlWriter.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
 
 	private HtmlWriter() { }
 
-	public static boolean save(final String filename, final List<Map<EnumTableColumn<?>, String>> data, final List<EnumTableColumn<?>> header, final List<Object> items, final boolean htmlStyled, final int htmlRepeatHeader, final boolean treetable) {
+	public static boolean save(final String filename, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final boolean igb, final boolean htmlStyled, final int htmlRepeatHeader, final boolean treetable) {
 		HtmlWriter writer = new HtmlWriter();
-		return writer.write(filename, data, header, items, htmlStyled, htmlRepeatHeader, treetable);
+		return writer.write(filename, cursor, header, igb, htmlStyled, htmlRepeatHeader, treetable);
 	}
 
-	private boolean write(final String filename, final List<Map<EnumTableColumn<?>, String>> data, final List<EnumTableColumn<?>> header, final List<Object> items, final boolean htmlStyled, final int htmlRepeatHeader, final boolean treetable) {
-		try {
-			BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+	private boolean write(final String filename, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final boolean igb, final boolean htmlStyled, final int htmlRepeatHeader, final boolean treetable) {
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8), BUFFER_SIZE)) {
 			if (htmlStyled) {
 				writeHeader(writer);
 			} else {
 				writeComment(writer);
 			}
 			writer.write("<table>\r\n");
-			writeTableHeader(writer, header, items != null);
-			writeTableRows(writer, data, header, items, htmlStyled, htmlRepeatHeader, treetable);
+			writeTableHeader(writer, header, igb);
+			writeTableRows(writer, cursor, header, igb, htmlStyled, htmlRepeatHeader, treetable);
 			writer.write("</table>\r\n");
 			if (htmlStyled) {
 				writeFooter(writer);
 			}
-			writer.close();
 		} catch (IOException ex) {
 			LOG.warn("Html file not saved");
 			return false;
@@ -81,6 +81,7 @@ public final class HtmlWriter {
 		writer.write("<!DOCTYPE html>\r\n");
 		writer.write("<html>\r\n");
 		writer.write("<header>\r\n");
+		writer.write("<meta charset=\"UTF-8\">\r\n");
 		writeComment(writer);
 		writer.write("<style type=\"text/css\">\r\n");
 		writer.write(
@@ -164,28 +165,28 @@ public final class HtmlWriter {
 		writer.write("</tr>\r\n");
 	}
 
-	private void writeTableRows(final BufferedWriter writer, final List<Map<EnumTableColumn<?>, String>> data, final List<EnumTableColumn<?>> header, final List<Object> items, final boolean htmlStyled, final int htmlRepeatHeader, final boolean treetable) throws IOException {
+	private void writeTableRows(final BufferedWriter writer, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final boolean igb, final boolean htmlStyled, final int htmlRepeatHeader, final boolean treetable) throws IOException {
 		boolean even = false;
 		boolean wait = true;
 		int count = 0;
-		int index = 0;
-		for (Map<EnumTableColumn<?>, String> map : data) {
+		while (cursor.next()) {
 			boolean level0 = false;
 			boolean level1 = false;
 			boolean level2 = false;
 			boolean level3 = false;
 			if (treetable && htmlStyled) {
-				for (EnumTableColumn<?> column : header) {
-					if (HierarchyColumn.class.isAssignableFrom(column.getType())) {
-						if (map.get(column).contains(TreeAsset.SPACE + TreeAsset.SPACE + TreeAsset.SPACE + "+") && treetable) { //Level 2
+				for (int i = 0; i < header.size(); i++) {
+					if (HierarchyColumn.class.isAssignableFrom(header.get(i).getType())) {
+						String value = cursor.getString(i);
+						if (value.contains(TreeAsset.SPACE + TreeAsset.SPACE + TreeAsset.SPACE + "+") && treetable) { //Level 2
 							level3 = true;
-						} else if (map.get(column).startsWith(TreeAsset.SPACE + TreeAsset.SPACE + "+") && treetable) { //Level 2
+						} else if (value.startsWith(TreeAsset.SPACE + TreeAsset.SPACE + "+") && treetable) { //Level 2
 							level2 = true;
 							break;
-						} else if (map.get(column).startsWith(TreeAsset.SPACE + "+") && treetable) { //Level 1
+						} else if (value.startsWith(TreeAsset.SPACE + "+") && treetable) { //Level 1
 							level1 = true;
 							break;
-						} else if (map.get(column).startsWith("+") && treetable) { //Level 0
+						} else if (value.startsWith("+") && treetable) { //Level 0
 							level0 = true;
 							break;
 						}
@@ -194,12 +195,12 @@ public final class HtmlWriter {
 			}
 			if (level0 || level1 || level2 || level3) { //Parent
 				if (!wait) {
-					writeTableHeader(writer, header, items != null);
+					writeTableHeader(writer, header, igb);
 					wait = true;
 					count = 0;
 				}
 			} else if (htmlRepeatHeader != 0 && htmlRepeatHeader == count && !wait) { //Repeat
-				writeTableHeader(writer, header, items != null);
+				writeTableHeader(writer, header, igb);
 				count = 0;
 			} else { //item row
 				wait = false;
@@ -217,19 +218,20 @@ public final class HtmlWriter {
 			} else {
 				writer.write("\t<tr>");
 			}
-			for (EnumTableColumn<?> column : header) {
+			for (int i = 0; i < header.size(); i++) {
+				EnumTableColumn<?> column = header.get(i);
 				if ((Number.class.isAssignableFrom(column.getType())
 				 || NumberValue.class.isAssignableFrom(column.getType()))) {
 					writer.write("\t<td class=\"number\">");
 				} else {
 					writer.write("\t<td>");
 				}
-				writer.write(map.get(column).replace(" ", "&nbsp;").replace("+", "").replace("_", " ")); //.replace("-", "&#8209;")
+				writer.write(cursor.getString(i).replace(" ", "&nbsp;").replace("+", "").replace("_", " ")); //.replace("-", "&#8209;")
 				writer.write("</td>\r\n");
 			}
-			if (items != null) {
+			if (igb) {
 				writer.write("\t<td>\r\n");
-				Object object = items.get(index);
+				Object object = cursor.getItem();
 				if (object instanceof LocationType) {
 					LocationType locationType = (LocationType) object;
 					MyLocation location = locationType.getLocation();
@@ -298,7 +300,6 @@ public final class HtmlWriter {
 			if (!level0 && !level1 && !level2 && !level3) {
 				count++;
 			}
-			index++;
 		}
 	}
 }
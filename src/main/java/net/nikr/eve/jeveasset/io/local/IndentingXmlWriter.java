@@ -0,0 +1,164 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming XML writer with the same output layout as the DOM writer (4 spaces indent).
+ * The start tag is written when the first child is added or the element is ended,
+ * so attributes can be set any time before the first child element.
+ * Line breaks in attribute values are escaped (javax.xml.stream.XMLStreamWriter does not),
+ * otherwise they would be read back as spaces. Characters not allowed in XML 1.0 are removed.
+ */
+class IndentingXmlWriter implements XmlOutput {
+
+	private static final String INDENT = "    ";
+
+	private final Writer writer;
+	private final Map<String, String> attributes = new LinkedHashMap<>();
+	private final Deque<String> names = new ArrayDeque<>();
+	private String pending = null;
+	private int depth = 0;
+
+	public IndentingXmlWriter(final Writer writer) {
+		this.writer = writer;
+	}
+
+	public void startDocument(final String encoding, final String rootname) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"" + encoding + "\" standalone=\"yes\"?>");
+		startElement(rootname);
+	}
+
+	public void endDocument() throws IOException {
+		while (depth > 0) {
+			endElement();
+		}
+		writer.write("\n");
+		writer.flush();
+	}
+
+	@Override
+	public void startElement(final String name) throws IOException {
+		writePending(false);
+		newLine();
+		pending = name;
+		depth++;
+	}
+
+	@Override
+	public void setAttribute(final String name, final String value) {
+		if (pending == null) {
+			throw new IllegalStateException("Can't set attribute " + name + " after child elements");
+		}
+		attributes.put(name, value == null ? "" : value);
+	}
+
+	@Override
+	public void endElement() throws IOException {
+		depth--;
+		if (pending != null) {
+			writePending(true);
+		} else {
+			newLine();
+			writer.write("</");
+			writer.write(names.pop());
+			writer.write('>');
+		}
+	}
+
+	private void writePending(final boolean empty) throws IOException {
+		if (pending == null) {
+			return;
+		}
+		writer.write('<');
+		writer.write(pending);
+		for (Map.Entry<String, String> entry : attributes.entrySet()) {
+			writer.write(' ');
+			writer.write(entry.getKey());
+			writer.write("=\"");
+			writeEscaped(entry.getValue());
+			writer.write('"');
+		}
+		if (empty) {
+			writer.write("/>");
+		} else {
+			writer.write('>');
+			names.push(pending);
+		}
+		attributes.clear();
+		pending = null;
+	}
+
+	private void writeEscaped(final String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '>':
+					writer.write("&gt;");
+					break;
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '"':
+					writer.write("&quot;");
+					break;
+				case '\n':
+					writer.write("&#10;");
+					break;
+				case '\r':
+					writer.write("&#13;");
+					break;
+				case '\t':
+					writer.write("&#9;");
+					break;
+				default:
+					if (isValid(c)) { //Skip characters not allowed in XML 1.0
+						writer.write(c);
+					}
+			}
+		}
+	}
+
+	/**
+	 * Control characters (other than tab, line feed and carriage return) are not allowed in XML 1.0, not even escaped.
+	 * @param c
+	 * @return true if the character is allowed
+	 */
+	private static boolean isValid(final char c) {
+		return c >= 0x20 && c != 0xFFFE && c != 0xFFFF;
+	}
+
+	private void newLine() throws IOException {
+		writer.write('\n');
+		for (int i = 0; i < depth; i++) {
+			writer.write(INDENT);
+		}
+	}
+}
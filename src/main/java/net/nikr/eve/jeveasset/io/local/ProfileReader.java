@@ -20,6 +20,11 @@
  */
 package net.nikr.eve.jeveasset.io.local;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.EnumSet;
@@ -28,6 +33,19 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount.KeyType;
@@ -63,6 +81,9 @@ import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
 import net.nikr.eve.jeveasset.io.shared.DataConverter;
 import net.nikr.eve.jeveasset.io.shared.RawConverter;
 import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -70,6 +91,9 @@ import org.w3c.dom.NodeList;
 
 public final class ProfileReader extends AbstractXmlReader<Boolean> {
 
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileReader.class);
+	private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
 	private final Profile profile;
 
 	public static boolean load(final Profile profile) {
@@ -77,7 +101,21 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 	}
 
 	public static boolean load(final Profile profile, final String filename) {
+		return load(profile, filename, false);
+	}
+
+	/**
+	 * Load the profile.
+	 * @param profile profile to load into
+	 * @param filename XML file
+	 * @param snapshot true to load from the binary snapshot cache, if it was made with the current XML file
+	 * @return true if loaded
+	 */
+	public static boolean load(final Profile profile, final String filename, final boolean snapshot) {
 		ProfileReader reader = new ProfileReader(profile);
+		if (snapshot && reader.readSnapshot(filename)) {
+			return true;
+		}
 		Boolean ok = reader.read(filename, filename, XmlType.DYNAMIC_BACKUP);
 		if (!ok) {
 			profile.clear();
@@ -89,6 +127,132 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		this.profile = profile;
 	}
 
+	@Override
+	protected Boolean parse(final InputStream is) throws XmlException, IOException {
+		profile.clear(); //Clear before load (may happen more than once)
+		ExecutorService executor = createExecutor();
+		try {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			XMLStreamReader reader = factory.createXMLStreamReader(is);
+			try {
+				parseProfile(reader, executor, profile);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		} finally {
+			executor.shutdownNow();
+		}
+		return true;
+	}
+
+	/**
+	 * Load the binary snapshot written by ProfileWriter.
+	 * The XML file is the master: the snapshot is only used if it has the same generation as the current XML file.
+	 * Journal and transactions are stored as separate sections and decoded with the owner.
+	 * @param filename XML file
+	 * @return true if the profile was loaded from the snapshot
+	 */
+	private boolean readSnapshot(final String filename) {
+		File xmlFile = new File(filename);
+		File file = getSnapshotFile(filename);
+		if (!xmlFile.exists() || !file.exists()) {
+			return false;
+		}
+		InputStream is = null;
+		ExecutorService executor = null;
+		try {
+			lock(filename);
+			Long generation = readGeneration(xmlFile);
+			if (generation == null) {
+				LOG.info("Profile snapshot outdated");
+				return false;
+			}
+			is = new BufferedInputStream(new FileInputStream(file));
+			BinaryXmlReader reader = new BinaryXmlReader(is);
+			if (!reader.readHeader(generation)) {
+				LOG.info("Profile snapshot outdated");
+				return false;
+			}
+			profile.clear(); //Clear before load (may happen more than once)
+			executor = createExecutor();
+			parseProfile(reader, executor, profile);
+			LOG.info("Profile loaded from snapshot");
+			return true;
+		} catch (IOException | IllegalArgumentException | ArrayIndexOutOfBoundsException | XmlException ex) {
+			LOG.warn("Profile snapshot not loaded: " + ex.getMessage(), ex);
+			profile.clear();
+			if (!file.delete()) {
+				LOG.warn("Failed to delete: " + file.getName());
+			}
+			return false;
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+			unlock(filename); //Last thing to do
+		}
+	}
+
+	/**
+	 * Read the snapshot generation from the root element of the XML file (see ProfileWriter).
+	 * @param xmlFile XML file
+	 * @return generation or null if the XML file has none
+	 * @throws IOException
+	 */
+	private Long readGeneration(final File xmlFile) throws IOException {
+		InputStream is = null;
+		try {
+			is = new BufferedInputStream(new FileInputStream(xmlFile));
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			XMLStreamReader reader = factory.createXMLStreamReader(is);
+			try {
+				if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+					return null;
+				}
+				String generation = reader.getAttributeValue(null, ProfileWriter.GENERATION);
+				if (generation == null) {
+					return null;
+				}
+				return Long.valueOf(generation);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException | NumberFormatException ex) {
+			return null;
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+		}
+	}
+
+	/**
+	 * Owners are parsed by THREADS threads, with at most one owner waiting in the queue.
+	 * When the queue is full, the reading thread parses the owner itself,
+	 * so reading stops until a thread is free and at most THREADS + 2 owners are held as a DOM at a time.
+	 * @return executor for the owners
+	 */
+	private static ExecutorService createExecutor() {
+		return new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1), new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
 	@Override
 	protected Boolean parse(Element element) throws XmlException {
 		profile.clear(); //Clear before load (may happen more than once)
@@ -136,6 +300,260 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		}
 	}
 
+	/**
+	 * Stream the profile section by section.
+	 * The assets and market orders of each owner are parsed directly from the stream (see readOwner()).
+	 * The other sections of an owner are read into its own DOM, parsed by the executor (see createExecutor()) and added to the profile in file order.
+	 * The DOM of an owner is released once it has been parsed.
+	 */
+	private void parseProfile(final XMLStreamReader reader, final ExecutorService executor, final Profile profile) throws XMLStreamException, XmlException {
+		if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !reader.getLocalName().equals("assets")) {
+			throw new XmlException("Wrong root element name.");
+		}
+		List<EveApiAccount> accounts = new ArrayList<>();
+		List<List<Future<EveApiOwner>>> accountOwners = new ArrayList<>();
+		List<Future<EveKitOwner>> eveKitOwners = new ArrayList<>();
+		List<Future<EsiOwner>> esiOwners = new ArrayList<>();
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String section = reader.getLocalName();
+			if (section.equals("stockpiles")) {
+				parseStockpiles(readElement(reader), profile);
+			} else if (section.equals("accounts")) {
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					if (!reader.getLocalName().equals("account")) {
+						skipElement(reader);
+						continue;
+					}
+					EveApiAccount account = parseAccount(readAttributes(reader, createDocument()));
+					List<Future<EveApiOwner>> owners = new ArrayList<>();
+					while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+						if (!reader.getLocalName().equals("human")) {
+							skipElement(reader);
+							continue;
+						}
+						Element element = readAttributes(reader, createDocument());
+						boolean migrated = getBooleanNotNull(element, "migrated", false);
+						owners.add(readOwner(reader, executor, element, new EveApiOwner(account, migrated)));
+					}
+					accounts.add(account);
+					accountOwners.add(owners);
+				}
+			} else if (section.equals("evekitowners")) {
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					if (!reader.getLocalName().equals("evekitowner")) {
+						skipElement(reader);
+						continue;
+					}
+					Element element = readAttributes(reader, createDocument());
+					eveKitOwners.add(readOwner(reader, executor, element, createEveKitOwner(element)));
+				}
+			} else if (section.equals("esiowners")) {
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					if (!reader.getLocalName().equals("esiowner")) {
+						skipElement(reader);
+						continue;
+					}
+					Element element = readAttributes(reader, createDocument());
+					esiOwners.add(readOwner(reader, executor, element, createEsiOwner(element)));
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+		for (int i = 0; i < accounts.size(); i++) {
+			accounts.get(i).getOwners().addAll(getResults(accountOwners.get(i)));
+		}
+		profile.getAccounts().addAll(accounts);
+		profile.getEveKitOwners().addAll(getResults(eveKitOwners));
+		profile.getEsiOwners().addAll(getResults(esiOwners));
+	}
+
+	/**
+	 * Read an owner from the stream.
+	 * The reader is on the start tag of the owner element and is left on its end tag.
+	 * Assets and market orders are the largest sections, so they are parsed directly from the stream, one row at a time.
+	 * The other sections are added to the owner element and parsed by the executor.
+	 * @param element the owner element with only the attributes read
+	 * @param owner the owner created from the attributes of the element
+	 * @return the owner, once all sections have been parsed
+	 */
+	private <K extends OwnerType> Future<K> readOwner(final XMLStreamReader reader, final ExecutorService executor, final Element element, final K owner) throws XMLStreamException, XmlException {
+		parseOwnerAttributes(element, owner);
+		Document doc = element.getOwnerDocument();
+		Set<MyMarketOrder> marketOrders = new HashSet<>();
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String section = reader.getLocalName();
+			if (section.equals("assets")) {
+				parseAssets(reader, doc, owner, owner.getAssets(), null);
+			} else if (section.equals("markerorders")) {
+				parseMarketOrders(reader, doc, owner, marketOrders);
+			} else {
+				element.appendChild(readElement(reader, doc));
+			}
+		}
+		owner.setMarketOrders(marketOrders);
+		return executor.submit(new Callable<K>() {
+			@Override
+			public K call() throws Exception {
+				parseOwnerSections(element, owner);
+				return owner;
+			}
+		});
+	}
+
+	/**
+	 * Same as the stream parser, but each owner is a binary record,
+	 * so both decoding and parsing are done by the executor.
+	 */
+	private void parseProfile(final BinaryXmlReader reader, final ExecutorService executor, final Profile profile) throws IOException, XmlException {
+		if (reader.next() != BinaryXmlWriter.ELEMENT || !reader.getElement().getNodeName().equals("assets")) {
+			throw new XmlException("Wrong root element name.");
+		}
+		List<Future<EveApiAccount>> accounts = new ArrayList<>();
+		List<Future<EveKitOwner>> eveKitOwners = new ArrayList<>();
+		List<Future<EsiOwner>> esiOwners = new ArrayList<>();
+		byte marker;
+		while ((marker = reader.next()) != BinaryXmlWriter.END) {
+			if (marker == BinaryXmlWriter.RECORD) {
+				continue; //Unknown record
+			}
+			String section = reader.getElement().getNodeName();
+			if (section.equals("stockpiles")) {
+				parseStockpiles(reader.readElement(), profile);
+			} else if (section.equals("accounts")) {
+				while ((marker = reader.next()) != BinaryXmlWriter.END) {
+					if (marker != BinaryXmlWriter.RECORD) {
+						reader.readElement();
+						continue;
+					}
+					final byte[] record = reader.getRecord();
+					accounts.add(executor.submit(new Callable<EveApiAccount>() {
+						@Override
+						public EveApiAccount call() throws Exception {
+							Element element = BinaryXmlReader.decode(record);
+							EveApiAccount account = parseAccount(element);
+							parseOwners(element, account);
+							return account;
+						}
+					}));
+				}
+			} else if (section.equals("evekitowners")) {
+				while ((marker = reader.next()) != BinaryXmlWriter.END) {
+					if (marker != BinaryXmlWriter.RECORD) {
+						reader.readElement();
+						continue;
+					}
+					final byte[] record = reader.getRecord();
+					eveKitOwners.add(executor.submit(new Callable<EveKitOwner>() {
+						@Override
+						public EveKitOwner call() throws Exception {
+							return parseEveKitOwner(BinaryXmlReader.decode(record));
+						}
+					}));
+				}
+			} else if (section.equals("esiowners")) {
+				while ((marker = reader.next()) != BinaryXmlWriter.END) {
+					if (marker != BinaryXmlWriter.RECORD) {
+						reader.readElement();
+						continue;
+					}
+					final byte[] record = reader.getRecord();
+					esiOwners.add(executor.submit(new Callable<EsiOwner>() {
+						@Override
+						public EsiOwner call() throws Exception {
+							return parseEsiOwner(BinaryXmlReader.decode(record));
+						}
+					}));
+				}
+			} else {
+				reader.readElement();
+			}
+		}
+		profile.getAccounts().addAll(getResults(accounts));
+		profile.getEveKitOwners().addAll(getResults(eveKitOwners));
+		profile.getEsiOwners().addAll(getResults(esiOwners));
+	}
+
+	private <K> List<K> getResults(final List<Future<K>> futures) throws XmlException {
+		List<K> results = new ArrayList<>(futures.size());
+		for (Future<K> future : futures) {
+			try {
+				results.add(future.get());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new XmlException(ex);
+			} catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof XmlException) {
+					throw (XmlException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else {
+					throw new XmlException(cause);
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Read the current element (and children) into a standalone DOM element.
+	 * The reader is left on the end tag of the element.
+	 */
+	private Element readElement(final XMLStreamReader reader) throws XMLStreamException, XmlException {
+		Document doc = createDocument();
+		Element element = readElement(reader, doc);
+		doc.appendChild(element);
+		return element;
+	}
+
+	private Document createDocument() throws XmlException {
+		try {
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		} catch (ParserConfigurationException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Read the attributes of the current element into a DOM element without children.
+	 * The reader is left on the start tag of the element.
+	 */
+	private Element readAttributes(final XMLStreamReader reader, final Document doc) {
+		Element element = doc.createElement(reader.getLocalName());
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		return element;
+	}
+
+	private Element readElement(final XMLStreamReader reader, final Document doc) throws XMLStreamException {
+		Element element = readAttributes(reader, doc);
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				element.appendChild(readElement(reader, doc));
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
+			}
+		}
+		return element;
+	}
+
+	private void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
 	private void parseStockpiles(final Element element, final Profile profile) throws XmlException {
 		NodeList stockpilesNodes = element.getElementsByTagName("stockpile");
 		Set<Long> stockpileIDs = new HashSet<>();
@@ -151,71 +569,88 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		NodeList ownerNodes = element.getElementsByTagName("esiowner");
 		for (int i = 0; i < ownerNodes.getLength(); i++) {
 			Element currentNode = (Element) ownerNodes.item(i);
-			String accountName = getString(currentNode, "accountname");
-			String refreshToken = getString(currentNode, "refreshtoken");
-			String scopes = getString(currentNode, "scopes");
-			Date structuresNextUpdate = getDate(currentNode, "structuresnextupdate");
-			Date accountNextUpdate = getDate(currentNode, "accountnextupdate");
-			EsiCallbackURL callbackURL;
-			try {
-				callbackURL = EsiCallbackURL.valueOf(getString(currentNode, "callbackurl"));
-			} catch (IllegalArgumentException ex) {
-				throw new XmlException(ex);
-			}
-			Set<RolesEnum> roles = EnumSet.noneOf(RolesEnum.class);
-			if (haveAttribute(currentNode, "characterroles")) {
-				for (String role : getString(currentNode, "characterroles").split(",")) {
-					try {
-						roles.add(RolesEnum.valueOf(role));
-					} catch (IllegalArgumentException ex) {
+			esiOwners.add(parseEsiOwner(currentNode));
+		}
+	}
+
+	private EsiOwner parseEsiOwner(final Element currentNode) throws XmlException {
+		EsiOwner owner = createEsiOwner(currentNode);
+		parseOwnerType(currentNode, owner);
+		return owner;
+	}
+
+	private EsiOwner createEsiOwner(final Element currentNode) throws XmlException {
+		String accountName = getString(currentNode, "accountname");
+		String refreshToken = getString(currentNode, "refreshtoken");
+		String scopes = getString(currentNode, "scopes");
+		Date structuresNextUpdate = getDate(currentNode, "structuresnextupdate");
+		Date accountNextUpdate = getDate(currentNode, "accountnextupdate");
+		EsiCallbackURL callbackURL;
+		try {
+			callbackURL = EsiCallbackURL.valueOf(getString(currentNode, "callbackurl"));
+		} catch (IllegalArgumentException ex) {
+			throw new XmlException(ex);
+		}
+		Set<RolesEnum> roles = EnumSet.noneOf(RolesEnum.class);
+		if (haveAttribute(currentNode, "characterroles")) {
+			for (String role : getString(currentNode, "characterroles").split(",")) {
+				try {
+					roles.add(RolesEnum.valueOf(role));
+				} catch (IllegalArgumentException ex) {
 
-					}
 				}
 			}
-			EsiOwner owner = new EsiOwner();
-			owner.setRoles(roles);
-			owner.setAccountName(accountName);
-			owner.setScopes(scopes);
-			owner.setStructuresNextUpdate(structuresNextUpdate);
-			owner.setAccountNextUpdate(accountNextUpdate);
-			owner.setAuth(callbackURL, refreshToken, null);
-
-			parseOwnerType(currentNode, owner);
-			esiOwners.add(owner);
 		}
+		EsiOwner owner = new EsiOwner();
+		owner.setRoles(roles);
+		owner.setAccountName(accountName);
+		owner.setScopes(scopes);
+		owner.setStructuresNextUpdate(structuresNextUpdate);
+		owner.setAccountNextUpdate(accountNextUpdate);
+		owner.setAuth(callbackURL, refreshToken, null);
+		return owner;
 	}
 
 	private void parseEveKitOwners(final Element element, final List<EveKitOwner> eveKitOwners) throws XmlException {
 		NodeList ownerNodes = element.getElementsByTagName("evekitowner");
 		for (int i = 0; i < ownerNodes.getLength(); i++) {
 			Element currentNode = (Element) ownerNodes.item(i);
-			int accessKey = getInt(currentNode, "accesskey");
-			String accessCred = getString(currentNode, "accesscred");
-			Date expire = getDateOptional(currentNode, "expire");
-			long accessmask = getLong(currentNode, "accessmask");
-			boolean corporation = getBoolean(currentNode, "corporation");
-			Date limit = getDateOptional(currentNode, "limit");
-			String accountName = getString(currentNode, "accountname");
-			//ContID
-			Long journalCID = getLongOptional(currentNode, "journalcid");
-			Long transactionsCID = getLongOptional(currentNode, "transactionscid");
-			Long contractsCID = getLongOptional(currentNode, "contractscid");
-			Long industryJobsCID = getLongOptional(currentNode, "industryjobscid");
-			Long marketOrdersCID = getLongOptional(currentNode, "marketorderscid");
-			Date accountNextUpdate = getDateOptional(currentNode, "accountnextupdate");
-			boolean migrated = getBooleanNotNull(currentNode, "migrated", false);
-			EveKitOwner owner = new EveKitOwner(accessKey, accessCred, expire, accessmask, corporation, limit, accountName, migrated);
-			owner.setJournalCID(journalCID);
-			owner.setTransactionsCID(transactionsCID);
-			owner.setContractsCID(contractsCID);
-			owner.setIndustryJobsCID(industryJobsCID);
-			owner.setMarketOrdersCID(marketOrdersCID);
-			owner.setAccountNextUpdate(accountNextUpdate);
-			parseOwnerType(currentNode, owner);
-			eveKitOwners.add(owner);
+			eveKitOwners.add(parseEveKitOwner(currentNode));
 		}
 	}
 
+	private EveKitOwner parseEveKitOwner(final Element currentNode) throws XmlException {
+		EveKitOwner owner = createEveKitOwner(currentNode);
+		parseOwnerType(currentNode, owner);
+		return owner;
+	}
+
+	private EveKitOwner createEveKitOwner(final Element currentNode) throws XmlException {
+		int accessKey = getInt(currentNode, "accesskey");
+		String accessCred = getString(currentNode, "accesscred");
+		Date expire = getDateOptional(currentNode, "expire");
+		long accessmask = getLong(currentNode, "accessmask");
+		boolean corporation = getBoolean(currentNode, "corporation");
+		Date limit = getDateOptional(currentNode, "limit");
+		String accountName = getString(currentNode, "accountname");
+		//ContID
+		Long journalCID = getLongOptional(currentNode, "journalcid");
+		Long transactionsCID = getLongOptional(currentNode, "transactionscid");
+		Long contractsCID = getLongOptional(currentNode, "contractscid");
+		Long industryJobsCID = getLongOptional(currentNode, "industryjobscid");
+		Long marketOrdersCID = getLongOptional(currentNode, "marketorderscid");
+		Date accountNextUpdate = getDateOptional(currentNode, "accountnextupdate");
+		boolean migrated = getBooleanNotNull(currentNode, "migrated", false);
+		EveKitOwner owner = new EveKitOwner(accessKey, accessCred, expire, accessmask, corporation, limit, accountName, migrated);
+		owner.setJournalCID(journalCID);
+		owner.setTransactionsCID(transactionsCID);
+		owner.setContractsCID(contractsCID);
+		owner.setIndustryJobsCID(industryJobsCID);
+		owner.setMarketOrdersCID(marketOrdersCID);
+		owner.setAccountNextUpdate(accountNextUpdate);
+		return owner;
+	}
+
 	private void parseAccounts(final Element element, final List<EveApiAccount> accounts) throws XmlException {
 		NodeList accountNodes = element.getElementsByTagName("account");
 		for (int i = 0; i < accountNodes.getLength(); i++) {
@@ -272,6 +707,16 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 	}
 
 	private void parseOwnerType(final Element node, OwnerType owner) throws XmlException {
+		parseOwnerAttributes(node, owner);
+		NodeList assetNodes = node.getElementsByTagName("assets");
+		if (assetNodes.getLength() == 1) {
+			parseAssets(assetNodes.item(0), owner, owner.getAssets(), null);
+		}
+		parseMarketOrders(node, owner);
+		parseOwnerSections(node, owner);
+	}
+
+	private void parseOwnerAttributes(final Element node, OwnerType owner) throws XmlException {
 		String ownerName = getString(node, "name");
 		String corporationName = getStringOptional(node, "corp");
 		long ownerID = getLong(node, "id");
@@ -308,15 +753,15 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		owner.setBlueprintsNextUpdate(blueprintsNextUpdate);
 		owner.setBookmarksNextUpdate(bookmarksNextUpdate);
 		owner.setSkillsNextUpdate(skillsNextUpdate);
+	}
 
-		NodeList assetNodes = node.getElementsByTagName("assets");
-		if (assetNodes.getLength() == 1) {
-			parseAssets(assetNodes.item(0), owner, owner.getAssets(), null);
-		}
+	/**
+	 * Parse all sections, except assets and market orders.
+	 */
+	private void parseOwnerSections(final Element node, OwnerType owner) throws XmlException {
 		parseActiveShip(node, owner);
 		parseContracts(node, owner);
 		parseBalances(node, owner);
-		parseMarketOrders(node, owner);
 		parseJournals(node, owner);
 		parseTransactions(node, owner);
 		parseIndustryJobs(node, owner);
@@ -487,6 +932,21 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		owner.setMarketOrders(marketOrders);
 	}
 
+	/**
+	 * Stream version of parseMarketOrders(Element, OwnerType).
+	 * Only one market order (and its changes) is held as a DOM at a time.
+	 * The reader is on the start tag of the markerorders element and is left on its end tag.
+	 */
+	private void parseMarketOrders(final XMLStreamReader reader, final Document doc, final OwnerType owner, final Set<MyMarketOrder> marketOrders) throws XMLStreamException, XmlException {
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			if (!reader.getLocalName().equals("markerorder")) {
+				skipElement(reader);
+				continue;
+			}
+			marketOrders.add(parseMarketOrder(readElement(reader, doc), owner));
+		}
+	}
+
 	private MyMarketOrder parseMarketOrder(final Element element, final OwnerType owner) throws XmlException {
 		RawMarketOrder apiMarketOrder = RawMarketOrder.create();
 		long orderID = getLong(element, "orderid");
@@ -563,17 +1023,26 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		Set<MyJournal> journals = new HashSet<>();
 		for (int a = 0; a < journalsNodes.getLength(); a++) {
 			Element currentAalletJournalsNode = (Element) journalsNodes.item(a);
-			NodeList journalNodes = currentAalletJournalsNode.getElementsByTagName("journal");
-			for (int b = 0; b < journalNodes.getLength(); b++) {
-				Element currentNode = (Element) journalNodes.item(b);
-				RawJournal rawJournal = parseJournal(currentNode);
-				MyJournal journal = DataConverter.toMyJournal(rawJournal, owner);
-				journals.add(journal);
+			byte[] section = BinaryXmlReader.getSection(currentAalletJournalsNode);
+			if (section != null) { //Snapshot
+				parseJournals(decodeSection(section), owner, journals);
+			} else {
+				parseJournals(currentAalletJournalsNode, owner, journals);
 			}
 		}
 		owner.setJournal(journals);
 	}
 
+	private void parseJournals(final Element element, final OwnerType owner, final Set<MyJournal> journals) throws XmlException {
+		NodeList journalNodes = element.getElementsByTagName("journal");
+		for (int b = 0; b < journalNodes.getLength(); b++) {
+			Element currentNode = (Element) journalNodes.item(b);
+			RawJournal rawJournal = parseJournal(currentNode);
+			MyJournal journal = DataConverter.toMyJournal(rawJournal, owner);
+			journals.add(journal);
+		}
+	}
+
 	private RawJournal parseJournal(final Element element) throws XmlException {
 		//Base
 		RawJournal rawJournal = RawJournal.create();
@@ -632,17 +1101,34 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		Set<MyTransaction> transactions = new HashSet<>();
 		for (int a = 0; a < transactionsNodes.getLength(); a++) {
 			Element currentTransactionsNode = (Element) transactionsNodes.item(a);
-			NodeList transactionNodes = currentTransactionsNode.getElementsByTagName("wallettransaction");
-			for (int b = 0; b < transactionNodes.getLength(); b++) {
-				Element currentNode = (Element) transactionNodes.item(b);
-				RawTransaction rawTransaction = parseTransaction(currentNode);
-				MyTransaction transaction = DataConverter.toMyTransaction(rawTransaction, owner);
-				transactions.add(transaction);
+			byte[] section = BinaryXmlReader.getSection(currentTransactionsNode);
+			if (section != null) { //Snapshot
+				parseTransactions(decodeSection(section), owner, transactions);
+			} else {
+				parseTransactions(currentTransactionsNode, owner, transactions);
 			}
 		}
 		owner.setTransactions(transactions);
 	}
 
+	private void parseTransactions(final Element element, final OwnerType owner, final Set<MyTransaction> transactions) throws XmlException {
+		NodeList transactionNodes = element.getElementsByTagName("wallettransaction");
+		for (int b = 0; b < transactionNodes.getLength(); b++) {
+			Element currentNode = (Element) transactionNodes.item(b);
+			RawTransaction rawTransaction = parseTransaction(currentNode);
+			MyTransaction transaction = DataConverter.toMyTransaction(rawTransaction, owner);
+			transactions.add(transaction);
+		}
+	}
+
+	private static Element decodeSection(final byte[] section) throws XmlException {
+		try {
+			return BinaryXmlReader.decodeSection(section);
+		} catch (IOException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		}
+	}
+
 	private RawTransaction parseTransaction(final Element element) throws XmlException {
 		RawTransaction rawTransaction = RawTransaction.create();
 		Date date = getDate(element, "transactiondatetime");
@@ -750,26 +1236,53 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		for (int i = 0; i < assetsNodes.getLength(); i++) {
 			Node currentNode = assetsNodes.item(i);
 			if (currentNode.getNodeName().equals("asset")) {
-				RawAsset rawAsset = parseAsset(currentNode, parentAsset);
-				List<MyAsset> parents = new ArrayList<>();
-				if (parentAsset != null) { //Child
-					parents.addAll(parentAsset.getParents());
-					parents.add(parentAsset);
-				}
-				MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, parents);
+				MyAsset asset = addAsset(currentNode, owner, assets, parentAsset);
 				if (asset == null) {
 					continue;
 				}
-				if (parentAsset == null) { //Root
-					assets.add(asset);
-				} else { //Child
-					parentAsset.addAsset(asset);
-				}
 				parseAssets(currentNode, owner, assets, asset);
 			}
 		}
 	}
 
+	/**
+	 * Stream version of parseAssets(Node, OwnerType, List, MyAsset).
+	 * The reader is on the start tag of the assets (or parent asset) element and is left on its end tag.
+	 */
+	private void parseAssets(final XMLStreamReader reader, final Document doc, final OwnerType owner, final List<MyAsset> assets, final MyAsset parentAsset) throws XMLStreamException, XmlException {
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			if (!reader.getLocalName().equals("asset")) {
+				skipElement(reader);
+				continue;
+			}
+			MyAsset asset = addAsset(readAttributes(reader, doc), owner, assets, parentAsset);
+			if (asset == null) {
+				skipElement(reader);
+				continue;
+			}
+			parseAssets(reader, doc, owner, assets, asset);
+		}
+	}
+
+	private MyAsset addAsset(final Node node, final OwnerType owner, final List<MyAsset> assets, final MyAsset parentAsset) throws XmlException {
+		RawAsset rawAsset = parseAsset(node, parentAsset);
+		List<MyAsset> parents = new ArrayList<>();
+		if (parentAsset != null) { //Child
+			parents.addAll(parentAsset.getParents());
+			parents.add(parentAsset);
+		}
+		MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, parents);
+		if (asset == null) {
+			return null;
+		}
+		if (parentAsset == null) { //Root
+			assets.add(asset);
+		} else { //Child
+			parentAsset.addAsset(asset);
+		}
+		return asset;
+	}
+
 	private RawAsset parseAsset(final Node node, final MyAsset parentAsset) throws XmlException {
 		RawAsset rawAsset = RawAsset.create();
 		int count = getInt(node, "count");
@@ -20,10 +20,16 @@
  */
 package net.nikr.eve.jeveasset.io.local;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiOwner;
@@ -39,21 +45,27 @@ import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
 import net.nikr.eve.jeveasset.data.api.my.MyShip;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
 import net.nikr.eve.jeveasset.data.api.raw.RawBlueprint;
-import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.Change;
 import net.nikr.eve.jeveasset.data.api.raw.RawSkill;
 import net.nikr.eve.jeveasset.data.profile.Profile;
 import net.nikr.eve.jeveasset.io.shared.RawConverter;
 import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 
 public final class ProfileWriter extends AbstractXmlWriter {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ProfileWriter.class);
 
+	/**
+	 * Root attribute with the generation of the snapshot made with the XML file (see ProfileReader).
+	 */
+	static final String GENERATION = "snapshot";
+	/**
+	 * Elements stored as sections in the snapshot (decoded separately by ProfileReader).
+	 */
+	private static final String[] SECTIONS = {"journals", "wallettransactions"};
+
 	private ProfileWriter() { }
 
 	public static boolean save(final Profile profile) {
@@ -61,144 +73,190 @@ public final class ProfileWriter extends AbstractXmlWriter {
 	}
 
 	public static boolean save(final Profile profile, final String filename) {
+		return save(profile, filename, false);
+	}
+
+	/**
+	 * Save the profile XML file.
+	 * @param profile profile to save
+	 * @param filename XML file
+	 * @param snapshot true to also write the binary snapshot cache (see ProfileReader)
+	 * @return true if the XML file was saved
+	 */
+	public static boolean save(final Profile profile, final String filename, final boolean snapshot) {
 		ProfileWriter writer = new ProfileWriter();
-		return writer.write(profile, filename);
+		return writer.write(profile, filename, snapshot);
 	}
 
-	private boolean write(final Profile profile, final String filename) {
-		Document xmldoc;
+	/**
+	 * Write the XML file and the snapshot in the same pass, so they always have the same content.
+	 * Both are tagged with a new generation: the snapshot is only used with the XML file it was made with.
+	 */
+	private boolean write(final Profile profile, final String filename, final boolean snapshot) {
+		final File snapshotFile = getSnapshotFile(filename);
+		final File snapshotNewFile = new File(snapshotFile.getPath() + ".new");
+		final long generation = ThreadLocalRandom.current().nextLong();
+		final SnapshotOutput snapshotOutput = new SnapshotOutput();
+		boolean saved = false;
 		try {
-			xmldoc = getXmlDocument("assets");
+			writeXmlFile(filename, "assets", true, new XmlContent() {
+				@Override
+				public void write(XmlOutput xml) throws IOException {
+					if (snapshot) {
+						xml.setAttribute(GENERATION, String.valueOf(generation));
+						snapshotOutput.open(xml, snapshotNewFile, generation);
+						writeProfile(snapshotOutput, profile);
+						snapshotOutput.close();
+					} else {
+						writeProfile(xml, profile);
+					}
+				}
+			});
+			LOG.info("Profile saved");
+			saved = true;
 		} catch (XmlException ex) {
 			LOG.error("Profile not saved " + ex.getMessage(), ex);
-			return false;
+		} finally {
+			snapshotOutput.abort(); //Only close the file, if not done
 		}
-		writeAccounts(xmldoc, profile.getAccounts());
-		writeEveKitOwners(xmldoc, profile.getEveKitOwners());
-		writeEsiOwners(xmldoc, profile.getEsiOwners());
 		try {
-			writeXmlFile(xmldoc, filename, true);
-		} catch (XmlException ex) {
-			LOG.error("Profile not saved " + ex.getMessage(), ex);
-			return false;
+			lock(filename);
+			if (saved && snapshotOutput.isSaved() && renameFile(snapshotNewFile, snapshotFile)) {
+				LOG.info("Profile snapshot saved");
+			} else {
+				deleteFile(snapshotNewFile);
+				deleteFile(snapshotFile); //Outdated
+			}
+		} finally {
+			unlock(filename); //Last thing to do
 		}
-		LOG.info("Profile saved");
-		return true;
+		return saved;
 	}
 
-	private void writeEsiOwners(final Document xmldoc, final List<EsiOwner> esiOwners) {
-		Element parentNode = xmldoc.createElement("esiowners");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void deleteFile(final File file) {
+		if (file.exists() && !file.delete()) {
+			LOG.warn("Failed to delete: " + file.getName());
+		}
+	}
+
+	private void writeProfile(final XmlOutput xml, final Profile profile) throws IOException {
+		writeAccounts(xml, profile.getAccounts());
+		writeEveKitOwners(xml, profile.getEveKitOwners());
+		writeEsiOwners(xml, profile.getEsiOwners());
+	}
+
+	private void writeEsiOwners(final XmlOutput xml, final List<EsiOwner> esiOwners) throws IOException {
+		xml.startElement("esiowners");
 		for (EsiOwner owner : esiOwners) {
-			Element node = xmldoc.createElement("esiowner");
-			setAttribute(node, "accountname", owner.getAccountName());
-			setAttribute(node, "refreshtoken", owner.getRefreshToken());
-			setAttribute(node, "scopes", String.join(" ", owner.getScopes()));
-			setAttribute(node, "structuresnextupdate", owner.getStructuresNextUpdate());
-			setAttribute(node, "accountnextupdate", owner.getAccountNextUpdate());
-			setAttribute(node, "callbackurl", owner.getCallbackURL());
+			xml.startElement("esiowner");
+			setAttribute(xml, "accountname", owner.getAccountName());
+			setAttribute(xml, "refreshtoken", owner.getRefreshToken());
+			setAttribute(xml, "scopes", String.join(" ", owner.getScopes()));
+			setAttribute(xml, "structuresnextupdate", owner.getStructuresNextUpdate());
+			setAttribute(xml, "accountnextupdate", owner.getAccountNextUpdate());
+			setAttribute(xml, "callbackurl", owner.getCallbackURL());
 			Set<String> roles = new HashSet<>();
 			for (RolesEnum role : owner.getRoles()) {
 				roles.add(role.name());
 			}
-			setAttribute(node, "characterroles", String.join(",", roles));
-			writeTypeOwner(xmldoc, node, owner);
-			parentNode.appendChild(node);
+			setAttribute(xml, "characterroles", String.join(",", roles));
+			writeTypeOwner(xml, owner);
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeEveKitOwners(final Document xmldoc, final List<EveKitOwner> eveKitOwners) {
-		Element parentNode = xmldoc.createElement("evekitowners");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeEveKitOwners(final XmlOutput xml, final List<EveKitOwner> eveKitOwners) throws IOException {
+		xml.startElement("evekitowners");
 		for (EveKitOwner owner : eveKitOwners) {
-			Element node = xmldoc.createElement("evekitowner");
-			setAttribute(node, "accesskey", owner.getAccessKey());
-			setAttribute(node, "accesscred", owner.getAccessCred());
-			setAttributeOptional(node, "expire", owner.getExpire());
-			setAttribute(node, "accessmask", owner.getAccessMask());
-			setAttribute(node, "corporation", owner.isCorporation());
-			setAttributeOptional(node, "limit", owner.getLimit());
-			setAttribute(node, "accountname", owner.getAccountName());
-			setAttribute(node, "migrated", owner.isMigrated());
+			xml.startElement("evekitowner");
+			setAttribute(xml, "accesskey", owner.getAccessKey());
+			setAttribute(xml, "accesscred", owner.getAccessCred());
+			setAttributeOptional(xml, "expire", owner.getExpire());
+			setAttribute(xml, "accessmask", owner.getAccessMask());
+			setAttribute(xml, "corporation", owner.isCorporation());
+			setAttributeOptional(xml, "limit", owner.getLimit());
+			setAttribute(xml, "accountname", owner.getAccountName());
+			setAttribute(xml, "migrated", owner.isMigrated());
 			//ContID
-			setAttributeOptional(node, "journalcid", owner.getJournalCID());
-			setAttributeOptional(node, "transactionscid", owner.getTransactionsCID());
-			setAttributeOptional(node, "contractscid", owner.getContractsCID());
-			setAttributeOptional(node, "industryjobscid", owner.getIndustryJobsCID());
-			setAttributeOptional(node, "marketorderscid", owner.getMarketOrdersCID());
-			setAttributeOptional(node, "accountnextupdate", owner.getAccountNextUpdate());
-			writeTypeOwner(xmldoc, node, owner);
-			parentNode.appendChild(node);
+			setAttributeOptional(xml, "journalcid", owner.getJournalCID());
+			setAttributeOptional(xml, "transactionscid", owner.getTransactionsCID());
+			setAttributeOptional(xml, "contractscid", owner.getContractsCID());
+			setAttributeOptional(xml, "industryjobscid", owner.getIndustryJobsCID());
+			setAttributeOptional(xml, "marketorderscid", owner.getMarketOrdersCID());
+			setAttributeOptional(xml, "accountnextupdate", owner.getAccountNextUpdate());
+			writeTypeOwner(xml, owner);
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeAccounts(final Document xmldoc, final List<EveApiAccount> accounts) {
-		Element parentNode = xmldoc.createElement("accounts");
-		xmldoc.getDocumentElement().appendChild(parentNode);
-
+	private void writeAccounts(final XmlOutput xml, final List<EveApiAccount> accounts) throws IOException {
+		xml.startElement("accounts");
 		for (EveApiAccount account : accounts) {
-			Element node = xmldoc.createElement("account");
-			setAttribute(node, "keyid", account.getKeyID());
-			setAttribute(node, "vcode", account.getVCode());
-			setAttribute(node, "name", account.getName());
-			setAttribute(node, "charactersnextupdate", account.getAccountNextUpdate());
-			setAttribute(node, "accessmask", account.getAccessMask());
-			setAttributeOptional(node, "type", account.getType());
-			setAttribute(node, "expires", account.getExpires() == null ? "0" : account.getExpires());
-			setAttribute(node, "invalid", account.isInvalid());
-			parentNode.appendChild(node);
-			writeOwners(xmldoc, node, account.getOwners());
+			xml.startElement("account");
+			setAttribute(xml, "keyid", account.getKeyID());
+			setAttribute(xml, "vcode", account.getVCode());
+			setAttribute(xml, "name", account.getName());
+			setAttribute(xml, "charactersnextupdate", account.getAccountNextUpdate());
+			setAttribute(xml, "accessmask", account.getAccessMask());
+			setAttributeOptional(xml, "type", account.getType());
+			setAttribute(xml, "expires", account.getExpires() == null ? "0" : account.getExpires());
+			setAttribute(xml, "invalid", account.isInvalid());
+			writeOwners(xml, account.getOwners());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeOwners(final Document xmldoc, final Element parentNode, final List<EveApiOwner> owners) {
+	private void writeOwners(final XmlOutput xml, final List<EveApiOwner> owners) throws IOException {
 		for (EveApiOwner owner : owners) {
-			Element node = xmldoc.createElement("human");
-			setAttribute(node, "migrated", owner.isMigrated());
-			writeTypeOwner(xmldoc, node, owner);
-			parentNode.appendChild(node);
+			xml.startElement("human");
+			setAttribute(xml, "migrated", owner.isMigrated());
+			writeTypeOwner(xml, owner);
+			xml.endElement();
 		}
 	}
 
-	private void writeTypeOwner(final Document xmldoc, final Element node, final OwnerType owner) {
-		setAttribute(node, "id", owner.getOwnerID());
-		setAttribute(node, "name", owner.getOwnerName());
-		setAttributeOptional(node, "corp", owner.getCorporationName());
-		setAttribute(node, "show", owner.isShowOwner());
-		setAttribute(node, "invalid", owner.isInvalid());
-		setAttributeOptional(node, "assetslastupdate", owner.getAssetLastUpdate());
-		setAttribute(node, "assetsnextupdate", owner.getAssetNextUpdate());
-		setAttributeOptional(node, "balancelastupdate", owner.getBalanceLastUpdate());
-		setAttribute(node, "balancenextupdate", owner.getBalanceNextUpdate());
-		setAttribute(node, "marketordersnextupdate", owner.getMarketOrdersNextUpdate());
-		setAttribute(node, "journalnextupdate", owner.getJournalNextUpdate());
-		setAttribute(node, "wallettransactionsnextupdate", owner.getTransactionsNextUpdate());
-		setAttribute(node, "industryjobsnextupdate", owner.getIndustryJobsNextUpdate());
-		setAttribute(node, "contractsnextupdate", owner.getContractsNextUpdate());
-		setAttribute(node, "locationsnextupdate", owner.getLocationsNextUpdate());
-		setAttribute(node, "blueprintsnextupdate", owner.getBlueprintsNextUpdate());
-		setAttribute(node, "bookmarksnextupdate", owner.getBookmarksNextUpdate());
-		setAttribute(node, "skillsnextupdate", owner.getSkillsNextUpdate());
-
-		Element childNode = xmldoc.createElement("assets");
-		node.appendChild(childNode);
-		writeAssets(xmldoc, childNode, owner.getAssets());
-		writeActiveShip(xmldoc, node, owner.getActiveShip());
-		writeContractItems(xmldoc, node, owner.getContracts());
-		writeAccountBalances(xmldoc, node, owner.getAccountBalances(), owner.isCorporation());
-		writeMarketOrders(xmldoc, node, owner.getMarketOrders(), owner.isCorporation());
-		writeJournals(xmldoc, node, owner.getJournal(), owner.isCorporation());
-		writeTransactions(xmldoc, node, owner.getTransactions(), owner.isCorporation());
-		writeIndustryJobs(xmldoc, node, owner.getIndustryJobs(), owner.isCorporation());
-		writeBlueprints(xmldoc, node, owner.getBlueprints(), owner.isCorporation());
-		writeAssetDivisions(xmldoc, node, owner.getAssetDivisions());
-		writeWalletDivisions(xmldoc, node, owner.getWalletDivisions());
-		writeSkills(xmldoc, node, owner.getSkills(), owner.getTotalSkillPoints(), owner.getUnallocatedSkillPoints());
+	private void writeTypeOwner(final XmlOutput xml, final OwnerType owner) throws IOException {
+		setAttribute(xml, "id", owner.getOwnerID());
+		setAttribute(xml, "name", owner.getOwnerName());
+		setAttributeOptional(xml, "corp", owner.getCorporationName());
+		setAttribute(xml, "show", owner.isShowOwner());
+		setAttribute(xml, "invalid", owner.isInvalid());
+		setAttributeOptional(xml, "assetslastupdate", owner.getAssetLastUpdate());
+		setAttribute(xml, "assetsnextupdate", owner.getAssetNextUpdate());
+		setAttributeOptional(xml, "balancelastupdate", owner.getBalanceLastUpdate());
+		setAttribute(xml, "balancenextupdate", owner.getBalanceNextUpdate());
+		setAttribute(xml, "marketordersnextupdate", owner.getMarketOrdersNextUpdate());
+		setAttribute(xml, "journalnextupdate", owner.getJournalNextUpdate());
+		setAttribute(xml, "wallettransactionsnextupdate", owner.getTransactionsNextUpdate());
+		setAttribute(xml, "industryjobsnextupdate", owner.getIndustryJobsNextUpdate());
+		setAttribute(xml, "contractsnextupdate", owner.getContractsNextUpdate());
+		setAttribute(xml, "locationsnextupdate", owner.getLocationsNextUpdate());
+		setAttribute(xml, "blueprintsnextupdate", owner.getBlueprintsNextUpdate());
+		setAttribute(xml, "bookmarksnextupdate", owner.getBookmarksNextUpdate());
+		setAttribute(xml, "skillsnextupdate", owner.getSkillsNextUpdate());
+
+		xml.startElement("assets");
+		writeAssets(xml, owner.getAssets());
+		xml.endElement();
+		writeActiveShip(xml, owner.getActiveShip());
+		writeContractItems(xml, owner.getContracts());
+		writeAccountBalances(xml, owner.getAccountBalances(), owner.isCorporation());
+		writeMarketOrders(xml, owner.getMarketOrders(), owner.isCorporation());
+		writeJournals(xml, owner.getJournal(), owner.isCorporation());
+		writeTransactions(xml, owner.getTransactions(), owner.isCorporation());
+		writeIndustryJobs(xml, owner.getIndustryJobs(), owner.isCorporation());
+		writeBlueprints(xml, owner.getBlueprints(), owner.isCorporation());
+		writeAssetDivisions(xml, owner.getAssetDivisions());
+		writeWalletDivisions(xml, owner.getWalletDivisions());
+		writeSkills(xml, owner.getSkills(), owner.getTotalSkillPoints(), owner.getUnallocatedSkillPoints());
 	}
 
-	private void writeAssets(final Document xmldoc, final Element parentNode, final List<MyAsset> assets) {
+	private void writeAssets(final XmlOutput xml, final List<MyAsset> assets) throws IOException {
 		for (MyAsset asset : assets) {
-			Element node = xmldoc.createElement("asset");
+			xml.startElement("asset");
 			Integer quantity = asset.getQuantity();
 			int count;
 			Integer rawQuantity;
@@ -209,283 +267,376 @@ public final class ProfileWriter extends AbstractXmlWriter {
 				count = quantity;
 				rawQuantity = null;
 			}
-			setAttribute(node, "count", count);
-			setAttribute(node, "flagid", asset.getFlagID());
-			setAttributeOptional(node, "flagstring", asset.getLocationFlagString());
-			setAttribute(node, "id", asset.getItemID());
-			setAttribute(node, "typeid", asset.getItem().getTypeID());
-			setAttribute(node, "locationid", asset.getLocationID());
-			setAttribute(node, "singleton", asset.isSingleton());
-			setAttributeOptional(node, "rawquantity", rawQuantity);
-			parentNode.appendChild(node);
-			writeAssets(xmldoc, node, asset.getAssets());
+			setAttribute(xml, "count", count);
+			setAttribute(xml, "flagid", asset.getFlagID());
+			setAttributeOptional(xml, "flagstring", asset.getLocationFlagString());
+			setAttribute(xml, "id", asset.getItemID());
+			setAttribute(xml, "typeid", asset.getItem().getTypeID());
+			setAttribute(xml, "locationid", asset.getLocationID());
+			setAttribute(xml, "singleton", asset.isSingleton());
+			setAttributeOptional(xml, "rawquantity", rawQuantity);
+			writeAssets(xml, asset.getAssets());
+			xml.endElement();
 		}
 	}
 
-	private void writeActiveShip(Document xmldoc, Element parentNode, MyShip activeShip) {
+	private void writeActiveShip(final XmlOutput xml, MyShip activeShip) throws IOException {
 		if (activeShip != null) {
-			Element node = xmldoc.createElement("activeship");
-			setAttribute(node, "itemid", activeShip.getItemID());
-			setAttribute(node, "typeid", activeShip.getTypeID());
-			setAttribute(node, "locationid", activeShip.getLocationID());
-			parentNode.appendChild(node);
+			xml.startElement("activeship");
+			setAttribute(xml, "itemid", activeShip.getItemID());
+			setAttribute(xml, "typeid", activeShip.getTypeID());
+			setAttribute(xml, "locationid", activeShip.getLocationID());
+			xml.endElement();
 		}
 	}
 
-	private void writeContractItems(Document xmldoc, Element parentNode, Map<MyContract, List<MyContractItem>> contractItems) {
-		Element contractsNode = xmldoc.createElement("contracts");
-		parentNode.appendChild(contractsNode);
+	private void writeContractItems(final XmlOutput xml, Map<MyContract, List<MyContractItem>> contractItems) throws IOException {
+		xml.startElement("contracts");
 		for (Map.Entry<MyContract, List<MyContractItem>> entry : contractItems.entrySet()) {
 			MyContract contract = entry.getKey();
-			Element contractNode = xmldoc.createElement("contract");
-			setAttribute(contractNode, "acceptorid", contract.getAcceptorID());
-			setAttribute(contractNode, "assigneeid", contract.getAssigneeID());
-			setAttributeOptional(contractNode, "availability", contract.getAvailability());
-			setAttributeOptional(contractNode, "availabilitystring", contract.getAvailabilityString());
-			setAttributeOptional(contractNode, "buyout", contract.getBuyout());
-			setAttributeOptional(contractNode, "collateral", contract.getCollateral());
-			setAttribute(contractNode, "contractid", contract.getContractID());
-			setAttributeOptional(contractNode, "dateaccepted", contract.getDateAccepted());
-			setAttributeOptional(contractNode, "datecompleted", contract.getDateCompleted());
-			setAttribute(contractNode, "dateexpired", contract.getDateExpired());
-			setAttribute(contractNode, "dateissued", contract.getDateIssued());
-			setAttributeOptional(contractNode, "endstationid", contract.getEndLocationID());
-			setAttribute(contractNode, "issuercorpid", contract.getIssuerCorpID());
-			setAttribute(contractNode, "issuerid", contract.getIssuerID());
-			setAttributeOptional(contractNode, "numdays", contract.getDaysToComplete());
-			setAttributeOptional(contractNode, "price", contract.getPrice());
-			setAttributeOptional(contractNode, "reward", contract.getReward());
-			setAttributeOptional(contractNode, "startstationid", contract.getStartLocationID());
-			setAttributeOptional(contractNode, "status", contract.getStatus());
-			setAttributeOptional(contractNode, "statusstring", contract.getStatusString());
-			setAttributeOptional(contractNode, "title", contract.getTitle());
-			setAttributeOptional(contractNode, "typestring", contract.getTypeString());
-			setAttributeOptional(contractNode, "type", contract.getType());
-			setAttributeOptional(contractNode, "volume", contract.getVolume());
-			setAttribute(contractNode, "forcorp", contract.isForCorp());
-			setAttribute(contractNode, "esi", contract.isESI());
-			contractsNode.appendChild(contractNode);
+			xml.startElement("contract");
+			setAttribute(xml, "acceptorid", contract.getAcceptorID());
+			setAttribute(xml, "assigneeid", contract.getAssigneeID());
+			setAttributeOptional(xml, "availability", contract.getAvailability());
+			setAttributeOptional(xml, "availabilitystring", contract.getAvailabilityString());
+			setAttributeOptional(xml, "buyout", contract.getBuyout());
+			setAttributeOptional(xml, "collateral", contract.getCollateral());
+			setAttribute(xml, "contractid", contract.getContractID());
+			setAttributeOptional(xml, "dateaccepted", contract.getDateAccepted());
+			setAttributeOptional(xml, "datecompleted", contract.getDateCompleted());
+			setAttribute(xml, "dateexpired", contract.getDateExpired());
+			setAttribute(xml, "dateissued", contract.getDateIssued());
+			setAttributeOptional(xml, "endstationid", contract.getEndLocationID());
+			setAttribute(xml, "issuercorpid", contract.getIssuerCorpID());
+			setAttribute(xml, "issuerid", contract.getIssuerID());
+			setAttributeOptional(xml, "numdays", contract.getDaysToComplete());
+			setAttributeOptional(xml, "price", contract.getPrice());
+			setAttributeOptional(xml, "reward", contract.getReward());
+			setAttributeOptional(xml, "startstationid", contract.getStartLocationID());
+			setAttributeOptional(xml, "status", contract.getStatus());
+			setAttributeOptional(xml, "statusstring", contract.getStatusString());
+			setAttributeOptional(xml, "title", contract.getTitle());
+			setAttributeOptional(xml, "typestring", contract.getTypeString());
+			setAttributeOptional(xml, "type", contract.getType());
+			setAttributeOptional(xml, "volume", contract.getVolume());
+			setAttribute(xml, "forcorp", contract.isForCorp());
+			setAttribute(xml, "esi", contract.isESI());
 			for (MyContractItem contractItem : entry.getValue()) {
-				Element itemNode = xmldoc.createElement("contractitem");
-				setAttribute(itemNode, "included", contractItem.isIncluded());
-				setAttribute(itemNode, "quantity", contractItem.getQuantity());
-				setAttribute(itemNode, "recordid", contractItem.getRecordID());
-				setAttribute(itemNode, "singleton", contractItem.isSingleton());
-				setAttribute(itemNode, "typeid", contractItem.getTypeID());
-				setAttributeOptional(itemNode, "rawquantity", contractItem.getRawQuantity());
-				setAttributeOptional(itemNode, "itemid", contractItem.getItemID());
-				setAttributeOptional(itemNode, "runs", contractItem.getLicensedRuns());
-				setAttributeOptional(itemNode, "me", contractItem.getME());
-				setAttributeOptional(itemNode, "te", contractItem.getTE());
-				contractNode.appendChild(itemNode);
+				xml.startElement("contractitem");
+				setAttribute(xml, "included", contractItem.isIncluded());
+				setAttribute(xml, "quantity", contractItem.getQuantity());
+				setAttribute(xml, "recordid", contractItem.getRecordID());
+				setAttribute(xml, "singleton", contractItem.isSingleton());
+				setAttribute(xml, "typeid", contractItem.getTypeID());
+				setAttributeOptional(xml, "rawquantity", contractItem.getRawQuantity());
+				setAttributeOptional(xml, "itemid", contractItem.getItemID());
+				setAttributeOptional(xml, "runs", contractItem.getLicensedRuns());
+				setAttributeOptional(xml, "me", contractItem.getME());
+				setAttributeOptional(xml, "te", contractItem.getTE());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeAccountBalances(final Document xmldoc, final Element parentNode, final List<MyAccountBalance> accountBalances, final boolean bCorp) {
-		Element node = xmldoc.createElement("balances");
-		if (!accountBalances.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeAccountBalances(final XmlOutput xml, final List<MyAccountBalance> accountBalances, final boolean bCorp) throws IOException {
+		if (accountBalances.isEmpty()) {
+			return;
 		}
+		xml.startElement("balances");
+		setAttribute(xml, "corp", bCorp);
 		for (MyAccountBalance accountBalance : accountBalances) {
-			Element childNode = xmldoc.createElement("balance");
-			setAttribute(childNode, "accountkey", accountBalance.getAccountKey());
-			setAttribute(childNode, "balance", accountBalance.getBalance());
-			node.appendChild(childNode);
+			xml.startElement("balance");
+			setAttribute(xml, "accountkey", accountBalance.getAccountKey());
+			setAttribute(xml, "balance", accountBalance.getBalance());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeMarketOrders(final Document xmldoc, final Element parentNode, final Set<MyMarketOrder> marketOrders, final boolean bCorp) {
-		Element node = xmldoc.createElement("markerorders");
-		if (!marketOrders.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeMarketOrders(final XmlOutput xml, final Set<MyMarketOrder> marketOrders, final boolean bCorp) throws IOException {
+		if (marketOrders.isEmpty()) {
+			return;
 		}
+		xml.startElement("markerorders");
+		setAttribute(xml, "corp", bCorp);
 		for (MyMarketOrder marketOrder : marketOrders) {
-			Element childNode = xmldoc.createElement("markerorder");
-			setAttribute(childNode, "orderid", marketOrder.getOrderID());
-			setAttribute(childNode, "stationid", marketOrder.getLocationID());
-			setAttribute(childNode, "volentered", marketOrder.getVolumeTotal());
-			setAttribute(childNode, "volremaining", marketOrder.getVolumeRemain());
-			setAttribute(childNode, "minvolume", marketOrder.getMinVolume());
-			setAttributeOptional(childNode, "orderstateenum", marketOrder.getState());
-			setAttributeOptional(childNode, "orderstatestring", marketOrder.getStateString());
-			setAttribute(childNode, "typeid", marketOrder.getTypeID());
-			setAttributeOptional(childNode, "rangeenum", marketOrder.getRange());
-			setAttributeOptional(childNode, "rangestring", marketOrder.getRangeString());
-			setAttribute(childNode, "accountkey", marketOrder.getWalletDivision());
-			setAttribute(childNode, "duration", marketOrder.getDuration());
-			setAttribute(childNode, "escrow", marketOrder.getEscrow());
-			setAttribute(childNode, "price", marketOrder.getPrice());
-			setAttribute(childNode, "bid", RawConverter.fromMarketOrderIsBuyOrder(marketOrder.isBuyOrder()));
-			setAttribute(childNode, "issued", marketOrder.getIssued());
-			setAttributeOptional(childNode, "issuedby", marketOrder.getIssuedBy());
-			setAttribute(childNode, "corp", marketOrder.isCorp());
-			setAttribute(childNode, "esi", marketOrder.isESI());
-			node.appendChild(childNode);
-			for (Change change : marketOrder.getChanges()) {
-				Element changeNode = xmldoc.createElement("change");
-				setAttribute(changeNode, "date", change.getDate());
-				setAttributeOptional(changeNode, "price", change.getPrice());
-				setAttributeOptional(changeNode, "volremaining", change.getVolumeRemaining());
-			}
+			xml.startElement("markerorder");
+			setAttribute(xml, "orderid", marketOrder.getOrderID());
+			setAttribute(xml, "stationid", marketOrder.getLocationID());
+			setAttribute(xml, "volentered", marketOrder.getVolumeTotal());
+			setAttribute(xml, "volremaining", marketOrder.getVolumeRemain());
+			setAttribute(xml, "minvolume", marketOrder.getMinVolume());
+			setAttributeOptional(xml, "orderstateenum", marketOrder.getState());
+			setAttributeOptional(xml, "orderstatestring", marketOrder.getStateString());
+			setAttribute(xml, "typeid", marketOrder.getTypeID());
+			setAttributeOptional(xml, "rangeenum", marketOrder.getRange());
+			setAttributeOptional(xml, "rangestring", marketOrder.getRangeString());
+			setAttribute(xml, "accountkey", marketOrder.getWalletDivision());
+			setAttribute(xml, "duration", marketOrder.getDuration());
+			setAttribute(xml, "escrow", marketOrder.getEscrow());
+			setAttribute(xml, "price", marketOrder.getPrice());
+			setAttribute(xml, "bid", RawConverter.fromMarketOrderIsBuyOrder(marketOrder.isBuyOrder()));
+			setAttribute(xml, "issued", marketOrder.getIssued());
+			setAttributeOptional(xml, "issuedby", marketOrder.getIssuedBy());
+			setAttribute(xml, "corp", marketOrder.isCorp());
+			setAttribute(xml, "esi", marketOrder.isESI());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeJournals(final Document xmldoc, final Element parentNode, final Set<MyJournal> journals, final boolean bCorp) {
-		Element node = xmldoc.createElement("journals");
-		if (!journals.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeJournals(final XmlOutput xml, final Set<MyJournal> journals, final boolean bCorp) throws IOException {
+		if (journals.isEmpty()) {
+			return;
 		}
+		xml.startElement("journals");
+		setAttribute(xml, "corp", bCorp);
 		for (MyJournal journal : journals) {
-			Element childNode = xmldoc.createElement("journal");
+			xml.startElement("journal");
 			//Base
-			setAttributeOptional(childNode, "amount", journal.getAmount());
-			setAttributeOptional(childNode, "balance", journal.getBalance());
-			setAttributeOptional(childNode, "contextid", journal.getContextID());
-			setAttributeOptional(childNode, "contexttype", journal.getContextType());
-			setAttributeOptional(childNode, "contexttypestring", journal.getContextTypeString());
-			setAttribute(childNode, "date", journal.getDate());
-			setAttribute(childNode, "description", journal.getDescription());
-			setAttributeOptional(childNode, "ownerid1", journal.getFirstPartyID());
-			setAttributeOptional(childNode, "ownerid2", journal.getSecondPartyID());
-			setAttributeOptional(childNode, "reason", journal.getReason());
-			setAttribute(childNode, "refid", journal.getRefID());
+			setAttributeOptional(xml, "amount", journal.getAmount());
+			setAttributeOptional(xml, "balance", journal.getBalance());
+			setAttributeOptional(xml, "contextid", journal.getContextID());
+			setAttributeOptional(xml, "contexttype", journal.getContextType());
+			setAttributeOptional(xml, "contexttypestring", journal.getContextTypeString());
+			setAttribute(xml, "date", journal.getDate());
+			setAttribute(xml, "description", journal.getDescription());
+			setAttributeOptional(xml, "ownerid1", journal.getFirstPartyID());
+			setAttributeOptional(xml, "ownerid2", journal.getSecondPartyID());
+			setAttributeOptional(xml, "reason", journal.getReason());
+			setAttribute(xml, "refid", journal.getRefID());
 			if (journal.getRefType() != null) {
-				setAttribute(childNode, "reftypeid", journal.getRefType().getID());
+				setAttribute(xml, "reftypeid", journal.getRefType().getID());
 			}
-			setAttribute(childNode, "reftypestring", journal.getRefTypeString());
-			setAttributeOptional(childNode, "taxamount", journal.getTaxAmount());
-			setAttributeOptional(childNode, "taxreceiverid", journal.getTaxReceiverID());
+			setAttribute(xml, "reftypestring", journal.getRefTypeString());
+			setAttributeOptional(xml, "taxamount", journal.getTaxAmount());
+			setAttributeOptional(xml, "taxreceiverid", journal.getTaxReceiverID());
 			//Extra
-			setAttribute(childNode, "accountkey", journal.getAccountKey());
-			node.appendChild(childNode);
+			setAttribute(xml, "accountkey", journal.getAccountKey());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTransactions(final Document xmldoc, final Element parentNode, final Set<MyTransaction> transactions, final boolean bCorp) {
-		Element node = xmldoc.createElement("wallettransactions");
-		if (!transactions.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeTransactions(final XmlOutput xml, final Set<MyTransaction> transactions, final boolean bCorp) throws IOException {
+		if (transactions.isEmpty()) {
+			return;
 		}
+		xml.startElement("wallettransactions");
+		setAttribute(xml, "corp", bCorp);
 		for (MyTransaction transaction : transactions) {
-			Element childNode = xmldoc.createElement("wallettransaction");
-			setAttribute(childNode, "transactiondatetime", transaction.getDate());
-			setAttribute(childNode, "transactionid", transaction.getTransactionID());
-			setAttribute(childNode, "quantity", transaction.getQuantity());
-			setAttribute(childNode, "typeid", transaction.getTypeID());
-			setAttribute(childNode, "price", transaction.getPrice());
-			setAttribute(childNode, "clientid", transaction.getClientID());
-			setAttribute(childNode, "clientname", transaction.getClientName());
-			setAttribute(childNode, "stationid", transaction.getLocationID());
-			setAttribute(childNode, "transactiontype", RawConverter.fromTransactionIsBuy(transaction.isBuy()));
-			setAttribute(childNode, "transactionfor", RawConverter.fromTransactionIsPersonal(transaction.isPersonal()));
+			xml.startElement("wallettransaction");
+			setAttribute(xml, "transactiondatetime", transaction.getDate());
+			setAttribute(xml, "transactionid", transaction.getTransactionID());
+			setAttribute(xml, "quantity", transaction.getQuantity());
+			setAttribute(xml, "typeid", transaction.getTypeID());
+			setAttribute(xml, "price", transaction.getPrice());
+			setAttribute(xml, "clientid", transaction.getClientID());
+			setAttribute(xml, "clientname", transaction.getClientName());
+			setAttribute(xml, "stationid", transaction.getLocationID());
+			setAttribute(xml, "transactiontype", RawConverter.fromTransactionIsBuy(transaction.isBuy()));
+			setAttribute(xml, "transactionfor", RawConverter.fromTransactionIsPersonal(transaction.isPersonal()));
 			//New
-			setAttribute(childNode, "journaltransactionid", transaction.getTransactionID());
-			setAttribute(childNode, "clienttypeid", transaction.getClientID());
+			setAttribute(xml, "journaltransactionid", transaction.getTransactionID());
+			setAttribute(xml, "clienttypeid", transaction.getClientID());
 			//Extra
-			setAttribute(childNode, "accountkey", transaction.getAccountKey());
-			node.appendChild(childNode);
+			setAttribute(xml, "accountkey", transaction.getAccountKey());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeIndustryJobs(final Document xmldoc, final Element parentNode, final List<MyIndustryJob> industryJobs, final boolean bCorp) {
-		Element node = xmldoc.createElement("industryjobs");
-		if (!industryJobs.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeIndustryJobs(final XmlOutput xml, final List<MyIndustryJob> industryJobs, final boolean bCorp) throws IOException {
+		if (industryJobs.isEmpty()) {
+			return;
 		}
+		xml.startElement("industryjobs");
+		setAttribute(xml, "corp", bCorp);
 		for (MyIndustryJob industryJob : industryJobs) {
-			Element childNode = xmldoc.createElement("industryjob");
-			setAttribute(childNode, "jobid", industryJob.getJobID());
-			setAttribute(childNode, "installerid", industryJob.getInstallerID());
-			setAttribute(childNode, "facilityid", industryJob.getFacilityID());
-			setAttribute(childNode, "stationid", industryJob.getStationID());
-			setAttribute(childNode, "activityid", industryJob.getActivityID());
-			setAttribute(childNode, "blueprintid", industryJob.getBlueprintID());
-			setAttribute(childNode, "blueprinttypeid", industryJob.getBlueprintTypeID());
-			setAttribute(childNode, "blueprintlocationid", industryJob.getBlueprintLocationID());
-			setAttribute(childNode, "outputlocationid", industryJob.getOutputLocationID());
-			setAttribute(childNode, "runs", industryJob.getRuns());
-			setAttributeOptional(childNode, "cost", industryJob.getCost());
-			setAttributeOptional(childNode, "licensedruns", industryJob.getLicensedRuns());
-			setAttributeOptional(childNode, "probability", industryJob.getProbability());
-			setAttributeOptional(childNode, "producttypeid", industryJob.getProductTypeID());
-			setAttributeOptional(childNode, "statusenum", industryJob.getStatus());
-			setAttributeOptional(childNode, "statusstring", industryJob.getStatusString());
-			setAttribute(childNode, "timeinseconds", industryJob.getDuration());
-			setAttribute(childNode, "startdate", industryJob.getStartDate());
-			setAttribute(childNode, "enddate", industryJob.getEndDate());
-			setAttributeOptional(childNode, "pausedate", industryJob.getPauseDate());
-			setAttributeOptional(childNode, "completeddate", industryJob.getCompletedDate());
-			setAttributeOptional(childNode, "completedcharacterid", industryJob.getCompletedCharacterID());
-			setAttributeOptional(childNode, "successfulruns", industryJob.getSuccessfulRuns());
-			node.appendChild(childNode);
+			xml.startElement("industryjob");
+			setAttribute(xml, "jobid", industryJob.getJobID());
+			setAttribute(xml, "installerid", industryJob.getInstallerID());
+			setAttribute(xml, "facilityid", industryJob.getFacilityID());
+			setAttribute(xml, "stationid", industryJob.getStationID());
+			setAttribute(xml, "activityid", industryJob.getActivityID());
+			setAttribute(xml, "blueprintid", industryJob.getBlueprintID());
+			setAttribute(xml, "blueprinttypeid", industryJob.getBlueprintTypeID());
+			setAttribute(xml, "blueprintlocationid", industryJob.getBlueprintLocationID());
+			setAttribute(xml, "outputlocationid", industryJob.getOutputLocationID());
+			setAttribute(xml, "runs", industryJob.getRuns());
+			setAttributeOptional(xml, "cost", industryJob.getCost());
+			setAttributeOptional(xml, "licensedruns", industryJob.getLicensedRuns());
+			setAttributeOptional(xml, "probability", industryJob.getProbability());
+			setAttributeOptional(xml, "producttypeid", industryJob.getProductTypeID());
+			setAttributeOptional(xml, "statusenum", industryJob.getStatus());
+			setAttributeOptional(xml, "statusstring", industryJob.getStatusString());
+			setAttribute(xml, "timeinseconds", industryJob.getDuration());
+			setAttribute(xml, "startdate", industryJob.getStartDate());
+			setAttribute(xml, "enddate", industryJob.getEndDate());
+			setAttributeOptional(xml, "pausedate", industryJob.getPauseDate());
+			setAttributeOptional(xml, "completeddate", industryJob.getCompletedDate());
+			setAttributeOptional(xml, "completedcharacterid", industryJob.getCompletedCharacterID());
+			setAttributeOptional(xml, "successfulruns", industryJob.getSuccessfulRuns());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeBlueprints(final Document xmldoc, final Element parentNode, final Map<Long, RawBlueprint> blueprints, final boolean bCorp) {
-		Element node = xmldoc.createElement("blueprints");
-		if (!blueprints.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeBlueprints(final XmlOutput xml, final Map<Long, RawBlueprint> blueprints, final boolean bCorp) throws IOException {
+		if (blueprints.isEmpty()) {
+			return;
 		}
+		xml.startElement("blueprints");
+		setAttribute(xml, "corp", bCorp);
 		for (RawBlueprint blueprint : blueprints.values()) {
-			Element childNode = xmldoc.createElement("blueprint");
-			setAttribute(childNode, "itemid", blueprint.getItemID());
-			setAttribute(childNode, "locationid", blueprint.getLocationID());
-			setAttribute(childNode, "typeid", blueprint.getTypeID());
-			setAttribute(childNode, "flagid", blueprint.getFlagID());
-			setAttributeOptional(childNode, "flagstring", blueprint.getLocationFlagString());
-			setAttribute(childNode, "quantity", blueprint.getQuantity());
-			setAttribute(childNode, "timeefficiency", blueprint.getTimeEfficiency());
-			setAttribute(childNode, "materialefficiency", blueprint.getMaterialEfficiency());
-			setAttribute(childNode, "runs", blueprint.getRuns());
-			node.appendChild(childNode);
+			xml.startElement("blueprint");
+			setAttribute(xml, "itemid", blueprint.getItemID());
+			setAttribute(xml, "locationid", blueprint.getLocationID());
+			setAttribute(xml, "typeid", blueprint.getTypeID());
+			setAttribute(xml, "flagid", blueprint.getFlagID());
+			setAttributeOptional(xml, "flagstring", blueprint.getLocationFlagString());
+			setAttribute(xml, "quantity", blueprint.getQuantity());
+			setAttribute(xml, "timeefficiency", blueprint.getTimeEfficiency());
+			setAttribute(xml, "materialefficiency", blueprint.getMaterialEfficiency());
+			setAttribute(xml, "runs", blueprint.getRuns());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeAssetDivisions(final Document xmldoc, final Element parentNode, final Map<Integer, String> divisions) {
-		Element node = xmldoc.createElement("assetdivisions");
-		if (!divisions.isEmpty()) {
-			parentNode.appendChild(node);
+	private void writeAssetDivisions(final XmlOutput xml, final Map<Integer, String> divisions) throws IOException {
+		if (divisions.isEmpty()) {
+			return;
 		}
+		xml.startElement("assetdivisions");
 		for (Map.Entry<Integer, String> entry : divisions.entrySet()) {
-			Element childNode = xmldoc.createElement("assetdivision");
-			setAttribute(childNode, "id", entry.getKey());
-			setAttribute(childNode, "name", entry.getValue());
-			node.appendChild(childNode);
+			xml.startElement("assetdivision");
+			setAttribute(xml, "id", entry.getKey());
+			setAttribute(xml, "name", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeWalletDivisions(final Document xmldoc, final Element parentNode, final Map<Integer, String> divisions) {
-		Element node = xmldoc.createElement("walletdivisions");
-		if (!divisions.isEmpty()) {
-			parentNode.appendChild(node);
+	private void writeWalletDivisions(final XmlOutput xml, final Map<Integer, String> divisions) throws IOException {
+		if (divisions.isEmpty()) {
+			return;
 		}
+		xml.startElement("walletdivisions");
 		for (Map.Entry<Integer, String> entry : divisions.entrySet()) {
-			Element childNode = xmldoc.createElement("walletdivision");
-			setAttribute(childNode, "id", entry.getKey());
-			setAttributeOptional(childNode, "name", entry.getValue());
-			node.appendChild(childNode);
+			xml.startElement("walletdivision");
+			setAttribute(xml, "id", entry.getKey());
+			setAttributeOptional(xml, "name", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeSkills(final Document xmldoc, final Element parentNode, final List<RawSkill> skills, Long totalSkillPoints, Integer unallocatedSkillPoints) {
-		Element node = xmldoc.createElement("skills");
-		parentNode.appendChild(node);
-		setAttributeOptional(node, "total", totalSkillPoints);
-		setAttributeOptional(node, "unallocated", unallocatedSkillPoints);
+	private void writeSkills(final XmlOutput xml, final List<RawSkill> skills, Long totalSkillPoints, Integer unallocatedSkillPoints) throws IOException {
+		xml.startElement("skills");
+		setAttributeOptional(xml, "total", totalSkillPoints);
+		setAttributeOptional(xml, "unallocated", unallocatedSkillPoints);
 		for (RawSkill skill : skills) {
-			Element childNode = xmldoc.createElement("skill");
-			setAttribute(childNode, "id", skill.getTypeID());
-			setAttribute(childNode, "sp", skill.getSkillpoints());
-			setAttribute(childNode, "active", skill.getActiveSkillLevel());
-			setAttribute(childNode, "trained", skill.getTrainedSkillLevel());
-			node.appendChild(childNode);
+			xml.startElement("skill");
+			setAttribute(xml, "id", skill.getTypeID());
+			setAttribute(xml, "sp", skill.getSkillpoints());
+			setAttribute(xml, "active", skill.getActiveSkillLevel());
+			setAttribute(xml, "trained", skill.getTrainedSkillLevel());
+			xml.endElement();
+		}
+		xml.endElement();
+	}
+
+	/**
+	 * Writes to the XML file and the snapshot.
+	 * Snapshot errors are logged and stop the snapshot, the XML file is still written.
+	 */
+	private static class SnapshotOutput implements XmlOutput {
+
+		private XmlOutput xml;
+		private OutputStream out;
+		private BinaryXmlWriter binary;
+		private boolean saved = false;
+
+		public void open(final XmlOutput xml, final File file, final long generation) {
+			this.xml = xml;
+			try {
+				out = new BufferedOutputStream(new FileOutputStream(file));
+				binary = new BinaryXmlWriter(out, SECTIONS);
+				binary.startDocument(generation, "assets");
+			} catch (IOException ex) {
+				fail(ex);
+			}
+		}
+
+		public void close() {
+			if (binary == null) {
+				return;
+			}
+			try {
+				binary.endDocument();
+				out.close();
+				out = null;
+				binary = null;
+				saved = true;
+			} catch (IOException ex) {
+				fail(ex);
+			}
+		}
+
+		public void abort() {
+			binary = null;
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+				out = null;
+			}
+		}
+
+		public boolean isSaved() {
+			return saved;
+		}
+
+		@Override
+		public void startElement(final String name) throws IOException {
+			xml.startElement(name);
+			if (binary != null) {
+				try {
+					binary.startElement(name);
+				} catch (IOException ex) {
+					fail(ex);
+				}
+			}
+		}
+
+		@Override
+		public void setAttribute(final String name, final String value) {
+			xml.setAttribute(name, value);
+			if (binary != null) {
+				binary.setAttribute(name, value);
+			}
+		}
+
+		@Override
+		public void endElement() throws IOException {
+			xml.endElement();
+			if (binary != null) {
+				try {
+					binary.endElement();
+				} catch (IOException ex) {
+					fail(ex);
+				}
+			}
+		}
+
+		private void fail(final IOException ex) {
+			LOG.warn("Profile snapshot not saved " + ex.getMessage(), ex);
+			abort();
 		}
 	}
 }
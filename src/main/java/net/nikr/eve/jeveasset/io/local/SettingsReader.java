@@ -61,6 +61,7 @@ import net.nikr.eve.jeveasset.data.settings.Settings.TransactionProfitPrice;
 import net.nikr.eve.jeveasset.data.settings.TrackerData;
 import net.nikr.eve.jeveasset.data.settings.TrackerSettings;
 import net.nikr.eve.jeveasset.data.settings.TrackerSettings.DisplayType;
+import net.nikr.eve.jeveasset.data.settings.TrackerSettings.Resolution;
 import net.nikr.eve.jeveasset.data.settings.TrackerSettings.ShowOption;
 import net.nikr.eve.jeveasset.data.settings.UserItem;
 import net.nikr.eve.jeveasset.data.settings.tag.Tag;
@@ -922,6 +923,21 @@ public final class SettingsReader extends AbstractXmlReader<Boolean> {
 			trackerSettings.setIncludeZero(includeZero);
 		}
 
+		String resolution = getStringOptional(trackerSettingsElement, "resolution");
+		if (resolution != null) {
+			try {
+				trackerSettings.setResolution(Resolution.valueOf(resolution));
+			}
+			catch (IllegalArgumentException e) {
+				LOG.warn("Could not parse trackersettigns resolution: " + resolution);
+			}
+		}
+
+		Boolean downsample = getBooleanOptional(trackerSettingsElement, "downsample");
+		if (downsample != null) {
+			trackerSettings.setDownsample(downsample);
+		}
+
 		List<String> showOptions = getStringListOptional(trackerSettingsElement, "showoptions");
 		if (showOptions != null) {
 			trackerSettings.getShowOptions().clear();
@@ -22,6 +22,7 @@
 package net.nikr.eve.jeveasset.io.local;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.Proxy;
 import java.util.Date;
 import java.util.List;
@@ -65,8 +66,6 @@ import net.nikr.eve.jeveasset.gui.tabs.tracker.TrackerSkillPointFilter;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 
 public class SettingsWriter extends AbstractXmlWriter {
@@ -76,7 +75,7 @@ public class SettingsWriter extends AbstractXmlWriter {
 	private SettingsWriter() { }
 
 	public static boolean save(final Settings settings, final String filename) {
-		if (!new File(FileUtil.getPathTrackerData()).exists()) { //Make sure the tracker data is saved
+		if (!new File(FileUtil.getPathTrackerStore()).exists()) { //Make sure the tracker data is saved
 			TrackerData.save("Saving Settings", true);
 		}
 		SettingsWriter writer = new SettingsWriter();
@@ -89,17 +88,13 @@ public class SettingsWriter extends AbstractXmlWriter {
 	}
 
 	private boolean writeStockpiles(final List<Stockpile> stockpiles, final String filename) {
-		Document xmldoc;
 		try {
-			xmldoc = getXmlDocument("settings");
-		} catch (XmlException ex) {
-			LOG.error("Stockpile not saved " + ex.getMessage(), ex);
-			return false;
-		}
-
-		writeStockpiles(xmldoc, stockpiles, true);
-		try {
-			writeXmlFile(xmldoc, filename, false);
+			writeXmlFile(filename, "settings", false, new XmlContent() {
+				@Override
+				public void write(XmlOutput xml) throws IOException {
+					writeStockpiles(xml, stockpiles, true);
+				}
+			});
 		} catch (XmlException ex) {
 			LOG.error("Stockpile not saved " + ex.getMessage(), ex);
 			return false;
@@ -114,73 +109,67 @@ public class SettingsWriter extends AbstractXmlWriter {
 	}
 
 	private boolean writeRoutes(final Map<String, RouteResult> routes, final String filename) {
-		Document xmldoc;
 		try {
-			xmldoc = getXmlDocument("settings");
-		} catch (XmlException ex) {
-			LOG.error("Stockpile not saved " + ex.getMessage(), ex);
-			return false;
-		}
-		Element routingNode = xmldoc.createElementNS(null, "routingsettings");
-		xmldoc.getDocumentElement().appendChild(routingNode);
-		writeRoutes(xmldoc, routingNode, routes);
-		try {
-			writeXmlFile(xmldoc, filename, false);
+			writeXmlFile(filename, "settings", false, new XmlContent() {
+				@Override
+				public void write(XmlOutput xml) throws IOException {
+					xml.startElement("routingsettings");
+					writeRoutes(xml, routes);
+					xml.endElement();
+				}
+			});
 		} catch (XmlException ex) {
-			LOG.error("Stockpile not saved " + ex.getMessage(), ex);
+			LOG.error("Routes not saved " + ex.getMessage(), ex);
 			return false;
 		}
-		LOG.info("Stockpile saved");
+		LOG.info("Routes saved");
 		return true;
 	}
 
 	private boolean write(final Settings settings, final String filename) {
-		Document xmldoc;
-		try {
-			xmldoc = getXmlDocument("settings");
-		} catch (XmlException ex) {
-			LOG.error("Settings not saved " + ex.getMessage(), ex);
-			return false;
-		}
-		//Add version number
-		setAttribute(xmldoc.getDocumentElement(), "version", SettingsReader.SETTINGS_VERSION);
-
-		writeAssetSettings(xmldoc, settings);
-		writeStockpileGroups(xmldoc, settings);
-		writeStockpiles(xmldoc, settings.getStockpiles(), false);
-		writeOverviewGroups(xmldoc, settings.getOverviewGroups());
-		writeReprocessSettings(xmldoc, settings.getReprocessSettings());
-		writeWindow(xmldoc, settings);
-		writeProxy(xmldoc, settings.getProxyData());
-		writePriceDataSettings(xmldoc, settings.getPriceDataSettings());
-		writeFlags(xmldoc, settings.getFlags());
-		writeUserPrices(xmldoc, settings.getUserPrices());
-		writeUserItemNames(xmldoc, settings.getUserItemNames());
-		writeEveNames(xmldoc, settings.getEveNames());
-		writeTableFilters(xmldoc, settings.getTableFilters());
-		writeCurrentTableFilters(xmldoc, settings.getCurrentTableFilters(), settings.getCurrentTableFiltersShown());
-		writeTableColumns(xmldoc, settings.getTableColumns());
-		writeTableColumnsWidth(xmldoc, settings.getTableColumnsWidth());
-		writeTableResize(xmldoc, settings.getTableResize());
-		writeTableViews(xmldoc, settings.getTableViews());
-		writeTableJumps(xmldoc, settings.getTableJumps());
-		writeTableFormulas(xmldoc, settings.getTableFormulas());
-		writeTableChanges(xmldoc, settings.getTableChanged());
-		writeExportSettings(xmldoc, settings.getExportSettings(), settings.getCopySettings());
-		writeTrackerNotes(xmldoc, settings.getTrackerSettings().getNotes());
-		writeTrackerFilters(xmldoc, settings.getTrackerSettings().getFilters(), settings.getTrackerSettings().isSelectNew(), settings.getTrackerSettings().getSkillPointFilters());
-		writeTrackerSettings(xmldoc, settings);
-		writeOwners(xmldoc, settings.getOwners(), settings.getOwnersNextUpdate());
-		writeTags(xmldoc, settings.getTags());
-		writeRoutingSettings(xmldoc, settings.getRoutingSettings());
-		writeMarketOrderOutbid(xmldoc, settings.getPublicMarketOrdersNextUpdate(), settings.getPublicMarketOrdersLastUpdate(), settings.getOutbidOrderRange(), settings.getMarketOrdersOutbid());
-		writeMarketOrdersSettings(xmldoc, settings.getMarketOrdersSettings());
-		writeShowTool(xmldoc, settings.getShowTools(), settings.isSaveToolsOnExit());
-		writeColorSettings(xmldoc, settings.getColorSettings());
-		writeFactionWarfareSystemOwners(xmldoc, settings);
-		writePriceHistorySettings(xmldoc, settings);
 		try {
-			writeXmlFile(xmldoc, filename, true);
+			writeXmlFile(filename, "settings", true, new XmlContent() {
+				@Override
+				public void write(XmlOutput xml) throws IOException {
+					//Add version number
+					setAttribute(xml, "version", SettingsReader.SETTINGS_VERSION);
+
+					writeAssetSettings(xml, settings);
+					writeStockpileGroups(xml, settings);
+					writeStockpiles(xml, settings.getStockpiles(), false);
+					writeOverviewGroups(xml, settings.getOverviewGroups());
+					writeReprocessSettings(xml, settings.getReprocessSettings());
+					writeWindow(xml, settings);
+					writeProxy(xml, settings.getProxyData());
+					writePriceDataSettings(xml, settings.getPriceDataSettings());
+					writeFlags(xml, settings.getFlags());
+					writeUserPrices(xml, settings.getUserPrices());
+					writeUserItemNames(xml, settings.getUserItemNames());
+					writeEveNames(xml, settings.getEveNames());
+					writeTableFilters(xml, settings.getTableFilters());
+					writeCurrentTableFilters(xml, settings.getCurrentTableFilters(), settings.getCurrentTableFiltersShown());
+					writeTableColumns(xml, settings.getTableColumns());
+					writeTableColumnsWidth(xml, settings.getTableColumnsWidth());
+					writeTableResize(xml, settings.getTableResize());
+					writeTableViews(xml, settings.getTableViews());
+					writeTableJumps(xml, settings.getTableJumps());
+					writeTableFormulas(xml, settings.getTableFormulas());
+					writeTableChanges(xml, settings.getTableChanged());
+					writeExportSettings(xml, settings.getExportSettings(), settings.getCopySettings());
+					writeTrackerNotes(xml, settings.getTrackerSettings().getNotes());
+					writeTrackerFilters(xml, settings.getTrackerSettings().getFilters(), settings.getTrackerSettings().isSelectNew(), settings.getTrackerSettings().getSkillPointFilters());
+					writeTrackerSettings(xml, settings);
+					writeOwners(xml, settings.getOwners(), settings.getOwnersNextUpdate());
+					writeTags(xml, settings.getTags());
+					writeRoutingSettings(xml, settings.getRoutingSettings());
+					writeMarketOrderOutbid(xml, settings.getPublicMarketOrdersNextUpdate(), settings.getPublicMarketOrdersLastUpdate(), settings.getOutbidOrderRange(), settings.getMarketOrdersOutbid());
+					writeMarketOrdersSettings(xml, settings.getMarketOrdersSettings());
+					writeShowTool(xml, settings.getShowTools(), settings.isSaveToolsOnExit());
+					writeColorSettings(xml, settings.getColorSettings());
+					writeFactionWarfareSystemOwners(xml, settings);
+					writePriceHistorySettings(xml, settings);
+				}
+			});
 		} catch (XmlException ex) {
 			LOG.error("Settings not saved " + ex.getMessage(), ex);
 			return false;
@@ -189,626 +178,627 @@ public class SettingsWriter extends AbstractXmlWriter {
 		return true;
 	}
 
-	private void writePriceHistorySettings(Document xmldoc, Settings settings) {
-		Element priceHistoryNode = xmldoc.createElementNS(null, "pricehistory");
-		xmldoc.getDocumentElement().appendChild(priceHistoryNode);
+	private void writePriceHistorySettings(final XmlOutput xml, Settings settings) throws IOException {
+		xml.startElement("pricehistory");
 		for (Map.Entry<String, Set<Integer>> entry : settings.getPriceHistorySets().entrySet()) {
-			Element setNode = xmldoc.createElementNS(null, "set");
-			setAttribute(setNode, "name", entry.getKey());
-			setAttributeOptional(setNode, "ids", entry.getValue());
-			priceHistoryNode.appendChild(setNode);
+			xml.startElement("set");
+			setAttribute(xml, "name", entry.getKey());
+			setAttributeOptional(xml, "ids", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeFactionWarfareSystemOwners(Document xmldoc, Settings settings) {
-		Element factionWarfareSystemOwnersNode = xmldoc.createElementNS(null, "factionwarfaresystemowners");
-		xmldoc.getDocumentElement().appendChild(factionWarfareSystemOwnersNode);
-		setAttribute(factionWarfareSystemOwnersNode, "factionwarfarenextupdate", settings.getFactionWarfareNextUpdate());
+	private void writeFactionWarfareSystemOwners(final XmlOutput xml, Settings settings) throws IOException {
+		xml.startElement("factionwarfaresystemowners");
+		setAttribute(xml, "factionwarfarenextupdate", settings.getFactionWarfareNextUpdate());
 		for (Map.Entry<Long, String> entry : settings.getFactionWarfareSystemOwners().entrySet()) {
-			Element systemNode = xmldoc.createElementNS(null, "system");
-			setAttribute(systemNode, "system", entry.getKey());
-			setAttributeOptional(systemNode, "faction", entry.getValue());
-			factionWarfareSystemOwnersNode.appendChild(systemNode);
+			xml.startElement("system");
+			setAttribute(xml, "system", entry.getKey());
+			setAttributeOptional(xml, "faction", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeColorSettings(Document xmldoc, ColorSettings colorSettings) {
-		Element colorSettingsNode = xmldoc.createElementNS(null, "colorsettings");
-		xmldoc.getDocumentElement().appendChild(colorSettingsNode);
-		setAttributeOptional(colorSettingsNode, "theme", colorSettings.getColorTheme().getType());
-		setAttribute(colorSettingsNode, "lookandfeel", colorSettings.getLookAndFeelClass());
+	private void writeColorSettings(final XmlOutput xml, ColorSettings colorSettings) throws IOException {
+		xml.startElement("colorsettings");
+		setAttributeOptional(xml, "theme", colorSettings.getColorTheme().getType());
+		setAttribute(xml, "lookandfeel", colorSettings.getLookAndFeelClass());
 		for (ColorEntry colorEntry : ColorEntry.values()) {
-			Element colorNode = xmldoc.createElementNS(null, "color");
-			setAttribute(colorNode, "name", colorEntry);
-			setAttributeOptional(colorNode, "background", colorSettings.getBackground(colorEntry));
-			setAttributeOptional(colorNode, "foreground", colorSettings.getForeground(colorEntry));
-			colorSettingsNode.appendChild(colorNode);
+			xml.startElement("color");
+			setAttribute(xml, "name", colorEntry);
+			setAttributeOptional(xml, "background", colorSettings.getBackground(colorEntry));
+			setAttributeOptional(xml, "foreground", colorSettings.getForeground(colorEntry));
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeShowTool(Document xmldoc, List<String> showTools, boolean saveToolsOnExit) {
-		Element showToolsNode = xmldoc.createElementNS(null, "showtools");
-		xmldoc.getDocumentElement().appendChild(showToolsNode);
-		setAttribute(showToolsNode, "saveonexit", saveToolsOnExit);
-		setAttribute(showToolsNode, "show", showTools);
+	private void writeShowTool(final XmlOutput xml, List<String> showTools, boolean saveToolsOnExit) throws IOException {
+		xml.startElement("showtools");
+		setAttribute(xml, "saveonexit", saveToolsOnExit);
+		setAttribute(xml, "show", showTools);
+		xml.endElement();
 	}
 
-	private void writeMarketOrderOutbid(Document xmldoc, Date publicMarketOrdersNextUpdate, Date publicMarketOrdersLastUpdate, MarketOrderRange outbidOrderRange, Map<Long, Outbid> marketOrdersOutbid) {
-		Element marketOrderOutbidNode = xmldoc.createElementNS(null, "marketorderoutbid");
-		xmldoc.getDocumentElement().appendChild(marketOrderOutbidNode);
-		setAttribute(marketOrderOutbidNode, "nextupdate", publicMarketOrdersNextUpdate);
-		setAttributeOptional(marketOrderOutbidNode, "lastupdate", publicMarketOrdersLastUpdate);
-		setAttribute(marketOrderOutbidNode, "outbidorderrange", outbidOrderRange);
+	private void writeMarketOrderOutbid(final XmlOutput xml, Date publicMarketOrdersNextUpdate, Date publicMarketOrdersLastUpdate, MarketOrderRange outbidOrderRange, Map<Long, Outbid> marketOrdersOutbid) throws IOException {
+		xml.startElement("marketorderoutbid");
+		setAttribute(xml, "nextupdate", publicMarketOrdersNextUpdate);
+		setAttributeOptional(xml, "lastupdate", publicMarketOrdersLastUpdate);
+		setAttribute(xml, "outbidorderrange", outbidOrderRange);
 		for (Map.Entry<Long, Outbid> entry : marketOrdersOutbid.entrySet()) {
-			Element outbidNode = xmldoc.createElementNS(null, "outbid");
-			setAttribute(outbidNode, "id", entry.getKey());
-			setAttribute(outbidNode, "price", entry.getValue().getPrice());
-			setAttribute(outbidNode, "count", entry.getValue().getCount());
-			marketOrderOutbidNode.appendChild(outbidNode);
+			xml.startElement("outbid");
+			setAttribute(xml, "id", entry.getKey());
+			setAttribute(xml, "price", entry.getValue().getPrice());
+			setAttribute(xml, "count", entry.getValue().getCount());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeRoutingSettings(Document xmldoc, RoutingSettings routingSettings) {
-		Element routingNode = xmldoc.createElementNS(null, "routingsettings");
-		xmldoc.getDocumentElement().appendChild(routingNode);
-		setAttribute(routingNode, "securitymaximum", routingSettings.getSecMax());
-		setAttribute(routingNode, "securityminimum", routingSettings.getSecMin());
+	private void writeRoutingSettings(final XmlOutput xml, RoutingSettings routingSettings) throws IOException {
+		xml.startElement("routingsettings");
+		setAttribute(xml, "securitymaximum", routingSettings.getSecMax());
+		setAttribute(xml, "securityminimum", routingSettings.getSecMin());
 		for (long systemID : routingSettings.getAvoid().keySet()) {
-			Element systemNode = xmldoc.createElementNS(null, "routingsystem");
-			setAttribute(systemNode, "id", systemID);
-			routingNode.appendChild(systemNode);
+			xml.startElement("routingsystem");
+			setAttribute(xml, "id", systemID);
+			xml.endElement();
 		}
 		for (Map.Entry<String, Set<Long>> entry : routingSettings.getPresets().entrySet()) {
-			Element presetNode = xmldoc.createElementNS(null, "routingpreset");
-			setAttribute(presetNode, "name", entry.getKey());
-			routingNode.appendChild(presetNode);
+			xml.startElement("routingpreset");
+			setAttribute(xml, "name", entry.getKey());
 			for (Long systemID : entry.getValue()) {
-				Element systemNode = xmldoc.createElementNS(null, "presetsystem");
-				setAttribute(systemNode, "id", systemID);
-				presetNode.appendChild(systemNode);
+				xml.startElement("presetsystem");
+				setAttribute(xml, "id", systemID);
+				xml.endElement();
 			}
+			xml.endElement();
 		}
-		writeRoutes(xmldoc, routingNode, routingSettings.getRoutes());
+		writeRoutes(xml, routingSettings.getRoutes());
+		xml.endElement();
 	}
 
-	private void writeRoutes(Document xmldoc, Element routingNode, Map<String, RouteResult> routes) {
+	private void writeRoutes(final XmlOutput xml, Map<String, RouteResult> routes) throws IOException {
 		for (Map.Entry<String, RouteResult> entry : routes.entrySet()) {
-			Element routeNode = xmldoc.createElementNS(null, "route");
+			xml.startElement("route");
 			RouteResult routeResult = entry.getValue();
-			setAttribute(routeNode, "name", entry.getKey());
-			setAttribute(routeNode, "waypoints", routeResult.getWaypoints());
-			setAttribute(routeNode, "algorithmname", routeResult.getAlgorithmName());
-			setAttribute(routeNode, "algorithmtime",routeResult.getAlgorithmTime());
-			setAttribute(routeNode, "jumps", routeResult.getJumps());
-			setAttribute(routeNode, "avoid", routeResult.getAvoid());
-			setAttribute(routeNode, "security", routeResult.getSecurity());
-			routingNode.appendChild(routeNode);
+			setAttribute(xml, "name", entry.getKey());
+			setAttribute(xml, "waypoints", routeResult.getWaypoints());
+			setAttribute(xml, "algorithmname", routeResult.getAlgorithmName());
+			setAttribute(xml, "algorithmtime",routeResult.getAlgorithmTime());
+			setAttribute(xml, "jumps", routeResult.getJumps());
+			setAttribute(xml, "avoid", routeResult.getAvoid());
+			setAttribute(xml, "security", routeResult.getSecurity());
 			for (List<SolarSystem> systems : routeResult.getRoute()) {
-				Element systemsNode = xmldoc.createElementNS(null, "routesystems");
+				xml.startElement("routesystems");
 				for (SolarSystem system : systems) {
-					Element systemNode = xmldoc.createElementNS(null, "routesystem");
-					setAttribute(systemNode, "systemid", system.getSystemID());
-					systemsNode.appendChild(systemNode);
+					xml.startElement("routesystem");
+					setAttribute(xml, "systemid", system.getSystemID());
+					xml.endElement();
 				}
 				List<SolarSystem> stations = routeResult.getStations().get(systems.get(0).getSystemID());
 				if (stations != null) {
 					for (SolarSystem station : stations) {
-						Element stationNode = xmldoc.createElementNS(null, "routestation");
-						setAttribute(stationNode, "stationid", station.getLocationID());
-						systemsNode.appendChild(stationNode);
+						xml.startElement("routestation");
+						setAttribute(xml, "stationid", station.getLocationID());
+						xml.endElement();
 					}
 				}
-				routeNode.appendChild(systemsNode);
+				xml.endElement();
 			}
+			xml.endElement();
 		}
 	}
 
-	private void writeTags(Document xmldoc, Map<String, Tag> tags) {
-		Element tagsNode = xmldoc.createElementNS(null, "tags");
-		xmldoc.getDocumentElement().appendChild(tagsNode);
+	private void writeTags(final XmlOutput xml, Map<String, Tag> tags) throws IOException {
+		xml.startElement("tags");
 		for (Tag tag : tags.values()) {
-			Element tagNode = xmldoc.createElementNS(null, "tag");
-			setAttribute(tagNode, "name", tag.getName());
-			setAttribute(tagNode, "background", tag.getColor().getBackgroundHtml());
-			setAttribute(tagNode, "foreground", tag.getColor().getForegroundHtml());
-			tagsNode.appendChild(tagNode);
+			xml.startElement("tag");
+			setAttribute(xml, "name", tag.getName());
+			setAttribute(xml, "background", tag.getColor().getBackgroundHtml());
+			setAttribute(xml, "foreground", tag.getColor().getForegroundHtml());
 			for (TagID tagID : tag.getIDs()) {
-				Element tagIdNode = xmldoc.createElementNS(null, "tagid");
-				setAttribute(tagIdNode, "tool", tagID.getTool());
-				setAttribute(tagIdNode, "id", tagID.getID());
-				tagNode.appendChild(tagIdNode);
+				xml.startElement("tagid");
+				setAttribute(xml, "tool", tagID.getTool());
+				setAttribute(xml, "id", tagID.getID());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeOwners(final Document xmldoc, final Map<Long, String> owners, final Map<Long, Date> ownersNextUpdate) {
-		Element trackerDataNode = xmldoc.createElementNS(null, "owners");
-		xmldoc.getDocumentElement().appendChild(trackerDataNode);
+	private void writeOwners(final XmlOutput xml, final Map<Long, String> owners, final Map<Long, Date> ownersNextUpdate) throws IOException {
+		xml.startElement("owners");
 		for (Map.Entry<Long, String> entry : owners.entrySet()) {
-			Element ownerNode = xmldoc.createElementNS(null, "owner");
-			setAttribute(ownerNode, "name", entry.getValue());
-			setAttribute(ownerNode, "id", entry.getKey());
-			setAttributeOptional(ownerNode, "date", ownersNextUpdate.get(entry.getKey()));
-			trackerDataNode.appendChild(ownerNode);
+			xml.startElement("owner");
+			setAttribute(xml, "name", entry.getValue());
+			setAttribute(xml, "id", entry.getKey());
+			setAttributeOptional(xml, "date", ownersNextUpdate.get(entry.getKey()));
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTrackerFilters(final Document xmldoc, final Map<String, Boolean> trackerFilters, boolean selectNew, Map<String, TrackerSkillPointFilter> trackerSkillPointFilters) {
-		Element trackerDataNode = xmldoc.createElementNS(null, "trackerfilters");
-		xmldoc.getDocumentElement().appendChild(trackerDataNode);
-		setAttribute(trackerDataNode, "selectnew", selectNew);
+	private void writeTrackerFilters(final XmlOutput xml, final Map<String, Boolean> trackerFilters, boolean selectNew, Map<String, TrackerSkillPointFilter> trackerSkillPointFilters) throws IOException {
+		xml.startElement("trackerfilters");
+		setAttribute(xml, "selectnew", selectNew);
 		for (Map.Entry<String, Boolean> entry : trackerFilters.entrySet()) {
-			Element ownerNode = xmldoc.createElementNS(null, "trackerfilter");
-			setAttribute(ownerNode, "id", entry.getKey());
-			setAttribute(ownerNode, "selected", entry.getValue());
-			trackerDataNode.appendChild(ownerNode);
+			xml.startElement("trackerfilter");
+			setAttribute(xml, "id", entry.getKey());
+			setAttribute(xml, "selected", entry.getValue());
+			xml.endElement();
 		}
 		for (Map.Entry<String, TrackerSkillPointFilter> entry : trackerSkillPointFilters.entrySet()) {
-			Element ownerNode = xmldoc.createElementNS(null, "skillpointfilters");
+			xml.startElement("skillpointfilters");
 			TrackerSkillPointFilter filter = entry.getValue();
-			setAttribute(ownerNode, "id", entry.getKey());
-			setAttribute(ownerNode, "selected", filter.isEnabled());
-			setAttribute(ownerNode, "mimimum", filter.getMinimum());
-			trackerDataNode.appendChild(ownerNode);
-		}
-	}
-
-	private void writeTrackerSettings(final Document xmldoc, Settings settings) {
-		Element trackerSettingsNode = xmldoc.createElementNS(null, "trackersettings");
-		xmldoc.getDocumentElement().appendChild(trackerSettingsNode);
-		setAttribute(trackerSettingsNode, "allprofiles", settings.getTrackerSettings().isAllProfiles());
-		setAttribute(trackerSettingsNode, "charactercorporations", settings.getTrackerSettings().isCharacterCorporations());
-		setAttributeOptional(trackerSettingsNode, "selectedowners", settings.getTrackerSettings().getSelectedOwners());
-		setAttributeOptional(trackerSettingsNode, "fromdate", settings.getTrackerSettings().getFromDate());
-		setAttributeOptional(trackerSettingsNode, "todate", settings.getTrackerSettings().getToDate());
-		setAttribute(trackerSettingsNode, "displaytype", settings.getTrackerSettings().getDisplayType());
-		setAttribute(trackerSettingsNode, "includezero", settings.getTrackerSettings().isIncludeZero());
-		setAttribute(trackerSettingsNode, "showoptions", settings.getTrackerSettings().getShowOptions());
-	}
-
-	private void writeTrackerNotes(final Document xmldoc, final Map<TrackerDate, TrackerNote> trackerNotes) {
-		Element notesNode = xmldoc.createElementNS(null, "trackernotes");
-		xmldoc.getDocumentElement().appendChild(notesNode);
+			setAttribute(xml, "id", entry.getKey());
+			setAttribute(xml, "selected", filter.isEnabled());
+			setAttribute(xml, "mimimum", filter.getMinimum());
+			xml.endElement();
+		}
+		xml.endElement();
+	}
+
+	private void writeTrackerSettings(final XmlOutput xml, Settings settings) throws IOException {
+		xml.startElement("trackersettings");
+		setAttribute(xml, "allprofiles", settings.getTrackerSettings().isAllProfiles());
+		setAttribute(xml, "charactercorporations", settings.getTrackerSettings().isCharacterCorporations());
+		setAttributeOptional(xml, "selectedowners", settings.getTrackerSettings().getSelectedOwners());
+		setAttributeOptional(xml, "fromdate", settings.getTrackerSettings().getFromDate());
+		setAttributeOptional(xml, "todate", settings.getTrackerSettings().getToDate());
+		setAttribute(xml, "displaytype", settings.getTrackerSettings().getDisplayType());
+		setAttribute(xml, "includezero", settings.getTrackerSettings().isIncludeZero());
+		setAttribute(xml, "resolution", settings.getTrackerSettings().getResolution());
+		setAttribute(xml, "downsample", settings.getTrackerSettings().isDownsample());
+		setAttribute(xml, "showoptions", settings.getTrackerSettings().getShowOptions());
+		xml.endElement();
+	}
+
+	private void writeTrackerNotes(final XmlOutput xml, final Map<TrackerDate, TrackerNote> trackerNotes) throws IOException {
+		xml.startElement("trackernotes");
 		for (Map.Entry<TrackerDate, TrackerNote> entry : trackerNotes.entrySet()) {
-			Element noteNode = xmldoc.createElementNS(null, "trackernote");
-			setAttribute(noteNode, "note", entry.getValue().getNote());
-			setAttribute(noteNode, "date", entry.getKey().getDate());
-			notesNode.appendChild(noteNode);
+			xml.startElement("trackernote");
+			setAttribute(xml, "note", entry.getValue().getNote());
+			setAttribute(xml, "date", entry.getKey().getDate());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
 	/***
 	 * Write setting for table filters to the xml settings document 'tablefilters' element.
 	 *
-	 * @param xmldoc Settings document to write to.
+	 * @param xml Settings document to write to.
 	 * @param tableFilters Saved filters to be written to the document zero to many for each table.
 	 */
-	private void writeTableFilters(final Document xmldoc, final Map<String, Map<String, List<Filter>>> tableFilters) {
-		Element tableFiltersNode = xmldoc.createElementNS(null, "tablefilters");
-		xmldoc.getDocumentElement().appendChild(tableFiltersNode);
+	private void writeTableFilters(final XmlOutput xml, final Map<String, Map<String, List<Filter>>> tableFilters) throws IOException {
+		xml.startElement("tablefilters");
 		for (Map.Entry<String, Map<String, List<Filter>>> entry : tableFilters.entrySet()) {
-			Element tableNode = xmldoc.createElementNS(null, "table");
-			setAttribute(tableNode, "name", entry.getKey());
-			tableFiltersNode.appendChild(tableNode);
+			xml.startElement("table");
+			setAttribute(xml, "name", entry.getKey());
 			for (Map.Entry<String, List<Filter>> filters : entry.getValue().entrySet()) {
-				Element filterNode = xmldoc.createElementNS(null, "filter");
-				setAttribute(filterNode, "name", filters.getKey());
-				tableNode.appendChild(filterNode);
-				writeFilters(xmldoc, filterNode, filters);
+				xml.startElement("filter");
+				setAttribute(xml, "name", filters.getKey());
+				writeFilters(xml, filters);
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
 	/***
 	 * Write setting for current table filters to the xml settings document 'currnettablefilters' element.
 	 *
-	 * @param xmldoc Settings document to write to.
+	 * @param xml Settings document to write to.
 	 * @param tableFilters Current filters to be written to the document one per table.
 	 * @param tableFiltersShow Current filters visibility state to be written to the document one per table.
 	 */
-	private void writeCurrentTableFilters(final Document xmldoc, final Map<String, List<Filter>> tableFilters, final Map<String, Boolean> tableFiltersShow) {
-		Element currentTableFiltersNode = xmldoc.createElementNS(null, "currenttablefilters");
-		xmldoc.getDocumentElement().appendChild(currentTableFiltersNode);
+	private void writeCurrentTableFilters(final XmlOutput xml, final Map<String, List<Filter>> tableFilters, final Map<String, Boolean> tableFiltersShow) throws IOException {
+		xml.startElement("currenttablefilters");
 		for (Map.Entry<String, List<Filter>> filters : tableFilters.entrySet()) {
-			Element tableNode = xmldoc.createElementNS(null, "table");
-			setAttribute(tableNode, "name", filters.getKey());
-			currentTableFiltersNode.appendChild(tableNode);
-			Element filterNode = xmldoc.createElementNS(null, "filter");
-			setAttribute(filterNode, "show", tableFiltersShow.getOrDefault(filters.getKey(), true));
-			tableNode.appendChild(filterNode);
-			writeFilters(xmldoc, filterNode, filters);
+			xml.startElement("table");
+			setAttribute(xml, "name", filters.getKey());
+			xml.startElement("filter");
+			setAttribute(xml, "show", tableFiltersShow.getOrDefault(filters.getKey(), true));
+			writeFilters(xml, filters);
+			xml.endElement();
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
 	/***
 	 * Write settings for individual filters rows to the xml settings document.
 	 *
-	 * @param xmldoc Settings document to write to.
-	 * @param parentNode Node of the xml document to write the filter to.
+	 * @param xml Settings document to write to.
 	 * @param filters Filter to be written to the document row by row.
 	 */
-	private void writeFilters(final Document xmldoc, final Element parentNode, final Map.Entry<String, List<Filter>> filters) {
+	private void writeFilters(final XmlOutput xml, final Map.Entry<String, List<Filter>> filters) throws IOException {
 		for (Filter filter : filters.getValue()) {
-			Element rowNode = xmldoc.createElementNS(null, "row");
-			setAttribute(rowNode, "group", filter.getGroup());
-			setAttribute(rowNode, "text", filter.getText());
-			setAttribute(rowNode, "column", filter.getColumn().name());
-			setAttribute(rowNode, "compare", filter.getCompareType());
-			setAttribute(rowNode, "logic", filter.getLogic());
-			setAttribute(rowNode, "enabled", filter.isEnabled());
-			parentNode.appendChild(rowNode);
+			xml.startElement("row");
+			setAttribute(xml, "group", filter.getGroup());
+			setAttribute(xml, "text", filter.getText());
+			setAttribute(xml, "column", filter.getColumn().name());
+			setAttribute(xml, "compare", filter.getCompareType());
+			setAttribute(xml, "logic", filter.getLogic());
+			setAttribute(xml, "enabled", filter.isEnabled());
+			xml.endElement();
 		}
 	}
 
-	private void writeTableColumns(final Document xmldoc, final Map<String, List<SimpleColumn>> tableColumns) {
-		Element tableColumnsNode = xmldoc.createElementNS(null, "tablecolumns");
-		xmldoc.getDocumentElement().appendChild(tableColumnsNode);
+	private void writeTableColumns(final XmlOutput xml, final Map<String, List<SimpleColumn>> tableColumns) throws IOException {
+		xml.startElement("tablecolumns");
 		for (Map.Entry<String, List<SimpleColumn>> entry : tableColumns.entrySet()) {
-			Element tableNode = xmldoc.createElementNS(null, "table");
-			setAttribute(tableNode, "name", entry.getKey());
-			tableColumnsNode.appendChild(tableNode);
+			xml.startElement("table");
+			setAttribute(xml, "name", entry.getKey());
 			for (SimpleColumn column : entry.getValue()) {
-				Element columnNode = xmldoc.createElementNS(null, "column");
-				setAttribute(columnNode, "name", column.getEnumName());
-				setAttribute(columnNode, "shown", column.isShown());
-				tableNode.appendChild(columnNode);
+				xml.startElement("column");
+				setAttribute(xml, "name", column.getEnumName());
+				setAttribute(xml, "shown", column.isShown());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTableColumnsWidth(final Document xmldoc, final Map<String, Map<String, Integer>> tableColumnsWidth) {
-		Element tableColumnsWidthNode = xmldoc.createElementNS(null, "tablecolumnswidth");
-		xmldoc.getDocumentElement().appendChild(tableColumnsWidthNode);
+	private void writeTableColumnsWidth(final XmlOutput xml, final Map<String, Map<String, Integer>> tableColumnsWidth) throws IOException {
+		xml.startElement("tablecolumnswidth");
 		for (Map.Entry<String, Map<String, Integer>> table : tableColumnsWidth.entrySet()) {
-			Element tableNode = xmldoc.createElementNS(null, "table");
-			setAttribute(tableNode, "name", table.getKey());
-			tableColumnsWidthNode.appendChild(tableNode);
+			xml.startElement("table");
+			setAttribute(xml, "name", table.getKey());
 			for (Map.Entry<String, Integer> column : table.getValue().entrySet()) {
-				Element columnNode = xmldoc.createElementNS(null, "column");
-				setAttribute(columnNode, "column", column.getKey());
-				setAttribute(columnNode, "width", column.getValue());
-				tableNode.appendChild(columnNode);
+				xml.startElement("column");
+				setAttribute(xml, "column", column.getKey());
+				setAttribute(xml, "width", column.getValue());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTableResize(final Document xmldoc, final Map<String, ResizeMode> tableResize) {
-		Element tableResizeNode = xmldoc.createElementNS(null, "tableresize");
-		xmldoc.getDocumentElement().appendChild(tableResizeNode);
+	private void writeTableResize(final XmlOutput xml, final Map<String, ResizeMode> tableResize) throws IOException {
+		xml.startElement("tableresize");
 		for (Map.Entry<String, ResizeMode> entry : tableResize.entrySet()) {
-			Element tableNode = xmldoc.createElementNS(null, "table");
-			setAttribute(tableNode, "name", entry.getKey());
-			setAttribute(tableNode, "resize", entry.getValue());
-			tableResizeNode.appendChild(tableNode);
+			xml.startElement("table");
+			setAttribute(xml, "name", entry.getKey());
+			setAttribute(xml, "resize", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTableViews(final Document xmldoc, final Map<String, Map<String ,View>> tableViews) {
-		Element tableViewsNode = xmldoc.createElementNS(null, "tableviews");
-		xmldoc.getDocumentElement().appendChild(tableViewsNode);
+	private void writeTableViews(final XmlOutput xml, final Map<String, Map<String ,View>> tableViews) throws IOException {
+		xml.startElement("tableviews");
 		for (Map.Entry<String, Map<String ,View>> entry : tableViews.entrySet()) {
-			Element viewToolNode = xmldoc.createElementNS(null, "viewtool");
-			setAttribute(viewToolNode, "tool", entry.getKey());
-			tableViewsNode.appendChild(viewToolNode);
+			xml.startElement("viewtool");
+			setAttribute(xml, "tool", entry.getKey());
 			for (View view : entry.getValue().values()) {
-				Element viewNode = xmldoc.createElementNS(null, "view");
-				setAttribute(viewNode, "name", view.getName());
-				viewToolNode.appendChild(viewNode);
+				xml.startElement("view");
+				setAttribute(xml, "name", view.getName());
 				for (SimpleColumn column : view.getColumns()) {
-					Element viewColumnNode = xmldoc.createElementNS(null, "viewcolumn");
-					setAttribute(viewColumnNode, "name", column.getEnumName());
-					setAttribute(viewColumnNode, "shown", column.isShown());
-					viewNode.appendChild(viewColumnNode);
+					xml.startElement("viewcolumn");
+					setAttribute(xml, "name", column.getEnumName());
+					setAttribute(xml, "shown", column.isShown());
+					xml.endElement();
 				}
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTableFormulas(final Document xmldoc, final Map<String, List<Formula>> formulas) {
-		Element tableFormulasNode = xmldoc.createElementNS(null, "tableformulas");
-		xmldoc.getDocumentElement().appendChild(tableFormulasNode);
+	private void writeTableFormulas(final XmlOutput xml, final Map<String, List<Formula>> formulas) throws IOException {
+		xml.startElement("tableformulas");
 		for (Map.Entry<String, List<Formula>> entry : formulas.entrySet()) {
-			Element formulasNode = xmldoc.createElementNS(null, "formulas");
-			setAttribute(formulasNode, "tool", entry.getKey());
-			tableFormulasNode.appendChild(formulasNode);
+			xml.startElement("formulas");
+			setAttribute(xml, "tool", entry.getKey());
 			for (Formula formula : entry.getValue()) {
-				Element formulaNode = xmldoc.createElementNS(null, "formula");
-				setAttribute(formulaNode, "name", formula.getColumnName());
-				setAttribute(formulaNode, "expression", formula.getOriginalExpression());
-				setAttributeOptional(formulaNode, "index", formula.getIndex());
-				formulasNode.appendChild(formulaNode);
+				xml.startElement("formula");
+				setAttribute(xml, "name", formula.getColumnName());
+				setAttribute(xml, "expression", formula.getOriginalExpression());
+				setAttributeOptional(xml, "index", formula.getIndex());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTableChanges(final Document xmldoc, final Map<String, Date> changes) {
-		Element tableChangesNode = xmldoc.createElementNS(null, "tablechanges");
-		xmldoc.getDocumentElement().appendChild(tableChangesNode);
+	private void writeTableChanges(final XmlOutput xml, final Map<String, Date> changes) throws IOException {
+		xml.startElement("tablechanges");
 		for (Map.Entry<String, Date> entry : changes.entrySet()) {
-			Element changesNode = xmldoc.createElementNS(null, "changes");
-			setAttribute(changesNode, "tool", entry.getKey());
-			setAttribute(changesNode, "date", entry.getValue());
-			tableChangesNode.appendChild(changesNode);
+			xml.startElement("changes");
+			setAttribute(xml, "tool", entry.getKey());
+			setAttribute(xml, "date", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeTableJumps(final Document xmldoc, final Map<String, List<Jump>> jumps) {
-		Element tableJumpsNode = xmldoc.createElementNS(null, "tablejumps");
-		xmldoc.getDocumentElement().appendChild(tableJumpsNode);
+	private void writeTableJumps(final XmlOutput xml, final Map<String, List<Jump>> jumps) throws IOException {
+		xml.startElement("tablejumps");
 		for (Map.Entry<String, List<Jump>> entry : jumps.entrySet()) {
-			Element jumpsNode = xmldoc.createElementNS(null, "jumps");
-			setAttribute(jumpsNode, "tool", entry.getKey());
-			tableJumpsNode.appendChild(jumpsNode);
+			xml.startElement("jumps");
+			setAttribute(xml, "tool", entry.getKey());
 			for (Jump jump : entry.getValue()) {
-				Element jumpNode = xmldoc.createElementNS(null, "jump");
-				setAttribute(jumpNode, "systemid", jump.getSystemID());
-				setAttributeOptional(jumpNode, "index", jump.getIndex());
-				jumpsNode.appendChild(jumpNode);
+				xml.startElement("jump");
+				setAttribute(xml, "systemid", jump.getSystemID());
+				setAttributeOptional(xml, "index", jump.getIndex());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeAssetSettings(final Document xmldoc, final Settings settings) {
-		Element parentNode = xmldoc.createElementNS(null, "assetsettings");
-		xmldoc.getDocumentElement().appendChild(parentNode);
-		setAttribute(parentNode, "maximumpurchaseage", settings.getMaximumPurchaseAge());
-		setAttribute(parentNode, "transactionprofitprice", settings.getTransactionProfitPrice());
-		setAttribute(parentNode, "transactionprofitmargin", settings.getTransactionProfitMargin());
+	private void writeAssetSettings(final XmlOutput xml, final Settings settings) throws IOException {
+		xml.startElement("assetsettings");
+		setAttribute(xml, "maximumpurchaseage", settings.getMaximumPurchaseAge());
+		setAttribute(xml, "transactionprofitprice", settings.getTransactionProfitPrice());
+		setAttribute(xml, "transactionprofitmargin", settings.getTransactionProfitMargin());
+		xml.endElement();
 	}
 
-	private void writeStockpileGroups(final Document xmldoc, final Settings settings) {
-		Element parentNode = xmldoc.createElementNS(null, "stockpilegroups");
-		xmldoc.getDocumentElement().appendChild(parentNode);
-		setAttribute(parentNode, "stockpilegroup2", settings.getStockpileColorGroup2());
-		setAttribute(parentNode, "stockpilegroup3", settings.getStockpileColorGroup3());
+	private void writeStockpileGroups(final XmlOutput xml, final Settings settings) throws IOException {
+		xml.startElement("stockpilegroups");
+		setAttribute(xml, "stockpilegroup2", settings.getStockpileColorGroup2());
+		setAttribute(xml, "stockpilegroup3", settings.getStockpileColorGroup3());
+		xml.endElement();
 	}
 
 	/**
 	 * -!- `!´ IMPORTANT `!´ -!-
 	 * StockpileDataWriter and StockpileDataReader needs to be updated too - on any changes!!!
 	 */
-	private void writeStockpiles(final Document xmldoc, final List<Stockpile> stockpiles, boolean export) {
-		Element parentNode = xmldoc.createElementNS(null, "stockpiles");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeStockpiles(final XmlOutput xml, final List<Stockpile> stockpiles, boolean export) throws IOException {
+		xml.startElement("stockpiles");
 		for (Stockpile strockpile : stockpiles) {
 			//STOCKPILE
-			Element stockpileNode = xmldoc.createElementNS(null, "stockpile");
-			setAttribute(stockpileNode, "name", strockpile.getName());
+			xml.startElement("stockpile");
+			setAttribute(xml, "name", strockpile.getName());
 			if (!export) { //Risk of collision, better to generate a new one on import
-				setAttribute(stockpileNode, "id", strockpile.getStockpileID());
+				setAttribute(xml, "id", strockpile.getStockpileID());
 			}
-			setAttribute(stockpileNode, "multiplier", strockpile.getMultiplier());
-			setAttribute(stockpileNode, "contractsmatchall", strockpile.isContractsMatchAll());
+			setAttribute(xml, "multiplier", strockpile.getMultiplier());
+			setAttribute(xml, "contractsmatchall", strockpile.isContractsMatchAll());
 			//ITEMS
 			for (StockpileItem item : strockpile.getItems()) {
 				if (item.isTotal()) {
 					continue; //Ignore Total
 				}
-				Element itemNode = xmldoc.createElementNS(null, "item");
+				xml.startElement("item");
 				if (!export) { //Risk of collision, better to generate a new one on import
-					setAttribute(itemNode, "id", item.getID());
+					setAttribute(xml, "id", item.getID());
 				}
-				setAttribute(itemNode, "typeid", item.getItemTypeID());
-				setAttribute(itemNode, "minimum", item.getCountMinimum());
-				setAttribute(itemNode, "runs", item.isRuns());
-				stockpileNode.appendChild(itemNode);
+				setAttribute(xml, "typeid", item.getItemTypeID());
+				setAttribute(xml, "minimum", item.getCountMinimum());
+				setAttribute(xml, "runs", item.isRuns());
+				xml.endElement();
 			}
 			//SUBPILES
 			for (Map.Entry<Stockpile, Double> entry : strockpile.getSubpiles().entrySet()) {
-				Element subpileNode = xmldoc.createElementNS(null, "subpile");
-				subpileNode.setAttributeNS(null, "name", entry.getKey().getName());
-				subpileNode.setAttributeNS(null, "minimum", String.valueOf(entry.getValue()));
-				stockpileNode.appendChild(subpileNode);
+				xml.startElement("subpile");
+				setAttribute(xml, "name", entry.getKey().getName());
+				setAttribute(xml, "minimum", String.valueOf(entry.getValue()));
+				xml.endElement();
 			}
 			//FILTERS
 			for (StockpileFilter filter : strockpile.getFilters()) {
-				Element filterNode = xmldoc.createElementNS(null, "stockpilefilter");
-				setAttribute(filterNode, "locationid", filter.getLocation().getLocationID());
-				setAttribute(filterNode, "sellingcontracts", filter.isSellingContracts());
-				setAttribute(filterNode, "soldcontracts", filter.isSoldContracts());
-				setAttribute(filterNode, "buyingcontracts", filter.isBuyingContracts());
-				setAttribute(filterNode, "boughtcontracts", filter.isBoughtContracts());
-				setAttribute(filterNode, "exclude", filter.isExclude());
-				setAttributeOptional(filterNode, "singleton", filter.isSingleton());
-				setAttributeOptional(filterNode, "jobsdaysless", filter.getJobsDaysLess());
-				setAttributeOptional(filterNode, "jobsdaysmore", filter.getJobsDaysMore());
-				setAttribute(filterNode, "inventory", filter.isAssets());
-				setAttribute(filterNode, "sellorders", filter.isSellOrders());
-				setAttribute(filterNode, "buyorders", filter.isBuyOrders());
-				setAttribute(filterNode, "buytransactions", filter.isBuyTransactions());
-				setAttribute(filterNode, "selltransactions", filter.isSellTransactions());
-				setAttribute(filterNode, "jobs", filter.isJobs());
-				stockpileNode.appendChild(filterNode);
+				xml.startElement("stockpilefilter");
+				setAttribute(xml, "locationid", filter.getLocation().getLocationID());
+				setAttribute(xml, "sellingcontracts", filter.isSellingContracts());
+				setAttribute(xml, "soldcontracts", filter.isSoldContracts());
+				setAttribute(xml, "buyingcontracts", filter.isBuyingContracts());
+				setAttribute(xml, "boughtcontracts", filter.isBoughtContracts());
+				setAttribute(xml, "exclude", filter.isExclude());
+				setAttributeOptional(xml, "singleton", filter.isSingleton());
+				setAttributeOptional(xml, "jobsdaysless", filter.getJobsDaysLess());
+				setAttributeOptional(xml, "jobsdaysmore", filter.getJobsDaysMore());
+				setAttribute(xml, "inventory", filter.isAssets());
+				setAttribute(xml, "sellorders", filter.isSellOrders());
+				setAttribute(xml, "buyorders", filter.isBuyOrders());
+				setAttribute(xml, "buytransactions", filter.isBuyTransactions());
+				setAttribute(xml, "selltransactions", filter.isSellTransactions());
+				setAttribute(xml, "jobs", filter.isJobs());
 				for (Long ownerID : filter.getOwnerIDs()) {
-					Element ownerNode = xmldoc.createElementNS(null, "owner");
-					setAttribute(ownerNode, "ownerid", ownerID);
-					filterNode.appendChild(ownerNode);
+					xml.startElement("owner");
+					setAttribute(xml, "ownerid", ownerID);
+					xml.endElement();
 				}
 				for (StockpileContainer container : filter.getContainers()) {
-					Element containerNode = xmldoc.createElementNS(null, "container");
-					setAttribute(containerNode, "container", container.getContainer());
-					setAttribute(containerNode, "includecontainer", container.isIncludeSubs());
-					filterNode.appendChild(containerNode);
+					xml.startElement("container");
+					setAttribute(xml, "container", container.getContainer());
+					setAttribute(xml, "includecontainer", container.isIncludeSubs());
+					xml.endElement();
 				}
 				for (StockpileFlag flag : filter.getFlags()) {
-					Element flagNode = xmldoc.createElementNS(null, "flag");
-					setAttribute(flagNode, "flagid", flag.getFlagID());
-					setAttribute(flagNode, "includecontainer", flag.isIncludeSubs());
-					filterNode.appendChild(flagNode);
+					xml.startElement("flag");
+					setAttribute(xml, "flagid", flag.getFlagID());
+					setAttribute(xml, "includecontainer", flag.isIncludeSubs());
+					xml.endElement();
 				}
+				xml.endElement();
 			}
-			parentNode.appendChild(stockpileNode);
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeOverviewGroups(final Document xmldoc, final Map<String, OverviewGroup> overviewGroups) {
-		Element parentNode = xmldoc.createElementNS(null, "overview");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeOverviewGroups(final XmlOutput xml, final Map<String, OverviewGroup> overviewGroups) throws IOException {
+		xml.startElement("overview");
 		for (Map.Entry<String, OverviewGroup> entry : overviewGroups.entrySet()) {
 			OverviewGroup overviewGroup = entry.getValue();
-			Element node = xmldoc.createElementNS(null, "group");
-			setAttribute(node, "name", overviewGroup.getName());
-			parentNode.appendChild(node);
+			xml.startElement("group");
+			setAttribute(xml, "name", overviewGroup.getName());
 			for (OverviewLocation location : overviewGroup.getLocations()) {
-				Element nodeLocation = xmldoc.createElementNS(null, "location");
-				setAttribute(nodeLocation, "name", location.getName());
-				setAttribute(nodeLocation, "type", location.getType());
-				node.appendChild(nodeLocation);
+				xml.startElement("location");
+				setAttribute(xml, "name", location.getName());
+				setAttribute(xml, "type", location.getType());
+				xml.endElement();
 			}
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeUserItemNames(final Document xmldoc, final Map<Long, UserItem<Long, String>> userPrices) {
-		Element parentNode = xmldoc.createElementNS(null, "itemmames");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeUserItemNames(final XmlOutput xml, final Map<Long, UserItem<Long, String>> userPrices) throws IOException {
+		xml.startElement("itemmames");
 		for (Map.Entry<Long, UserItem<Long, String>> entry : userPrices.entrySet()) {
 			UserItem<Long, String> userItemName = entry.getValue();
-			Element node = xmldoc.createElementNS(null, "itemname");
-			setAttribute(node, "name", userItemName.getValue());
-			setAttribute(node, "typename", userItemName.getName());
-			setAttribute(node, "itemid", userItemName.getKey());
-			parentNode.appendChild(node);
+			xml.startElement("itemname");
+			setAttribute(xml, "name", userItemName.getValue());
+			setAttribute(xml, "typename", userItemName.getName());
+			setAttribute(xml, "itemid", userItemName.getKey());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeEveNames(final Document xmldoc, final Map<Long, String> eveNames) {
-		Element parentNode = xmldoc.createElementNS(null, "evenames");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeEveNames(final XmlOutput xml, final Map<Long, String> eveNames) throws IOException {
+		xml.startElement("evenames");
 		for (Map.Entry<Long, String> entry : eveNames.entrySet()) {
-			Element node = xmldoc.createElementNS(null, "evename");
-			setAttribute(node, "name", entry.getValue());
-			setAttribute(node, "itemid", entry.getKey());
-			parentNode.appendChild(node);
-		}
-	}
-
-	private void writeReprocessSettings(final Document xmldoc, final ReprocessSettings reprocessSettings) {
-		Element parentNode = xmldoc.createElementNS(null, "reprocessing");
-		xmldoc.getDocumentElement().appendChild(parentNode);
-		setAttribute(parentNode, "refining", reprocessSettings.getReprocessingLevel());
-		setAttribute(parentNode, "efficiency", reprocessSettings.getReprocessingEfficiencyLevel());
-		setAttribute(parentNode, "ore", reprocessSettings.getOreProcessingLevel());
-		setAttribute(parentNode, "scrapmetal", reprocessSettings.getScrapmetalProcessingLevel());
-		setAttribute(parentNode, "station", reprocessSettings.getStation());
-	}
-
-	private void writeWindow(final Document xmldoc, final Settings settings) {
-		Element parentNode = xmldoc.createElementNS(null, "window");
-		xmldoc.getDocumentElement().appendChild(parentNode);
-		setAttribute(parentNode, "x", settings.getWindowLocation().x);
-		setAttribute(parentNode, "y", settings.getWindowLocation().y);
-		setAttribute(parentNode, "height", settings.getWindowSize().height);
-		setAttribute(parentNode, "width", settings.getWindowSize().width);
-		setAttribute(parentNode, "maximized", settings.isWindowMaximized());
-		setAttribute(parentNode, "autosave", settings.isWindowAutoSave());
-		setAttribute(parentNode, "alwaysontop", settings.isWindowAlwaysOnTop());
-	}
-
-	private void writeUserPrices(final Document xmldoc, final Map<Integer, UserItem<Integer, Double>> userPrices) {
-		Element parentNode = xmldoc.createElementNS(null, "userprices");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+			xml.startElement("evename");
+			setAttribute(xml, "name", entry.getValue());
+			setAttribute(xml, "itemid", entry.getKey());
+			xml.endElement();
+		}
+		xml.endElement();
+	}
+
+	private void writeReprocessSettings(final XmlOutput xml, final ReprocessSettings reprocessSettings) throws IOException {
+		xml.startElement("reprocessing");
+		setAttribute(xml, "refining", reprocessSettings.getReprocessingLevel());
+		setAttribute(xml, "efficiency", reprocessSettings.getReprocessingEfficiencyLevel());
+		setAttribute(xml, "ore", reprocessSettings.getOreProcessingLevel());
+		setAttribute(xml, "scrapmetal", reprocessSettings.getScrapmetalProcessingLevel());
+		setAttribute(xml, "station", reprocessSettings.getStation());
+		xml.endElement();
+	}
+
+	private void writeWindow(final XmlOutput xml, final Settings settings) throws IOException {
+		xml.startElement("window");
+		setAttribute(xml, "x", settings.getWindowLocation().x);
+		setAttribute(xml, "y", settings.getWindowLocation().y);
+		setAttribute(xml, "height", settings.getWindowSize().height);
+		setAttribute(xml, "width", settings.getWindowSize().width);
+		setAttribute(xml, "maximized", settings.isWindowMaximized());
+		setAttribute(xml, "autosave", settings.isWindowAutoSave());
+		setAttribute(xml, "alwaysontop", settings.isWindowAlwaysOnTop());
+		xml.endElement();
+	}
+
+	private void writeUserPrices(final XmlOutput xml, final Map<Integer, UserItem<Integer, Double>> userPrices) throws IOException {
+		xml.startElement("userprices");
 		for (Map.Entry<Integer, UserItem<Integer, Double>> entry : userPrices.entrySet()) {
 			UserItem<Integer, Double> userPrice = entry.getValue();
-			Element node = xmldoc.createElementNS(null, "userprice");
-			setAttribute(node, "name", userPrice.getName());
-			setAttribute(node, "price", userPrice.getValue());
-			setAttribute(node, "typeid", userPrice.getKey());
-			parentNode.appendChild(node);
+			xml.startElement("userprice");
+			setAttribute(xml, "name", userPrice.getName());
+			setAttribute(xml, "price", userPrice.getValue());
+			setAttribute(xml, "typeid", userPrice.getKey());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writePriceDataSettings(final Document xmldoc, final PriceDataSettings priceDataSettings) {
-		Element parentNode = xmldoc.createElementNS(null, "marketstat");
-		setAttribute(parentNode, "defaultprice", priceDataSettings.getPriceType());
-		setAttribute(parentNode, "defaultreprocessedprice", priceDataSettings.getPriceReprocessedType());
-		setAttribute(parentNode, "pricesource", priceDataSettings.getSource());
-		setAttribute(parentNode, "locationid", priceDataSettings.getLocationID());
-		setAttribute(parentNode, "type", priceDataSettings.getLocationType());
-		setAttributeOptional(parentNode, "janicekey", priceDataSettings.getJaniceKey());
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writePriceDataSettings(final XmlOutput xml, final PriceDataSettings priceDataSettings) throws IOException {
+		xml.startElement("marketstat");
+		setAttribute(xml, "defaultprice", priceDataSettings.getPriceType());
+		setAttribute(xml, "defaultreprocessedprice", priceDataSettings.getPriceReprocessedType());
+		setAttribute(xml, "pricesource", priceDataSettings.getSource());
+		setAttribute(xml, "locationid", priceDataSettings.getLocationID());
+		setAttribute(xml, "type", priceDataSettings.getLocationType());
+		setAttributeOptional(xml, "janicekey", priceDataSettings.getJaniceKey());
+		xml.endElement();
 	}
 
-	private void writeMarketOrdersSettings(final Document xmldoc, final MarketOrdersSettings marketOrdersSettings) {
-		Element parentNode = xmldoc.createElementNS(null, "marketorderssettings");
-		setAttribute(parentNode, "expirewarndays", marketOrdersSettings.getExpireWarnDays());
-		setAttribute(parentNode, "remainingwarnpercent", marketOrdersSettings.getRemainingWarnPercent());
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeMarketOrdersSettings(final XmlOutput xml, final MarketOrdersSettings marketOrdersSettings) throws IOException {
+		xml.startElement("marketorderssettings");
+		setAttribute(xml, "expirewarndays", marketOrdersSettings.getExpireWarnDays());
+		setAttribute(xml, "remainingwarnpercent", marketOrdersSettings.getRemainingWarnPercent());
+		xml.endElement();
 	}
 
-	private void writeFlags(final Document xmldoc, final Map<SettingFlag, Boolean> flags) {
-		Element parentNode = xmldoc.createElementNS(null, "flags");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeFlags(final XmlOutput xml, final Map<SettingFlag, Boolean> flags) throws IOException {
+		xml.startElement("flags");
 		for (Map.Entry<SettingFlag, Boolean> entry : flags.entrySet()) {
-			Element node = xmldoc.createElementNS(null, "flag");
-			setAttribute(node, "key", entry.getKey());
-			setAttribute(node, "enabled", entry.getValue());
-			parentNode.appendChild(node);
+			xml.startElement("flag");
+			setAttribute(xml, "key", entry.getKey());
+			setAttribute(xml, "enabled", entry.getValue());
+			xml.endElement();
 		}
+		xml.endElement();
 	}
 
-	private void writeProxy(final Document xmldoc, final ProxyData proxy) {
+	private void writeProxy(final XmlOutput xml, final ProxyData proxy) throws IOException {
 		if (proxy.getType() != Proxy.Type.DIRECT) { // Only adds proxy tag if there is anything to save... (To prevent an error when the proxy tag doesn't have any attributes)
-			Element node = xmldoc.createElementNS(null, "proxy");
-			setAttribute(node, "address", proxy.getAddress());
-			setAttribute(node, "port", proxy.getPort());
-			setAttribute(node, "type", proxy.getType());
+			xml.startElement("proxy");
+			setAttribute(xml, "address", proxy.getAddress());
+			setAttribute(xml, "port", proxy.getPort());
+			setAttribute(xml, "type", proxy.getType());
 			if (proxy.isAuth()) {
-				setAttribute(node, "username", proxy.getUsername());
-				setAttribute(node, "password", proxy.getPassword());
+				setAttribute(xml, "username", proxy.getUsername());
+				setAttribute(xml, "password", proxy.getPassword());
 			}
-			xmldoc.getDocumentElement().appendChild(node);
+			xml.endElement();
 		}
 	}
 
-	private void writeExportSettings(final Document xmldoc, final Map<String, ExportSettings> exportSettings, final CopySettings copySettings) {
-		Element node = xmldoc.createElementNS(null, "exports");
+	private void writeExportSettings(final XmlOutput xml, final Map<String, ExportSettings> exportSettings, final CopySettings copySettings) throws IOException {
+		xml.startElement("exports");
 		//Copy
-		setAttribute(node, "copy", copySettings.getCopyDecimalSeparator());
+		setAttribute(xml, "copy", copySettings.getCopyDecimalSeparator());
 
 		for(Map.Entry<String, ExportSettings> exportSetting : exportSettings.entrySet()) {
 			//Common
-			Element exportNode = xmldoc.createElementNS(null, "export");
-			setAttribute(exportNode, "name", exportSetting.getKey());
-			setAttributeOptional(exportNode, "exportformat", exportSetting.getValue().getExportFormat());
-			setAttributeOptional(exportNode, "filename", exportSetting.getValue().getFilename());
-			setAttributeOptional(exportNode, "columnselection", exportSetting.getValue().getColumnSelection());
-			setAttributeOptional(exportNode, "viewname", exportSetting.getValue().getViewName());
-			setAttributeOptional(exportNode, "filterselection", exportSetting.getValue().getFilterSelection());
-			setAttributeOptional(exportNode, "filtername", exportSetting.getValue().getFilterName());
-			node.appendChild(exportNode);
+			xml.startElement("export");
+			setAttribute(xml, "name", exportSetting.getKey());
+			setAttributeOptional(xml, "exportformat", exportSetting.getValue().getExportFormat());
+			setAttributeOptional(xml, "filename", exportSetting.getValue().getFilename());
+			setAttributeOptional(xml, "columnselection", exportSetting.getValue().getColumnSelection());
+			setAttributeOptional(xml, "viewname", exportSetting.getValue().getViewName());
+			setAttributeOptional(xml, "filterselection", exportSetting.getValue().getFilterSelection());
+			setAttributeOptional(xml, "filtername", exportSetting.getValue().getFilterName());
 
 			if (!exportSetting.getValue().getTableExportColumns().isEmpty()) {
-				Element tableNode = xmldoc.createElementNS(null, "table");
+				xml.startElement("table");
 				for (String column : exportSetting.getValue().getTableExportColumns()) {
-					Element columnNode = xmldoc.createElementNS(null, "column");
-					setAttribute(columnNode, "name", column);
-					tableNode.appendChild(columnNode);
+					xml.startElement("column");
+					setAttribute(xml, "name", column);
+					xml.endElement();
 				}
-				exportNode.appendChild(tableNode);
+				xml.endElement();
 			}
 
 			//CSV
-			Element csvNode = xmldoc.createElementNS(null, "csv");
-			setAttribute(csvNode, "decimal", exportSetting.getValue().getDecimalSeparator());
-			setAttribute(csvNode, "line", exportSetting.getValue().getCsvLineDelimiter());
-			exportNode.appendChild(csvNode);
+			xml.startElement("csv");
+			setAttribute(xml, "decimal", exportSetting.getValue().getDecimalSeparator());
+			setAttribute(xml, "line", exportSetting.getValue().getCsvLineDelimiter());
+			xml.endElement();
 
 			//SQL
-			Element sqlNode = xmldoc.createElementNS(null, "sql");
-			setAttribute(sqlNode, "tablename", exportSetting.getValue().getSqlTableName());
-			setAttribute(sqlNode, "createtable", exportSetting.getValue().isSqlCreateTable());
-			setAttribute(sqlNode, "droptable", exportSetting.getValue().isSqlDropTable());
-			setAttribute(sqlNode, "extendedinserts", exportSetting.getValue().isSqlExtendedInserts());
-			exportNode.appendChild(sqlNode);
+			xml.startElement("sql");
+			setAttribute(xml, "tablename", exportSetting.getValue().getSqlTableName());
+			setAttribute(xml, "createtable", exportSetting.getValue().isSqlCreateTable());
+			setAttribute(xml, "droptable", exportSetting.getValue().isSqlDropTable());
+			setAttribute(xml, "extendedinserts", exportSetting.getValue().isSqlExtendedInserts());
+			xml.endElement();
 
 			//Html
-			Element htmlNode = xmldoc.createElementNS(null, "html");
-			setAttribute(htmlNode, "styled", exportSetting.getValue().isHtmlStyled());
-			setAttribute(htmlNode, "igb", exportSetting.getValue().isHtmlIGB());
-			setAttribute(htmlNode, "repeatheader", exportSetting.getValue().getHtmlRepeatHeader());
-			exportNode.appendChild(htmlNode);
+			xml.startElement("html");
+			setAttribute(xml, "styled", exportSetting.getValue().isHtmlStyled());
+			setAttribute(xml, "igb", exportSetting.getValue().isHtmlIGB());
+			setAttribute(xml, "repeatheader", exportSetting.getValue().getHtmlRepeatHeader());
+			xml.endElement();
 
+			xml.endElement();
 		}
-		xmldoc.getDocumentElement().appendChild(node);
+		xml.endElement();
 	}
 }
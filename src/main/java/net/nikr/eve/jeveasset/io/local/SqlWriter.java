@@ -22,8 +22,10 @@
 package net.nikr.eve.jeveasset.io.local;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -31,7 +33,6 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.gui.shared.table.EnumTableColumn;
 import net.nikr.eve.jeveasset.gui.shared.table.containers.HierarchyColumn;
@@ -42,6 +43,7 @@ import org.slf4j.LoggerFactory;
 public final class SqlWriter {
 
 	private static final Logger LOG = LoggerFactory.getLogger(SqlWriter.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
 
 	private final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("0.##", new DecimalFormatSymbols(Locale.ENGLISH));
 	private final DecimalFormat FLOAT_FORMAT = new DecimalFormat("0.####", new DecimalFormatSymbols(Locale.ENGLISH));
@@ -51,18 +53,19 @@ public final class SqlWriter {
 
 	private SqlWriter() { }
 
-	public static boolean save(final String filename, final List<Map<EnumTableColumn<?>, Object>> rows, final List<EnumTableColumn<?>> header, final String tableName, final boolean dropTable, final boolean createTable, final boolean extendedInserts) {
+	public static boolean save(final String filename, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final String tableName, final boolean dropTable, final boolean createTable, final boolean extendedInserts) {
 		SqlWriter writer = new SqlWriter();
-		return writer.write(filename, rows, header, tableName, dropTable, createTable, extendedInserts);
+		return writer.write(filename, cursor, header, tableName, dropTable, createTable, extendedInserts);
 	}
 
-	private boolean write(final String filename, final List<Map<EnumTableColumn<?>, Object>> rows, final List<EnumTableColumn<?>> header, final String tableName, final boolean dropTable, final boolean createTable, final boolean extendedInserts) {
-		try {
-			BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+	private boolean write(final String filename, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final String tableName, final boolean dropTable, final boolean createTable, final boolean extendedInserts) {
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8), BUFFER_SIZE)) {
 			writeComment(writer);
-			writeTable(writer, rows, header, tableName, dropTable, createTable);
-			writeRows(writer, rows, header, tableName, extendedInserts);
-			writer.close();
+			boolean rows = cursor.next(); //Column types are taken from the first row
+			writeTable(writer, cursor, rows, header, tableName, dropTable, createTable);
+			if (rows) {
+				writeRows(writer, cursor, header, tableName, extendedInserts);
+			}
 		} catch (IOException ex) {
 			LOG.warn("SQL file not saved");
 			return false;
@@ -94,83 +97,95 @@ public final class SqlWriter {
 			return "text";
 		}
 	}
-	private void writeTable(final BufferedWriter writer, final List<Map<EnumTableColumn<?>, Object>> rows, final List<EnumTableColumn<?>> header, final String tableName, final boolean dropTable, final boolean createTable) throws IOException {
+	private void writeTable(final BufferedWriter writer, final ExportCursor cursor, final boolean rows, final List<EnumTableColumn<?>> header, final String tableName, final boolean dropTable, final boolean createTable) throws IOException {
 		if (dropTable) {
 			writer.write("DROP TABLE IF EXISTS `" + tableName + "`;\r\n");
 		}
-		if (createTable && !rows.isEmpty()) {
+		if (createTable && rows) {
 			writer.write("CREATE TABLE IF NOT EXISTS `" + tableName + "` (\r\n");
-			boolean first = true;
-			for (EnumTableColumn<?> column : header) {
-				if (first) {
-					first = false;
-				} else {
+			for (int i = 0; i < header.size(); i++) {
+				if (i > 0) {
 					writer.write(",\r\n");
 				}
-				writer.write("`" + column.name() + "` " + getType(rows.get(0).get(column)));
+				writer.write("`" + header.get(i).name() + "` " + getType(cursor.getValue(i)));
 			}
 			writer.write("\r\n");
 			writer.write(") ENGINE=MyISAM  DEFAULT CHARSET=utf8 ;\r\n");
 		}
 	}
 
-	private void writeRows(final BufferedWriter writer, final List<Map<EnumTableColumn<?>, Object>> rows, final List<EnumTableColumn<?>> header, final String tableName, final boolean extendedInserts) throws IOException {
-		if (!rows.isEmpty()) {
-			//Create INSERT statement
-			String insert = "INSERT INTO `" + tableName + "` (";
-			boolean firstInsert = true;
-			for (EnumTableColumn<?> column : header) {
-				if (firstInsert) {
-					firstInsert = false;
-				} else {
-					insert = insert + ", ";
-				}
-				insert = insert + "`" + column.name() + "`";
+	/**
+	 * Write the rows, starting with the current row of the cursor.
+	 */
+	private void writeRows(final BufferedWriter writer, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final String tableName, final boolean extendedInserts) throws IOException {
+		//Create INSERT statement
+		StringBuilder builder = new StringBuilder();
+		builder.append("INSERT INTO `").append(tableName).append("` (");
+		for (int i = 0; i < header.size(); i++) {
+			if (i > 0) {
+				builder.append(", ");
 			}
-			insert = insert + ") VALUES\r\n";
-			if (extendedInserts) {
+			builder.append("`").append(header.get(i).name()).append("`");
+		}
+		builder.append(") VALUES\r\n");
+		String insert = builder.toString();
+		int insertLength = utf8Length(insert);
+		if (extendedInserts) {
+			writer.write(insert);
+		}
+		boolean firstRow = true;
+		//Add values
+		StringBuilder values = new StringBuilder(); //Reused for every row
+		int length = insertLength;
+		do {
+			values.setLength(0);
+			if (extendedInserts && length > MAX_LENGTH) {
+				length = insertLength;
+				firstRow = true;
+				writer.write(";\r\n");
 				writer.write(insert);
 			}
-			boolean firstRow = true;
-			boolean firstCell;
-			//Add values
-			String values;
-			int length = insert.getBytes("UTF-8").length;
-			for (Map<EnumTableColumn<?>, Object> map : rows) {
-				values = "";
-				if (extendedInserts && length > MAX_LENGTH) {
-					length = insert.getBytes("UTF-8").length;
-					firstRow = true;
-					writer.write(";\r\n");
-					writer.write(insert);
-				}
-				//End Line
-				if (firstRow) {
-					firstRow = false;
-				} else if (extendedInserts) {
-					values = values + ",\r\n";
-				}
-				//Values
-				values = values + "	(";
-				firstCell = true;
-				for (EnumTableColumn<?> column : header) {
-					if (firstCell) {
-						firstCell = false;
-					} else {
-						values = values + ", ";
-					}
-					values = values + format(map.get(column));
-				}
-				values = values + ")";
-				if (!extendedInserts) {
-					values = values + ";\r\n";
-					writer.write(insert);
+			//End Line
+			if (firstRow) {
+				firstRow = false;
+			} else if (extendedInserts) {
+				values.append(",\r\n");
+			}
+			//Values
+			values.append("	(");
+			for (int i = 0; i < header.size(); i++) {
+				if (i > 0) {
+					values.append(", ");
 				}
-				length = length + values.getBytes("UTF-8").length; //Bytes
-				writer.write(values);
+				values.append(format(cursor.getValue(i)));
+			}
+			values.append(")");
+			if (!extendedInserts) {
+				values.append(";\r\n");
+				writer.write(insert);
+			}
+			length = length + utf8Length(values); //Bytes
+			writer.append(values);
+		} while (cursor.next());
+		writer.write(";\r\n");
+	}
+
+	private static int utf8Length(final CharSequence sequence) {
+		int length = 0;
+		for (int i = 0; i < sequence.length(); i++) {
+			char c = sequence.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c)) {
+				length += 4;
+				i++; //Skip low surrogate
+			} else {
+				length += 3;
 			}
-			writer.write(";\r\n");
 		}
+		return length;
 	}
 
 	private String format(final Object object) {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.io.local;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import net.nikr.eve.jeveasset.gui.shared.table.EnumTableColumn;
+import net.nikr.eve.jeveasset.gui.shared.table.containers.HierarchyColumn;
+import net.nikr.eve.jeveasset.gui.shared.table.containers.LongInt;
+import net.nikr.eve.jeveasset.gui.shared.table.containers.NumberValue;
+import net.nikr.eve.jeveasset.gui.shared.table.containers.Runs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes tables to a SQLite database.
+ * All tables are written with one connection in one transaction,
+ * so the database has either all of the new tables or none of them.
+ * The tables are replaced, other tables in the database are kept.
+ * Column types come from the column classes, dates are stored as UTC text (yyyy-MM-dd HH:mm:ss).
+ */
+public final class SqliteWriter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SqliteWriter.class);
+	private static final int BATCH_SIZE = 1000;
+
+	private final DateFormat SQL_DATETIME_FORMATTER = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+	private SqliteWriter() {
+		SQL_DATETIME_FORMATTER.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	public static boolean save(final String filename, final ExportCursor cursor, final List<EnumTableColumn<?>> header, final String tableName) {
+		return save(filename, Collections.singletonList(new SqliteTable(cursor, header, tableName)));
+	}
+
+	public static boolean save(final String filename, final List<SqliteTable> tables) {
+		SqliteWriter writer = new SqliteWriter();
+		return writer.write(filename, tables);
+	}
+
+	private boolean write(final String filename, final List<SqliteTable> tables) {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + filename)) {
+			connection.setAutoCommit(false); //All tables in one transaction (rolled back on close, if not committed)
+			for (SqliteTable table : tables) {
+				writeTable(connection, table);
+			}
+			connection.commit();
+		} catch (SQLException ex) {
+			LOG.warn("SQLite file not saved: " + ex.getMessage());
+			return false;
+		}
+		LOG.info("SQLite file saved");
+		return true;
+	}
+
+	private void writeTable(final Connection connection, final SqliteTable table) throws SQLException {
+		final ExportCursor cursor = table.getCursor();
+		final List<EnumTableColumn<?>> header = table.getHeader();
+		final String tableName = table.getTableName();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS " + quote(tableName));
+			statement.execute(createTable(header, tableName));
+		}
+		int rows = 0;
+		try (PreparedStatement statement = connection.prepareStatement(insert(header, tableName))) {
+			while (cursor.next()) {
+				for (int i = 0; i < header.size(); i++) {
+					setValue(statement, i + 1, cursor.getValue(i));
+				}
+				statement.addBatch();
+				rows++;
+				if (rows % BATCH_SIZE == 0) {
+					statement.executeBatch(); // Execute every 1000 items.
+				}
+			}
+			if (rows % BATCH_SIZE != 0) {
+				statement.executeBatch();
+			}
+		}
+		try (Statement statement = connection.createStatement()) {
+			for (String index : createIndexes(header, tableName)) { //Index after the inserts
+				statement.execute(index);
+			}
+		}
+		LOG.info("SQLite table written: " + tableName + " (" + rows + " rows)");
+	}
+
+	private String createTable(final List<EnumTableColumn<?>> header, final String tableName) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CREATE TABLE ").append(quote(tableName)).append(" (");
+		for (int i = 0; i < header.size(); i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			EnumTableColumn<?> column = header.get(i);
+			builder.append(quote(column.name())).append(" ").append(getType(column.getType()));
+		}
+		builder.append(")");
+		return builder.toString();
+	}
+
+	private String insert(final List<EnumTableColumn<?>> header, final String tableName) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("INSERT INTO ").append(quote(tableName)).append(" VALUES (");
+		for (int i = 0; i < header.size(); i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append("?");
+		}
+		builder.append(")");
+		return builder.toString();
+	}
+
+	/**
+	 * Index the id, owner and date columns (the columns used to join and group the tables).
+	 */
+	private List<String> createIndexes(final List<EnumTableColumn<?>> header, final String tableName) {
+		List<String> indexes = new ArrayList<>();
+		for (EnumTableColumn<?> column : header) {
+			String name = column.name();
+			if (name.endsWith("_ID") || name.equals("OWNER") || name.equals("DATE")) {
+				indexes.add("CREATE INDEX " + quote(tableName + "_" + name.toLowerCase()) + " ON " + quote(tableName) + " (" + quote(name) + ")");
+			}
+		}
+		return indexes;
+	}
+
+	private String getType(final Class<?> type) {
+		if (type == null) {
+			return "TEXT";
+		} else if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class || type == Boolean.class
+				|| LongInt.class.isAssignableFrom(type)
+				|| Runs.class.isAssignableFrom(type)) {
+			return "INTEGER";
+		} else if (Number.class.isAssignableFrom(type) || NumberValue.class.isAssignableFrom(type)) {
+			return "REAL";
+		} else {
+			return "TEXT"; //String, Date, etc.
+		}
+	}
+
+	private void setValue(final PreparedStatement statement, final int index, Object object) throws SQLException {
+		if (object instanceof NumberValue) { //Unpack NumberValue
+			object = ((NumberValue) object).getNumber();
+		}
+		if (object == null) {
+			statement.setNull(index, Types.NULL);
+		} else if (object instanceof Integer || object instanceof Long || object instanceof Short || object instanceof Byte) {
+			statement.setLong(index, ((Number) object).longValue());
+		} else if (object instanceof Number) {
+			statement.setDouble(index, ((Number) object).doubleValue());
+		} else if (object instanceof Boolean) {
+			statement.setLong(index, ((Boolean) object) ? 1 : 0);
+		} else if (object instanceof Date) {
+			statement.setString(index, SQL_DATETIME_FORMATTER.format((Date) object));
+		} else if (object instanceof HierarchyColumn) {
+			statement.setString(index, ((HierarchyColumn) object).getExport());
+		} else { //String etc.
+			statement.setString(index, String.valueOf(object));
+		}
+	}
+
+	private static String quote(final String name) {
+		return "\"" + name.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * A table to write: the rows, the columns and the table name.
+	 */
+	public static class SqliteTable {
+
+		private final ExportCursor cursor;
+		private final List<EnumTableColumn<?>> header;
+		private final String tableName;
+
+		public SqliteTable(final ExportCursor cursor, final List<EnumTableColumn<?>> header, final String tableName) {
+			this.cursor = cursor;
+			this.header = header;
+			this.tableName = tableName;
+		}
+
+		public ExportCursor getCursor() {
+			return cursor;
+		}
+
+		public List<EnumTableColumn<?>> getHeader() {
+			return header;
+		}
+
+		public String getTableName() {
+			return tableName;
+		}
+	}
+}
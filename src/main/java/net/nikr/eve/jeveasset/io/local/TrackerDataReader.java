@@ -49,7 +49,24 @@ public class TrackerDataReader extends AbstractBackup {
 	private static final Logger LOG = LoggerFactory.getLogger(TrackerDataReader.class);
 
 	public static Map<String, List<Value>> load() {
-		return load(FileUtil.getPathTrackerData(), true);
+		return load(TrackerDataStore.get(), FileUtil.getPathTrackerData(), true);
+	}
+
+	static Map<String, List<Value>> load(TrackerDataStore store, String legacyFilename, boolean backup) {
+		if (store.restore()) { //Restore an interrupted compaction before falling back to the legacy JSON
+			Map<String, List<Value>> trackerData = store.read(backup);
+			if (trackerData != null) {
+				return trackerData;
+			}
+			LOG.warn("Tracker data store could not be read: importing the legacy tracker data");
+		}
+		//Import legacy JSON (once, or again if the store is lost)
+		Map<String, List<Value>> trackerData = load(legacyFilename, backup);
+		if (trackerData != null) {
+			LOG.info("Importing tracker data to store");
+			store.write(trackerData);
+		}
+		return trackerData;
 	}
 
 	public static Map<String, List<Value>> load(String filename, boolean backup) {
@@ -0,0 +1,677 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
+import net.nikr.eve.jeveasset.gui.tabs.values.Value;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only tracker data store.
+ * The file is a log of records: dictionary records (owners, asset locations and wallet divisions)
+ * and one value record per owner per date, with the asset/balance IDs and values stored as arrays.
+ * New values are appended. Edited or removed values clear the owner and rewrite it.
+ * The file is compacted when more than half of it is cleared data.
+ * Record: [type:byte][length:int][payload][crc32:int] - a partial record at the end (crash) is ignored and overwritten.
+ * IDs are never reused: a later definition of an ID replaces the earlier one.
+ */
+public class TrackerDataStore extends AbstractBackup {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TrackerDataStore.class);
+
+	private static final int MAGIC = 0x4A545244; //JTRD
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int RECORD_OVERHEAD = 9;
+	private static final byte OWNER = 1;
+	private static final byte ASSET = 2;
+	private static final byte BALANCE = 3;
+	private static final byte VALUE = 4;
+	private static final byte CLEAR = 5;
+	private static final long COMPACT_MINIMUM = 1024 * 1024; //1MB
+
+	private static TrackerDataStore store;
+
+	private final String filename;
+	private final Map<String, Integer> ownerIDs = new HashMap<>();
+	private final Map<AssetValue, Integer> assetIDs = new IdentityHashMap<>(); //AssetValue is mutable (AssetValue.updateData())
+	private final Map<Integer, String> assetKeys = new HashMap<>(); //Written AssetValue data
+	private final Map<String, Integer> balanceIDs = new HashMap<>();
+	private final Map<String, long[]> written = new HashMap<>(); //Owner :: hashes of the written values
+	private final Map<String, Long> ownerBytes = new HashMap<>(); //Owner :: size of the written values
+	private final RecordOutput record = new RecordOutput();
+	private int nextOwnerID;
+	private int nextAssetID;
+	private int nextBalanceID;
+	private long garbage;
+	private long length; //0 = Nothing written or loaded
+
+	public TrackerDataStore(String filename) {
+		this.filename = filename;
+	}
+
+	public static synchronized TrackerDataStore get() {
+		if (store == null) {
+			store = new TrackerDataStore(FileUtil.getPathTrackerStore());
+		}
+		return store;
+	}
+
+	/**
+	 * Restore an interrupted compaction (.new/.bac) and check if the store exists.
+	 * @return true if the store exists
+	 */
+	public synchronized boolean restore() {
+		if (!new File(filename).exists() && !restoreNewFile(filename)) {
+			restoreBackupFile(filename);
+		}
+		return new File(filename).exists();
+	}
+
+	/**
+	 * Read the store.
+	 * @param backup Create a backup for the new program version
+	 * @return the tracker data or null if the store does not exist or could not be read
+	 */
+	public synchronized Map<String, List<Value>> read(boolean backup) {
+		File file = new File(filename);
+		if (!file.exists()) {
+			if (restoreNewFile(filename) || restoreBackupFile(filename)) { //Interrupted compaction
+				return read(backup);
+			}
+			return null;
+		}
+		if (backup) {
+			backup(filename);
+		}
+		boolean retry = false;
+		try {
+			lock(filename);
+			Map<String, List<Value>> trackerData = readFile(file);
+			LOG.info("Tracker data loaded");
+			return trackerData;
+		} catch (IOException | RuntimeException ex) {
+			LOG.warn(ex.getMessage(), ex);
+			clear();
+			if (restoreNewFile(filename)) { //If possible restore from .new (Should be the newest)
+				retry = true;
+			} else if (restoreBackupFile(filename)) { //If possible restore from .bac (Should be the oldest, but, still worth trying)
+				retry = true;
+			} else { //Nothing left to try - throw error
+				restoreFailed(filename); //Backup error file
+				LOG.error(ex.getMessage(), ex);
+			}
+		} finally {
+			unlock(filename);
+		}
+		if (retry) {
+			return read(false);
+		}
+		return null;
+	}
+
+	/**
+	 * Write the tracker data.
+	 * Only the changes since the last read/write are appended.
+	 * @param trackerData Tracker Data (must be read locked)
+	 */
+	public synchronized void write(Map<String, List<Value>> trackerData) {
+		try {
+			lock(filename);
+			if (length == 0 || !new File(filename).exists()) {
+				if (compact(trackerData)) {
+					return;
+				}
+				//Compaction failed: append to the old file instead
+				LOG.error("Tracker data store: failed to rewrite - appending to the old file");
+				if (length == 0 || !new File(filename).exists()) {
+					readFile(new File(filename)); //Load the state of the old file
+				}
+			}
+			append(trackerData);
+			if (garbage > COMPACT_MINIMUM && garbage > length - garbage) {
+				compact(trackerData); //The data is already saved: a failure is retried on the next save
+			}
+		} catch (IOException | RuntimeException ex) {
+			LOG.error(ex.getMessage(), ex);
+			length = 0; //Rewrite everything next time
+		} finally {
+			unlock(filename);
+		}
+	}
+
+	private void clear() {
+		ownerIDs.clear();
+		assetIDs.clear();
+		assetKeys.clear();
+		balanceIDs.clear();
+		written.clear();
+		ownerBytes.clear();
+		nextOwnerID = 0;
+		nextAssetID = 0;
+		nextBalanceID = 0;
+		garbage = 0;
+		length = 0;
+	}
+
+	private Map<String, List<Value>> readFile(File file) throws IOException {
+		clear();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		MappedByteBuffer buffer;
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Tracker data store is too large: " + channel.size());
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			randomAccessFile.close(); //The mapping stays valid
+		}
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			throw new IOException("Not a tracker data store");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported tracker data store version: " + version);
+		}
+		//Pass 1: Dictionary
+		Map<Integer, String> owners = new HashMap<>();
+		Map<Integer, AssetValue> assets = new HashMap<>();
+		Map<Integer, String> balances = new HashMap<>();
+		ByteBuffer payload;
+		while (true) {
+			int start = buffer.position();
+			payload = next(buffer);
+			if (payload == null) {
+				break; //End of file or partial record
+			}
+			byte type = buffer.get(start);
+			if (type == OWNER) {
+				int id = payload.getInt();
+				String owner = readString(payload);
+				owners.put(id, owner);
+				ownerIDs.put(owner, id);
+				nextOwnerID = Math.max(nextOwnerID, id + 1);
+			} else if (type == ASSET) {
+				int id = payload.getInt();
+				String location = readString(payload);
+				String flag = payload.get() != 0 ? readString(payload) : null;
+				Long locationID = payload.get() != 0 ? payload.getLong() : null;
+				assets.put(id, AssetValue.create(location, flag, locationID)); //Last definition wins
+				assetKeys.put(id, getKey(location, flag, locationID));
+				nextAssetID = Math.max(nextAssetID, id + 1);
+			} else if (type == BALANCE) {
+				int id = payload.getInt();
+				String balance = readString(payload);
+				balances.put(id, balance);
+				balanceIDs.put(balance, id);
+				nextBalanceID = Math.max(nextBalanceID, id + 1);
+			}
+		}
+		int end = buffer.position();
+		for (Map.Entry<Integer, AssetValue> entry : assets.entrySet()) {
+			assetIDs.put(entry.getValue(), entry.getKey()); //Several IDs can be the same AssetValue (AssetValue.updateData())
+		}
+		//Pass 2: Values
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		buffer.position(HEADER_SIZE);
+		while (buffer.position() < end) {
+			int start = buffer.position();
+			byte type = buffer.get(start);
+			payload = next(buffer);
+			long size = buffer.position() - start;
+			if (type == VALUE) {
+				String owner = owners.get(payload.getInt());
+				List<Value> values = trackerData.get(owner);
+				if (values == null) {
+					values = new ArrayList<>();
+					trackerData.put(owner, values);
+				}
+				values.add(readValue(payload, assets, balances));
+				addOwnerBytes(owner, size);
+			} else if (type == CLEAR) {
+				String owner = owners.get(payload.getInt());
+				trackerData.remove(owner);
+				garbage = garbage + addOwnerBytes(owner, 0);
+				ownerBytes.remove(owner);
+			}
+		}
+		for (Map.Entry<String, List<Value>> entry : trackerData.entrySet()) {
+			written.put(entry.getKey(), hash(entry.getValue()));
+		}
+		length = end;
+		if (end < file.length()) { //Partial record (crash while writing)
+			LOG.warn("Tracker data store: ignoring " + (file.length() - end) + " bytes at the end of the file");
+			RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+			try {
+				truncate(truncate);
+			} finally {
+				truncate.close();
+			}
+		}
+		return trackerData;
+	}
+
+	/**
+	 * Remove everything after the last valid record.
+	 * Mapped files can not be truncated on some platforms: the rest is ignored on read and overwritten by the next append.
+	 */
+	private void truncate(RandomAccessFile file) {
+		try {
+			file.setLength(length);
+		} catch (IOException ex) {
+			LOG.warn("Tracker data store: failed to truncate: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Read the next valid record.
+	 * @param buffer positioned at the start of a record. Moved to the next record, if valid.
+	 * @return payload of the record or null if there are no more valid records
+	 */
+	private ByteBuffer next(ByteBuffer buffer) {
+		int start = buffer.position();
+		if (buffer.remaining() < RECORD_OVERHEAD) {
+			return null;
+		}
+		int size = buffer.getInt(start + 1);
+		if (size < 0 || size > buffer.remaining() - RECORD_OVERHEAD) {
+			return null;
+		}
+		ByteBuffer payload = buffer.duplicate();
+		payload.position(start + 5);
+		payload.limit(start + 5 + size);
+		CRC32 crc = new CRC32();
+		crc.update(payload.duplicate());
+		if ((int) crc.getValue() != buffer.getInt(start + 5 + size)) {
+			return null;
+		}
+		buffer.position(start + RECORD_OVERHEAD + size);
+		return payload.slice();
+	}
+
+	private Value readValue(ByteBuffer payload, Map<Integer, AssetValue> assets, Map<Integer, String> balances) throws IOException {
+		Value value = new Value(new Date(payload.getLong()));
+		double assetsTotal = payload.getDouble();
+		double balanceTotal = payload.getDouble();
+		value.setSellOrders(payload.getDouble());
+		value.setEscrows(payload.getDouble());
+		value.setEscrowsToCover(payload.getDouble());
+		value.setManufacturing(payload.getDouble());
+		value.setContractCollateral(payload.getDouble());
+		value.setContractValue(payload.getDouble());
+		value.setSkillPoints(payload.getLong());
+		//Balance
+		int[] ids = readIDs(payload);
+		if (ids.length > 0) {
+			for (int id : ids) {
+				String balance = balances.get(id);
+				if (balance == null) {
+					throw new IOException("Unknown balance id: " + id);
+				}
+				value.addBalance(balance, payload.getDouble());
+			}
+		} else {
+			value.setBalanceTotal(balanceTotal);
+		}
+		//Assets
+		ids = readIDs(payload);
+		if (ids.length > 0) {
+			for (int id : ids) {
+				AssetValue assetValue = assets.get(id);
+				if (assetValue == null) {
+					throw new IOException("Unknown asset id: " + id);
+				}
+				value.addAssets(assetValue, payload.getDouble());
+			}
+		} else {
+			value.setAssetsTotal(assetsTotal);
+		}
+		return value;
+	}
+
+	private int[] readIDs(ByteBuffer payload) {
+		int[] ids = new int[payload.getInt()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = payload.getInt();
+		}
+		return ids;
+	}
+
+	private String readString(ByteBuffer payload) {
+		byte[] bytes = new byte[payload.getInt()];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void append(Map<String, List<Value>> trackerData) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(filename, "rw");
+		try {
+			file.seek(length); //After the last valid record
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file.getChannel())));
+			append(out, trackerData);
+			out.flush();
+			if (file.length() > length) {
+				truncate(file);
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	private void append(DataOutputStream out, Map<String, List<Value>> trackerData) throws IOException {
+		//Updated asset locations
+		for (Map.Entry<AssetValue, Integer> entry : assetIDs.entrySet()) {
+			AssetValue assetValue = entry.getKey();
+			if (!getKey(assetValue).equals(assetKeys.get(entry.getValue()))) {
+				writeAsset(out, entry.getValue(), assetValue);
+			}
+		}
+		//Removed owners
+		for (Iterator<String> iterator = written.keySet().iterator(); iterator.hasNext();) {
+			String owner = iterator.next();
+			if (!trackerData.containsKey(owner)) {
+				writeClear(out, owner);
+				iterator.remove();
+			}
+		}
+		//Added/Updated owners
+		for (Map.Entry<String, List<Value>> entry : trackerData.entrySet()) {
+			String owner = entry.getKey();
+			List<Value> values = entry.getValue();
+			writeOwner(out, owner);
+			writeDictionary(out, values);
+			long[] hashes = hash(values);
+			long[] writtenHashes = written.get(owner);
+			int from;
+			if (writtenHashes != null && writtenHashes.length <= hashes.length && Arrays.equals(writtenHashes, Arrays.copyOf(hashes, writtenHashes.length))) {
+				from = writtenHashes.length; //Append new values
+			} else {
+				if (writtenHashes != null) {
+					writeClear(out, owner); //Rewrite owner
+				}
+				from = 0;
+			}
+			for (int i = from; i < values.size(); i++) {
+				writeValue(out, owner, values.get(i));
+			}
+			written.put(owner, hashes);
+		}
+	}
+
+	/**
+	 * Rewrite the store to a new file.
+	 * @return true if the new file replaced the old file, false if the old file is unchanged
+	 */
+	private boolean compact(Map<String, List<Value>> trackerData) throws IOException {
+		File file = getNewFile(filename);
+		TrackerDataStore compacted = new TrackerDataStore(file.getAbsolutePath());
+		compacted.writeAll(trackerData);
+		backupFile(filename); //Rename .dat => .bac (.new is safe) and .new => .dat (.bac is safe)
+		if (file.exists()) { //Rename failed (the old file may still be mapped)
+			if (!new File(filename).exists()) {
+				restoreBackupFile(filename); //Only the second rename failed: restore the old file
+			}
+			if (!file.delete()) {
+				LOG.warn("Tracker data store: failed to delete " + file.getName());
+			}
+			LOG.warn("Tracker data store compaction failed - will retry on next save");
+			return false;
+		}
+		clear();
+		ownerIDs.putAll(compacted.ownerIDs);
+		assetIDs.putAll(compacted.assetIDs);
+		assetKeys.putAll(compacted.assetKeys);
+		balanceIDs.putAll(compacted.balanceIDs);
+		written.putAll(compacted.written);
+		ownerBytes.putAll(compacted.ownerBytes);
+		nextOwnerID = compacted.nextOwnerID;
+		nextAssetID = compacted.nextAssetID;
+		nextBalanceID = compacted.nextBalanceID;
+		length = compacted.length;
+		LOG.info("Tracker data store compacted");
+		return true;
+	}
+
+	private void writeAll(Map<String, List<Value>> trackerData) throws IOException {
+		clear();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			length = HEADER_SIZE;
+			for (Map.Entry<String, List<Value>> entry : trackerData.entrySet()) {
+				String owner = entry.getKey();
+				List<Value> values = entry.getValue();
+				writeOwner(out, owner);
+				writeDictionary(out, values);
+				for (Value value : values) {
+					writeValue(out, owner, value);
+				}
+				written.put(owner, hash(values));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeOwner(DataOutputStream out, String owner) throws IOException {
+		if (ownerIDs.containsKey(owner)) {
+			return;
+		}
+		int id = nextOwnerID++;
+		ownerIDs.put(owner, id);
+		DataOutputStream data = record.start();
+		data.writeInt(id);
+		writeString(data, owner);
+		length = length + record.end(out, OWNER);
+	}
+
+	private void writeDictionary(DataOutputStream out, List<Value> values) throws IOException {
+		for (Value value : values) {
+			for (AssetValue assetValue : value.getAssetsFilter().keySet()) {
+				if (!assetIDs.containsKey(assetValue)) {
+					int id = nextAssetID++;
+					assetIDs.put(assetValue, id);
+					writeAsset(out, id, assetValue);
+				}
+			}
+			for (String balance : value.getBalanceFilter().keySet()) {
+				if (!balanceIDs.containsKey(balance)) {
+					int id = nextBalanceID++;
+					balanceIDs.put(balance, id);
+					DataOutputStream data = record.start();
+					data.writeInt(id);
+					writeString(data, balance);
+					length = length + record.end(out, BALANCE);
+				}
+			}
+		}
+	}
+
+	private void writeAsset(DataOutputStream out, int id, AssetValue assetValue) throws IOException {
+		DataOutputStream data = record.start();
+		data.writeInt(id);
+		writeString(data, assetValue.getLocation());
+		data.writeBoolean(assetValue.getFlag() != null);
+		if (assetValue.getFlag() != null) {
+			writeString(data, assetValue.getFlag());
+		}
+		data.writeBoolean(assetValue.getLocationID() != null);
+		if (assetValue.getLocationID() != null) {
+			data.writeLong(assetValue.getLocationID());
+		}
+		length = length + record.end(out, ASSET);
+		assetKeys.put(id, getKey(assetValue));
+	}
+
+	private void writeValue(DataOutputStream out, String owner, Value value) throws IOException {
+		DataOutputStream data = record.start();
+		data.writeInt(ownerIDs.get(owner));
+		data.writeLong(value.getDate().getTime());
+		data.writeDouble(value.getAssetsTotal());
+		data.writeDouble(value.getBalanceTotal());
+		data.writeDouble(value.getSellOrders());
+		data.writeDouble(value.getEscrows());
+		data.writeDouble(value.getEscrowsToCover());
+		data.writeDouble(value.getManufacturing());
+		data.writeDouble(value.getContractCollateral());
+		data.writeDouble(value.getContractValue());
+		data.writeLong(value.getSkillPoints());
+		//Balance: IDs then values
+		data.writeInt(value.getBalanceFilter().size());
+		for (String balance : value.getBalanceFilter().keySet()) {
+			data.writeInt(balanceIDs.get(balance));
+		}
+		for (Double balance : value.getBalanceFilter().values()) {
+			data.writeDouble(balance);
+		}
+		//Assets: IDs then values
+		data.writeInt(value.getAssetsFilter().size());
+		for (AssetValue assetValue : value.getAssetsFilter().keySet()) {
+			data.writeInt(assetIDs.get(assetValue));
+		}
+		for (Double assets : value.getAssetsFilter().values()) {
+			data.writeDouble(assets);
+		}
+		long size = record.end(out, VALUE);
+		length = length + size;
+		addOwnerBytes(owner, size);
+	}
+
+	private void writeClear(DataOutputStream out, String owner) throws IOException {
+		DataOutputStream data = record.start();
+		data.writeInt(ownerIDs.get(owner));
+		length = length + record.end(out, CLEAR);
+		garbage = garbage + addOwnerBytes(owner, 0);
+		ownerBytes.remove(owner);
+	}
+
+	private void writeString(DataOutputStream data, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private long addOwnerBytes(String owner, long size) {
+		Long bytes = ownerBytes.get(owner);
+		if (bytes == null) {
+			bytes = 0L;
+		}
+		bytes = bytes + size;
+		ownerBytes.put(owner, bytes);
+		return bytes;
+	}
+
+	private long[] hash(List<Value> values) {
+		long[] hashes = new long[values.size()];
+		for (int i = 0; i < hashes.length; i++) {
+			hashes[i] = hash(values.get(i));
+		}
+		return hashes;
+	}
+
+	private long hash(Value value) {
+		long hash = value.getDate().getTime();
+		hash = 31 * hash + Double.doubleToLongBits(value.getAssetsTotal());
+		hash = 31 * hash + Double.doubleToLongBits(value.getBalanceTotal());
+		hash = 31 * hash + Double.doubleToLongBits(value.getSellOrders());
+		hash = 31 * hash + Double.doubleToLongBits(value.getEscrows());
+		hash = 31 * hash + Double.doubleToLongBits(value.getEscrowsToCover());
+		hash = 31 * hash + Double.doubleToLongBits(value.getManufacturing());
+		hash = 31 * hash + Double.doubleToLongBits(value.getContractCollateral());
+		hash = 31 * hash + Double.doubleToLongBits(value.getContractValue());
+		hash = 31 * hash + value.getSkillPoints();
+		long entries = 0; //Order independent
+		for (Map.Entry<String, Double> entry : value.getBalanceFilter().entrySet()) {
+			entries = entries + mix(balanceIDs.get(entry.getKey()), entry.getValue());
+		}
+		hash = 31 * hash + entries;
+		entries = 0;
+		for (Map.Entry<AssetValue, Double> entry : value.getAssetsFilter().entrySet()) {
+			entries = entries + mix(assetIDs.get(entry.getKey()), entry.getValue());
+		}
+		return 31 * hash + entries;
+	}
+
+	private long mix(Integer id, Double value) {
+		long hash = (id == null ? -1 : id) * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(value);
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		return hash ^ (hash >>> 33);
+	}
+
+	private static String getKey(AssetValue assetValue) {
+		return getKey(assetValue.getLocation(), assetValue.getFlag(), assetValue.getLocationID());
+	}
+
+	private static String getKey(String location, String flag, Long locationID) {
+		return location + "\t" + flag + "\t" + locationID;
+	}
+
+	/**
+	 * Reusable record buffer: [type:byte][length:int][payload][crc32:int]
+	 */
+	private static class RecordOutput {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream data = new DataOutputStream(bytes);
+		private final CRC32 crc = new CRC32();
+
+		public DataOutputStream start() {
+			bytes.reset();
+			return data;
+		}
+
+		public long end(DataOutputStream out, byte type) throws IOException {
+			data.flush();
+			byte[] payload = bytes.toByteArray();
+			crc.reset();
+			crc.update(payload);
+			out.writeByte(type);
+			out.writeInt(payload.length);
+			out.write(payload);
+			out.writeInt((int) crc.getValue());
+			return payload.length + RECORD_OVERHEAD;
+		}
+	}
+}
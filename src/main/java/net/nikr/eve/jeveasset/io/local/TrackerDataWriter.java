@@ -37,7 +37,6 @@ import java.util.Map;
 import net.nikr.eve.jeveasset.data.settings.TrackerData;
 import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
 import net.nikr.eve.jeveasset.gui.tabs.values.Value;
-import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,7 +46,7 @@ public class TrackerDataWriter extends AbstractBackup {
 	private static final Logger LOG = LoggerFactory.getLogger(TrackerDataWriter.class);
 
 	public static void save() {
-		save(FileUtil.getPathTrackerData(), TrackerData.get(), true);
+		TrackerDataStore.get().write(TrackerData.get());
 	}
 
 	protected static void save(String filename, Map<String, List<Value>> trackerData, boolean createBackup) {
@@ -88,6 +88,7 @@ public abstract class AbstractGetter<O extends OwnerType> implements Runnable {
 	private final boolean disabled;
 	private final boolean wait;
 	private final String taskName;
+	private final TaskType taskType;
 	private final String apiName;
 	protected final O owner;
 	private String error = null;
@@ -103,10 +104,14 @@ public abstract class AbstractGetter<O extends OwnerType> implements Runnable {
 		} else {
 			taskName = taskType.getTaskName();
 		}
-		//this.taskName = taskType;
+		this.taskType = taskType;
 		this.apiName = apiName;
 	}
 
+	protected TaskType getTaskType() {
+		return taskType;
+	}
+
 	public void start() {
 		ThreadWoker.start(updateTask, Collections.singletonList(this));
 	}
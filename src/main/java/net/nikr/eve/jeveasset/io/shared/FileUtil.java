@@ -45,16 +45,19 @@ public class FileUtil extends FileUtilSimple {
 	private static final String PATH_STOCKPILE_IDS_DATABASE = "data" + File.separator + "stockpileids.db";
 	private static final String PATH_PRICE_HISTORY_DATABASE = "data" + File.separator + "pricehistory.db";
 	private static final String PATH_TRACKER_DATA = "data" + File.separator + "tracker.json";
+	private static final String PATH_TRACKER_STORE = "data" + File.separator + "tracker.dat";
 	private static final String PATH_SETTINGS = "data" + File.separator + "settings.xml";
 	private static final String PATH_ITEMS = "data" + File.separator + "items.xml";
 	private static final String PATH_ITEMS_UPDATES = "data" + File.separator + "items_updates.xml";
 	private static final String PATH_JUMPS = "data" + File.separator + "jumps.xml";
+	private static final String PATH_JUMP_DISTANCES = "data" + File.separator + "jumps.dat";
 	private static final String PATH_LOCATIONS = "data" + File.separator + "locations.xml";
 	private static final String PATH_FLAGS = "data" + File.separator + "flags.xml";
 	private static final String PATH_PRICE_DATA = "data" + File.separator + "pricedata.dat";
 	private static final String PATH_ASSETS = "data" + File.separator + "assets.xml";
 	private static final String PATH_CONQUERABLE_STATIONS = "data" + File.separator + "conquerable_stations.xml";
 	private static final String PATH_CITADEL = "data" + File.separator + "citadel.xml";
+	private static final String PATH_ESI_CACHE = "data" + File.separator + "esicache";
 	private static final String PATH_README = "readme.txt";
 	private static final String PATH_LICENSE = "license.txt";
 	private static final String PATH_CREDITS = "credits.txt";
@@ -139,6 +142,7 @@ public class FileUtil extends FileUtilSimple {
 			CliOptions.get().setPortable(false);
 			Path settingsFrom = Paths.get(getPathSettings());
 			Path trackerFrom = Paths.get(getPathTrackerData());
+			Path trackerStoreFrom = Paths.get(getPathTrackerStore());
 			Path assetAddedFrom = Paths.get(getPathAssetAdded());
 			Path assetAddedDatabaseFrom = Paths.get(getPathAssetAddedDatabase());
 			Path stockpileIDsDatabaseFrom = Paths.get(getPathStockpileIDsDatabase());
@@ -150,6 +154,7 @@ public class FileUtil extends FileUtilSimple {
 			CliOptions.get().setPortable(true);
 			Path settingsTo = Paths.get(getPathSettings());
 			Path trackerTo = Paths.get(getPathTrackerData());
+			Path trackerStoreTo = Paths.get(getPathTrackerStore());
 			Path assetAddedTo = Paths.get(getPathAssetAdded());
 			Path assetAddedDatabaseTo = Paths.get(getPathAssetAddedDatabase());
 			Path stockpileIDsDatabaseTo = Paths.get(getPathStockpileIDsDatabase());
@@ -176,6 +181,15 @@ public class FileUtil extends FileUtilSimple {
 					LOG.info("	FAILED");
 				}
 			}
+			if (Files.exists(trackerStoreFrom) && !Files.exists(trackerStoreTo)) {
+				LOG.info("Importing tracker store");
+				try {
+					Files.copy(trackerStoreFrom, trackerStoreTo);
+					LOG.info("	OK");
+				} catch (IOException ex) {
+					LOG.info("	FAILED");
+				}
+			}
 			if (Files.exists(assetAddedFrom) && !Files.exists(assetAddedTo)) {
 				LOG.info("Importing asset added");
 				try {
@@ -282,6 +296,10 @@ public class FileUtil extends FileUtilSimple {
 		return getLocalFile(PATH_TRACKER_DATA, !CliOptions.get().isPortable());
 	}
 
+	public static String getPathTrackerStore() {
+		return getLocalFile(PATH_TRACKER_STORE, !CliOptions.get().isPortable());
+	}
+
 	public static String getPathAssetAdded() {
 		return getLocalFile(PATH_ASSET_ADDED, !CliOptions.get().isPortable());
 	}
@@ -310,6 +328,10 @@ public class FileUtil extends FileUtilSimple {
 		return getLocalFile(PATH_JUMPS, false);
 	}
 
+	public static String getPathJumpDistances() {
+		return getLocalFile(PATH_JUMP_DISTANCES, !CliOptions.get().isPortable());
+	}
+
 	public static String getPathFlags() {
 		return getLocalFile(PATH_FLAGS, false);
 	}
@@ -330,6 +352,10 @@ public class FileUtil extends FileUtilSimple {
 		return getLocalFile(PATH_DATA, false);
 	}
 
+	public static String getPathEsiCacheDirectory() {
+		return getLocalFile(PATH_ESI_CACHE, !CliOptions.get().isPortable());
+	}
+
 	public static String getPathDataDirectory() {
 		return getLocalFile(PATH_DATA, !CliOptions.get().isPortable());
 	}
@@ -23,12 +23,21 @@ package net.nikr.eve.jeveasset.io.shared;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.nikr.eve.jeveasset.CliOptions;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +47,16 @@ public class ThreadWoker {
 
 	private static final int MAIN_THREADS = 100;
 	private static final int SUB_THREADS = 100;
-	private static final ExecutorService RETURN_THREAD_POOL = Executors.newFixedThreadPool(SUB_THREADS);
+	private static final int PROGRESS_INTERVAL = 500; //ms
+	/**
+	 * Shared by all updates: Each update no longer creates it's own thread pool.
+	 * Queued tasks from interactive updates are run before tasks from background updates.
+	 */
+	private static final PriorityExecutor MAIN_THREAD_POOL = new PriorityExecutor("Update", MAIN_THREADS);
+	private static final PriorityExecutor RETURN_THREAD_POOL = new PriorityExecutor("Update-Sub", SUB_THREADS);
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+	private static Executor virtualThreadPool = null;
+	private static boolean virtualThreadsChecked = false;
 
 	private static final Logger LOG = LoggerFactory.getLogger(ThreadWoker.class);
 
@@ -55,34 +73,18 @@ public class ThreadWoker {
 	}
 
 	public static void start(UpdateTask updateTask, Collection<? extends Runnable> updaters, boolean updateProgress, int start, int end) {
-		ExecutorService threadPool = Executors.newFixedThreadPool(MAIN_THREADS);
+		LOG.info("Starting " + updaters.size() + " main threads");
+		List<Callable<Object>> callables = new ArrayList<>();
+		for (Runnable runnable : updaters) {
+			callables.add(Executors.callable(runnable));
+		}
 		try {
-			LOG.info("Starting " + updaters.size() + " main threads");
-			List<Future<?>> futures = new ArrayList<Future<?>>();
-			for (Runnable runnable : updaters) {
-				futures.add(threadPool.submit(runnable));
-			}
-			threadPool.shutdown();
-			while (!threadPool.awaitTermination(500, TimeUnit.MICROSECONDS)) {
-				if (updateTask != null) {
-					if (updateTask.isCancelled()) {
-						threadPool.shutdownNow();
-					} else if (updateProgress) {
-						int progress = 0;
-						for (Future<?> future : futures) {
-							if (future.isDone()) {
-								progress++;
-							}
-						}
-						updateTask.setTaskProgress(updaters.size(), progress, start, end);
-					}
-				}
-			}
+			List<Future<Object>> futures = execute(MAIN_THREAD_POOL, updateTask, callables, updateProgress, start, end);
 			//Get errors (if any)
 			for (Future<?> future : futures) {
 				future.get();
 			}
-		} catch (InterruptedException ex) {
+		} catch (InterruptedException | TaskCancelledException ex) {
 			//No problem
 		} catch (ExecutionException ex) {
 			throwExecutionException(ex);
@@ -102,29 +104,84 @@ public class ThreadWoker {
 			throw new TaskCancelledException();
 		}
 		LOG.info("Starting " + updaters.size() + " sub threads");
-		List<Future<K>> futures = new ArrayList<Future<K>>();
+		return execute(getSubExecutor(), updateTask, updaters, updateProgress, start, end);
+	}
+
+	/**
+	 * Run the task on the shared thread pool without waiting for it to complete.
+	 * @param updateTask UpdateTask the task belongs to (background tasks are queued last)
+	 * @param runnable Task to run
+	 * @param completed The task is added to the queue when it's done (completed, failed or cancelled)
+	 * @return Future of the task
+	 */
+	public static Future<Object> submit(UpdateTask updateTask, Runnable runnable, BlockingQueue<Future<?>> completed) {
+		boolean background = updateTask != null && updateTask.isBackground();
+		PriorityTask<Object> task = new PriorityTask<>(Executors.callable(runnable), background, completed);
+		MAIN_THREAD_POOL.execute(task);
+		return task;
+	}
+
+	/**
+	 * Sub tasks are mostly waiting on the network.
+	 * With -virtualthreads each sub task is run on it's own virtual thread (Java 21+)
+	 * @return Executor to use for sub tasks
+	 */
+	private static Executor getSubExecutor() {
+		if (CliOptions.get().isVirtualThreads()) {
+			Executor executor = getVirtualThreadPool();
+			if (executor != null) {
+				return executor;
+			}
+		}
+		return RETURN_THREAD_POOL;
+	}
+
+	private synchronized static Executor getVirtualThreadPool() {
+		if (!virtualThreadsChecked) {
+			virtualThreadsChecked = true;
+			try {
+				//Compiled for Java 8: Look up Executors.newVirtualThreadPerTaskExecutor() at runtime
+				virtualThreadPool = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+				LOG.info("Using virtual threads for sub threads");
+			} catch (ReflectiveOperationException | SecurityException ex) {
+				LOG.warn("Virtual threads require Java 21 or later. Using platform threads");
+			}
+		}
+		return virtualThreadPool;
+	}
+
+	/**
+	 * Run the tasks on the shared thread pool and wait for them to complete.
+	 * Completed tasks wakes the waiting thread to update the progress,
+	 * the wait is timed out every PROGRESS_INTERVAL to check if the task have been cancelled.
+	 * @throws TaskCancelledException if the UpdateTask was cancelled (all tasks are cancelled too)
+	 */
+	private static <K> List<Future<K>> execute(Executor executor, UpdateTask updateTask, Collection<? extends Callable<K>> updaters, boolean updateProgress, int start, int end) throws InterruptedException {
+		boolean background = updateTask != null && updateTask.isBackground();
+		BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+		List<Future<K>> futures = new ArrayList<>();
 		for (Callable<K> callable : updaters) {
-			futures.add(RETURN_THREAD_POOL.submit(callable));
+			PriorityTask<K> task = new PriorityTask<>(callable, background, completed);
+			futures.add(task);
+			executor.execute(task);
 		}
 		int done = 0;
 		while (done < futures.size()) {
-			done = 0;
-			for (Future<?> future : futures) {
-				if (future.isDone()) {
-					done++;
-				}
+			Future<?> future = completed.poll(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+			if (future != null) {
+				done++;
+				done = done + completed.drainTo(new ArrayList<>());
 			}
 			if (updateTask != null) {
 				if (updateTask.isCancelled()) { //If task is cancelled
-					for (Future<?> future : futures) { //cancel all threads
-						future.cancel(true);
+					for (Future<?> cancel : futures) { //cancel all threads
+						cancel.cancel(true);
 					}
 					throw new TaskCancelledException(); //Stop parent Task
 				} else if (updateProgress) {
-					updateTask.setTaskProgress(updaters.size(), done, start, end);
+					updateTask.setTaskProgress(futures.size(), done, start, end);
 				}
 			}
-			Thread.sleep(500);
 		}
 		return futures;
 	}
@@ -149,4 +206,56 @@ public class ThreadWoker {
 			throw new RuntimeException(cause);
 		}
 	}
+
+	private static class PriorityExecutor extends ThreadPoolExecutor {
+
+		public PriorityExecutor(String name, int threads) {
+			super(threads, threads, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new DaemonThreadFactory(name));
+			allowCoreThreadTimeOut(true); //Don't keep idle threads around
+		}
+	}
+
+	private static class PriorityTask<K> extends FutureTask<K> implements Comparable<PriorityTask<?>> {
+
+		private final boolean background;
+		private final long sequence;
+		private final BlockingQueue<Future<?>> completed;
+
+		public PriorityTask(Callable<K> callable, boolean background, BlockingQueue<Future<?>> completed) {
+			super(callable);
+			this.background = background;
+			this.sequence = SEQUENCE.getAndIncrement();
+			this.completed = completed;
+		}
+
+		@Override
+		protected void done() {
+			completed.add(this);
+		}
+
+		@Override
+		public int compareTo(PriorityTask<?> o) {
+			if (background != o.background) {
+				return background ? 1 : -1; //Interactive first
+			}
+			return Long.compare(sequence, o.sequence); //First in, first out
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger(1);
+		private final String name;
+
+		public DaemonThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, name + "-" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.shared;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tasks with dependencies (a task graph) run on the shared update thread pool.
+ * A task is started as soon as all the tasks it depends on are done,
+ * instead of waiting for every task in the previous step to complete.
+ * Each task belongs to an UpdateTask (step), that waits for and show the progress of it's own tasks.
+ */
+public class UpdatePipeline {
+
+	private static final Logger LOG = LoggerFactory.getLogger(UpdatePipeline.class);
+
+	private static final int PROGRESS_INTERVAL = 500; //ms
+
+	private final Map<UpdateTask, Step> steps = new HashMap<>();
+	private final List<Node> nodes = new ArrayList<>();
+	private boolean started = false;
+	private boolean cancelled = false;
+
+	/**
+	 * Add a task to the graph.
+	 * The runnable is created when the task is started (after the dependencies are done),
+	 * so it can use the data updated by the dependencies.
+	 * @param updateTask The step the task belongs to
+	 * @param factory Create the runnable to run
+	 * @param dependencies Tasks that must be done before this task is started
+	 * @return The task (to be used as a dependency for other tasks)
+	 */
+	public Node add(UpdateTask updateTask, RunnableFactory factory, Node... dependencies) {
+		return add(updateTask, factory, Arrays.asList(dependencies));
+	}
+
+	public synchronized Node add(UpdateTask updateTask, RunnableFactory factory, Collection<Node> dependencies) {
+		if (started) {
+			throw new IllegalStateException("Tasks can not be added after the pipeline have been started");
+		}
+		Step step = getStep(updateTask);
+		Node node = new Node(step, factory, dependencies.size());
+		for (Node dependency : dependencies) {
+			dependency.dependents.add(node);
+		}
+		step.nodes.add(node);
+		nodes.add(node);
+		return node;
+	}
+
+	/**
+	 * Start all tasks without dependencies.
+	 * Does nothing if already started.
+	 */
+	public synchronized void start() {
+		if (started) {
+			return;
+		}
+		started = true;
+		LOG.info("Starting pipeline with " + nodes.size() + " tasks");
+		for (Node node : nodes) {
+			if (node.pending.get() == 0) {
+				submit(node);
+			}
+		}
+	}
+
+	/**
+	 * Cancel all running and waiting tasks.
+	 */
+	public synchronized void cancel() {
+		cancelled = true;
+		for (Node node : nodes) {
+			if (node.future != null) {
+				node.future.cancel(true);
+			}
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Wait for all the tasks of the UpdateTask to be done.
+	 * Starts the pipeline if it's not already started.
+	 * If the UpdateTask is cancelled, all the tasks in the pipeline are cancelled.
+	 * @param updateTask The step to wait for
+	 * @param updateProgress true to set the progress of the UpdateTask (tasks done / tasks)
+	 */
+	public void waitFor(UpdateTask updateTask, boolean updateProgress) {
+		start();
+		Step step;
+		synchronized (this) {
+			step = steps.get(updateTask);
+		}
+		if (step == null) {
+			return; //No tasks
+		}
+		int size = step.nodes.size();
+		List<Future<?>> done = new ArrayList<>();
+		try {
+			while (done.size() < size) {
+				Future<?> future = step.completed.poll(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+				if (future != null) {
+					done.add(future);
+					step.completed.drainTo(done);
+				}
+				if ((updateTask != null && updateTask.isCancelled()) || isCancelled()) {
+					cancel();
+					return;
+				}
+				if (updateTask != null && updateProgress) {
+					updateTask.setTaskProgress(size, done.size(), 0, 100);
+				}
+			}
+			//Get errors (if any)
+			for (Future<?> future : done) {
+				future.get();
+			}
+		} catch (InterruptedException ex) {
+			cancel();
+		} catch (CancellationException ex) {
+			//No problem
+		} catch (ExecutionException ex) {
+			ThreadWoker.<RuntimeException>throwExecutionException(null, ex);
+		}
+	}
+
+	private Step getStep(UpdateTask updateTask) {
+		Step step = steps.get(updateTask);
+		if (step == null) {
+			step = new Step(updateTask);
+			steps.put(updateTask, step);
+		}
+		return step;
+	}
+
+	private synchronized void submit(final Node node) {
+		if (cancelled) {
+			return;
+		}
+		node.future = ThreadWoker.submit(node.step.updateTask, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (!isCancelled()) {
+						node.factory.create().run();
+					}
+				} finally {
+					done(node);
+				}
+			}
+		}, node.step.completed);
+	}
+
+	private void done(Node node) {
+		for (Node dependent : node.dependents) {
+			if (dependent.pending.decrementAndGet() == 0) {
+				submit(dependent);
+			}
+		}
+	}
+
+	public static interface RunnableFactory {
+		public Runnable create();
+	}
+
+	private static class Step {
+		private final UpdateTask updateTask;
+		private final List<Node> nodes = new ArrayList<>();
+		private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+
+		public Step(UpdateTask updateTask) {
+			this.updateTask = updateTask;
+		}
+	}
+
+	public static class Node {
+		private final Step step;
+		private final RunnableFactory factory;
+		private final AtomicInteger pending;
+		private final List<Node> dependents = new ArrayList<>();
+		private Future<Object> future;
+
+		private Node(Step step, RunnableFactory factory, int dependencies) {
+			this.step = step;
+			this.factory = factory;
+			this.pending = new AtomicInteger(dependencies);
+		}
+	}
+}
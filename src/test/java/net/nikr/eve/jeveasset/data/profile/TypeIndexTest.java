@@ -0,0 +1,252 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyContract;
+import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.api.my.MyIndustryJob;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
+import net.nikr.eve.jeveasset.data.api.raw.RawContract;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.data.api.raw.RawIndustryJob;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.data.sde.StaticData;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TypeIndexTest extends TestUtil {
+
+	private static final int TYPE_ID = 34; //Tritanium
+	private static final int OTHER_TYPE_ID = 35; //Pyerite
+	private static final int BLUEPRINT_TYPE_ID = 691; //Rifter Blueprint
+	private static final int PRODUCT_TYPE_ID = 587; //Rifter
+	private static final int ACTIVITY_MANUFACTURING = 1;
+	private static final int ACTIVITY_COPYING = 5;
+
+	private final OwnerType owner = new EsiOwner();
+	private final Item item = new Item(TYPE_ID);
+	private final Item otherItem = new Item(OTHER_TYPE_ID);
+	private final Item blueprint = new Item(BLUEPRINT_TYPE_ID, "Rifter Blueprint", "Frigate Blueprint", Item.CATEGORY_BLUEPRINT, 0, 0.01f, 0.01f, 0, 0, "Tech I", true, 1, PRODUCT_TYPE_ID, 1, null);
+	private final Item product = new Item(PRODUCT_TYPE_ID);
+
+	@BeforeClass
+	public static void setUpClass() {
+		StaticData.load();
+	}
+
+	@Test
+	public void testEmpty() {
+		TypeIndex typeIndex = new TypeIndex();
+		assertTrue(typeIndex.getAssets(TYPE_ID).isEmpty());
+		assertTrue(typeIndex.getMarketOrders(TYPE_ID).isEmpty());
+		assertTrue(typeIndex.getIndustryJobs(TYPE_ID).isEmpty());
+		assertTrue(typeIndex.getTransactions(TYPE_ID).isEmpty());
+		assertTrue(typeIndex.getContractItems(TYPE_ID).isEmpty());
+		assertTrue(typeIndex.getContractItems(createContract(1)).isEmpty());
+	}
+
+	@Test
+	public void testAssets() {
+		MyAsset asset = createAsset(1, item, 10);
+		MyAsset otherAsset = createAsset(2, otherItem, 10);
+		MyAsset bpo = createAsset(3, blueprint, -1);
+		MyAsset bpc = createAsset(4, blueprint, -2);
+		MyAsset generated = new MyAsset(createMarketOrder(5, item)); //Sell order
+		assertTrue(bpo.isBPO());
+		assertTrue(bpc.isBPC());
+		assertTrue(generated.isGenerated());
+		TypeIndex typeIndex = new TypeIndex(Arrays.asList(asset, otherAsset, bpo, bpc, generated), empty(), empty(), empty(), empty());
+		assertEquals(Collections.singletonList(asset), typeIndex.getAssets(TYPE_ID)); //Generated assets are ignored
+		assertEquals(Collections.singletonList(otherAsset), typeIndex.getAssets(OTHER_TYPE_ID));
+		assertEquals(Collections.singletonList(bpo), typeIndex.getAssets(BLUEPRINT_TYPE_ID));
+		assertEquals(Collections.singletonList(bpc), typeIndex.getAssets(-BLUEPRINT_TYPE_ID));
+		assertTrue(typeIndex.getAssets(PRODUCT_TYPE_ID).isEmpty());
+	}
+
+	@Test
+	public void testMarketOrders() {
+		MyMarketOrder marketOrder1 = createMarketOrder(1, item);
+		MyMarketOrder marketOrder2 = createMarketOrder(2, item);
+		MyMarketOrder otherMarketOrder = createMarketOrder(3, otherItem);
+		TypeIndex typeIndex = new TypeIndex(empty(), Arrays.asList(marketOrder1, otherMarketOrder, marketOrder2), empty(), empty(), empty());
+		assertEquals(Arrays.asList(marketOrder1, marketOrder2), typeIndex.getMarketOrders(TYPE_ID));
+		assertEquals(Collections.singletonList(otherMarketOrder), typeIndex.getMarketOrders(OTHER_TYPE_ID));
+		assertTrue(typeIndex.getMarketOrders(-TYPE_ID).isEmpty());
+	}
+
+	@Test
+	public void testIndustryJobs() {
+		MyIndustryJob manufacturing = createIndustryJob(1, ACTIVITY_MANUFACTURING);
+		MyIndustryJob copying = createIndustryJob(2, ACTIVITY_COPYING);
+		TypeIndex typeIndex = new TypeIndex(empty(), empty(), Arrays.asList(manufacturing, copying), empty(), empty());
+		assertEquals(Arrays.asList(manufacturing, copying), typeIndex.getIndustryJobs(PRODUCT_TYPE_ID)); //Product
+		assertEquals(Arrays.asList(manufacturing, copying), typeIndex.getIndustryJobs(-BLUEPRINT_TYPE_ID)); //Blueprint copy
+		assertTrue(typeIndex.getIndustryJobs(BLUEPRINT_TYPE_ID).isEmpty());
+		assertTrue(typeIndex.getIndustryJobs(-PRODUCT_TYPE_ID).isEmpty());
+	}
+
+	@Test
+	public void testTransactions() {
+		MyTransaction transaction1 = createTransaction(1, item);
+		MyTransaction transaction2 = createTransaction(2, otherItem);
+		TypeIndex typeIndex = new TypeIndex(empty(), empty(), empty(), Arrays.asList(transaction1, transaction2), empty());
+		assertEquals(Collections.singletonList(transaction1), typeIndex.getTransactions(TYPE_ID));
+		assertEquals(Collections.singletonList(transaction2), typeIndex.getTransactions(OTHER_TYPE_ID));
+		assertTrue(typeIndex.getTransactions(BLUEPRINT_TYPE_ID).isEmpty());
+	}
+
+	@Test
+	public void testContractItems() {
+		MyContract contract = createContract(1);
+		MyContract otherContract = createContract(2);
+		MyContract emptyContract = createContract(3);
+		MyContractItem contractItem = createContractItem(1, contract, item, 10);
+		MyContractItem bpo = createContractItem(2, contract, blueprint, -1);
+		MyContractItem bpc = createContractItem(3, otherContract, blueprint, -2);
+		MyContractItem otherContractItem = createContractItem(4, otherContract, item, 10);
+		assertFalse(bpo.isBPC());
+		assertTrue(bpc.isBPC());
+		TypeIndex typeIndex = new TypeIndex(empty(), empty(), empty(), empty(), Arrays.asList(contractItem, bpo, bpc, otherContractItem));
+		//TypeID
+		assertEquals(Arrays.asList(contractItem, otherContractItem), typeIndex.getContractItems(TYPE_ID));
+		assertEquals(Collections.singletonList(bpo), typeIndex.getContractItems(BLUEPRINT_TYPE_ID));
+		assertEquals(Collections.singletonList(bpc), typeIndex.getContractItems(-BLUEPRINT_TYPE_ID));
+		//Contract
+		assertEquals(Arrays.asList(contractItem, bpo), typeIndex.getContractItems(contract));
+		assertEquals(Arrays.asList(bpc, otherContractItem), typeIndex.getContractItems(otherContract));
+		assertTrue(typeIndex.getContractItems(emptyContract).isEmpty());
+	}
+
+	@Test
+	public void testImmutable() {
+		MyAsset asset = createAsset(1, item, 10);
+		MyContract contract = createContract(1);
+		MyContractItem contractItem = createContractItem(1, contract, item, 10);
+		TypeIndex typeIndex = new TypeIndex(Collections.singletonList(asset), empty(), empty(), empty(), Collections.singletonList(contractItem));
+		try {
+			typeIndex.getAssets(TYPE_ID).add(asset);
+			fail("TypeIndex lists must be immutable");
+		} catch (UnsupportedOperationException ex) {
+			//Expected
+		}
+		try {
+			typeIndex.getContractItems(contract).clear();
+			fail("TypeIndex lists must be immutable");
+		} catch (UnsupportedOperationException ex) {
+			//Expected
+		}
+		try {
+			typeIndex.getMarketOrders(TYPE_ID).clear(); //Empty
+			fail("TypeIndex lists must be immutable");
+		} catch (UnsupportedOperationException ex) {
+			//Expected
+		}
+		assertEquals(Collections.singletonList(asset), typeIndex.getAssets(TYPE_ID));
+		assertEquals(Collections.singletonList(contractItem), typeIndex.getContractItems(contract));
+	}
+
+	private static <T> List<T> empty() {
+		return new ArrayList<>();
+	}
+
+	private MyAsset createAsset(long itemID, Item assetItem, int quantity) {
+		RawAsset rawAsset = RawAsset.create();
+		rawAsset.setItemID(itemID);
+		rawAsset.setItemFlag(ApiIdConverter.getFlag(4)); //Hangar
+		rawAsset.setLocationID(60003760L);
+		rawAsset.setQuantity(quantity);
+		rawAsset.setSingleton(quantity < 0);
+		rawAsset.setTypeID(assetItem.getTypeID());
+		return new MyAsset(rawAsset, assetItem, owner, new ArrayList<>());
+	}
+
+	private MyMarketOrder createMarketOrder(long orderID, Item orderItem) {
+		RawMarketOrder rawMarketOrder = RawMarketOrder.create();
+		rawMarketOrder.setOrderID(orderID);
+		rawMarketOrder.setTypeID(orderItem.getTypeID());
+		rawMarketOrder.setBuyOrder(false);
+		rawMarketOrder.setLocationID(60003760L);
+		rawMarketOrder.setVolumeRemain(10);
+		rawMarketOrder.setVolumeTotal(10);
+		rawMarketOrder.setPrice(1.0);
+		rawMarketOrder.setIssued(new Date());
+		return new MyMarketOrder(rawMarketOrder, orderItem, owner);
+	}
+
+	private MyIndustryJob createIndustryJob(int jobID, int activityID) {
+		RawIndustryJob rawIndustryJob = RawIndustryJob.create();
+		rawIndustryJob.setJobID(jobID);
+		rawIndustryJob.setActivityID(activityID);
+		rawIndustryJob.setBlueprintID(100L + jobID);
+		rawIndustryJob.setBlueprintTypeID(BLUEPRINT_TYPE_ID);
+		rawIndustryJob.setProductTypeID(PRODUCT_TYPE_ID);
+		rawIndustryJob.setRuns(1);
+		rawIndustryJob.setLicensedRuns(1);
+		return new MyIndustryJob(rawIndustryJob, blueprint, product, owner);
+	}
+
+	private MyTransaction createTransaction(long transactionID, Item transactionItem) {
+		RawTransaction rawTransaction = RawTransaction.create();
+		rawTransaction.setTransactionID(transactionID);
+		rawTransaction.setTypeID(transactionItem.getTypeID());
+		rawTransaction.setQuantity(10);
+		rawTransaction.setUnitPrice(1.0);
+		rawTransaction.setBuy(true);
+		rawTransaction.setDate(new Date());
+		return new MyTransaction(rawTransaction, transactionItem, owner);
+	}
+
+	private MyContract createContract(int contractID) {
+		RawContract rawContract = RawContract.create();
+		rawContract.setContractID(contractID);
+		return new MyContract(rawContract);
+	}
+
+	private MyContractItem createContractItem(long recordID, MyContract contract, Item contractItem, int rawQuantity) {
+		RawContractItem rawContractItem = RawContractItem.create();
+		rawContractItem.setRecordID(recordID);
+		rawContractItem.setTypeID(contractItem.getTypeID());
+		rawContractItem.setQuantity(1);
+		rawContractItem.setRawQuantity(rawQuantity);
+		rawContractItem.setIncluded(true);
+		rawContractItem.setSingleton(rawQuantity < 0);
+		return new MyContractItem(rawContractItem, contract, contractItem);
+	}
+}
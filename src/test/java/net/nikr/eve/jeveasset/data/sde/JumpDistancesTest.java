@@ -0,0 +1,125 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.data.sde;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import net.nikr.eve.jeveasset.TestUtil;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class JumpDistancesTest extends TestUtil {
+
+	private static final int HEADER = 4 + 4 + 8 + 4; //MAGIC, VERSION, hash, size
+
+	private final File directory = new File("jump_distances_test");
+	private final File file = new File(directory, "jumps.dat");
+
+	@Before
+	public void setUp() {
+		tearDown();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void testDistances() {
+		JumpDistances jumpDistances = JumpDistances.load(createJumps(), file.getPath());
+		assertNotNull(jumpDistances);
+		assertEquals(Integer.valueOf(0), jumpDistances.distanceBetween(1, 1));
+		assertEquals(Integer.valueOf(1), jumpDistances.distanceBetween(1, 2));
+		assertEquals(Integer.valueOf(1), jumpDistances.distanceBetween(2, 1));
+		assertEquals(Integer.valueOf(2), jumpDistances.distanceBetween(1, 3));
+		assertEquals(Integer.valueOf(3), jumpDistances.distanceBetween(4, 1));
+		assertEquals(Integer.valueOf(2), jumpDistances.distanceBetween(2, 4));
+		assertEquals(Integer.valueOf(1), jumpDistances.distanceBetween(11, 10));
+		assertNull(jumpDistances.distanceBetween(1, 10)); //Not connected
+		assertNull(jumpDistances.distanceBetween(1, 5)); //Unknown system
+		assertNull(jumpDistances.distanceBetween(5, 5)); //Unknown system
+	}
+
+	@Test
+	public void testCache() throws IOException {
+		JumpDistances.load(createJumps(), file.getPath());
+		assertTrue(file.exists());
+		File[] files = directory.listFiles();
+		assertNotNull(files);
+		assertArrayEquals(new File[] {file}, files); //No temp files left behind
+		//Change the cached distance 1 -> 4 (systems: 1, 2, 3, 4, 10, 11)
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			randomAccessFile.seek(HEADER + 6 * 8 + distanceIndex(0, 3));
+			randomAccessFile.write(9);
+		}
+		//Loaded from the cache
+		assertEquals(Integer.valueOf(9), JumpDistances.load(createJumps(), file.getPath()).distanceBetween(1, 4));
+		//Changed jumps: cache is outdated and rebuilt
+		List<Jump> jumps = createJumps();
+		jumps.add(new Jump(createLocation(1), createLocation(4)));
+		assertEquals(Integer.valueOf(1), JumpDistances.load(jumps, file.getPath()).distanceBetween(1, 4));
+		assertEquals(Integer.valueOf(1), JumpDistances.load(jumps, file.getPath()).distanceBetween(1, 4));
+		//Truncated cache: rebuilt
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			randomAccessFile.setLength(HEADER + 8);
+		}
+		assertEquals(Integer.valueOf(3), JumpDistances.load(createJumps(), file.getPath()).distanceBetween(1, 4));
+		assertEquals(HEADER + 6 * 8 + 15, file.length());
+	}
+
+	private static int distanceIndex(int low, int high) {
+		return high * (high - 1) / 2 + low;
+	}
+
+	/**
+	 * 1 - 2 - 3 - 4 and 10 - 11
+	 */
+	private List<Jump> createJumps() {
+		List<Jump> jumps = new ArrayList<>();
+		jumps.add(new Jump(createLocation(1), createLocation(2)));
+		jumps.add(new Jump(createLocation(3), createLocation(2)));
+		jumps.add(new Jump(createLocation(3), createLocation(4)));
+		jumps.add(new Jump(createLocation(10), createLocation(11)));
+		return jumps;
+	}
+
+	private MyLocation createLocation(long systemID) {
+		return new MyLocation(0, "", systemID, "System " + systemID, 0, "", 0, "", "0.5");
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import net.nikr.eve.jeveasset.TestUtil;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class AddedDataMapTest extends TestUtil {
+
+	private static final long MISSING = Long.MIN_VALUE;
+
+	@Test
+	public void testPutGet() {
+		AddedDataMap map = new AddedDataMap();
+		assertTrue(map.isEmpty());
+		assertEquals(MISSING, map.get(1, MISSING));
+		assertFalse(map.containsKey(1));
+		map.put(1, 10);
+		map.put(0, 20); //Free key
+		map.put(-1, 30);
+		assertEquals(3, map.size());
+		assertEquals(10, map.get(1, MISSING));
+		assertEquals(20, map.get(0, MISSING));
+		assertEquals(30, map.get(-1, MISSING));
+		assertTrue(map.containsKey(0));
+		map.put(1, 11); //Replace
+		map.put(0, 21); //Replace free key
+		assertEquals(3, map.size());
+		assertEquals(11, map.get(1, MISSING));
+		assertEquals(21, map.get(0, MISSING));
+	}
+
+	@Test
+	public void testRandom() {
+		Random random = new Random(42);
+		Map<Long, Long> expected = new HashMap<>();
+		AddedDataMap map = new AddedDataMap();
+		for (int i = 0; i < 100000; i++) {
+			long key = random.nextInt(50000) * 1024L; //Same low bits: must still spread
+			long value = random.nextLong();
+			expected.put(key, value);
+			map.put(key, value);
+		}
+		assertEquals(expected.size(), map.size());
+		for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+			assertEquals((long) entry.getValue(), map.get(entry.getKey(), MISSING));
+		}
+		final Map<Long, Long> visited = new HashMap<>();
+		map.forEach(new AddedDataMap.EntryVisitor() {
+			@Override
+			public void visit(long key, long value) {
+				visited.put(key, value);
+			}
+		});
+		assertEquals(expected, visited);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.io.File;
+import java.util.Date;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class AddedDataTest extends TestUtil {
+
+	//Database file
+	private static final String FILENAME = FileUtil.getLocalFile("testing" + File.separator + "added_testdb.db", false);
+	//Parent directory does not exist: every connection fails
+	private static final String BROKEN_URL = "jdbc:sqlite:" + FileUtil.getLocalFile("testing" + File.separator + "missing" + File.separator + "added_testdb.db", false);
+	private static final String CONNECTION_URL = "jdbc:sqlite:" + FILENAME;
+
+	private static final Date FIRST = new Date(1000000L);
+	private static final Date SECOND = new Date(2000000L);
+	private static final Date THIRD = new Date(3000000L);
+
+	@Before
+	public void before() {
+		new File(FILENAME).getParentFile().mkdirs();
+		AddedData.setConnectionUrl(CONNECTION_URL);
+		AddedData.load();
+	}
+
+	@After
+	public void after() {
+		AddedData.setConnectionUrl(AddedData.DEFAULT_CONNECTION_URL);
+		AddedData.load();
+		new File(FILENAME).delete();
+	}
+
+	@Test
+	public void testAddAndPut() {
+		AddedData addedData = AddedData.getTransactions();
+		assertEquals(SECOND, addedData.getAdd(1, SECOND));
+		assertEquals(FIRST, addedData.getAdd(1, FIRST)); //Earlier: update
+		assertEquals(FIRST, addedData.getAdd(1, THIRD)); //Later: keep
+		assertEquals(SECOND, addedData.getPut(2, SECOND));
+		assertEquals(THIRD, addedData.getPut(2, THIRD)); //Later: update
+		assertEquals(THIRD, addedData.getPut(2, FIRST)); //Earlier: keep
+		addedData.commitQueue();
+		AddedData.load(); //Reload from the database
+		assertEquals(FIRST, addedData.getAdd(1, THIRD));
+		assertEquals(THIRD, addedData.getPut(2, FIRST));
+	}
+
+	@Test
+	public void testLoadFailed() {
+		AddedData addedData = AddedData.getTransactions();
+		addedData.getAdd(1, FIRST);
+		addedData.getPut(2, THIRD);
+		addedData.commitQueue();
+
+		AddedData.setConnectionUrl(BROKEN_URL);
+		AddedData.load(); //Drop the loaded values
+		assertFalse(addedData.contains(1));
+		assertEquals(THIRD, addedData.getAdd(1, THIRD));
+		assertEquals(FIRST, addedData.getPut(2, FIRST));
+		AddedData.setConnectionUrl(CONNECTION_URL);
+		addedData.commitQueue(); //Nothing queued while the table could not be read
+
+		AddedData.load();
+		assertTrue(addedData.contains(1));
+		assertEquals(FIRST, addedData.getAdd(1, THIRD));
+		assertEquals(THIRD, addedData.getPut(2, FIRST));
+	}
+
+	@Test
+	public void testCommitFailed() {
+		AddedData addedData = AddedData.getTransactions();
+		addedData.getAdd(1, SECOND);
+		AddedData.setConnectionUrl(BROKEN_URL);
+		addedData.commitQueue(); //Fails: keep the queue
+		AddedData.setConnectionUrl(CONNECTION_URL);
+		addedData.getAdd(1, FIRST); //Newer value for the same id
+		addedData.getAdd(3, THIRD);
+		addedData.commitQueue();
+
+		AddedData.load();
+		assertEquals(FIRST, addedData.getAdd(1, THIRD));
+		assertEquals(THIRD, addedData.getAdd(3, THIRD));
+		assertTrue(addedData.contains(3));
+	}
+}
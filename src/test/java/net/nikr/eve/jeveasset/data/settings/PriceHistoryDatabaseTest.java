@@ -0,0 +1,146 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceMode;
+import net.nikr.eve.jeveasset.gui.tabs.prices.PriceHistoryTab.PriceHistoryData;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class PriceHistoryDatabaseTest extends TestUtil {
+
+	//Database file
+	private static final String FILENAME = FileUtil.getLocalFile("testing" + File.separator + "pricehistory_testdb.db", false);
+
+	@BeforeClass
+	public static void init() {
+		new File(FILENAME).getParentFile().mkdirs();
+		PriceHistoryDatabase.setConnectionUrl("jdbc:sqlite:" + FILENAME);
+		PriceHistoryDatabase.load();
+	}
+
+	@AfterClass
+	public static void out() {
+		PriceHistoryDatabase.setConnectionUrl(PriceHistoryDatabase.DEFAULT_CONNECTION_URL);
+		new File(FILENAME).delete();
+		new File(FILENAME + "-wal").delete();
+		new File(FILENAME + "-shm").delete();
+	}
+
+	@Test
+	public void testTableExist() {
+		assertTrue(PriceHistoryDatabase.tableExist(PriceHistoryDatabase.ZKILLBOARD_TABLE));
+		assertTrue(PriceHistoryDatabase.tableExist(PriceHistoryDatabase.ZBLACKLIST_TABLE));
+		assertTrue(PriceHistoryDatabase.tableExist(PriceHistoryDatabase.PRICEDATA_TABLE));
+	}
+
+	@Test
+	public void testZBlacklist() {
+		Set<Integer> typeIDs = new HashSet<>();
+		for (int i = 0; i < 1234; i++) { //More than one batch
+			typeIDs.add(i);
+		}
+		PriceHistoryDatabase.setZBlacklist(typeIDs);
+		PriceHistoryDatabase.setZBlacklist(typeIDs); //Duplicates
+		assertEquals(typeIDs, PriceHistoryDatabase.getZBlacklist());
+		PriceHistoryDatabase.close(); //Reopen on next use
+		assertEquals(typeIDs, PriceHistoryDatabase.getZBlacklist());
+		PriceHistoryDatabase.clearZBlacklist();
+		assertTrue(PriceHistoryDatabase.getZBlacklist().isEmpty());
+	}
+
+	@Test
+	public void testZKillboardChunks() throws ParseException {
+		//More than one chunk of 500 and not a multiple of 500 (the last chunk is padded with the last typeID)
+		Map<Item, Set<PriceHistoryData>> in = new HashMap<>();
+		for (int typeID = 1; typeID <= 1234; typeID++) {
+			Item item = ApiIdConverter.getItem(typeID);
+			Set<PriceHistoryData> set = new TreeSet<>();
+			set.add(new PriceHistoryData(typeID, item, "2020-01-01", typeID * 1.5));
+			set.add(new PriceHistoryData(typeID, item, "2020-01-02", typeID * 2.5));
+			in.put(item, set);
+		}
+		PriceHistoryDatabase.setZKillboard(in);
+		Set<Integer> typeIDs = new HashSet<>();
+		for (int typeID = 1; typeID <= 1234; typeID++) {
+			typeIDs.add(typeID);
+		}
+		typeIDs.add(5001); //Not in the database
+		Map<Item, Set<PriceHistoryData>> out = PriceHistoryDatabase.getZKillboard(typeIDs);
+		assertEquals(typeIDs.size(), out.size());
+		assertTrue(out.get(ApiIdConverter.getItem(5001)).isEmpty());
+		for (Map.Entry<Item, Set<PriceHistoryData>> entry : in.entrySet()) {
+			Set<PriceHistoryData> set = out.get(entry.getKey());
+			assertEquals(entry.getValue(), set);
+			for (PriceHistoryData data : set) {
+				if (data.getDateString().equals("2020-01-01")) {
+					assertEquals(data.getTypeID() * 1.5, data.getPrice(), 0);
+				} else {
+					assertEquals(data.getTypeID() * 2.5, data.getPrice(), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPriceDataChunks() {
+		//More than one chunk of 500 and not a multiple of 500 (the last chunk is padded with the last typeID)
+		Map<Integer, PriceData> in = new HashMap<>();
+		for (int typeID = 1; typeID <= 1234; typeID++) {
+			PriceData priceData = new PriceData();
+			priceData.setSellMax(typeID * 3.5);
+			in.put(typeID, priceData);
+		}
+		PriceHistoryDatabase.setPriceData(in);
+		Set<Integer> typeIDs = new HashSet<>(in.keySet());
+		typeIDs.add(5001); //Not in the database
+		Map<Item, Set<PriceHistoryData>> out = PriceHistoryDatabase.getPriceData(typeIDs, PriceMode.PRICE_SELL_MAX);
+		assertEquals(typeIDs.size(), out.size());
+		assertTrue(out.get(ApiIdConverter.getItem(5001)).isEmpty());
+		for (int typeID : in.keySet()) {
+			Set<PriceHistoryData> set = out.get(ApiIdConverter.getItem(typeID));
+			assertEquals(1, set.size());
+			PriceHistoryData data = set.iterator().next();
+			assertEquals(typeID, data.getTypeID());
+			assertEquals(typeID * 3.5, data.getPrice(), 0);
+		}
+	}
+
+	@Test
+	public void testZKillboardUpdated() {
+		assertTrue(PriceHistoryDatabase.getZKillboardUpdated().isEmpty());
+	}
+}
@@ -20,14 +20,22 @@
  */
 package net.nikr.eve.jeveasset.gui.shared;
 
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 
 
@@ -59,6 +67,68 @@ public class FormatterTest {
 		Formatter.AUTO_FORMAT.format(Double.MAX_VALUE);
 	}
 
+	@Test
+	public void testFastFormat() {
+		String[] patterns = {"#,##0.00 isk", "#,##0.00", "#,##0.####", "#,##0", "0", "0.####"};
+		Object[] special = {0.0, -0.0, -0.001, 0.005, 0.015, 2.675, 1.005, 999.995, -1234567.125, 1e15, 1e300, Double.NaN,
+			Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE, 0L, -1, 1000, 1.5f, -0.25f};
+		Random random = new Random(1);
+		for (String pattern : patterns) {
+			DecimalFormat format = new DecimalFormat(pattern, new DecimalFormatSymbols(Locale.ENGLISH));
+			Formatter.FastFormat fast = new Formatter.FastFormat(format);
+			for (Object value : special) {
+				testFastFormat(format, fast, value);
+			}
+			for (int i = 0; i < 100000; i++) {
+				testFastFormat(format, fast, (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 4));
+				testFastFormat(format, fast, Math.round(random.nextDouble() * 1e8) / 100.0);
+				testFastFormat(format, fast, random.nextLong() >> random.nextInt(64));
+				testFastFormat(format, fast, random.nextInt());
+			}
+		}
+	}
+
+	private void testFastFormat(DecimalFormat format, Formatter.FastFormat fast, Object value) {
+		String formatted = fast.format(value);
+		if (formatted != null) {
+			assertEquals(format.toPattern() + " " + value, format.format(value), formatted);
+		}
+	}
+
+	@Test
+	public void testColumnDate() {
+		SimpleDateFormat format = new SimpleDateFormat(Formatter.COLUMN_DATETIME, Locale.ENGLISH);
+		format.setTimeZone(TimeZone.getTimeZone("GMT"));
+		Random random = new Random(1);
+		long[] special = {0, -1, 1, 59999, 60000, -12219292800000L, 253402300799999L, 253402300800000L, Long.MIN_VALUE / 2};
+		for (long time : special) {
+			assertEquals(format.format(new Date(time)), Formatter.columnDate(new Date(time)));
+		}
+		for (int i = 0; i < 100000; i++) {
+			Date date = new Date(random.nextLong() >> 20);
+			assertEquals(format.format(date), Formatter.columnDate(date));
+		}
+	}
+
+	@Test
+	public void testFormatCache() {
+		FormatCache cache = new FormatCache(16) {
+			@Override
+			protected String createString(Object value) {
+				return Formatter.doubleFormat(value);
+			}
+		};
+		String formatted = cache.format(1234.5);
+		assertEquals(Formatter.doubleFormat(1234.5), formatted);
+		assertSame(formatted, cache.format(1234.5));
+		assertEquals(Formatter.doubleFormat(-0.0), cache.format(-0.0));
+		assertEquals(Formatter.doubleFormat(0.0), cache.format(0.0));
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(Formatter.doubleFormat(i / 7.0), cache.format(i / 7.0));
+			assertEquals(Formatter.doubleFormat(i), cache.format(i));
+		}
+	}
+
 	private class ParseDate implements Callable<Void> {
 		@Override
 		public Void call() throws Exception {
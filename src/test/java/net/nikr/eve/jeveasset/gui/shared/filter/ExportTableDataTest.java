@@ -0,0 +1,370 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.filter;
+
+import ca.odell.glazedlists.EventList;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.nikr.eve.jeveasset.Program;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.settings.ExportSettings;
+import net.nikr.eve.jeveasset.data.settings.ExportSettings.ColumnSelection;
+import net.nikr.eve.jeveasset.data.settings.ExportSettings.ExportFormat;
+import net.nikr.eve.jeveasset.gui.shared.Formatter;
+import net.nikr.eve.jeveasset.gui.shared.table.EnumTableColumn;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListManager;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+import org.supercsv.io.CsvMapWriter;
+import org.supercsv.io.ICsvMapWriter;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * The streaming export (TableCursor + writers) must write the same files
+ * as the old export, that built a map of every row before writing.
+ */
+public class ExportTableDataTest extends TestUtil {
+
+	private static final String TOOL_NAME = "exporttest";
+	private static final String TABLE_NAME = "exporttest";
+	private static final DecimalFormat INTEGER_FORMAT = new DecimalFormat("###0", new DecimalFormatSymbols(new Locale("en")));
+	private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("###0.00##", new DecimalFormatSymbols(new Locale("en")));
+
+	private final File file = new File("export_table_data_test.tmp");
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testCsv() throws IOException {
+		ExportSettings exportSettings = createExportSettings(ExportFormat.CSV);
+		assertTrue(ExportTableData.exportEmpty(createEventList(), new TestTableFormat(), TOOL_NAME, exportSettings));
+		CsvPreference csvPreference = new CsvPreference.Builder('\"', exportSettings.getCsvFieldDelimiter().getValue(), exportSettings.getCsvLineDelimiter().getValue()).build();
+		assertEquals(writeCsv(csvPreference), read());
+	}
+
+	@Test
+	public void testSqlExtendedInserts() throws IOException {
+		ExportSettings exportSettings = createExportSettings(ExportFormat.SQL);
+		exportSettings.setSqlExtendedInserts(true);
+		assertTrue(ExportTableData.exportEmpty(createEventList(), new TestTableFormat(), TOOL_NAME, exportSettings));
+		assertEquals(writeSql(true), read());
+	}
+
+	@Test
+	public void testSqlInserts() throws IOException {
+		ExportSettings exportSettings = createExportSettings(ExportFormat.SQL);
+		exportSettings.setSqlExtendedInserts(false);
+		assertTrue(ExportTableData.exportEmpty(createEventList(), new TestTableFormat(), TOOL_NAME, exportSettings));
+		assertEquals(writeSql(false), read());
+	}
+
+	private ExportSettings createExportSettings(ExportFormat exportFormat) {
+		ExportSettings exportSettings = new ExportSettings(TOOL_NAME);
+		exportSettings.setExportFormat(exportFormat);
+		exportSettings.setColumnSelection(ColumnSelection.SELECTED); //All columns
+		exportSettings.setFilename(file.getAbsolutePath());
+		exportSettings.setSqlTableName(TABLE_NAME);
+		return exportSettings;
+	}
+
+	private EventList<Row> createEventList() {
+		EventList<Row> eventList = EventListManager.create();
+		eventList.getReadWriteLock().writeLock().lock();
+		try {
+			eventList.addAll(createRows());
+		} finally {
+			eventList.getReadWriteLock().writeLock().unlock();
+		}
+		return eventList;
+	}
+
+	private List<Row> createRows() {
+		List<Row> rows = new ArrayList<>();
+		rows.add(new Row("Tritanium", 1000, 5.5, new Date(1552492124589L)));
+		rows.add(new Row("Comma, \"quotes\" and it's", -1, 0.123456, new Date(1552492124589L + 3600000L)));
+		rows.add(new Row("Ærø ✓", 0, 12345678.9, null));
+		rows.add(new Row(null, 42, null, new Date(0)));
+		return rows;
+	}
+
+	private String read() throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * The old CSV export: one map of formatted strings per row, written by a CsvMapWriter.
+	 */
+	private String writeCsv(CsvPreference csvPreference) throws IOException {
+		String[] header = new String[TestColumn.values().length];
+		String[] headerKeys = new String[TestColumn.values().length];
+		for (TestColumn column : TestColumn.values()) {
+			header[column.ordinal()] = column.getColumnName();
+			headerKeys[column.ordinal()] = column.name();
+		}
+		StringWriter stringWriter = new StringWriter();
+		ICsvMapWriter writer = new CsvMapWriter(stringWriter, csvPreference);
+		writer.writeHeader(header);
+		for (Row row : createRows()) {
+			Map<String, String> map = new HashMap<>();
+			for (TestColumn column : TestColumn.values()) {
+				map.put(column.name(), format(column.getColumnValue(row)));
+			}
+			writer.write(map, headerKeys);
+		}
+		writer.close();
+		return stringWriter.toString();
+	}
+
+	private String format(Object object) {
+		if (object == null) {
+			return "";
+		} else if (object instanceof Integer) {
+			return INTEGER_FORMAT.format(object);
+		} else if (object instanceof Double) {
+			return DECIMAL_FORMAT.format(object);
+		} else if (object instanceof Date) {
+			return Formatter.columnDate(object);
+		} else {
+			return object.toString();
+		}
+	}
+
+	/**
+	 * The old SQL export: one map of values per row, written with string concatenation.
+	 */
+	private String writeSql(boolean extendedInserts) {
+		List<Map<TestColumn, Object>> rows = new ArrayList<>();
+		for (Row row : createRows()) {
+			Map<TestColumn, Object> map = new HashMap<>();
+			for (TestColumn column : TestColumn.values()) {
+				map.put(column, column.getColumnValue(row));
+			}
+			rows.add(map);
+		}
+		StringBuilder builder = new StringBuilder();
+		builder.append("-- " + Program.PROGRAM_NAME + " Sql Export\r\n");
+		builder.append("-- version " + Program.PROGRAM_VERSION + "\r\n");
+		builder.append("-- " + Program.PROGRAM_HOMEPAGE + "\r\n");
+		builder.append("DROP TABLE IF EXISTS `" + TABLE_NAME + "`;\r\n");
+		builder.append("CREATE TABLE IF NOT EXISTS `" + TABLE_NAME + "` (\r\n");
+		boolean first = true;
+		for (TestColumn column : TestColumn.values()) {
+			if (first) {
+				first = false;
+			} else {
+				builder.append(",\r\n");
+			}
+			builder.append("`" + column.name() + "` " + getSqlType(rows.get(0).get(column)));
+		}
+		builder.append("\r\n");
+		builder.append(") ENGINE=MyISAM  DEFAULT CHARSET=utf8 ;\r\n");
+		String insert = "INSERT INTO `" + TABLE_NAME + "` (";
+		first = true;
+		for (TestColumn column : TestColumn.values()) {
+			if (first) {
+				first = false;
+			} else {
+				insert = insert + ", ";
+			}
+			insert = insert + "`" + column.name() + "`";
+		}
+		insert = insert + ") VALUES\r\n";
+		if (extendedInserts) {
+			builder.append(insert);
+		}
+		boolean firstRow = true;
+		for (Map<TestColumn, Object> map : rows) {
+			String values = "";
+			if (firstRow) {
+				firstRow = false;
+			} else if (extendedInserts) {
+				values = values + ",\r\n";
+			}
+			values = values + "	(";
+			boolean firstCell = true;
+			for (TestColumn column : TestColumn.values()) {
+				if (firstCell) {
+					firstCell = false;
+				} else {
+					values = values + ", ";
+				}
+				values = values + formatSql(map.get(column));
+			}
+			values = values + ")";
+			if (!extendedInserts) {
+				values = values + ";\r\n";
+				builder.append(insert);
+			}
+			builder.append(values);
+		}
+		builder.append(";\r\n");
+		return builder.toString();
+	}
+
+	private String getSqlType(Object object) {
+		if (object instanceof Integer) {
+			return "int";
+		} else if (object instanceof Double) {
+			return "double";
+		} else if (object instanceof Date) {
+			return "datetime";
+		} else {
+			return "text";
+		}
+	}
+
+	private String formatSql(Object object) {
+		if (object == null) {
+			return "''";
+		} else if (object instanceof Double) {
+			return new DecimalFormat("0.##", new DecimalFormatSymbols(Locale.ENGLISH)).format(object);
+		} else if (object instanceof Integer) {
+			return new DecimalFormat("0", new DecimalFormatSymbols(Locale.ENGLISH)).format(object);
+		} else if (object instanceof Date) {
+			return "'" + new SimpleDateFormat("yyyy-MM-dd hh:mm:ss").format(object) + "'";
+		} else {
+			return "'" + String.valueOf(object).replace("'", "''") + "'";
+		}
+	}
+
+	private static class Row {
+
+		private final String name;
+		private final Integer count;
+		private final Double price;
+		private final Date date;
+
+		public Row(String name, Integer count, Double price, Date date) {
+			this.name = name;
+			this.count = count;
+			this.price = price;
+			this.date = date;
+		}
+	}
+
+	public enum TestColumn implements EnumTableColumn<Row> {
+		NAME("Name") {
+			@Override
+			public Object getColumnValue(Row from) {
+				return from.name;
+			}
+		},
+		COUNT("Count") {
+			@Override
+			public Object getColumnValue(Row from) {
+				return from.count;
+			}
+		},
+		PRICE("Price") {
+			@Override
+			public Object getColumnValue(Row from) {
+				return from.price;
+			}
+		},
+		DATE("Date") {
+			@Override
+			public Object getColumnValue(Row from) {
+				return from.date;
+			}
+		};
+
+		private final String columnName;
+
+		private TestColumn(String columnName) {
+			this.columnName = columnName;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return Object.class;
+		}
+
+		@Override
+		public Comparator<?> getComparator() {
+			return null;
+		}
+
+		@Override
+		public String getColumnName() {
+			return columnName;
+		}
+
+		@Override
+		public String toString() {
+			return getColumnName();
+		}
+	}
+
+	private static class TestTableFormat implements SimpleTableFormat<Row> {
+
+		private final List<EnumTableColumn<Row>> columns = new ArrayList<>(Arrays.asList(TestColumn.values()));
+
+		@Override
+		public Object getColumnValue(Row item, String column) {
+			return valueOf(column).getColumnValue(item);
+		}
+
+		@Override
+		public List<EnumTableColumn<Row>> getAllColumns() {
+			return new ArrayList<>(columns);
+		}
+
+		@Override
+		public List<EnumTableColumn<Row>> getShownColumns() {
+			return new ArrayList<>(columns);
+		}
+
+		@Override
+		public EnumTableColumn<Row> valueOf(String column) {
+			for (EnumTableColumn<Row> tableColumn : columns) {
+				if (tableColumn.name().equals(column)) {
+					return tableColumn;
+				}
+			}
+			throw new IllegalArgumentException(column);
+		}
+
+		@Override
+		public void addColumn(EnumTableColumn<Row> column) {
+			columns.add(column);
+		}
+	}
+}
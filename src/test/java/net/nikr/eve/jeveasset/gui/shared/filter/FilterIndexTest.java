@@ -0,0 +1,145 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class FilterIndexTest {
+
+	@Test
+	public void testCandidates() {
+		Map<String, String> cache = new LinkedHashMap<>();
+		cache.put("tritanium", "\ntritanium\r\njita\r");
+		cache.put("pyerite", "\npyerite\r\namarr\r");
+		FilterIndex<String> index = new FilterIndex<>(cache, 1);
+		FilterIndex<String>.Candidates candidates = index.getCandidates("tani");
+		assertFalse(candidates.isExcluded("tritanium"));
+		assertTrue(candidates.isExcluded("pyerite"));
+		candidates = index.getCandidates("\njita\r");
+		assertFalse(candidates.isExcluded("tritanium"));
+		assertTrue(candidates.isExcluded("pyerite"));
+		candidates = index.getCandidates("mexallon");
+		assertTrue(candidates.isExcluded("tritanium"));
+		assertTrue(candidates.isExcluded("pyerite"));
+		assertNull(index.getCandidates("ta"));
+	}
+
+	@Test
+	public void testUnknownRows() {
+		Map<String, String> cache = new LinkedHashMap<>();
+		cache.put("row", "\ntritanium\r");
+		FilterIndex<String> index = new FilterIndex<>(cache, 1);
+		assertTrue(index.contains("row"));
+		assertFalse(index.contains("new"));
+		//Rows added after the index was built are unknown and never excluded
+		assertFalse(index.getCandidates("tritanium").isExcluded("new"));
+		assertFalse(index.getCandidates("pyerite").isExcluded("new"));
+	}
+
+	@Test
+	public void testGenerations() {
+		Map<String, String> cache = new LinkedHashMap<>();
+		cache.put("first", "\ntritanium\r");
+		cache.put("second", "\npyerite\r");
+		FilterIndex<String> index = new FilterIndex<>(cache, 1);
+		FilterIndex<String>.Candidates candidates = index.getCandidates("pyerite");
+		assertEquals(1, candidates.getGeneration());
+		//Remove the first row (the ids of the next generation are shifted)
+		cache.remove("first");
+		cache.put("third", "\nmexallon\r");
+		FilterIndex<String> next = new FilterIndex<>(cache, 2);
+		//The old candidates still uses the ids of its own generation
+		assertTrue(candidates.isExcluded("first"));
+		assertFalse(candidates.isExcluded("second"));
+		assertFalse(candidates.isExcluded("third")); //Unknown
+		FilterIndex<String>.Candidates nextCandidates = next.getCandidates("pyerite");
+		assertEquals(2, nextCandidates.getGeneration());
+		assertFalse(nextCandidates.isExcluded("second"));
+		assertTrue(nextCandidates.isExcluded("third"));
+	}
+
+	@Test
+	public void testIncremental() {
+		Map<String, String> cache = new LinkedHashMap<>();
+		cache.put("first", "\ntritanium\r");
+		cache.put("second", "\npyerite\r");
+		FilterIndex<String> index = new FilterIndex<>(cache, 1);
+		FilterIndex<String>.Candidates candidates = index.getCandidates("pyerite");
+		//Insert
+		index.add("third", "\npyerite\r");
+		assertTrue(index.contains("third"));
+		assertFalse(candidates.isExcluded("third")); //Unknown to the old candidates
+		assertFalse(index.getCandidates("pyerite").isExcluded("third"));
+		assertTrue(index.getCandidates("tritanium").isExcluded("third"));
+		//Update
+		index.add("first", "\npyerite\r");
+		assertFalse(candidates.isExcluded("first")); //Changed after the candidates was resolved
+		assertFalse(index.getCandidates("pyerite").isExcluded("first"));
+		assertTrue(index.getCandidates("tritanium").isExcluded("first"));
+		//Delete
+		index.remove("second");
+		assertFalse(index.contains("second"));
+		assertFalse(index.getCandidates("tritanium").isExcluded("second"));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void testClosed() {
+		Map<String, String> cache = new LinkedHashMap<>();
+		cache.put("first", "\ntritanium\r");
+		cache.put("second", "\npyerite\r");
+		FilterIndex<String> index = new FilterIndex<>(cache, 1);
+		FilterIndex<String>.Candidates candidates = index.getCandidates("pyerite");
+		assertTrue(candidates.isExcluded("first"));
+		index.close();
+		assertFalse(candidates.isExcluded("first"));
+		assertNull(index.getCandidates("pyerite"));
+	}
+
+	@Test
+	public void testManyRows() {
+		Map<Integer, String> cache = new LinkedHashMap<>();
+		for (int i = 0; i < 20000; i++) {
+			cache.put(i, "\nitem" + i + "\r\nlocation" + (i % 100) + "\r");
+		}
+		FilterIndex<Integer> index = new FilterIndex<>(cache, 1);
+		assertEquals(cache.size(), index.size());
+		FilterIndex<Integer>.Candidates candidates = index.getCandidates("item1234");
+		for (Map.Entry<Integer, String> entry : cache.entrySet()) {
+			if (entry.getValue().contains("item1234")) {
+				assertFalse(candidates.isExcluded(entry.getKey()));
+			}
+		}
+		assertTrue(candidates.isExcluded(42));
+		candidates = index.getCandidates("\nlocation42\r");
+		for (Map.Entry<Integer, String> entry : cache.entrySet()) {
+			assertEquals(!entry.getValue().contains("\nlocation42\r"), candidates.isExcluded(entry.getKey()));
+		}
+	}
+}
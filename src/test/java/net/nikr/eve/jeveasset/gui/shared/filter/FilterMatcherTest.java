@@ -829,6 +829,94 @@ public class FilterMatcherTest extends TestUtil {
 		matches(false, new AllColumn<>(), Filter.CompareType.REGEX, DATE_NOT);
 	}
 
+	@Test
+	public void testDeclaredType() {
+		assertEquals(FilterMatcher.ValueType.LONG, FilterMatcher.getValueType(TypedEnum.NUMBER));
+		assertEquals(FilterMatcher.ValueType.TEXT, FilterMatcher.getValueType(TypedEnum.NUMBER_TEXT));
+		assertEquals(FilterMatcher.ValueType.TEXT, FilterMatcher.getValueType(TypedEnum.TEXT));
+		assertEquals(FilterMatcher.ValueType.OTHER, FilterMatcher.getValueType(TestEnum.LONG)); //No declared type
+		//Numeric column: compared as a number
+		typedMatches(true,  TypedEnum.NUMBER, Filter.CompareType.GREATER_THAN, "100");
+		typedMatches(false, TypedEnum.NUMBER, Filter.CompareType.LESS_THAN, "100");
+		//String column: parsed as a number
+		typedMatches(true,  TypedEnum.NUMBER_TEXT, Filter.CompareType.GREATER_THAN, "100");
+		typedMatches(false, TypedEnum.NUMBER_TEXT, Filter.CompareType.LESS_THAN, "100");
+		typedMatches(true,  TypedEnum.NUMBER_TEXT, Filter.CompareType.LESS_THAN, "1000");
+		//String column that is not a number: fallback
+		typedMatches(true,  TypedEnum.TEXT, Filter.CompareType.GREATER_THAN, "100");
+		typedMatches(false, TypedEnum.TEXT, Filter.CompareType.LESS_THAN, "100");
+		//Value not of the declared type: compared by the runtime type
+		typedMatches(true,  TypedEnum.WRONG_TYPE, Filter.CompareType.GREATER_THAN, "100");
+		typedMatches(false, TypedEnum.WRONG_TYPE, Filter.CompareType.LESS_THAN, "100");
+	}
+
+	private void typedMatches(final boolean expected, final TypedEnum enumColumn, final CompareType compare, final String text) {
+		FilterMatcher<Item> filterMatcher = new FilterMatcher<>(new TypedTableFormat(), null, 1, Filter.LogicType.AND, enumColumn, compare, text, true);
+		assertEquals(enumColumn.name() + " [" + compare + "] " + text, expected, filterMatcher.matches(item));
+	}
+
+	public enum TypedEnum implements EnumTableColumn<Item> {
+		NUMBER(Long.class, NUMBER_LONG),
+		NUMBER_TEXT(String.class, "222"),
+		TEXT(String.class, FilterMatcherTest.TEXT),
+		WRONG_TYPE(Long.class, NUMBER_DOUBLE),
+		;
+
+		private final Class<?> type;
+		private final Object value;
+
+		private TypedEnum(final Class<?> type, final Object value) {
+			this.type = type;
+			this.value = value;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return type;
+		}
+
+		@Override
+		public Comparator<?> getComparator() {
+			return null;
+		}
+
+		@Override
+		public String getColumnName() {
+			return name();
+		}
+
+		@Override
+		public Object getColumnValue(Item from) {
+			return value;
+		}
+	}
+
+	public static class TypedTableFormat implements SimpleTableFormat<Item> {
+
+		@Override
+		public EnumTableColumn<Item> valueOf(final String column) {
+			return TypedEnum.valueOf(column);
+		}
+
+		@Override
+		public Object getColumnValue(final Item item, final String columnString) {
+			return TypedEnum.valueOf(columnString).getColumnValue(item);
+		}
+
+		@Override
+		public List<EnumTableColumn<Item>> getAllColumns() {
+			return new ArrayList<>(Arrays.asList(TypedEnum.values()));
+		}
+
+		@Override
+		public List<EnumTableColumn<Item>> getShownColumns() {
+			return null; //Only used by the GUI
+		}
+
+		@Override
+		public void addColumn(EnumTableColumn<Item> column) { }
+	}
+
 	public static class Item { }
 
 	public class TestTableFormat implements SimpleTableFormat<Item> {
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import com.udojava.evalex.Expression;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+
+public class CompiledFormulaTest {
+
+	private static final double DELTA = 0.0000001;
+
+	private static Double eval(String expression, double... values) {
+		CompiledFormula compiled = CompiledFormula.compile(expression);
+		assertNotNull(expression, compiled);
+		return compiled.eval(values);
+	}
+
+	@Test
+	public void testPrecedence() {
+		assertEquals(7, eval("1 + 2 * 3"), DELTA);
+		assertEquals(9, eval("(1 + 2) * 3"), DELTA);
+		assertEquals(2, eval("8 / 2 / 2"), DELTA);
+		assertEquals(1, eval("7 % 3"), DELTA);
+		assertEquals(4, eval("-2^2"), DELTA); //Unary minus before power (same as EvalEx)
+		assertEquals(512, eval("2^3^2"), DELTA); //Right associative
+		assertEquals(0.25, eval("2^-2"), DELTA);
+		assertEquals(1, eval("1 + 2 > 2 && 3 <= 3"), DELTA);
+		assertEquals(0, eval("1 = 2 || 1 <> 1"), DELTA);
+		assertEquals(1500, eval("1.5e3"), DELTA);
+	}
+
+	@Test
+	public void testFunctions() {
+		assertEquals(2, eval("if(1 > 0, 2, 3)"), DELTA);
+		assertEquals(3, eval("IF(0, 2, 3)"), DELTA);
+		assertEquals(1, eval("min(3, 1, 2)"), DELTA);
+		assertEquals(3, eval("MAX(3, 1, 2)"), DELTA);
+		assertEquals(2.5, eval("ABS(-2.5)"), DELTA);
+		assertEquals(1.24, eval("ROUND(1.235, 2)"), DELTA);
+		assertEquals(1, eval("FLOOR(1.9)"), DELTA);
+		assertEquals(2, eval("CEILING(1.1)"), DELTA);
+		assertEquals(3, eval("SQRT(9)"), DELTA);
+		assertEquals(2, eval("LOG10(100)"), DELTA);
+		assertEquals(1, eval("NOT(0)"), DELTA);
+	}
+
+	@Test
+	public void testVariables() {
+		CompiledFormula compiled = CompiledFormula.compile("PRICE * count + price");
+		assertNotNull(compiled);
+		assertEquals(Arrays.asList("PRICE", "COUNT"), compiled.getVariables());
+		assertEquals(12, compiled.eval(new double[] {2, 5}), DELTA);
+	}
+
+	@Test
+	public void testInvalidResult() {
+		assertNull(eval("1 / 0"));
+		assertNull(eval("SQRT(-1)"));
+	}
+
+	@Test
+	public void testNotCompiled() {
+		assertNull(CompiledFormula.compile("SIN(30)")); //Degrees in EvalEx
+		assertNull(CompiledFormula.compile("0x1F"));
+		assertNull(CompiledFormula.compile("1 +"));
+		assertNull(CompiledFormula.compile("(1 + 2"));
+		assertNull(CompiledFormula.compile("NULL"));
+	}
+
+	@Test
+	public void testEvalExDecimals() {
+		Map<String, BigDecimal> variables = new HashMap<>();
+		String[] formulas = {
+			"0.1 + 0.2 = 0.3",
+			"0.1 + 0.2 > 0.3",
+			"0.1 + 0.2 <= 0.3",
+			"0.3 / 0.1 = 3",
+			"FLOOR(0.3 / 0.1)",
+			"CEILING(0.7 * 10)",
+			"0.3 % 0.1",
+			"-7 % 3",
+			"ROUND(2.675, 2)",
+			"ROUND(0.125, 2)",
+			"ROUND(0.135, 2)",
+			"ROUND(2.5, 0)",
+			"ROUND(3.5, 0)",
+			"ROUND(-2.5, 0)",
+			"ROUND(1.005 * 1000, 0)",
+			"ROUND(1.45 + 0.1, 1)",
+		};
+		for (String formula : formulas) {
+			assertSameAsEvalEx(formula, variables);
+		}
+	}
+
+	/**
+	 * Randomized inputs (prices with 2 decimals, counts and values on .5 ties),
+	 * the compiled formula must give the same result as EvalEx with MathContext.DECIMAL64.
+	 */
+	@Test
+	public void testEvalExRandom() {
+		String[] formulas = {
+			"A + B * C",
+			"(A - B) / C",
+			"A * C - B",
+			"-A ^ 2 + B",
+			"A ^ 3 / (ABS(B) + 1)",
+			"MIN(A, B, C) + MAX(A, B, C)",
+			"SQRT(ABS(A * B))",
+			"LOG10(ABS(A) + 1) + LOG(C + 1)",
+			"FLOOR(A / B)",
+			"CEILING(A * C / 100)",
+			"A % B",
+			"IF(A > B, A, B * C)",
+			"ROUND(A * B, 2)",
+			"ROUND(C / 2, 0)",
+			"ROUND(D, 2)",
+			"ROUND(D + B, 2)",
+			"ROUND(A / 3, 1)",
+			"A + B = D",
+			"A * C = D",
+			"A + B != D",
+			"A + B >= D",
+			"A + B < D",
+			"A * C <= D",
+			"A <> B",
+			"A > B && C >= 50",
+			"NOT(A < B) || C = 0",
+		};
+		Random random = new Random(42);
+		Map<String, BigDecimal> variables = new HashMap<>();
+		for (int i = 0; i < 2000; i++) {
+			BigDecimal a = randomPrice(random);
+			BigDecimal b = randomPrice(random);
+			BigDecimal c = BigDecimal.valueOf(random.nextInt(101));
+			BigDecimal d;
+			switch (random.nextInt(4)) {
+				case 0:
+					d = a.add(b); //A + B = D
+					break;
+				case 1:
+					d = a.multiply(c); //A * C = D
+					break;
+				case 2:
+					d = BigDecimal.valueOf((random.nextInt(200001) - 100000) * 10L + 5, 3); //Ex: 1.235 (ROUND tie)
+					break;
+				default:
+					d = randomPrice(random);
+					break;
+			}
+			variables.put("A", a);
+			variables.put("B", b);
+			variables.put("C", c);
+			variables.put("D", d);
+			for (String formula : formulas) {
+				assertSameAsEvalEx(formula, variables);
+			}
+		}
+	}
+
+	private static BigDecimal randomPrice(Random random) {
+		return BigDecimal.valueOf(random.nextInt(200001) - 100000, 2); //-1000.00 to 1000.00
+	}
+
+	private static void assertSameAsEvalEx(String formula, Map<String, BigDecimal> variables) {
+		//EvalEx (values are set the same way as EnumTableFormatAdaptor.setVariables)
+		Expression expression = new Expression(formula, MathContext.DECIMAL64);
+		for (Map.Entry<String, BigDecimal> entry : variables.entrySet()) {
+			expression.setVariable(entry.getKey(), new BigDecimal(Double.valueOf(entry.getValue().doubleValue()).toString()));
+		}
+		BigDecimal expected = EnumTableFormatAdaptor.safeEval(expression);
+		//Compiled
+		CompiledFormula compiled = CompiledFormula.compile(formula);
+		assertNotNull(formula, compiled);
+		double[] values = new double[compiled.getVariables().size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = variables.get(compiled.getVariables().get(i)).doubleValue();
+		}
+		Double actual = compiled.eval(values);
+		String message = formula + " " + variables;
+		if (expected == null) {
+			assertNull(message, actual);
+		} else {
+			assertNotNull(message, actual);
+			assertEquals(message, expected.doubleValue(), actual, Math.max(1, Math.abs(expected.doubleValue())) * 1e-9);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+
+public class EventListManagerTest {
+
+	@Test
+	public void testApplyDelta() {
+		EventList<String> eventList = EventListManager.create();
+		eventList.addAll(Arrays.asList("a", "b", "c", "d"));
+		EventCounter counter = new EventCounter();
+		eventList.addListEventListener(counter);
+		EventListManager.applyDelta(eventList, Arrays.asList("e", "d", "b", "a"));
+		assertEquals(Arrays.asList("a", "b", "d", "e"), new ArrayList<>(eventList));
+		assertEquals(1, counter.events);
+		assertEquals(1, counter.inserts);
+		assertEquals(1, counter.deletes);
+		assertEquals(3, counter.updates);
+	}
+
+	@Test
+	public void testApplyDeltaDuplicates() {
+		EventList<String> eventList = EventListManager.create();
+		eventList.addAll(Arrays.asList("a", "b"));
+		EventCounter counter = new EventCounter();
+		eventList.addListEventListener(counter);
+		EventListManager.applyDelta(eventList, Arrays.asList("b", "b", "c"));
+		assertEquals(Arrays.asList("b", "b", "c"), new ArrayList<>(eventList));
+		assertEquals(1, counter.events);
+	}
+
+	@Test
+	public void testUpdate() {
+		EventList<String> eventList = EventListManager.create();
+		eventList.addAll(Arrays.asList("a", "b", "c"));
+		EventCounter counter = new EventCounter();
+		eventList.addListEventListener(counter);
+		EventListManager.update(eventList, Arrays.asList("c", "a"));
+		assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(eventList));
+		assertEquals(1, counter.events);
+		assertEquals(0, counter.inserts);
+		assertEquals(0, counter.deletes);
+		assertEquals(2, counter.updates);
+	}
+
+	@Test
+	public void testUpdateAll() {
+		EventList<String> eventList = EventListManager.create();
+		eventList.addAll(Arrays.asList("a", "b", "c"));
+		EventCounter counter = new EventCounter();
+		eventList.addListEventListener(counter);
+		EventListManager.updateAll(eventList);
+		assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(eventList));
+		assertEquals(1, counter.events);
+		assertEquals(3, counter.updates);
+	}
+
+	private static class EventCounter implements ListEventListener<String> {
+
+		private int events = 0;
+		private int inserts = 0;
+		private int deletes = 0;
+		private int updates = 0;
+
+		@Override
+		public void listChanged(ListEvent<String> listChanges) {
+			events++;
+			while (listChanges.next()) {
+				switch (listChanges.getType()) {
+					case ListEvent.INSERT:
+						inserts++;
+						break;
+					case ListEvent.DELETE:
+						deletes++;
+						break;
+					case ListEvent.UPDATE:
+						updates++;
+						break;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.swing.JTable;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class JAutoColumnTableTest {
+
+	private final TableModel model = new DefaultTableModel();
+
+	private Set<Integer> rows(Integer... rows) {
+		return new TreeSet<>(Arrays.asList(rows));
+	}
+
+	private Set<Integer> update(Set<Integer> changedRows, int type, int firstRow, int lastRow) {
+		return JAutoColumnTable.updateChangedRows(changedRows, new TableModelEvent(model, firstRow, lastRow, TableModelEvent.ALL_COLUMNS, type));
+	}
+
+	@Test
+	public void testChangedRowsInsert() {
+		//Rows at or after the inserted rows are shifted down
+		assertEquals(rows(2, 4, 5, 7, 10), update(rows(2, 5, 8), TableModelEvent.INSERT, 4, 5));
+		assertEquals(rows(0, 3, 6, 9), update(rows(2, 5, 8), TableModelEvent.INSERT, 0, 0));
+		assertEquals(rows(2, 5, 8, 9), update(rows(2, 5, 8), TableModelEvent.INSERT, 9, 9));
+		//Reversed range
+		assertEquals(rows(2, 4, 5, 7, 10), update(rows(2, 5, 8), TableModelEvent.INSERT, 5, 4));
+	}
+
+	@Test
+	public void testChangedRowsDelete() {
+		//Deleted rows are dropped and rows after them are shifted up
+		assertEquals(rows(2, 6), update(rows(2, 5, 8), TableModelEvent.DELETE, 4, 5));
+		assertEquals(rows(1, 4, 7), update(rows(2, 5, 8), TableModelEvent.DELETE, 0, 0));
+		assertEquals(rows(2, 5), update(rows(2, 5, 8), TableModelEvent.DELETE, 8, 10));
+		assertEquals(rows(), update(rows(2, 5, 8), TableModelEvent.DELETE, 2, 8));
+		//Insert and delete the same rows
+		Set<Integer> changedRows = update(rows(2, 5, 8), TableModelEvent.INSERT, 3, 4);
+		assertEquals(rows(2, 5, 8), update(changedRows, TableModelEvent.DELETE, 3, 4));
+	}
+
+	@Test
+	public void testChangedRowsUpdate() {
+		assertEquals(rows(2, 3, 4, 5, 8), update(rows(2, 5, 8), TableModelEvent.UPDATE, 3, 5));
+		assertEquals(rows(0), update(rows(), TableModelEvent.UPDATE, 0, 0));
+	}
+
+	@Test
+	public void testChangedRowsAll() {
+		//All rows changed
+		assertNull(update(null, TableModelEvent.UPDATE, 1, 1));
+		assertNull(update(rows(2), TableModelEvent.UPDATE, 0, Integer.MAX_VALUE));
+		assertNull(update(rows(2), TableModelEvent.UPDATE, TableModelEvent.HEADER_ROW, TableModelEvent.HEADER_ROW));
+		assertNull(JAutoColumnTable.updateChangedRows(rows(2), new TableModelEvent(model)));
+		//Too many rows changed
+		assertNull(update(rows(), TableModelEvent.INSERT, 0, JAutoColumnTable.CHANGED_ROWS_LIMIT));
+		assertEquals(JAutoColumnTable.CHANGED_ROWS_LIMIT, update(rows(), TableModelEvent.INSERT, 0, JAutoColumnTable.CHANGED_ROWS_LIMIT - 1).size());
+		Set<Integer> changedRows = update(rows(), TableModelEvent.UPDATE, 0, JAutoColumnTable.CHANGED_ROWS_LIMIT - 1);
+		assertNull(update(changedRows, TableModelEvent.UPDATE, JAutoColumnTable.CHANGED_ROWS_LIMIT, JAutoColumnTable.CHANGED_ROWS_LIMIT));
+	}
+
+	@Test
+	public void testSampleRowsLongest() {
+		//The text get longer for each stride: the last strides have the longest text
+		testSampleRowsLongest(JAutoColumnTable.SAMPLE_CANDIDATE_ROWS * 100);
+		//Uneven stride
+		testSampleRowsLongest(1234);
+		testSampleRowsLongest(JAutoColumnTable.SAMPLE_ROWS_LIMIT + 1);
+	}
+
+	private void testSampleRowsLongest(final int rowCount) {
+		final double stride = rowCount / (double) JAutoColumnTable.SAMPLE_CANDIDATE_ROWS;
+		JTable jTable = new JTable(new TestTableModel(rowCount) {
+			@Override
+			public Object getValueAt(int rowIndex, int columnIndex) {
+				return text((int) (rowIndex / stride) + 1);
+			}
+		});
+		Set<Integer> sample = JAutoColumnTable.getSampleRows(jTable, 0, rowCount);
+		assertRange(sample, rowCount);
+		//One row from each of the longest strides
+		for (int i = JAutoColumnTable.SAMPLE_CANDIDATE_ROWS - JAutoColumnTable.SAMPLE_LONGEST_ROWS; i < JAutoColumnTable.SAMPLE_CANDIDATE_ROWS; i++) {
+			int start = (int) (i * stride);
+			int end = Math.min((int) ((i + 1) * stride), rowCount);
+			assertTrue("Stride " + i + " missing", contains(sample, start, end));
+		}
+		//Same sample for the same table size
+		assertEquals(sample, JAutoColumnTable.getSampleRows(jTable, 0, rowCount));
+	}
+
+	@Test
+	public void testSampleRowsShort() {
+		//Only the first strides have long text
+		final int rowCount = JAutoColumnTable.SAMPLE_CANDIDATE_ROWS * 100;
+		JTable jTable = new JTable(new TestTableModel(rowCount) {
+			@Override
+			public Object getValueAt(int rowIndex, int columnIndex) {
+				if (rowIndex < JAutoColumnTable.SAMPLE_CANDIDATE_ROWS) {
+					return text(100);
+				} else {
+					return text(1);
+				}
+			}
+		});
+		Set<Integer> sample = JAutoColumnTable.getSampleRows(jTable, 0, rowCount);
+		assertRange(sample, rowCount);
+		for (int i = 0; i < 10; i++) {
+			assertTrue("Stride " + i + " missing", contains(sample, i * 100, (i + 1) * 100));
+		}
+	}
+
+	@Test
+	public void testSampleRowsNull() {
+		//Null values are ignored: only the random rows are measured
+		final int rowCount = JAutoColumnTable.SAMPLE_CANDIDATE_ROWS * 10;
+		JTable jTable = new JTable(new TestTableModel(rowCount) {
+			@Override
+			public Object getValueAt(int rowIndex, int columnIndex) {
+				return null;
+			}
+		});
+		Set<Integer> sample = JAutoColumnTable.getSampleRows(jTable, 0, rowCount);
+		assertRange(sample, rowCount);
+		assertTrue(sample.size() <= JAutoColumnTable.SAMPLE_RANDOM_ROWS);
+	}
+
+	private void assertRange(Set<Integer> sample, int rowCount) {
+		assertFalse(sample.isEmpty());
+		assertTrue(sample.size() <= JAutoColumnTable.SAMPLE_LONGEST_ROWS + JAutoColumnTable.SAMPLE_RANDOM_ROWS);
+		for (int rowIndex : sample) {
+			assertTrue(rowIndex >= 0);
+			assertTrue(rowIndex < rowCount);
+		}
+	}
+
+	private boolean contains(Set<Integer> sample, int start, int end) {
+		for (int rowIndex : sample) {
+			if (rowIndex >= start && rowIndex < end) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String text(int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			builder.append('x');
+		}
+		return builder.toString();
+	}
+
+	private abstract static class TestTableModel extends AbstractTableModel {
+
+		private final int rowCount;
+
+		public TestTableModel(int rowCount) {
+			this.rowCount = rowCount;
+		}
+
+		@Override
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return 1;
+		}
+	}
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.tabs.orders;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderRange;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderState;
+import net.nikr.eve.jeveasset.data.api.raw.RawPublicMarketOrder;
+import net.nikr.eve.jeveasset.data.profile.ProfileData;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.sde.RouteFinder;
+import net.nikr.eve.jeveasset.data.sde.StaticData;
+import net.nikr.eve.jeveasset.data.settings.Citadel;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserInput;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserOutput;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
+import net.nikr.eve.jeveasset.io.shared.RawConverter;
+import net.troja.eve.esi.model.MarketOrdersResponse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class OutbidProcesserTest extends TestUtil {
+
+	private static final int THE_FORGE = 10000002;
+	private static final int DOMAIN = 10000043;
+	private static final long JITA = 30000142L;
+	private static final int MAX_JUMPS = 8;
+	private static final int SYSTEMS = 12;
+	private static final long UNKNOWN_LOCATION = 1000000000001L;
+	private static final int UNKNOWN_SYSTEM = 1;
+	private static final int[] TYPE_IDS = {34, 35};
+	private static final int OTHER_TYPE_ID = 36;
+	private static final double[] PRICES = {4.0, 4.5, 5.0, 5.5, 6.0};
+	private static final MarketOrderRange[] RANGES = {
+		MarketOrderRange.STATION, MarketOrderRange.SOLARSYSTEM, MarketOrderRange._1, MarketOrderRange._2,
+		MarketOrderRange._5, MarketOrderRange._10, MarketOrderRange.REGION
+	};
+	private static final MarketOrderRange[] SELL_ORDER_RANGES = {
+		MarketOrderRange.STATION, MarketOrderRange.SOLARSYSTEM, MarketOrderRange._1, MarketOrderRange._5, MarketOrderRange.REGION
+	};
+	private static final int PUBLIC_ORDERS = 400;
+	private static final int RUNS = 20;
+
+	private static final List<MyLocation> STATIONS = new ArrayList<>();
+	private static final List<MyLocation> OTHER_REGION_STATIONS = new ArrayList<>();
+
+	@BeforeClass
+	public static void setUpClass() {
+		StaticData.load();
+		List<MyLocation> locations = new ArrayList<>(StaticData.get().getLocations());
+		Collections.sort(locations, new Comparator<MyLocation>() {
+			@Override
+			public int compare(MyLocation o1, MyLocation o2) {
+				return Long.compare(o1.getLocationID(), o2.getLocationID());
+			}
+		});
+		//Systems around Jita (at different distances)
+		Set<Long> systemIDs = new HashSet<>();
+		for (MyLocation location : locations) {
+			if (systemIDs.size() >= SYSTEMS) {
+				break;
+			}
+			if (!location.isSystem() || location.getRegionID() != THE_FORGE) {
+				continue;
+			}
+			Integer distance = RouteFinder.get().distanceBetween(JITA, location.getSystemID());
+			if (distance != null && distance <= MAX_JUMPS) {
+				systemIDs.add(location.getSystemID());
+			}
+		}
+		systemIDs.add(JITA);
+		for (MyLocation location : locations) {
+			if (!location.isStation()) {
+				continue;
+			}
+			if (systemIDs.contains(location.getSystemID())) {
+				STATIONS.add(location);
+			} else if (location.getRegionID() == DOMAIN && OTHER_REGION_STATIONS.size() < 2) {
+				OTHER_REGION_STATIONS.add(location);
+			}
+		}
+		assertTrue(STATIONS.size() > SYSTEMS);
+		assertEquals(2, OTHER_REGION_STATIONS.size());
+	}
+
+	@Test
+	public void testOutbid() {
+		Random random = new Random(42);
+		boolean outbids = false;
+		boolean counts = false;
+		boolean updates = false;
+		for (int run = 0; run < RUNS; run++) {
+			List<MyMarketOrder> marketOrders = createMarketOrders(random, false);
+			Map<Integer, Set<RawPublicMarketOrder>> publicOrders = createPublicOrders(random, marketOrders, false);
+			for (MarketOrderRange sellOrderRange : SELL_ORDER_RANGES) {
+				OutbidProcesserOutput output = test(marketOrders, publicOrders, sellOrderRange);
+				assertFalse(output.hasUnknownLocations());
+				outbids = outbids || !output.getOutbids().isEmpty();
+				updates = updates || !output.getUpdates().isEmpty();
+				for (Outbid outbid : output.getOutbids().values()) {
+					counts = counts || outbid.getCount() > 0;
+				}
+			}
+		}
+		assertTrue(outbids);
+		assertTrue(counts);
+		assertTrue(updates);
+	}
+
+	@Test
+	public void testUnknownLocations() {
+		Random random = new Random(42);
+		for (int run = 0; run < RUNS; run++) {
+			List<MyMarketOrder> marketOrders = createMarketOrders(random, true);
+			Map<Integer, Set<RawPublicMarketOrder>> publicOrders = createPublicOrders(random, marketOrders, true);
+			for (MarketOrderRange sellOrderRange : SELL_ORDER_RANGES) {
+				OutbidProcesserOutput output = test(marketOrders, publicOrders, sellOrderRange);
+				assertTrue(output.hasUnknownLocations());
+			}
+		}
+		//Only our own order at an unknown location
+		MyMarketOrder marketOrder = createMarketOrder(1, TYPE_IDS[0], true, UNKNOWN_LOCATION, PRICES[0], new Date(0), MarketOrderRange.REGION);
+		Map<Integer, Set<RawPublicMarketOrder>> publicOrders = new HashMap<>();
+		publicOrders.put(THE_FORGE, Collections.singleton(createPublicOrder(1, TYPE_IDS[0], true, UNKNOWN_SYSTEM, UNKNOWN_LOCATION, PRICES[1], new Date(0), MarketOrderRange.REGION, 1)));
+		publicOrders.put(DOMAIN, new HashSet<>());
+		OutbidProcesserOutput output = test(Collections.singletonList(marketOrder), publicOrders, MarketOrderRange.REGION);
+		assertFalse(output.hasUnknownLocations());
+		assertEquals(1, output.getUpdates().size());
+		assertTrue(output.getOutbids().isEmpty());
+	}
+
+	private OutbidProcesserOutput test(List<MyMarketOrder> marketOrders, Map<Integer, Set<RawPublicMarketOrder>> publicOrders, MarketOrderRange sellOrderRange) {
+		OutbidProcesserInput input = new OutbidProcesserInput(new ProfileData(new ProfileManager()), sellOrderRange);
+		for (MyMarketOrder marketOrder : marketOrders) {
+			Set<MyMarketOrder> set = input.getTypeIDs().get(marketOrder.getTypeID());
+			if (set == null) {
+				set = new HashSet<>();
+				input.getTypeIDs().put(marketOrder.getTypeID(), set);
+			}
+			set.add(marketOrder);
+		}
+		input.addOrders(publicOrders, new Date());
+		OutbidProcesserOutput expected = new OutbidProcesserOutput();
+		LegacyOutbidProcesser.process(input, expected);
+		OutbidProcesserOutput output = new OutbidProcesserOutput();
+		OutbidProcesser.process(input, output);
+		String message = "sell order range: " + sellOrderRange;
+		assertEquals(message, expected.getUpdates(), output.getUpdates());
+		assertEquals(message, expected.getRegionIDs(), output.getRegionIDs());
+		assertEquals(message, expected.hasUnknownLocations(), output.hasUnknownLocations());
+		assertEquals(message, expected.getOutbids().keySet(), output.getOutbids().keySet());
+		for (Map.Entry<Long, Outbid> entry : expected.getOutbids().entrySet()) {
+			Outbid outbid = output.getOutbids().get(entry.getKey());
+			assertNotNull(message, outbid);
+			assertEquals(message, entry.getValue().getPrice(), outbid.getPrice());
+			assertEquals(message, entry.getValue().getCount(), outbid.getCount());
+		}
+		return output;
+	}
+
+	private List<MyMarketOrder> createMarketOrders(Random random, boolean unknown) {
+		List<MyMarketOrder> marketOrders = new ArrayList<>();
+		long orderID = 1;
+		for (int typeID : TYPE_IDS) {
+			for (boolean buy : new boolean[] {true, false}) {
+				for (MarketOrderRange range : RANGES) {
+					MyLocation station = STATIONS.get(random.nextInt(STATIONS.size()));
+					marketOrders.add(createMarketOrder(orderID++, typeID, buy, station.getLocationID(), randomPrice(random), randomDate(random), range));
+				}
+				MyLocation station = OTHER_REGION_STATIONS.get(random.nextInt(OTHER_REGION_STATIONS.size()));
+				marketOrders.add(createMarketOrder(orderID++, typeID, buy, station.getLocationID(), randomPrice(random), randomDate(random), MarketOrderRange.STATION));
+				if (unknown) {
+					marketOrders.add(createMarketOrder(orderID++, typeID, buy, UNKNOWN_LOCATION, randomPrice(random), randomDate(random), MarketOrderRange.REGION));
+				}
+			}
+		}
+		return marketOrders;
+	}
+
+	private Map<Integer, Set<RawPublicMarketOrder>> createPublicOrders(Random random, List<MyMarketOrder> marketOrders, boolean unknown) {
+		Map<Integer, Set<RawPublicMarketOrder>> publicOrders = new HashMap<>();
+		Set<RawPublicMarketOrder> theForge = new HashSet<>();
+		Set<RawPublicMarketOrder> domain = new HashSet<>();
+		publicOrders.put(THE_FORGE, theForge);
+		publicOrders.put(DOMAIN, domain);
+		//Our own orders (updated price)
+		for (MyMarketOrder marketOrder : marketOrders) {
+			if (random.nextBoolean()) {
+				continue;
+			}
+			MyLocation location = ApiIdConverter.getLocation(marketOrder.getLocationID());
+			int systemID = location.isEmpty() ? UNKNOWN_SYSTEM : (int) location.getSystemID();
+			RawPublicMarketOrder publicOrder = createPublicOrder(marketOrder.getOrderID(), marketOrder.getTypeID(), marketOrder.isBuyOrder(), systemID, marketOrder.getLocationID(), randomPrice(random), randomDate(random), marketOrder.getRange(), marketOrder.getVolumeRemain());
+			if (location.isEmpty() || location.getRegionID() == THE_FORGE) {
+				theForge.add(publicOrder);
+			} else {
+				domain.add(publicOrder);
+			}
+		}
+		//Other orders
+		for (long orderID = 1000; orderID < 1000 + PUBLIC_ORDERS; orderID++) {
+			final int typeID;
+			if (random.nextInt(10) == 0) {
+				typeID = OTHER_TYPE_ID;
+			} else {
+				typeID = TYPE_IDS[random.nextInt(TYPE_IDS.length)];
+			}
+			final Boolean buy;
+			if (random.nextInt(50) == 0) {
+				buy = null;
+			} else {
+				buy = random.nextBoolean();
+			}
+			MarketOrderRange range = RANGES[random.nextInt(RANGES.length)];
+			int volume = random.nextInt(1000) + 1;
+			int locationType = random.nextInt(20);
+			if (unknown && locationType == 0) {
+				theForge.add(createPublicOrder(orderID, typeID, buy, UNKNOWN_SYSTEM, UNKNOWN_LOCATION, randomPrice(random), randomDate(random), range, volume));
+			} else if (locationType == 1) {
+				MyLocation station = OTHER_REGION_STATIONS.get(random.nextInt(OTHER_REGION_STATIONS.size()));
+				domain.add(createPublicOrder(orderID, typeID, buy, (int) station.getSystemID(), station.getLocationID(), randomPrice(random), randomDate(random), range, volume));
+			} else {
+				MyLocation station = STATIONS.get(random.nextInt(STATIONS.size()));
+				theForge.add(createPublicOrder(orderID, typeID, buy, (int) station.getSystemID(), station.getLocationID(), randomPrice(random), randomDate(random), range, volume));
+			}
+		}
+		return publicOrders;
+	}
+
+	private double randomPrice(Random random) {
+		return PRICES[random.nextInt(PRICES.length)];
+	}
+
+	private Date randomDate(Random random) {
+		return new Date(random.nextInt(5) * 1000L);
+	}
+
+	private MyMarketOrder createMarketOrder(long orderID, int typeID, boolean buy, long locationID, double price, Date issued, MarketOrderRange range) {
+		RawMarketOrder rawMarketOrder = RawMarketOrder.create();
+		rawMarketOrder.setOrderID(orderID);
+		rawMarketOrder.setTypeID(typeID);
+		rawMarketOrder.setBuyOrder(buy);
+		rawMarketOrder.setLocationID(locationID);
+		rawMarketOrder.setPrice(price);
+		rawMarketOrder.setIssued(issued);
+		rawMarketOrder.setRange(range);
+		rawMarketOrder.setVolumeRemain(100);
+		rawMarketOrder.setVolumeTotal(100);
+		rawMarketOrder.setState(MarketOrderState.OPEN);
+		return new MyMarketOrder(rawMarketOrder, ApiIdConverter.getItem(typeID), new EsiOwner());
+	}
+
+	private RawPublicMarketOrder createPublicOrder(long orderID, int typeID, Boolean buy, int systemID, long locationID, double price, Date issued, MarketOrderRange range, int volume) {
+		MarketOrdersResponse response = new MarketOrdersResponse();
+		response.setOrderId(orderID);
+		response.setTypeId(typeID);
+		response.setIsBuyOrder(buy);
+		response.setSystemId(systemID);
+		response.setLocationId(locationID);
+		response.setPrice(price);
+		response.setIssued(issued.toInstant().atOffset(ZoneOffset.UTC));
+		response.setRange(MarketOrdersResponse.RangeEnum.valueOf(range.name()));
+		response.setVolumeRemain(volume);
+		response.setVolumeTotal(volume);
+		response.setDuration(90);
+		response.setMinVolume(1);
+		return new RawPublicMarketOrder(response);
+	}
+
+	/**
+	 * The pairwise outbid loop used before the price ladder (reference implementation).
+	 */
+	private static class LegacyOutbidProcesser {
+
+		private final OutbidProcesserInput input;
+		private final OutbidProcesserOutput output;
+
+		private LegacyOutbidProcesser(OutbidProcesserInput input, OutbidProcesserOutput output) {
+			this.input = input;
+			this.output = output;
+		}
+
+		public static void process(OutbidProcesserInput input, OutbidProcesserOutput output) {
+			LegacyOutbidProcesser processer = new LegacyOutbidProcesser(input, output);
+			processer.process();
+		}
+
+		private void process() {
+			//Process order updates
+			for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
+				Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
+				if (orders != null) {
+					for (MyMarketOrder marketOrder : orders) {
+						if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
+							output.getUpdates().put(ordersResponse.getOrderID(), ordersResponse);
+						}
+					}
+				}
+			}
+			//Process outbid
+			for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
+				//Regions with data
+				MyLocation orderLocation = ApiIdConverter.getLocation(ordersResponse.getSystemID());
+				if (!orderLocation.isEmpty()) {
+					output.getRegionIDs().add(orderLocation.getRegionID());
+				}
+				Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
+				if (orders != null) {
+					//Orders to match
+					for (MyMarketOrder marketOrder : orders) {
+						if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
+							continue;
+						}
+						if (!isSameType(marketOrder, ordersResponse)) { //Both buy or both sell
+							continue;
+						}
+						if (!isInRange(marketOrder, ordersResponse)) { //Order range overlap
+							continue;
+						}
+						Outbid outbid = output.getOutbids().get(marketOrder.getOrderID());
+						if (outbid == null) {
+							outbid = new Outbid(ordersResponse);
+							output.getOutbids().put(marketOrder.getOrderID(), outbid);
+						}
+						RawPublicMarketOrder rawPublicMarketOrder = output.getUpdates().get(marketOrder.getOrderID());
+						final double price;
+						final Date issued;
+						if (rawPublicMarketOrder != null) { //Updated price/issued
+							price = rawPublicMarketOrder.getPrice();
+							issued = rawPublicMarketOrder.getIssued();
+						} else { //Old price/issued (better than nothing)
+							price = marketOrder.getPrice();
+							issued = marketOrder.getIssued();
+						}
+						if (marketOrder.isBuyOrder()) { //Buy (outbid is higher)
+							outbid.setPrice(Math.max(outbid.getPrice(), ordersResponse.getPrice()));
+							if (ordersResponse.getPrice() > price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
+								outbid.addCount(ordersResponse.getVolumeRemain());
+							}
+						} else { //Sell (outbid is lower)
+							outbid.setPrice(Math.min(outbid.getPrice(), ordersResponse.getPrice()));
+							if (ordersResponse.getPrice() < price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
+								outbid.addCount(ordersResponse.getVolumeRemain());
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private boolean isInRange(MyMarketOrder fromMarketOrder, RawPublicMarketOrder toMarketOrder) {
+			Long fromSystemID = getSystemID(fromMarketOrder.getLocationID());
+			Long toSystemID = RawConverter.toLong(toMarketOrder.getSystemID());
+			MyLocation fromSystemLocation = ApiIdConverter.getLocation(fromSystemID);
+			MyLocation toSystemLocation = ApiIdConverter.getLocation(toSystemID);
+			if (fromSystemLocation.isEmpty() || toSystemLocation.isEmpty()) {
+				output.setUnknownLocations();
+				return false; //We can't work with unknown locations
+			}
+			if (!Objects.equals(fromSystemLocation.getRegionID(), toSystemLocation.getRegionID())) {
+				return false; //Must be in same region
+			}
+			MarketOrderRange fromRange;
+			MarketOrderRange toRange;
+			if (fromMarketOrder.isBuyOrder()) {
+				fromRange = fromMarketOrder.getRange();
+				toRange = toMarketOrder.getRange();
+			} else {
+				fromRange = input.getSellOrderRange();
+				toRange = input.getSellOrderRange();
+			}
+			if (fromRange == MarketOrderRange.REGION || toRange == MarketOrderRange.REGION) {
+				return true; //Match everything
+			} else if (fromRange == MarketOrderRange.STATION && toRange == MarketOrderRange.STATION) {
+				return Objects.equals(fromMarketOrder.getLocationID(), toMarketOrder.getLocationID()); //Only match if in the same station
+			} else {
+				int range = OutbidProcesser.getRange(fromRange) + OutbidProcesser.getRange(toRange); //Find overlapping area
+				Integer distance = RouteFinder.get().distanceBetween(fromSystemID, toSystemID);
+				if (distance == null) {
+					return false;
+				}
+				return distance <= range;
+			}
+		}
+
+		private boolean isSameType(MyMarketOrder marketOrder, RawPublicMarketOrder response) {
+			return Objects.equals(marketOrder.isBuyOrder(), response.isBuyOrder());
+		}
+
+		private boolean isSameOrder(MyMarketOrder marketOrder, RawPublicMarketOrder response) {
+			return Objects.equals(marketOrder.getOrderID(), response.getOrderID());
+		}
+
+		private Long getSystemID(long locationID) {
+			Long systemID = input.getLocationToSystem().get(locationID);
+			if (systemID != null) {
+				return systemID;
+			}
+			MyLocation location = ApiIdConverter.getLocation(locationID);
+			if (!location.isEmpty()) {
+				return location.getSystemID();
+			}
+			Citadel citadel = input.getCitadels().get(locationID);
+			if (citadel != null) {
+				return citadel.getSystemID();
+			}
+			return null;
+		}
+	}
+}
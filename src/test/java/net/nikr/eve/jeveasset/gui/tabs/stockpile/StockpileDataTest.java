@@ -0,0 +1,233 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.tabs.stockpile;
+
+import ca.odell.glazedlists.EventList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
+import net.nikr.eve.jeveasset.data.profile.ProfileData;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.sde.StaticData;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.gui.dialogs.settings.UserPriceSettingsPanel.UserPrice;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter.StockpileContainer;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter.StockpileFlag;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileItem;
+import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileTotal;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class StockpileDataTest extends TestUtil {
+
+	private static final int TYPE_ID = 34; //Tritanium
+	private static final int OTHER_TYPE_ID = 35; //Pyerite
+	private static final long STATION_ID = 60003760L; //Jita IV - Moon 4 - Caldari Navy Assembly Plant
+	private static final long OTHER_STATION_ID = 60008494L; //Amarr VIII (Oris) - Emperor Family Academy
+
+	private final List<Stockpile> stockpiles = new ArrayList<>();
+	private ProfileManager profileManager;
+	private ProfileData profileData;
+	private Stockpile everywhere;
+	private Stockpile station;
+
+	@BeforeClass
+	public static void setUpClass() {
+		StaticData.load();
+	}
+
+	@Before
+	public void setUp() {
+		EsiOwner owner = new EsiOwner();
+		owner.setOwnerID(1);
+		owner.setOwnerName("Owner");
+		List<MyAsset> assets = new ArrayList<>();
+		assets.add(createAsset(owner, 1, TYPE_ID, STATION_ID, 100));
+		assets.add(createAsset(owner, 2, TYPE_ID, OTHER_STATION_ID, 50));
+		assets.add(createAsset(owner, 3, OTHER_TYPE_ID, STATION_ID, 10));
+		owner.setAssets(assets);
+		profileManager = new ProfileManager();
+		profileManager.getEsiOwners().add(owner);
+		profileData = new ProfileData(profileManager);
+		profileData.updateEventLists();
+		setPrice(TYPE_ID, 5.0);
+		setPrice(OTHER_TYPE_ID, 10.0);
+		everywhere = createStockpile("Everywhere", createFilter(MyLocation.create(0), Collections.<StockpileContainer>emptyList()));
+		station = createStockpile("Station", createFilter(ApiIdConverter.getLocation(STATION_ID), Collections.<StockpileContainer>emptyList()));
+		Stockpile container = createStockpile("Container", createFilter(MyLocation.create(0), Collections.singletonList(new StockpileContainer("Container", false))));
+		//Station is a subpile of Everywhere
+		everywhere.getSubpiles().put(station, 1.0);
+		station.addSubpileLink(everywhere);
+		stockpiles.add(everywhere);
+		stockpiles.add(station);
+		stockpiles.add(container);
+		Settings.get().getStockpiles().addAll(stockpiles);
+	}
+
+	@After
+	public void tearDown() {
+		Settings.get().getStockpiles().removeAll(stockpiles);
+		Settings.get().getUserPrices().remove(TYPE_ID);
+		Settings.get().getUserPrices().remove(OTHER_TYPE_ID);
+		stockpiles.clear();
+	}
+
+	@Test
+	public void testUpdatePrices() {
+		StockpileData stockpileData = new StockpileData(profileManager, profileData);
+		EventList<StockpileItem> eventList = stockpileData.getData();
+		List<StockpileItem> rows = new ArrayList<>(eventList);
+		List<Double> before = getTotals();
+		assertEquals(100 * 5.0 + 10 * 10.0, station.getTotal().getValueNow(), 0.001);
+		setPrice(TYPE_ID, 7.0);
+		stockpileData.updatePrices(eventList, Collections.singleton(TYPE_ID));
+		assertRows(rows, eventList);
+		List<Double> partial = getTotals();
+		assertNotEquals(before, partial);
+		assertEquals(100 * 7.0 + 10 * 10.0, station.getTotal().getValueNow(), 0.001);
+		assertEquals(150 * 7.0 + 10 * 10.0, getValueNow(everywhere), 0.001);
+		//Unchanged typeIDs
+		stockpileData.updatePrices(eventList, Collections.singleton(OTHER_TYPE_ID));
+		assertEquals(partial, getTotals());
+		//Same as a full update
+		stockpileData.updateData(eventList);
+		assertEquals(partial, getTotals());
+	}
+
+	@Test
+	public void testUpdateLocations() {
+		StockpileData stockpileData = new StockpileData(profileManager, profileData);
+		EventList<StockpileItem> eventList = stockpileData.getData();
+		List<StockpileItem> rows = new ArrayList<>(eventList);
+		List<Double> before = getTotals();
+		stockpileData.updateLocations(eventList, Collections.singleton(STATION_ID));
+		assertRows(rows, eventList);
+		List<Double> partial = getTotals();
+		assertEquals(before, partial); //Recalculated, not added twice
+		assertEquals(100 + 10, station.getTotal().getCountNow());
+		//Same as a full update
+		stockpileData.updateData(eventList);
+		assertEquals(partial, getTotals());
+	}
+
+	@Test
+	public void testUpdateNames() {
+		StockpileData stockpileData = new StockpileData(profileManager, profileData);
+		EventList<StockpileItem> eventList = stockpileData.getData();
+		List<StockpileItem> rows = new ArrayList<>(eventList);
+		List<Double> before = getTotals();
+		stockpileData.updateNames(eventList, Collections.singleton(1L));
+		assertRows(rows, eventList);
+		List<Double> partial = getTotals();
+		assertEquals(before, partial); //Recalculated, not added twice
+		//Same as a full update
+		stockpileData.updateData(eventList);
+		assertEquals(partial, getTotals());
+	}
+
+	/**
+	 * Partial updates change the rows in place (no remove/add).
+	 */
+	private void assertRows(List<StockpileItem> expected, EventList<StockpileItem> eventList) {
+		assertEquals(expected.size(), eventList.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), eventList.get(i));
+		}
+	}
+
+	private double getValueNow(Stockpile stockpile) {
+		double valueNow = 0;
+		for (StockpileItem item : stockpile.getItems()) {
+			if (item.isTotal()) {
+				continue;
+			}
+			valueNow = valueNow + item.getValueNow();
+		}
+		return valueNow;
+	}
+
+	private List<Double> getTotals() {
+		List<Double> totals = new ArrayList<>();
+		for (Stockpile stockpile : stockpiles) {
+			StockpileTotal total = stockpile.getTotal();
+			totals.add((double) total.getCountNow());
+			totals.add((double) total.getCountNeeded());
+			totals.add(total.getValueNow());
+			totals.add(total.getValueNeeded());
+			totals.add(total.getVolumeNow());
+			totals.add(total.getVolumeNeeded());
+			totals.add(stockpile.getPercentFull());
+			for (StockpileItem item : stockpile.getClaims()) {
+				totals.add((double) item.getCountNow());
+				totals.add(item.getValueNow());
+			}
+		}
+		return totals;
+	}
+
+	private void setPrice(int typeID, double price) {
+		Settings.get().getUserPrices().put(typeID, new UserPrice(price, typeID, ApiIdConverter.getItem(typeID).getTypeName()));
+	}
+
+	private Stockpile createStockpile(String name, StockpileFilter filter) {
+		Stockpile stockpile = new Stockpile(name, null, Collections.singletonList(filter), 1, false);
+		stockpile.add(new StockpileItem(stockpile, ApiIdConverter.getItem(TYPE_ID), TYPE_ID, 200, false));
+		stockpile.add(new StockpileItem(stockpile, ApiIdConverter.getItem(OTHER_TYPE_ID), OTHER_TYPE_ID, 20, false));
+		return stockpile;
+	}
+
+	private StockpileFilter createFilter(MyLocation location, List<StockpileContainer> containers) {
+		return new StockpileFilter(location,
+				false, //Exclude
+				Collections.<StockpileFlag>emptyList(),
+				containers,
+				Collections.<Long>emptyList(),
+				null, //JobsDaysLess
+				null, //JobsDaysMore
+				null, //Singleton
+				true, //Assets
+				false, false, false, false, false, false, false, false, false);
+	}
+
+	private MyAsset createAsset(EsiOwner owner, long itemID, int typeID, long locationID, int quantity) {
+		RawAsset rawAsset = RawAsset.create();
+		rawAsset.setItemID(itemID);
+		rawAsset.setItemFlag(ApiIdConverter.getFlag(4)); //Hangar
+		rawAsset.setLocationID(locationID);
+		rawAsset.setQuantity(quantity);
+		rawAsset.setSingleton(false);
+		rawAsset.setTypeID(typeID);
+		return new MyAsset(rawAsset, ApiIdConverter.getItem(typeID), owner, new ArrayList<>());
+	}
+}
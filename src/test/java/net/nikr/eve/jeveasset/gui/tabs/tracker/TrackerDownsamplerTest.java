@@ -0,0 +1,68 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.gui.tabs.tracker;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class TrackerDownsamplerTest {
+
+	@Test
+	public void testBelowThreshold() {
+		double[] x = {0, 1, 2, 3};
+		double[] y = {5, 6, 7, 8};
+		int[] indexes = TrackerDownsampler.downsample(x, y, 10);
+		assertThat(indexes.length, equalTo(4));
+		for (int i = 0; i < indexes.length; i++) {
+			assertThat(indexes[i], equalTo(i));
+		}
+	}
+
+	@Test
+	public void testDownsample() {
+		int size = 10000;
+		double[] x = new double[size];
+		double[] y = new double[size];
+		for (int i = 0; i < size; i++) {
+			x[i] = i;
+			y[i] = Math.sin(i / 100.0);
+		}
+		y[4321] = 100; //Spike
+		int[] indexes = TrackerDownsampler.downsample(x, y, 500);
+		assertThat(indexes.length, equalTo(500));
+		assertThat(indexes[0], equalTo(0));
+		assertThat(indexes[indexes.length - 1], equalTo(size - 1));
+		boolean spike = false;
+		for (int i = 0; i < indexes.length; i++) {
+			if (i > 0) {
+				assertTrue(indexes[i] > indexes[i - 1]);
+			}
+			if (indexes[i] == 4321) {
+				spike = true;
+			}
+		}
+		assertTrue("Spike not kept", spike);
+	}
+}
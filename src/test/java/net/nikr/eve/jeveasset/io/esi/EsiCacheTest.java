@@ -0,0 +1,137 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.troja.eve.esi.ApiClient;
+import net.troja.eve.esi.ApiClientBuilder;
+import net.troja.eve.esi.ApiException;
+import net.troja.eve.esi.ApiResponse;
+import net.troja.eve.esi.JSON;
+import net.troja.eve.esi.api.MarketApi;
+import net.troja.eve.esi.model.MarketOrdersResponse;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class EsiCacheTest extends TestUtil {
+
+	private static final String ORDERS = "[{\"duration\":90,\"is_buy_order\":false,\"issued\":\"2023-01-01T12:00:00Z\",\"location_id\":60003760,\"min_volume\":1,\"order_id\":1,\"price\":5.5,\"range\":\"region\",\"system_id\":30000142,\"type_id\":34,\"volume_remain\":100,\"volume_total\":200},"
+			+ "{\"duration\":30,\"is_buy_order\":true,\"issued\":\"2023-01-02T12:00:00Z\",\"location_id\":60003760,\"min_volume\":1,\"order_id\":2,\"price\":4.5,\"range\":\"station\",\"system_id\":30000142,\"type_id\":35,\"volume_remain\":10,\"volume_total\":20}]";
+	private static final String ETAG = "\"abc123\"";
+
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+	private HttpServer server;
+	private MarketApi marketApi;
+	private File directory;
+
+	@Before
+	public void before() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+				exchange.getResponseHeaders().add("ETag", ETAG);
+				if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+					notModified.incrementAndGet();
+					exchange.sendResponseHeaders(304, -1);
+				} else {
+					byte[] body = ORDERS.getBytes(StandardCharsets.UTF_8);
+					exchange.getResponseHeaders().add("X-Pages", "1");
+					exchange.sendResponseHeaders(200, body.length);
+					try (OutputStream outputStream = exchange.getResponseBody()) {
+						outputStream.write(body);
+					}
+				}
+				exchange.close();
+			}
+		});
+		server.start();
+		ApiClient client = new ApiClientBuilder().okHttpClient(AbstractEsiGetter.getHttpClient()).build();
+		client.setBasePath("http://127.0.0.1:" + server.getAddress().getPort());
+		marketApi = new MarketApi(client);
+		directory = File.createTempFile("esicache", "");
+		directory.delete();
+	}
+
+	@After
+	public void after() {
+		server.stop(0);
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void testNotModified() throws ApiException {
+		EsiCache esiCache = new EsiCache(directory, new JSON());
+		//First request: no etag
+		ApiResponse<List<MarketOrdersResponse>> response = get(esiCache);
+		assertEquals(200, response.getStatusCode());
+		assertEquals(2, response.getData().size());
+		assertEquals(0, notModified.get());
+		//Second request: 304 from disk (only the etag is in memory)
+		response = get(esiCache);
+		assertEquals(EsiCache.NOT_MODIFIED, response.getStatusCode());
+		assertEquals(2, response.getData().size());
+		assertEquals(1, notModified.get());
+		//New cache (restart): 304 from disk
+		esiCache = new EsiCache(directory, new JSON());
+		response = get(esiCache);
+		assertEquals(EsiCache.NOT_MODIFIED, response.getStatusCode());
+		assertEquals(2, notModified.get());
+		assertEquals(3, requests.get());
+		List<MarketOrdersResponse> orders = response.getData();
+		assertEquals(2, orders.size());
+		assertEquals(Long.valueOf(1), orders.get(0).getOrderId());
+		assertEquals(5.5, orders.get(0).getPrice(), 0);
+		assertEquals(Integer.valueOf(35), orders.get(1).getTypeId());
+		assertEquals("1", response.getHeaders().get("x-pages").get(0));
+	}
+
+	private ApiResponse<List<MarketOrdersResponse>> get(EsiCache esiCache) throws ApiException {
+		return esiCache.get("region-orders-10000002-1", new EsiCache.CachedPage<MarketOrdersResponse>() {
+			@Override
+			public ApiResponse<List<MarketOrdersResponse>> get(String ifNoneMatch) throws ApiException {
+				return marketApi.getMarketsRegionIdOrdersWithHttpInfo("all", 10000002, AbstractEsiGetter.DATASOURCE, ifNoneMatch, 1, null);
+			}
+		});
+	}
+}
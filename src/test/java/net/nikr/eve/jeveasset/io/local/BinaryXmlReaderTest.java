@@ -0,0 +1,202 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+
+public class BinaryXmlReaderTest {
+
+	private static final String[] VALUES = {"0", "-1", "01", "-0", "123456789012", "9223372036854775807", "99999999999999999999", "1.5", "-0.25", "1.50", "1.0E10", "NaN", "", "text", "<&\">\n"};
+
+	@Test
+	public void testReadBack() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryXmlWriter binary = new BinaryXmlWriter(out);
+		binary.startDocument(10, "assets");
+		binary.startElement("section");
+		binary.setAttribute("name", "text"); //Outside record: not in the dictionary
+		for (int i = 0; i < 2; i++) {
+			binary.startElement("owner");
+			for (int j = 0; j < VALUES.length; j++) {
+				binary.setAttribute("value" + j, VALUES[j]);
+			}
+			binary.startElement("asset");
+			binary.setAttribute("name", "text");
+			binary.startElement("asset");
+			binary.setAttribute("name", null);
+			binary.endElement();
+			binary.endElement();
+			binary.endElement();
+		}
+		binary.endElement();
+		binary.startElement("stockpiles");
+		binary.startElement("stockpile");
+		binary.setAttribute("id", "1");
+		binary.endElement();
+		binary.endElement();
+		binary.endDocument();
+
+		BinaryXmlReader reader = new BinaryXmlReader(new ByteArrayInputStream(out.toByteArray()));
+		assertTrue(reader.readHeader(10));
+		assertEquals(BinaryXmlWriter.ELEMENT, reader.next());
+		assertEquals("assets", reader.getElement().getNodeName());
+		assertEquals(BinaryXmlWriter.ELEMENT, reader.next());
+		assertEquals("text", reader.getElement().getAttribute("name"));
+		for (int i = 0; i < 2; i++) {
+			assertEquals(BinaryXmlWriter.RECORD, reader.next());
+			Element owner = BinaryXmlReader.decode(reader.getRecord());
+			assertEquals("owner", owner.getNodeName());
+			for (int j = 0; j < VALUES.length; j++) {
+				assertEquals(VALUES[j], owner.getAttribute("value" + j));
+			}
+			NodeList assets = owner.getElementsByTagName("asset");
+			assertEquals(2, assets.getLength());
+			assertEquals("text", ((Element) assets.item(0)).getAttribute("name"));
+			assertEquals("", ((Element) assets.item(1)).getAttribute("name"));
+		}
+		assertEquals(BinaryXmlWriter.END, reader.next());
+		assertEquals(BinaryXmlWriter.ELEMENT, reader.next());
+		Element stockpiles = reader.readElement();
+		assertEquals("stockpiles", stockpiles.getNodeName());
+		assertEquals("1", ((Element) stockpiles.getElementsByTagName("stockpile").item(0)).getAttribute("id"));
+		assertEquals(BinaryXmlWriter.END, reader.next());
+	}
+
+	@Test
+	public void testOutdated() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryXmlWriter binary = new BinaryXmlWriter(out);
+		binary.startDocument(10, "assets");
+		binary.endDocument();
+		BinaryXmlReader reader = new BinaryXmlReader(new ByteArrayInputStream(out.toByteArray()));
+		assertFalse(reader.readHeader(11));
+	}
+
+	@Test
+	public void testTablesAndSections() throws Exception {
+		final int rows = BinaryXmlWriter.TABLE_ROWS + 10; //More than one table
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryXmlWriter binary = new BinaryXmlWriter(out, "journals");
+		binary.startDocument(10, "assets");
+		binary.startElement("esiowners");
+		binary.startElement("esiowner");
+		binary.setAttribute("name", "owner");
+		binary.startElement("journals");
+		binary.setAttribute("corp", "false");
+		for (int i = 0; i < rows; i++) {
+			binary.startElement("journal");
+			binary.setAttribute("refid", String.valueOf(i));
+			binary.setAttribute("reason", "reason");
+			if (i % 2 == 0) {
+				binary.setAttribute("amount", VALUES[i % VALUES.length]); //Optional
+			}
+			binary.endElement();
+		}
+		binary.endElement();
+		binary.startElement("markerorders");
+		binary.startElement("markerorder");
+		binary.setAttribute("orderid", "1");
+		binary.endElement();
+		binary.startElement("markerorder");
+		binary.setAttribute("orderid", "2");
+		binary.setAttribute("reason", "reason");
+		binary.endElement();
+		binary.startElement("other"); //Table name changed
+		binary.endElement();
+		binary.endElement();
+		binary.endDocument();
+
+		BinaryXmlReader reader = new BinaryXmlReader(new ByteArrayInputStream(out.toByteArray()));
+		assertTrue(reader.readHeader(10));
+		assertEquals(BinaryXmlWriter.ELEMENT, reader.next());
+		assertEquals(BinaryXmlWriter.ELEMENT, reader.next());
+		assertEquals(BinaryXmlWriter.RECORD, reader.next());
+		Element owner = BinaryXmlReader.decode(reader.getRecord());
+		assertEquals("owner", owner.getAttribute("name"));
+		//Table
+		NodeList orders = owner.getElementsByTagName("markerorder");
+		assertEquals(2, orders.getLength());
+		assertEquals("1", ((Element) orders.item(0)).getAttribute("orderid"));
+		assertFalse(((Element) orders.item(0)).hasAttribute("reason"));
+		assertEquals("reason", ((Element) orders.item(1)).getAttribute("reason"));
+		assertEquals(1, owner.getElementsByTagName("other").getLength());
+		assertEquals("other", orders.item(1).getNextSibling().getNodeName());
+		//Section
+		NodeList sections = owner.getElementsByTagName("journals");
+		assertEquals(1, sections.getLength());
+		Element section = (Element) sections.item(0);
+		assertEquals(0, section.getElementsByTagName("journal").getLength()); //Not decoded
+		assertNull(BinaryXmlReader.getSection(owner));
+		byte[] bytes = BinaryXmlReader.getSection(section);
+		assertNotNull(bytes);
+		Element journals = BinaryXmlReader.decodeSection(bytes);
+		assertEquals("journals", journals.getNodeName());
+		assertEquals("false", journals.getAttribute("corp"));
+		NodeList journal = journals.getElementsByTagName("journal");
+		assertEquals(rows, journal.getLength());
+		for (int i = 0; i < rows; i++) {
+			Element element = (Element) journal.item(i);
+			assertEquals(String.valueOf(i), element.getAttribute("refid"));
+			assertEquals("reason", element.getAttribute("reason"));
+			if (i % 2 == 0) {
+				assertEquals(VALUES[i % VALUES.length], element.getAttribute("amount"));
+			} else {
+				assertFalse(element.hasAttribute("amount"));
+			}
+		}
+		assertEquals(BinaryXmlWriter.END, reader.next());
+		assertEquals(BinaryXmlWriter.END, reader.next());
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptSection() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryXmlWriter binary = new BinaryXmlWriter(out, "journals");
+		binary.startDocument(10, "assets");
+		binary.startElement("esiowners");
+		binary.startElement("esiowner");
+		binary.startElement("journals");
+		binary.startElement("journal");
+		binary.setAttribute("reason", "reason");
+		binary.endElement();
+		binary.endElement();
+		binary.endDocument();
+		BinaryXmlReader reader = new BinaryXmlReader(new ByteArrayInputStream(out.toByteArray()));
+		assertTrue(reader.readHeader(10));
+		reader.next();
+		reader.next();
+		assertEquals(BinaryXmlWriter.RECORD, reader.next());
+		byte[] record = reader.getRecord();
+		record[record.length - 6] ^= 1; //Section content (before the checksum and the end markers)
+		BinaryXmlReader.decode(record);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilderFactory;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+
+public class IndentingXmlWriterTest {
+
+	@Test
+	public void testReadBack() throws Exception {
+		String text = "<a & \"b\">\n\r\t'c'";
+		StringWriter stringWriter = new StringWriter();
+		IndentingXmlWriter xml = new IndentingXmlWriter(stringWriter);
+		xml.startDocument("UTF-8", "settings");
+		xml.setAttribute("version", "1");
+		xml.startElement("parent");
+		xml.setAttribute("text", text);
+		xml.startElement("child");
+		xml.endElement();
+		xml.startElement("child");
+		xml.setAttribute("null", null);
+		xml.endElement();
+		xml.endElement();
+		xml.startElement("empty");
+		xml.endElement();
+		xml.endDocument();
+
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(stringWriter.toString().getBytes(StandardCharsets.UTF_8)));
+		Element root = doc.getDocumentElement();
+		assertEquals("settings", root.getNodeName());
+		assertEquals("1", root.getAttribute("version"));
+		Element parent = (Element) root.getElementsByTagName("parent").item(0);
+		assertEquals(text, parent.getAttribute("text"));
+		NodeList children = parent.getElementsByTagName("child");
+		assertEquals(2, children.getLength());
+		assertEquals("", ((Element) children.item(1)).getAttribute("null"));
+		assertEquals(1, root.getElementsByTagName("empty").getLength());
+	}
+
+	@Test
+	public void testInvalidCharacters() throws Exception {
+		StringWriter stringWriter = new StringWriter();
+		IndentingXmlWriter xml = new IndentingXmlWriter(stringWriter);
+		xml.startDocument("UTF-8", "settings");
+		xml.setAttribute("text", "a\u0000b\u0001c\u001Fd\uFFFEe\uFFFFf\t\u00E6\u20AC");
+		xml.endDocument();
+
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(stringWriter.toString().getBytes(StandardCharsets.UTF_8)));
+		assertEquals("abcdef\t\u00E6\u20AC", doc.getDocumentElement().getAttribute("text"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAttributeAfterChild() throws Exception {
+		IndentingXmlWriter xml = new IndentingXmlWriter(new StringWriter());
+		xml.startDocument("UTF-8", "settings");
+		xml.startElement("child");
+		xml.endElement();
+		xml.setAttribute("version", "1");
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.gui.shared.table.EnumTableColumn;
+import net.nikr.eve.jeveasset.io.local.SqliteWriter.SqliteTable;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Column types, row counts and indexes of the SQLite export, all tables written in one transaction.
+ */
+public class SqliteWriterTest extends TestUtil {
+
+	private static final int ROWS = 2500; //More than one batch
+
+	private final File file = new File("sqlite_writer_test.tmp");
+
+	@Before
+	public void setUp() {
+		file.delete();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testTables() throws SQLException {
+		//Existing table, that is not exported, must be kept
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE other (value TEXT)");
+			statement.execute("INSERT INTO other VALUES ('kept')");
+			statement.execute("CREATE TABLE small (value TEXT)"); //Replaced
+		}
+		List<SqliteTable> tables = new ArrayList<>();
+		tables.add(new SqliteTable(new TestCursor(ROWS), header(), "big"));
+		tables.add(new SqliteTable(new TestCursor(3), header(), "small"));
+		assertTrue(SqliteWriter.save(file.getAbsolutePath(), tables));
+
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+				Statement statement = connection.createStatement()) {
+			//Column types
+			Map<String, String> expectedTypes = new HashMap<>();
+			expectedTypes.put("ITEM_ID", "INTEGER");
+			expectedTypes.put("OWNER", "TEXT");
+			expectedTypes.put("COUNT", "INTEGER");
+			expectedTypes.put("PRICE", "REAL");
+			expectedTypes.put("DATE", "TEXT");
+			expectedTypes.put("NAME", "TEXT");
+			for (String table : new String[] {"big", "small"}) {
+				Map<String, String> types = new HashMap<>();
+				try (ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+					while (resultSet.next()) {
+						types.put(resultSet.getString("name"), resultSet.getString("type"));
+					}
+				}
+				assertEquals(table, expectedTypes, types);
+			}
+			//Row count
+			assertEquals(ROWS, count(statement, "SELECT COUNT(*) FROM big"));
+			assertEquals(3, count(statement, "SELECT COUNT(*) FROM small"));
+			assertEquals(1, count(statement, "SELECT COUNT(*) FROM other"));
+			//Values
+			try (ResultSet resultSet = statement.executeQuery("SELECT * FROM big WHERE ITEM_ID = 1000000000001")) {
+				assertTrue(resultSet.next());
+				assertEquals("owner1", resultSet.getString("OWNER"));
+				assertEquals(1, resultSet.getInt("COUNT"));
+				assertEquals(1.5, resultSet.getDouble("PRICE"), 0);
+				assertEquals("1970-01-01 01:00:00", resultSet.getString("DATE"));
+				assertEquals("name's 1", resultSet.getString("NAME"));
+			}
+			try (ResultSet resultSet = statement.executeQuery("SELECT * FROM big WHERE ITEM_ID = 1000000000000")) {
+				assertTrue(resultSet.next());
+				resultSet.getString("NAME");
+				assertTrue(resultSet.wasNull());
+			}
+			//Indexes
+			Set<String> indexes = new HashSet<>();
+			try (ResultSet resultSet = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index'")) {
+				while (resultSet.next()) {
+					indexes.add(resultSet.getString("name"));
+				}
+			}
+			Set<String> expectedIndexes = new HashSet<>();
+			for (String table : new String[] {"big", "small"}) {
+				expectedIndexes.add(table + "_item_id");
+				expectedIndexes.add(table + "_owner");
+				expectedIndexes.add(table + "_date");
+			}
+			assertEquals(expectedIndexes, indexes);
+		}
+	}
+
+	@Test
+	public void testRollback() throws SQLException {
+		List<SqliteTable> tables = new ArrayList<>();
+		tables.add(new SqliteTable(new TestCursor(3), header(), "first"));
+		tables.add(new SqliteTable(new TestCursor(3), new ArrayList<>(), "second")); //No columns: invalid table
+		assertFalse(SqliteWriter.save(file.getAbsolutePath(), tables));
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+				Statement statement = connection.createStatement()) {
+			assertEquals(0, count(statement, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table'"));
+		}
+	}
+
+	private int count(Statement statement, String sql) throws SQLException {
+		try (ResultSet resultSet = statement.executeQuery(sql)) {
+			assertTrue(resultSet.next());
+			return resultSet.getInt(1);
+		}
+	}
+
+	private List<EnumTableColumn<?>> header() {
+		return new ArrayList<>(Arrays.asList(TestColumn.values()));
+	}
+
+	private static class TestCursor implements ExportCursor {
+
+		private final int rows;
+		private int row = -1;
+
+		public TestCursor(int rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public boolean next() {
+			row++;
+			return row < rows;
+		}
+
+		@Override
+		public Object getItem() {
+			return row;
+		}
+
+		@Override
+		public Object getValue(int column) {
+			return TestColumn.values()[column].getColumnValue(row);
+		}
+
+		@Override
+		public String getString(int column) {
+			return String.valueOf(getValue(column));
+		}
+	}
+
+	private enum TestColumn implements EnumTableColumn<Integer> {
+		ITEM_ID(Long.class) {
+			@Override
+			public Object getColumnValue(Integer from) {
+				return 1000000000000L + from;
+			}
+		},
+		OWNER(String.class) {
+			@Override
+			public Object getColumnValue(Integer from) {
+				return "owner" + (from % 10);
+			}
+		},
+		COUNT(Integer.class) {
+			@Override
+			public Object getColumnValue(Integer from) {
+				return from;
+			}
+		},
+		PRICE(Double.class) {
+			@Override
+			public Object getColumnValue(Integer from) {
+				return from + 0.5;
+			}
+		},
+		DATE(Date.class) {
+			@Override
+			public Object getColumnValue(Integer from) {
+				return new Date(from * 3600000L);
+			}
+		},
+		NAME(String.class) {
+			@Override
+			public Object getColumnValue(Integer from) {
+				if (from == 0) {
+					return null;
+				}
+				return "name's " + from;
+			}
+		};
+
+		private final Class<?> type;
+
+		private TestColumn(Class<?> type) {
+			this.type = type;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return type;
+		}
+
+		@Override
+		public Comparator<?> getComparator() {
+			return null;
+		}
+
+		@Override
+		public String getColumnName() {
+			return name();
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
+import net.nikr.eve.jeveasset.gui.tabs.values.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+
+public class TrackerDataStoreTest extends TestUtil {
+
+	private final String filename = "tracker_store_test.dat";
+	private final String legacyFilename = "tracker_legacy_test.json";
+
+	@After
+	public void tearDown() {
+		new File(filename).delete();
+		new File("tracker_store_test.bac").delete();
+		new File("tracker_store_test.new").delete();
+		new File("tracker_store_test.error1").delete();
+		new File(legacyFilename).delete();
+	}
+
+	@Test
+	public void testWriteRead() {
+		Map<String, List<Value>> out = new HashMap<>();
+		out.put("TEST-FILTERS", createValues(0, 3, true));
+		out.put("TEST-TOTAL", createValues(0, 2, false));
+		new TrackerDataStore(filename).write(out);
+		read(out);
+	}
+
+	@Test
+	public void testAppend() {
+		Map<String, List<Value>> out = new HashMap<>();
+		out.put("TEST-NAME", createValues(0, 2, true));
+		TrackerDataStore store = new TrackerDataStore(filename);
+		store.write(out);
+		long length = new File(filename).length();
+		out.get("TEST-NAME").addAll(createValues(2, 1, true));
+		store.write(out);
+		assertTrue(new File(filename).length() > length);
+		assertTrue(new File(filename).length() < length * 2); //Appended (not rewritten)
+		read(out);
+	}
+
+	@Test
+	public void testUpdateAndRemove() {
+		Map<String, List<Value>> out = new HashMap<>();
+		out.put("TEST-UPDATE", createValues(0, 3, true));
+		out.put("TEST-REMOVE", createValues(0, 1, false));
+		TrackerDataStore store = new TrackerDataStore(filename);
+		store.write(out);
+		//Update
+		out.get("TEST-UPDATE").get(1).setEscrows(100);
+		out.get("TEST-UPDATE").remove(0);
+		//Remove
+		out.remove("TEST-REMOVE");
+		store.write(out);
+		read(out);
+		//Write after read
+		store = new TrackerDataStore(filename);
+		store.read(false);
+		out.put("TEST-ADD", createValues(0, 1, true));
+		store.write(out);
+		read(out);
+	}
+
+	@Test
+	public void testPartialRecord() throws IOException {
+		Map<String, List<Value>> out = new HashMap<>();
+		out.put("TEST-NAME", createValues(0, 2, true));
+		TrackerDataStore store = new TrackerDataStore(filename);
+		store.write(out);
+		RandomAccessFile file = new RandomAccessFile(filename, "rw");
+		try {
+			file.seek(file.length());
+			file.write(new byte[] {4, 0, 0, 1, 0, 1, 2}); //Partial record
+		} finally {
+			file.close();
+		}
+		store = new TrackerDataStore(filename);
+		read(out, store);
+		out.get("TEST-NAME").addAll(createValues(2, 1, true));
+		store.write(out);
+		read(out);
+	}
+
+	@Test
+	public void testSharedAssetID() throws IOException {
+		AssetValue first = AssetValue.create("shared location first", null, null);
+		AssetValue second = AssetValue.create("shared location second", null, null);
+		Map<String, List<Value>> out = new HashMap<>();
+		List<Value> values = new ArrayList<>();
+		values.add(createValue(0, first, 1));
+		values.add(createValue(1, second, 2));
+		out.put("TEST-NAME", values);
+		new TrackerDataStore(filename).write(out); //first = 0, second = 1
+		//Asset ID 1 renamed to the same location as asset ID 0 (AssetValue.updateData())
+		writeAssetRecord(1, "shared location first");
+		values.set(1, createValue(1, first, 2));
+		TrackerDataStore store = new TrackerDataStore(filename);
+		read(out, store); //Two IDs, one AssetValue
+		//Append a new asset: must not reuse asset ID 1
+		values.add(createValue(2, AssetValue.create("shared location third", null, null), 3));
+		store.write(out);
+		read(out);
+	}
+
+	@Test
+	public void testInterruptedCompaction() {
+		Map<String, List<Value>> out = new HashMap<>();
+		out.put("TEST-NAME", createValues(0, 2, true));
+		new TrackerDataStore(filename).write(out);
+		//Interrupted after .dat => .bac but before .new => .dat
+		assertTrue(new File(filename).renameTo(new File("tracker_store_test.new")));
+		TrackerDataStore store = new TrackerDataStore(filename);
+		assertTrue(store.restore());
+		read(out, store);
+	}
+
+	@Test
+	public void testCorruptStoreImportsLegacy() throws IOException {
+		Map<String, List<Value>> out = new HashMap<>();
+		out.put("TEST-LEGACY", createValues(0, 2, true));
+		TrackerDataWriter.save(legacyFilename, out, false);
+		//Corrupt store without .new or .bac to restore from
+		RandomAccessFile file = new RandomAccessFile(filename, "rw");
+		try {
+			file.writeInt(0); //Not the magic number
+			file.writeInt(0);
+		} finally {
+			file.close();
+		}
+		Map<String, List<Value>> in = TrackerDataReader.load(new TrackerDataStore(filename), legacyFilename, false);
+		assertThat(in.keySet(), equalTo(out.keySet()));
+		assertTrue(new File("tracker_store_test.error1").exists()); //Corrupt store kept
+		read(out); //Imported to the store
+	}
+
+	private void writeAssetRecord(int id, String location) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(bytes);
+		data.writeInt(id);
+		byte[] string = location.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(string.length);
+		data.write(string);
+		data.writeBoolean(false); //Flag
+		data.writeBoolean(false); //LocationID
+		data.flush();
+		byte[] payload = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		RandomAccessFile file = new RandomAccessFile(filename, "rw");
+		try {
+			file.seek(file.length());
+			file.writeByte(2); //ASSET
+			file.writeInt(payload.length);
+			file.write(payload);
+			file.writeInt((int) crc.getValue());
+		} finally {
+			file.close();
+		}
+	}
+
+	private Value createValue(int i, AssetValue assetValue, double assets) {
+		Value value = createValues(i, 1, false).get(0);
+		value.setAssetsTotal(0);
+		value.addAssets(assetValue, assets);
+		return value;
+	}
+
+	private List<Value> createValues(int from, int count, boolean filters) {
+		List<Value> values = new ArrayList<>();
+		for (int i = from; i < from + count; i++) {
+			Value value = new Value(new Date(1552492124589L + i * 3600000L));
+			if (filters) {
+				value.addAssets(AssetValue.create("location", "flag", 1000L), 9.0 + i);
+				value.addAssets(AssetValue.create("location " + i, null, null), 1.5 * i);
+				value.addBalance("balance-id", 10 + i);
+			} else {
+				value.setAssetsTotal(1 + i);
+				value.setBalanceTotal(2 + i);
+			}
+			value.setContractCollateral(3);
+			value.setContractValue(4);
+			value.setEscrows(5);
+			value.setEscrowsToCover(6);
+			value.setManufacturing(7);
+			value.setSellOrders(8);
+			value.setSkillPoints(11 + i);
+			values.add(value);
+		}
+		return values;
+	}
+
+	private void read(Map<String, List<Value>> out) {
+		read(out, new TrackerDataStore(filename));
+	}
+
+	private void read(Map<String, List<Value>> out, TrackerDataStore store) {
+		Map<String, List<Value>> in = store.read(false);
+		assertThat(in.keySet(), equalTo(out.keySet()));
+		for (String key : in.keySet()) {
+			List<Value> outValues = out.get(key);
+			List<Value> inValues = in.get(key);
+			assertThat(inValues.size(), equalTo(outValues.size()));
+			for (int i = 0; i < inValues.size(); i++) {
+				Value outValue = outValues.get(i);
+				Value inValue = inValues.get(i);
+				assertThat(inValue.getDate(), equalTo(outValue.getDate()));
+				assertThat(inValue.getAssetsFilter(), equalTo(outValue.getAssetsFilter()));
+				assertThat(inValue.getAssetsTotal(), equalTo(outValue.getAssetsTotal()));
+				assertThat(inValue.getBalanceFilter(), equalTo(outValue.getBalanceFilter()));
+				assertThat(inValue.getBalanceTotal(), equalTo(outValue.getBalanceTotal()));
+				assertThat(inValue.getContractCollateral(), equalTo(outValue.getContractCollateral()));
+				assertThat(inValue.getContractValue(), equalTo(outValue.getContractValue()));
+				assertThat(inValue.getEscrows(), equalTo(outValue.getEscrows()));
+				assertThat(inValue.getEscrowsToCover(), equalTo(outValue.getEscrowsToCover()));
+				assertThat(inValue.getManufacturing(), equalTo(outValue.getManufacturing()));
+				assertThat(inValue.getSellOrders(), equalTo(outValue.getSellOrders()));
+				assertThat(inValue.getSkillPoints(), equalTo(outValue.getSkillPoints()));
+			}
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.io.shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
+import net.nikr.eve.jeveasset.io.shared.UpdatePipeline.Node;
+import net.nikr.eve.jeveasset.io.shared.UpdatePipeline.RunnableFactory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class UpdatePipelineTest extends TestUtil {
+
+	@Test
+	public void testDependencies() {
+		final List<String> done = Collections.synchronizedList(new ArrayList<>());
+		UpdatePipeline pipeline = new UpdatePipeline();
+		UpdateTask step1 = new TestTask();
+		UpdateTask step2 = new TestTask();
+		Node owner = pipeline.add(step1, new TestFactory(done, "owner", null));
+		Node assets = pipeline.add(step2, new TestFactory(done, "assets", null), owner);
+		pipeline.add(step2, new TestFactory(done, "locations", null), assets);
+		pipeline.waitFor(step1, true);
+		pipeline.waitFor(step2, true);
+		assertEquals(3, done.size());
+		assertEquals("owner", done.get(0));
+		assertEquals("assets", done.get(1));
+		assertEquals("locations", done.get(2));
+		assertEquals(100, step2.getProgress());
+	}
+
+	@Test
+	public void testSlowOwner() throws InterruptedException {
+		final List<String> done = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch slow = new CountDownLatch(1);
+		final CountDownLatch fast = new CountDownLatch(1);
+		UpdatePipeline pipeline = new UpdatePipeline();
+		UpdateTask step1 = new TestTask();
+		UpdateTask step2 = new TestTask();
+		//Owner 1: Slow assets
+		Node slowAssets = pipeline.add(step1, new TestFactory(done, "slow assets", slow));
+		pipeline.add(step2, new TestFactory(done, "slow locations", null), slowAssets);
+		//Owner 2: Fast assets
+		Node fastAssets = pipeline.add(step1, new TestFactory(done, "fast assets", null));
+		pipeline.add(step2, new TestFactory(done, "fast locations", null) {
+			@Override
+			public Runnable create() {
+				final Runnable runnable = super.create();
+				return new Runnable() {
+					@Override
+					public void run() {
+						runnable.run();
+						fast.countDown();
+					}
+				};
+			}
+		}, fastAssets);
+		pipeline.start();
+		//Owner 2 locations are done, while owner 1 assets are still running
+		assertTrue(fast.await(10, TimeUnit.SECONDS));
+		assertFalse(done.contains("slow assets"));
+		slow.countDown();
+		pipeline.waitFor(step1, true);
+		pipeline.waitFor(step2, true);
+		assertEquals(4, done.size());
+		assertTrue(done.indexOf("slow assets") < done.indexOf("slow locations"));
+	}
+
+	@Test
+	public void testCancel() {
+		final List<String> done = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch latch = new CountDownLatch(1);
+		UpdatePipeline pipeline = new UpdatePipeline();
+		UpdateTask step1 = new TestTask();
+		UpdateTask step2 = new TestTask();
+		Node owner = pipeline.add(step1, new TestFactory(done, "owner", latch));
+		pipeline.add(step2, new TestFactory(done, "assets", null), owner);
+		pipeline.start();
+		pipeline.cancel();
+		latch.countDown();
+		pipeline.waitFor(step1, true);
+		pipeline.waitFor(step2, true);
+		assertTrue(pipeline.isCancelled());
+		assertFalse(done.contains("assets"));
+	}
+
+	private static class TestFactory implements RunnableFactory {
+
+		private final List<String> done;
+		private final String name;
+		private final CountDownLatch latch;
+
+		public TestFactory(List<String> done, String name, CountDownLatch latch) {
+			this.done = done;
+			this.name = name;
+			this.latch = latch;
+		}
+
+		@Override
+		public Runnable create() {
+			return new Runnable() {
+				@Override
+				public void run() {
+					if (latch != null) {
+						try {
+							latch.await();
+						} catch (InterruptedException ex) {
+							return; //Cancelled
+						}
+					}
+					done.add(name);
+				}
+			};
+		}
+	}
+
+	private static class TestTask extends UpdateTask {
+
+		public TestTask() {
+			super("Test");
+		}
+
+		@Override
+		public void update() { }
+	}
+}